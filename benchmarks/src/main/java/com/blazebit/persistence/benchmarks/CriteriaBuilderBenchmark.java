@@ -0,0 +1,90 @@
+/*
+ * SPDX-License-Identifier: Apache-2.0
+ * Copyright Blazebit
+ */
+
+package com.blazebit.persistence.benchmarks;
+
+import com.blazebit.persistence.CriteriaBuilder;
+import com.blazebit.persistence.CriteriaBuilderFactory;
+import com.blazebit.persistence.PaginatedCriteriaBuilder;
+import com.blazebit.persistence.benchmarks.model.Document;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import javax.persistence.EntityManager;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the creation of criteria builders through the fluent API and the rendering of the JPQL query strings,
+ * including the id and count queries of paginated criteria builders.
+ *
+ * @author Christian Beikov
+ * @since 1.6.19
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CriteriaBuilderBenchmark {
+
+    private CriteriaBuilderFactory cbf;
+    private EntityManager em;
+
+    @Setup(Level.Trial)
+    public void setup(PersistenceState state) {
+        cbf = state.getCriteriaBuilderFactory();
+        em = state.getEntityManagerFactory().createEntityManager();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        em.close();
+    }
+
+    @Benchmark
+    public CriteriaBuilder<Document> create() {
+        return createCriteriaBuilder();
+    }
+
+    @Benchmark
+    public String getQueryString() {
+        return createCriteriaBuilder().getQueryString();
+    }
+
+    @Benchmark
+    public void paginatedQueryStrings(Blackhole blackhole) {
+        PaginatedCriteriaBuilder<Document> cb = createCriteriaBuilder()
+                .leftJoinFetch("d.contacts", "c")
+                .page(0, 10);
+        blackhole.consume(cb.getPageIdQueryString());
+        blackhole.consume(cb.getPageCountQueryString());
+        blackhole.consume(cb.getQueryString());
+    }
+
+    private CriteriaBuilder<Document> createCriteriaBuilder() {
+        return cbf.create(em, Document.class, "d")
+                .innerJoin("d.owner", "o")
+                .where("d.name").like().value("Document%").noEscape()
+                .where("o.age").ge(10L)
+                .whereOr()
+                    .where("d.age").lt(50L)
+                    .where("UPPER(o.name)").eq("PERSON 1")
+                .endOr()
+                .orderByDesc("d.age")
+                .orderByAsc("d.id");
+    }
+}
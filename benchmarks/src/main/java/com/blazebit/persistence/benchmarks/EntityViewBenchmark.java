@@ -0,0 +1,95 @@
+/*
+ * SPDX-License-Identifier: Apache-2.0
+ * Copyright Blazebit
+ */
+
+package com.blazebit.persistence.benchmarks;
+
+import com.blazebit.persistence.CriteriaBuilder;
+import com.blazebit.persistence.CriteriaBuilderFactory;
+import com.blazebit.persistence.ObjectBuilder;
+import com.blazebit.persistence.PaginatedCriteriaBuilder;
+import com.blazebit.persistence.benchmarks.model.Document;
+import com.blazebit.persistence.benchmarks.view.DocumentView;
+import com.blazebit.persistence.impl.query.ObjectBuilderTypedQuery;
+import com.blazebit.persistence.view.EntityViewManager;
+import com.blazebit.persistence.view.EntityViewSetting;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import javax.persistence.EntityManager;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures applying entity view settings to criteria builders and the materialization of entity views
+ * from already fetched tuples through the {@link ObjectBuilder} of the entity view.
+ *
+ * @author Christian Beikov
+ * @since 1.6.19
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class EntityViewBenchmark {
+
+    private CriteriaBuilderFactory cbf;
+    private EntityViewManager evm;
+    private EntityManager em;
+    // Object builders for views with collections produce intermediate tuples in build that are reduced in buildList
+    private ObjectBuilder<Object> objectBuilder;
+    private List<Object[]> tuples;
+
+    @Setup(Level.Trial)
+    @SuppressWarnings("unchecked")
+    public void setup(PersistenceState state) {
+        cbf = state.getCriteriaBuilderFactory();
+        evm = state.getEntityViewManager();
+        em = state.getEntityManagerFactory().createEntityManager();
+
+        CriteriaBuilder<DocumentView> cb = evm.applySetting(EntityViewSetting.create(DocumentView.class), cbf.create(em, Document.class).orderByAsc("id"));
+        ObjectBuilderTypedQuery<Object> query = (ObjectBuilderTypedQuery<Object>) (ObjectBuilderTypedQuery<?>) cb.getQuery();
+        objectBuilder = query.getObjectBuilder();
+        tuples = (List<Object[]>) (List<?>) query.getDelegate().getResultList();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        em.close();
+    }
+
+    @Benchmark
+    public CriteriaBuilder<DocumentView> applySetting() {
+        return evm.applySetting(EntityViewSetting.create(DocumentView.class), cbf.create(em, Document.class));
+    }
+
+    @Benchmark
+    public PaginatedCriteriaBuilder<DocumentView> applyPaginatedSetting() {
+        return evm.applySetting(EntityViewSetting.create(DocumentView.class, 0, 10), cbf.create(em, Document.class).orderByAsc("id"));
+    }
+
+    @Benchmark
+    public List<Object> build() {
+        int size = tuples.size();
+        List<Object> list = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            // The object builder might modify the tuple, so we pass a copy
+            list.add(objectBuilder.build(tuples.get(i).clone()));
+        }
+        return objectBuilder.buildList(list);
+    }
+}
@@ -0,0 +1,74 @@
+/*
+ * SPDX-License-Identifier: Apache-2.0
+ * Copyright Blazebit
+ */
+
+package com.blazebit.persistence.benchmarks;
+
+import com.blazebit.persistence.CriteriaBuilderFactory;
+import com.blazebit.persistence.benchmarks.model.Document;
+import com.blazebit.persistence.benchmarks.view.DocumentUpdateView;
+import com.blazebit.persistence.view.EntityViewManager;
+import com.blazebit.persistence.view.EntityViewSetting;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import javax.persistence.EntityManager;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures flushing changes of updatable entity views to the database through {@link EntityViewManager#save(EntityManager, Object)}.
+ *
+ * @author Christian Beikov
+ * @since 1.6.19
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class EntityViewUpdateBenchmark {
+
+    private EntityViewManager evm;
+    private EntityManager em;
+    private List<DocumentUpdateView> views;
+    private int counter;
+
+    @Setup(Level.Trial)
+    public void setup(PersistenceState state) {
+        CriteriaBuilderFactory cbf = state.getCriteriaBuilderFactory();
+        evm = state.getEntityViewManager();
+        em = state.getEntityManagerFactory().createEntityManager();
+        views = evm.applySetting(EntityViewSetting.create(DocumentUpdateView.class), cbf.create(em, Document.class).orderByAsc("id").setMaxResults(10))
+                .getResultList();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        em.close();
+    }
+
+    @Benchmark
+    public void flush() {
+        em.getTransaction().begin();
+        for (int i = 0; i < views.size(); i++) {
+            DocumentUpdateView view = views.get(i);
+            view.setName("Document " + counter++);
+            evm.save(em, view);
+        }
+        em.getTransaction().commit();
+        em.clear();
+    }
+}
@@ -0,0 +1,95 @@
+/*
+ * SPDX-License-Identifier: Apache-2.0
+ * Copyright Blazebit
+ */
+
+package com.blazebit.persistence.benchmarks;
+
+import com.blazebit.persistence.integration.graphql.BinaryGraphQLCursorCodec;
+import com.blazebit.persistence.integration.graphql.GraphQLCursor;
+import com.blazebit.persistence.integration.graphql.GraphQLCursorCodec;
+import com.blazebit.persistence.integration.graphql.JavaSerializationGraphQLCursorCodec;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.Serializable;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the encoding and decoding time of GraphQL relay cursors for the {@link JavaSerializationGraphQLCursorCodec} and the {@link BinaryGraphQLCursorCodec}.
+ *
+ * @author Christian Beikov
+ * @since 1.6.19
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class GraphQLCursorBenchmark {
+
+    @Param({ "serialization", "binary" })
+    private String codecName;
+    @Param({ "id", "mixed" })
+    private String keyset;
+
+    private GraphQLCursorCodec codec;
+    private GraphQLCursor cursor;
+    private String encodedCursor;
+
+    @Setup
+    public void setup() {
+        if ("binary".equals(codecName)) {
+            codec = new BinaryGraphQLCursorCodec();
+        } else {
+            codec = new JavaSerializationGraphQLCursorCodec(new HashSet<>(Arrays.asList(
+                Serializable[].class.getName(),
+                Number.class.getName(),
+                Long.class.getName(),
+                String.class.getName(),
+                BigDecimal.class.getName(),
+                BigInteger.class.getName(),
+                byte[].class.getName(),
+                UUID.class.getName(),
+                LocalDate.class.getName(),
+                Instant.class.getName(),
+                "java.time.Ser"
+            )));
+        }
+        Serializable[] tuple;
+        if ("id".equals(keyset)) {
+            tuple = new Serializable[]{ 123456789L };
+        } else {
+            tuple = new Serializable[]{ "Some name", new BigDecimal("1234.56"), LocalDate.of(2020, 1, 1), Instant.ofEpochSecond(1600000000L), UUID.randomUUID(), 123456789L };
+        }
+        cursor = new GraphQLCursor(100, 20, tuple);
+        encodedCursor = codec.encode(cursor);
+    }
+
+    @Benchmark
+    public String encode() {
+        return codec.encode(cursor);
+    }
+
+    @Benchmark
+    public GraphQLCursor decode() {
+        return codec.decode(encodedCursor);
+    }
+}
@@ -0,0 +1,93 @@
+/*
+ * SPDX-License-Identifier: Apache-2.0
+ * Copyright Blazebit
+ */
+
+package com.blazebit.persistence.benchmarks;
+
+import com.blazebit.persistence.parser.CompiledJsonParser;
+import com.blazebit.persistence.parser.JsonParser;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the generic {@link JsonParser} with the {@link CompiledJsonParser} for MULTISET JSON results
+ * as produced by the JSON functions of the databases i.e. an array of objects with string values.
+ *
+ * @author Christian Beikov
+ * @since 1.6.19
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class JsonParserBenchmark {
+
+    @Param({ "10", "1000" })
+    private int rows;
+    @Param({ "4", "16" })
+    private int fieldCount;
+    @Param({ "false", "true" })
+    private boolean escapes;
+
+    private String[] fields;
+    private CompiledJsonParser compiledParser;
+    private String json;
+
+    @Setup
+    public void setup() {
+        fields = new String[fieldCount];
+        for (int i = 0; i < fieldCount; i++) {
+            fields[i] = "f" + i;
+        }
+        compiledParser = CompiledJsonParser.compile(fields);
+
+        StringBuilder sb = new StringBuilder();
+        sb.append('[');
+        for (int i = 0; i < rows; i++) {
+            if (i != 0) {
+                sb.append(',');
+            }
+            sb.append('{');
+            for (int j = 0; j < fieldCount; j++) {
+                if (j != 0) {
+                    sb.append(',');
+                }
+                sb.append('"').append(fields[j]).append("\":\"");
+                if (escapes && j == 1) {
+                    sb.append("Name \\\"").append(i).append("\\\"\\n");
+                } else {
+                    sb.append("value").append(i * fieldCount + j);
+                }
+                sb.append('"');
+            }
+            sb.append('}');
+        }
+        sb.append(']');
+        json = sb.toString();
+    }
+
+    @Benchmark
+    public List<Object[]> jsonParser() {
+        return JsonParser.parseStringOnly(json, fields);
+    }
+
+    @Benchmark
+    public List<Object[]> compiledJsonParser() {
+        return compiledParser.parse(json);
+    }
+}
@@ -0,0 +1,93 @@
+/*
+ * SPDX-License-Identifier: Apache-2.0
+ * Copyright Blazebit
+ */
+
+package com.blazebit.persistence.benchmarks;
+
+import com.blazebit.persistence.Criteria;
+import com.blazebit.persistence.CriteriaBuilderFactory;
+import com.blazebit.persistence.benchmarks.model.Document;
+import com.blazebit.persistence.benchmarks.model.Person;
+import com.blazebit.persistence.benchmarks.view.DocumentUpdateView;
+import com.blazebit.persistence.benchmarks.view.DocumentView;
+import com.blazebit.persistence.benchmarks.view.PersonView;
+import com.blazebit.persistence.view.EntityViewManager;
+import com.blazebit.persistence.view.EntityViews;
+import com.blazebit.persistence.view.spi.EntityViewConfiguration;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import javax.persistence.EntityManager;
+import javax.persistence.EntityManagerFactory;
+import javax.persistence.Persistence;
+
+/**
+ * Bootstraps an in-memory H2 database with Hibernate, the {@link CriteriaBuilderFactory} and the {@link EntityViewManager}
+ * and populates it with documents that are shared by all benchmarks.
+ *
+ * @author Christian Beikov
+ * @since 1.6.19
+ */
+@State(Scope.Benchmark)
+public class PersistenceState {
+
+    public static final int DOCUMENT_COUNT = 100;
+    public static final int CONTACTS_PER_DOCUMENT = 3;
+
+    private EntityManagerFactory emf;
+    private CriteriaBuilderFactory cbf;
+    private EntityViewManager evm;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        emf = Persistence.createEntityManagerFactory("benchmarks");
+        cbf = Criteria.getDefault().createCriteriaBuilderFactory(emf);
+        EntityViewConfiguration configuration = EntityViews.createDefaultConfiguration();
+        configuration.addEntityView(PersonView.class);
+        configuration.addEntityView(DocumentView.class);
+        configuration.addEntityView(DocumentUpdateView.class);
+        evm = configuration.createEntityViewManager(cbf);
+
+        EntityManager em = emf.createEntityManager();
+        try {
+            em.getTransaction().begin();
+            Person[] people = new Person[DOCUMENT_COUNT];
+            for (int i = 0; i < DOCUMENT_COUNT; i++) {
+                people[i] = new Person("Person " + i, i);
+                em.persist(people[i]);
+            }
+            for (int i = 0; i < DOCUMENT_COUNT; i++) {
+                Document document = new Document("Document " + i, i, people[i]);
+                for (int j = 1; j <= CONTACTS_PER_DOCUMENT; j++) {
+                    document.getContacts().add(people[(i + j) % DOCUMENT_COUNT]);
+                }
+                em.persist(document);
+            }
+            em.getTransaction().commit();
+        } finally {
+            em.close();
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        evm.close();
+        emf.close();
+    }
+
+    public EntityManagerFactory getEntityManagerFactory() {
+        return emf;
+    }
+
+    public CriteriaBuilderFactory getCriteriaBuilderFactory() {
+        return cbf;
+    }
+
+    public EntityViewManager getEntityViewManager() {
+        return evm;
+    }
+}
@@ -0,0 +1,84 @@
+/*
+ * SPDX-License-Identifier: Apache-2.0
+ * Copyright Blazebit
+ */
+
+package com.blazebit.persistence.benchmarks.model;
+
+import javax.persistence.Entity;
+import javax.persistence.FetchType;
+import javax.persistence.GeneratedValue;
+import javax.persistence.Id;
+import javax.persistence.JoinTable;
+import javax.persistence.ManyToMany;
+import javax.persistence.ManyToOne;
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * @author Christian Beikov
+ * @since 1.6.19
+ */
+@Entity
+public class Document {
+
+    private Long id;
+    private String name;
+    private long age;
+    private Person owner;
+    private Set<Person> contacts = new HashSet<>();
+
+    public Document() {
+    }
+
+    public Document(String name, long age, Person owner) {
+        this.name = name;
+        this.age = age;
+        this.owner = owner;
+    }
+
+    @Id
+    @GeneratedValue
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public void setName(String name) {
+        this.name = name;
+    }
+
+    public long getAge() {
+        return age;
+    }
+
+    public void setAge(long age) {
+        this.age = age;
+    }
+
+    @ManyToOne(fetch = FetchType.LAZY, optional = false)
+    public Person getOwner() {
+        return owner;
+    }
+
+    public void setOwner(Person owner) {
+        this.owner = owner;
+    }
+
+    @ManyToMany
+    @JoinTable(name = "document_contacts")
+    public Set<Person> getContacts() {
+        return contacts;
+    }
+
+    public void setContacts(Set<Person> contacts) {
+        this.contacts = contacts;
+    }
+}
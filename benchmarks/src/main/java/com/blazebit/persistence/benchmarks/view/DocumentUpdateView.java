@@ -0,0 +1,31 @@
+/*
+ * SPDX-License-Identifier: Apache-2.0
+ * Copyright Blazebit
+ */
+
+package com.blazebit.persistence.benchmarks.view;
+
+import com.blazebit.persistence.benchmarks.model.Document;
+import com.blazebit.persistence.view.EntityView;
+import com.blazebit.persistence.view.IdMapping;
+import com.blazebit.persistence.view.UpdatableEntityView;
+
+/**
+ * @author Christian Beikov
+ * @since 1.6.19
+ */
+@UpdatableEntityView
+@EntityView(Document.class)
+public interface DocumentUpdateView {
+
+    @IdMapping
+    public Long getId();
+
+    public String getName();
+
+    public void setName(String name);
+
+    public long getAge();
+
+    public void setAge(long age);
+}
@@ -0,0 +1,35 @@
+/*
+ * SPDX-License-Identifier: Apache-2.0
+ * Copyright Blazebit
+ */
+
+package com.blazebit.persistence.benchmarks.view;
+
+import com.blazebit.persistence.benchmarks.model.Document;
+import com.blazebit.persistence.view.EntityView;
+import com.blazebit.persistence.view.IdMapping;
+import com.blazebit.persistence.view.Mapping;
+
+import java.util.Set;
+
+/**
+ * @author Christian Beikov
+ * @since 1.6.19
+ */
+@EntityView(Document.class)
+public interface DocumentView {
+
+    @IdMapping
+    public Long getId();
+
+    public String getName();
+
+    public long getAge();
+
+    public PersonView getOwner();
+
+    @Mapping("UPPER(owner.name)")
+    public String getOwnerName();
+
+    public Set<PersonView> getContacts();
+}
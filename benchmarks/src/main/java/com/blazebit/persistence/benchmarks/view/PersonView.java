@@ -0,0 +1,23 @@
+/*
+ * SPDX-License-Identifier: Apache-2.0
+ * Copyright Blazebit
+ */
+
+package com.blazebit.persistence.benchmarks.view;
+
+import com.blazebit.persistence.benchmarks.model.Person;
+import com.blazebit.persistence.view.EntityView;
+import com.blazebit.persistence.view.IdMapping;
+
+/**
+ * @author Christian Beikov
+ * @since 1.6.19
+ */
+@EntityView(Person.class)
+public interface PersonView {
+
+    @IdMapping
+    public Long getId();
+
+    public String getName();
+}
@@ -0,0 +1,62 @@
+/*
+ * SPDX-License-Identifier: Apache-2.0
+ * Copyright Blazebit
+ */
+
+package com.blazebit.persistence;
+
+/**
+ * Statistics about the usage of a bounded cache.
+ *
+ * @author Christian Beikov
+ * @since 1.6.19
+ */
+public interface CacheStatistics {
+
+    /**
+     * Returns the current number of entries in the cache.
+     *
+     * @return the number of entries
+     */
+    public int getSize();
+
+    /**
+     * Returns the maximum number of entries the cache holds before evicting entries.
+     *
+     * @return the maximum size
+     */
+    public int getMaximumSize();
+
+    /**
+     * Returns the number of cache lookups that found an entry.
+     *
+     * @return the hit count
+     */
+    public long getHitCount();
+
+    /**
+     * Returns the number of cache lookups that found no entry.
+     *
+     * @return the miss count
+     */
+    public long getMissCount();
+
+    /**
+     * Returns the number of entries that were evicted to respect the maximum size.
+     *
+     * @return the eviction count
+     */
+    public long getEvictionCount();
+
+    /**
+     * Returns the ratio of hits to lookups or <code>0</code> if there were no lookups yet.
+     *
+     * @return the hit ratio
+     */
+    public double getHitRatio();
+
+    /**
+     * Resets the hit, miss and eviction counters.
+     */
+    public void clearStatistics();
+}
@@ -97,6 +97,17 @@ public final class ConfigurationProperties {
      */
     public static final String EXPRESSION_CACHE_CLASS = "com.blazebit.persistence.expression.cache_class";
 
+    /**
+     * The maximum number of entries per cache name of the expression cache.
+     * This is only applicable for expression cache implementations that have a constructor accepting an <code>int</code> i.e.
+     * <code>com.blazebit.persistence.parser.expression.BoundedExpressionCache</code>.
+     * Valid values for this property are positive integers.
+     * By default, the expression cache implementation decides about the maximum size.
+     *
+     * @since 1.6.19
+     */
+    public static final String EXPRESSION_CACHE_MAXIMUM_SIZE = "com.blazebit.persistence.expression.cache_maximum_size";
+
     /**
      * If set to false, tuples of a VALUES clause with all null values won't be filtered out.
      * Valid values for this property are <code>true</code> or <code>false</code>.
@@ -181,6 +192,73 @@ public final class ConfigurationProperties {
      */
     public static final String QUERY_PLAN_CACHE_ENABLED = "com.blazebit.persistence.query_plan_cache_enabled";
 
+    /**
+     * If set to true, the rendered JPQL query string of a simple query is cached by the structure of the query builder
+     * so that structurally identical query builders can skip implicit join resolution and rendering.
+     * The cache is bypassed for queries with CTEs, set operations, subqueries, entity functions, keyset pagination
+     * or when rendering depends on parameter values.
+     * Statistics about the cache are available via {@link QueryStringCacheStatistics}.
+     * Valid values for this property are <code>true</code> and <code>false</code>.
+     * Default is <code>false</code>.
+     *
+     * The property can be changed for a criteria builder before constructing a query.
+     *
+     * @since 1.6.19
+     */
+    public static final String QUERY_STRING_CACHE_ENABLED = "com.blazebit.persistence.query_string_cache_enabled";
+
+    /**
+     * The maximum number of entries in the query string cache.
+     * Valid values for this property are positive integers.
+     * Default is <code>2048</code>.
+     *
+     * @since 1.6.19
+     */
+    public static final String QUERY_STRING_CACHE_MAXIMUM_SIZE = "com.blazebit.persistence.query_string_cache_maximum_size";
+
+    /**
+     * If set to true, an IN predicate with a collection valued parameter is rendered with a single array parameter
+     * i.e. <code>expr = ANY(?)</code> instead of one JDBC parameter per collection element, if the DBMS supports that.
+     * This results in a single SQL statement regardless of the collection size, which helps the query plan caches of the JPA provider
+     * and the database, and avoids parameter count limits.
+     * Array parameter binding is currently supported for PostgreSQL and CockroachDB and only for numeric and string typed expressions.
+     * Valid values for this property are <code>true</code> and <code>false</code>.
+     * Default is <code>false</code>.
+     *
+     * The property can be changed for a criteria builder before constructing a query.
+     *
+     * @since 1.6.19
+     */
+    public static final String IN_ARRAY_PARAMETER_BINDING = "com.blazebit.persistence.in_array_parameter_binding";
+
+    /**
+     * If set to true, collection valued parameters that are expanded to one JDBC parameter per element are padded
+     * to the next power of two by repeating the last element. This bounds the number of distinct SQL statements
+     * for IN predicates to the logarithm of the maximum collection size, which keeps the query plan caches of the JPA provider and the database small.
+     * VALUES clauses created for a collection are sized to the next power of two as well if null values are filtered,
+     * see {@link #VALUES_CLAUSE_FILTER_NULLS}. The property must be set before the VALUES clause is added.
+     * Valid values for this property are <code>true</code> and <code>false</code>.
+     * Default is <code>false</code>.
+     *
+     * The property can be changed for a criteria builder before constructing a query.
+     *
+     * @since 1.6.19
+     */
+    public static final String IN_LIST_PARAMETER_PADDING = "com.blazebit.persistence.in_list_parameter_padding";
+
+    /**
+     * Specifies whether the JSON produced by the <code>TO_MULTISET</code> function should encode every row as JSON array of values
+     * in the order of the select items, rather than as JSON object with a key per select item.
+     * The positional encoding avoids repeating the keys for every row, which reduces the amount of data that is transferred and parsed.
+     * The positional encoding is currently supported for all DBMS except for Microsoft SQL Server, which always uses the object encoding.
+     * Valid values for this property are <code>true</code>, <code>false</code> or a comma separated list of DBMS names
+     * like <code>postgresql,mysql8</code> for which the positional encoding should be used.
+     * Default is <code>false</code>.
+     *
+     * @since 1.6.19
+     */
+    public static final String MULTISET_POSITIONAL_JSON_ENCODING = "com.blazebit.persistence.multiset_positional_json_encoding";
+
     /**
      * If set to true, JPA Criteria predicates are wrapped in a negation predicate instead of copied with negation being propagated.
      * Valid values for this property are <code>true</code> and <code>false</code>.
@@ -0,0 +1,27 @@
+/*
+ * SPDX-License-Identifier: Apache-2.0
+ * Copyright Blazebit
+ */
+
+package com.blazebit.persistence;
+
+/**
+ * An object builder that can provide an object builder for a new query execution.
+ * Only object builders implementing this interface can be used for a {@link QueryTemplate},
+ * because a template may be executed by multiple threads concurrently.
+ *
+ * @param <T> The type that this builder produces
+ * @author Christian Beikov
+ * @since 1.6.19
+ */
+public interface CopyableObjectBuilder<T> extends ObjectBuilder<T> {
+
+    /**
+     * Returns an object builder to use for a new query execution.
+     * Object builders that don't have any execution state may return <code>this</code>.
+     *
+     * @return The object builder to use for a new query execution
+     * @throws IllegalStateException If the object builder depends on state that can't be copied
+     */
+    public ObjectBuilder<T> copy();
+}
@@ -0,0 +1,252 @@
+/*
+ * SPDX-License-Identifier: Apache-2.0
+ * Copyright Blazebit
+ */
+
+package com.blazebit.persistence;
+
+import java.util.AbstractMap;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Factory methods for the built-in {@link CountStrategy} implementations.
+ * Strategies can be combined e.g. <code>cached(skipWhenPageNotFull(exact()), 1, TimeUnit.MINUTES, 1000)</code>.
+ *
+ * @author Christian Beikov
+ * @since 1.6.19
+ */
+public final class CountStrategies {
+
+    private static final CountStrategy EXACT = new CountStrategy() {
+        @Override
+        public long getTotalCount(Context context) {
+            return context.getExactCount();
+        }
+    };
+
+    private static final CountStrategy POSTGRESQL_PLAN_ESTIMATE = new CountStrategy() {
+        @Override
+        public long getTotalCount(Context context) {
+            String sql = context.getCountSql();
+            if (sql == null || !context.getParameterValues().isEmpty()) {
+                return -1L;
+            }
+            List<?> planLines = context.getEntityManager().createNativeQuery("EXPLAIN " + sql).getResultList();
+            // The first line is the aggregate node which will always estimate a single row, so we look at the first child
+            for (int i = 1; i < planLines.size(); i++) {
+                long rows = parseRows(String.valueOf(planLines.get(i)));
+                if (rows != -1L) {
+                    return rows;
+                }
+            }
+            return -1L;
+        }
+    };
+
+    private CountStrategies() {
+    }
+
+    /**
+     * Returns a strategy that always executes the count query.
+     *
+     * @return the exact count strategy
+     */
+    public static CountStrategy exact() {
+        return EXACT;
+    }
+
+    /**
+     * Returns a strategy that derives the exact total count from the page results if the page is not full
+     * and delegates to the given strategy otherwise.
+     *
+     * @param delegate The strategy to use when the page is full
+     * @return the strategy
+     */
+    public static CountStrategy skipWhenPageNotFull(final CountStrategy delegate) {
+        if (delegate == null) {
+            throw new IllegalArgumentException("Invalid null delegate!");
+        }
+        return new CountStrategy() {
+            @Override
+            public long getTotalCount(Context context) {
+                int pageResultCount = context.getPageResultCount();
+                if (pageResultCount > 0 && pageResultCount < context.getMaxResults() || pageResultCount == 0 && context.getFirstResult() == 0) {
+                    return context.getFirstResult() + pageResultCount;
+                }
+                return delegate.getTotalCount(context);
+            }
+        };
+    }
+
+    /**
+     * Returns a strategy that uses the given estimator and falls back to the exact count
+     * if the estimate is negative i.e. not available, or lower than the given threshold.
+     * Counts that are returned from the estimator are marked as estimated.
+     *
+     * @param estimator The strategy producing an estimate
+     * @param exactThreshold The estimate below which the exact count is determined instead
+     * @return the strategy
+     */
+    public static CountStrategy estimated(final CountStrategy estimator, final long exactThreshold) {
+        if (estimator == null) {
+            throw new IllegalArgumentException("Invalid null estimator!");
+        }
+        return new CountStrategy() {
+            @Override
+            public long getTotalCount(Context context) {
+                long estimate = estimator.getTotalCount(context);
+                if (estimate < 0L || estimate < exactThreshold) {
+                    return context.getExactCount();
+                }
+                context.markEstimated();
+                return estimate;
+            }
+        };
+    }
+
+    /**
+     * Returns an estimator for PostgreSQL that uses the row estimate of the execution plan of the count query.
+     * The estimator returns <code>-1</code> if the SQL is not available or the count query has parameters,
+     * so it should be used with {@link #estimated(CountStrategy, long)}.
+     * Count queries with parameters are not supported, because the JPQL parameters can't be mapped reliably to the placeholders of the SQL.
+     *
+     * @return the estimator
+     */
+    public static CountStrategy postgresqlPlanEstimate() {
+        return POSTGRESQL_PLAN_ESTIMATE;
+    }
+
+    /**
+     * Returns an estimator for PostgreSQL that uses the row count statistics of the given table i.e. <code>pg_class.reltuples</code>.
+     * This is only a fitting estimate for count queries that select all rows of the table, which is why the estimator
+     * returns <code>-1</code> if the count query has parameters. The estimator also returns <code>-1</code> if the table
+     * has no statistics yet, so it should be used with {@link #estimated(CountStrategy, long)}.
+     *
+     * @param tableName The name of the table of which to use the statistics
+     * @return the estimator
+     */
+    public static CountStrategy postgresqlTableStatisticsEstimate(final String tableName) {
+        if (tableName == null) {
+            throw new IllegalArgumentException("Invalid null table name!");
+        }
+        return new CountStrategy() {
+            @Override
+            public long getTotalCount(Context context) {
+                if (!context.getParameterValues().isEmpty()) {
+                    return -1L;
+                }
+                List<?> result = context.getEntityManager().createNativeQuery("SELECT reltuples FROM pg_class WHERE oid = CAST(?1 AS regclass)")
+                        .setParameter(1, tableName)
+                        .getResultList();
+                if (result.isEmpty() || result.get(0) == null) {
+                    return -1L;
+                }
+                // A table that was never analyzed has a negative row count
+                long rows = ((Number) result.get(0)).longValue();
+                return rows < 0L ? -1L : rows;
+            }
+        };
+    }
+
+    /**
+     * Returns a strategy that caches the counts of the given strategy per count query string and parameter values for the given time.
+     * At most <code>maxEntries</code> counts are cached, evicting the least recently used one.
+     *
+     * @param delegate The strategy of which to cache the counts
+     * @param timeToLive The time to live of a cached count
+     * @param unit The time unit of the time to live
+     * @param maxEntries The maximum number of cached counts
+     * @return the strategy
+     */
+    public static CountStrategy cached(CountStrategy delegate, long timeToLive, TimeUnit unit, int maxEntries) {
+        if (delegate == null) {
+            throw new IllegalArgumentException("Invalid null delegate!");
+        }
+        if (maxEntries < 1) {
+            throw new IllegalArgumentException("Invalid max entries: " + maxEntries);
+        }
+        return new CachingCountStrategy(delegate, unit.toNanos(timeToLive), maxEntries);
+    }
+
+    static long parseRows(String planLine) {
+        int index = planLine.indexOf(" rows=");
+        if (index == -1) {
+            return -1L;
+        }
+        int start = index + " rows=".length();
+        int end = start;
+        while (end < planLine.length() && Character.isDigit(planLine.charAt(end))) {
+            end++;
+        }
+        if (start == end) {
+            return -1L;
+        }
+        return Long.parseLong(planLine.substring(start, end));
+    }
+
+    /**
+     * @author Christian Beikov
+     * @since 1.6.19
+     */
+    private static final class CachingCountStrategy implements CountStrategy {
+
+        private final CountStrategy delegate;
+        private final long timeToLiveNanos;
+        private final Map<Map.Entry<String, Map<String, Object>>, CachedCount> cache;
+
+        public CachingCountStrategy(CountStrategy delegate, long timeToLiveNanos, final int maxEntries) {
+            this.delegate = delegate;
+            this.timeToLiveNanos = timeToLiveNanos;
+            this.cache = new LinkedHashMap<Map.Entry<String, Map<String, Object>>, CachedCount>(16, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<Map.Entry<String, Map<String, Object>>, CachedCount> eldest) {
+                    return size() > maxEntries;
+                }
+            };
+        }
+
+        @Override
+        public long getTotalCount(Context context) {
+            Map.Entry<String, Map<String, Object>> key = new AbstractMap.SimpleImmutableEntry<String, Map<String, Object>>(
+                    context.getCountQueryString(),
+                    new HashMap<>(context.getParameterValues())
+            );
+            long now = System.nanoTime();
+            CachedCount cachedCount;
+            synchronized (cache) {
+                cachedCount = cache.get(key);
+            }
+            if (cachedCount == null || now - cachedCount.createdNanos >= timeToLiveNanos) {
+                long count = delegate.getTotalCount(context);
+                cachedCount = new CachedCount(count, context.isEstimated(), now);
+                synchronized (cache) {
+                    cache.put(key, cachedCount);
+                }
+            } else if (cachedCount.estimated) {
+                context.markEstimated();
+            }
+            return cachedCount.count;
+        }
+    }
+
+    /**
+     * @author Christian Beikov
+     * @since 1.6.19
+     */
+    private static final class CachedCount {
+
+        private final long count;
+        private final boolean estimated;
+        private final long createdNanos;
+
+        public CachedCount(long count, boolean estimated, long createdNanos) {
+            this.count = count;
+            this.estimated = estimated;
+            this.createdNanos = createdNanos;
+        }
+    }
+}
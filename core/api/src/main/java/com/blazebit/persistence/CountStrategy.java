@@ -0,0 +1,109 @@
+/*
+ * SPDX-License-Identifier: Apache-2.0
+ * Copyright Blazebit
+ */
+
+package com.blazebit.persistence;
+
+import javax.persistence.EntityManager;
+import java.util.Map;
+
+/**
+ * A strategy for determining the total count of a paginated query.
+ * By default, the total count is determined by executing the count query. A count strategy can avoid the count query
+ * altogether, estimate the count or serve it from a cache.
+ *
+ * @author Christian Beikov
+ * @since 1.6.19
+ * @see PaginatedCriteriaBuilder#withCountStrategy(CountStrategy)
+ * @see CountStrategies
+ */
+public interface CountStrategy {
+
+    /**
+     * Returns the total count for the paginated query described by the given context.
+     * If the returned value is not the exact count, the strategy must invoke {@link Context#markEstimated()}.
+     *
+     * @param context The context of the paginated query
+     * @return The total count
+     */
+    public long getTotalCount(Context context);
+
+    /**
+     * The context of a paginated query for which a total count is requested.
+     *
+     * @author Christian Beikov
+     * @since 1.6.19
+     */
+    public interface Context {
+
+        /**
+         * Returns the entity manager of the paginated query.
+         *
+         * @return The entity manager
+         */
+        public EntityManager getEntityManager();
+
+        /**
+         * Returns the JPQL query string of the count query.
+         *
+         * @return The count query string
+         */
+        public String getCountQueryString();
+
+        /**
+         * Returns the SQL of the count query or <code>null</code> if it is not available for the JPA provider.
+         *
+         * @return The count query SQL or <code>null</code>
+         */
+        public String getCountSql();
+
+        /**
+         * Returns the values of the parameters of the count query by parameter name.
+         * Positional parameters are keyed by their position.
+         *
+         * @return The parameter values
+         */
+        public Map<String, Object> getParameterValues();
+
+        /**
+         * Returns the position of the first result of the page, numbered from 0.
+         *
+         * @return The position of the first result
+         */
+        public int getFirstResult();
+
+        /**
+         * Returns the maximum number of results of a page.
+         *
+         * @return The maximum number of results
+         */
+        public int getMaxResults();
+
+        /**
+         * Returns the number of results the current page actually contains.
+         *
+         * @return The number of results of the page
+         */
+        public int getPageResultCount();
+
+        /**
+         * Executes the count query and returns the exact total count.
+         *
+         * @return The exact total count
+         */
+        public long getExactCount();
+
+        /**
+         * Marks the total count returned by the strategy as estimated.
+         */
+        public void markEstimated();
+
+        /**
+         * Returns whether the total count was marked as estimated.
+         *
+         * @return true if the total count is estimated, false otherwise
+         */
+        public boolean isEstimated();
+    }
+}
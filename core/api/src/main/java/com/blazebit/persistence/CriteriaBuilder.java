@@ -50,6 +50,19 @@ public interface CriteriaBuilder<T> extends FullQueryBuilder<T, CriteriaBuilder<
      */
     public String getQueryRootCountQueryString(long maximumCount);
 
+    /**
+     * Compiles the built query into an immutable and thread-safe query template that can be executed with any entity manager.
+     * Only queries that are rendered to a plain JPQL query can be compiled, so queries using e.g. CTEs, set operations,
+     * entity functions, keyset pagination or window functions are not supported.
+     * A custom object builder must implement {@link CopyableObjectBuilder} to be usable with a template.
+     * Queries created by the template can also be parameterized through the criteria parameters registered via {@link #registerCriteriaParameter(String, javax.persistence.criteria.ParameterExpression)}.
+     *
+     * @return The query template
+     * @throws IllegalStateException If the query can't be compiled into a template
+     * @since 1.6.19
+     */
+    public QueryTemplate<T> compile();
+
     @Override
     public <Y> CriteriaBuilder<Y> copy(Class<Y> resultClass);
 
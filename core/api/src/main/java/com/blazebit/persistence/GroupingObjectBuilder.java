@@ -0,0 +1,52 @@
+/*
+ * SPDX-License-Identifier: Apache-2.0
+ * Copyright Blazebit
+ */
+
+package com.blazebit.persistence;
+
+/**
+ * An object builder that reduces multiple tuples to a single object in {@link #buildList(java.util.List)},
+ * but only ever reduces tuples that belong to the same group. Such an object builder can be used for streaming results
+ * when the query is ordered such that tuples of the same group are adjacent. When streaming, a query builder appends
+ * <code>ORDER BY</code> items for the select items at {@link #getGroupingTupleIndexes()} that the query isn't ordered by yet
+ * to the streamed query only, and fails if a preceding <code>ORDER BY</code> item refers to a collection element.
+ *
+ * @param <T> The type that this builder produces
+ * @author Christian Beikov
+ * @since 1.6.19
+ */
+public interface GroupingObjectBuilder<T> extends ObjectBuilder<T> {
+
+    /**
+     * Returns whether the objects produced by {@link #build(Object[])} must be reduced via {@link #buildList(java.util.List)}
+     * group by group. If <code>false</code>, every object produced by {@link #build(Object[])} is a final result.
+     *
+     * @return Whether grouping is required
+     */
+    public boolean isGrouping();
+
+    /**
+     * Returns whether the given objects, as produced by {@link #build(Object[])}, belong to the same group.
+     *
+     * @param object1 The first object
+     * @param object2 The second object
+     * @return Whether the objects belong to the same group
+     */
+    public boolean isSameGroup(T object1, T object2);
+
+    /**
+     * Returns the indexes of the tuple elements that identify a group, usually the id of the root object.
+     *
+     * @return The indexes of the tuple elements that identify a group
+     */
+    public int[] getGroupingTupleIndexes();
+
+    /**
+     * Returns the number of adjacent groups that should be reduced at once via {@link #buildList(java.util.List)} when streaming results.
+     * A value greater than 1 allows to batch work across groups, like the loading of correlated data.
+     *
+     * @return The number of groups to reduce at once
+     */
+    public int getGroupBatchSize();
+}
@@ -39,6 +39,16 @@ public interface PagedList<T> extends List<T> {
      */
     public long getTotalSize();
 
+    /**
+     * Returns whether the total size is an estimate rather than the exact total size.
+     * This can only be the case if the total size was determined by a {@link CountStrategy} that estimates counts.
+     *
+     * @return true if the total size is estimated, false otherwise
+     * @since 1.6.19
+     * @see PaginatedCriteriaBuilder#withCountStrategy(CountStrategy)
+     */
+    public boolean isTotalSizeEstimated();
+
     /**
      * Returns the number of this page, numbered from 1.
      * 
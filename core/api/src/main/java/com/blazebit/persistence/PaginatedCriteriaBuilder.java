@@ -124,6 +124,27 @@ public interface PaginatedCriteriaBuilder<T> extends FullQueryBuilder<T, Paginat
      */
     public long getBoundedCount();
 
+    /**
+     * Sets the strategy to use for determining the total count.
+     * A strategy is invoked after the page was fetched, so it can make use of the page results.
+     * Setting a strategy therefore disables the inlining of the count query, see {@link #withInlineCountQuery(boolean)}.
+     * The strategy is not used when the count query is disabled or when navigating to the page of an entity id.
+     *
+     * @param countStrategy the count strategy or <code>null</code> to always execute the count query
+     * @return The query builder for chaining calls
+     * @since 1.6.19
+     * @see CountStrategies
+     */
+    public PaginatedCriteriaBuilder<T> withCountStrategy(CountStrategy countStrategy);
+
+    /**
+     * Returns the strategy to use for determining the total count.
+     *
+     * @return the count strategy or <code>null</code> if the count query is always executed
+     * @since 1.6.19
+     */
+    public CountStrategy getCountStrategy();
+
     /**
      * Forces the use of an id query even if the pagination would not need it.
      *
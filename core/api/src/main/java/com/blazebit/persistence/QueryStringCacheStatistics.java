@@ -0,0 +1,16 @@
+/*
+ * SPDX-License-Identifier: Apache-2.0
+ * Copyright Blazebit
+ */
+
+package com.blazebit.persistence;
+
+/**
+ * Statistics about the query string cache that is enabled via {@link ConfigurationProperties#QUERY_STRING_CACHE_ENABLED}.
+ * An instance can be retrieved via {@code CriteriaBuilderFactory.getService(QueryStringCacheStatistics.class)}.
+ *
+ * @author Christian Beikov
+ * @since 1.6.19
+ */
+public interface QueryStringCacheStatistics extends CacheStatistics {
+}
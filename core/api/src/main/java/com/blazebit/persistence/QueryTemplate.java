@@ -0,0 +1,61 @@
+/*
+ * SPDX-License-Identifier: Apache-2.0
+ * Copyright Blazebit
+ */
+
+package com.blazebit.persistence;
+
+import javax.persistence.EntityManager;
+import javax.persistence.TypedQuery;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * An immutable and thread-safe template of a query that was compiled from a {@link CriteriaBuilder}.
+ * A query template holds the rendered query string along with everything that is necessary to create and parameterize a query,
+ * so that it can be reused across entity managers without building and rendering the query again.
+ *
+ * Parameter values that were set on the criteria builder when compiling the template are used as default values.
+ *
+ * @param <T> The query result type
+ * @author Christian Beikov
+ * @since 1.6.19
+ * @see CriteriaBuilder#compile()
+ */
+public interface QueryTemplate<T> {
+
+    /**
+     * Returns the query string of the template.
+     *
+     * @return The query string
+     */
+    public String getQueryString();
+
+    /**
+     * Returns the names of the parameters of the template.
+     * Positional parameters are represented by their position.
+     *
+     * @return The parameter names
+     */
+    public Set<String> getParameterNames();
+
+    /**
+     * Creates a query for the given entity manager that is parameterized with the default parameter values.
+     *
+     * @param entityManager The entity manager for which to create the query
+     * @return The typed query
+     */
+    public TypedQuery<T> bind(EntityManager entityManager);
+
+    /**
+     * Creates a query for the given entity manager that is parameterized with the given parameter values,
+     * falling back to the default parameter values for parameters that are not contained in the given map.
+     * Positional parameters are keyed by their position.
+     *
+     * @param entityManager The entity manager for which to create the query
+     * @param parameters The parameter values by parameter name
+     * @return The typed query
+     * @throws IllegalArgumentException If a parameter name is not a parameter of the template
+     */
+    public TypedQuery<T> bind(EntityManager entityManager, Map<String, ?> parameters);
+}
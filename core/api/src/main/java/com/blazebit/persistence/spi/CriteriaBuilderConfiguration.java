@@ -30,6 +30,16 @@ public interface CriteriaBuilderConfiguration {
      */
     public CriteriaBuilderConfiguration withPackageOpener(PackageOpener packageOpener);
 
+    /**
+     * Sets the instrumentation that is notified about the time spent in the phases of building and executing queries.
+     * By default, JFR events are emitted when running on Java 11+.
+     *
+     * @param queryInstrumentation The query instrumentation to use
+     * @return this for method chaining
+     * @since 1.6.19
+     */
+    public CriteriaBuilderConfiguration withQueryInstrumentation(QueryInstrumentation queryInstrumentation);
+
     /**
      * Registers the given type under the given name. This makes the type usable for the <code>VALUES</code> clause.
      *
@@ -0,0 +1,23 @@
+/*
+ * SPDX-License-Identifier: Apache-2.0
+ * Copyright Blazebit
+ */
+
+package com.blazebit.persistence.spi;
+
+/**
+ * An object builder may implement this interface to provide the type name with which the {@link QueryInstrumentation} phases
+ * of the query it is applied to are tagged, like e.g. the entity view type. By default, the result type of the query is used.
+ *
+ * @author Christian Beikov
+ * @since 1.6.19
+ */
+public interface InstrumentationTypeProvider {
+
+    /**
+     * Returns the type name to use for instrumentation.
+     *
+     * @return The type name
+     */
+    public String getInstrumentationType();
+}
@@ -0,0 +1,45 @@
+/*
+ * SPDX-License-Identifier: Apache-2.0
+ * Copyright Blazebit
+ */
+
+package com.blazebit.persistence.spi;
+
+/**
+ * Computes a short and stable fingerprint of a query string that can be used to correlate instrumentation data of the same query.
+ *
+ * @author Christian Beikov
+ * @since 1.6.19
+ */
+public final class QueryFingerprint {
+
+    private static final long FNV_OFFSET_BASIS = 0xcbf29ce484222325L;
+    private static final long FNV_PRIME = 0x100000001b3L;
+    private static final char[] HEX = "0123456789abcdef".toCharArray();
+
+    private QueryFingerprint() {
+    }
+
+    /**
+     * Returns the 64-bit FNV-1a hash over the characters of the given query string as 16 hex characters or <code>null</code> if the query is <code>null</code>.
+     *
+     * @param query The query string
+     * @return The fingerprint
+     */
+    public static String of(String query) {
+        if (query == null) {
+            return null;
+        }
+        long hash = FNV_OFFSET_BASIS;
+        for (int i = 0; i < query.length(); i++) {
+            hash ^= query.charAt(i);
+            hash *= FNV_PRIME;
+        }
+        char[] chars = new char[16];
+        for (int i = 15; i >= 0; i--) {
+            chars[i] = HEX[(int) (hash & 0xF)];
+            hash >>>= 4;
+        }
+        return new String(chars);
+    }
+}
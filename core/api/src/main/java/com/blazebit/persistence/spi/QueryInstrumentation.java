@@ -0,0 +1,51 @@
+/*
+ * SPDX-License-Identifier: Apache-2.0
+ * Copyright Blazebit
+ */
+
+package com.blazebit.persistence.spi;
+
+/**
+ * An instrumentation that is notified about the time spent in the various {@link QueryPhase}s of building and executing queries.
+ * By default, JFR events of the type <code>com.blazebit.persistence.QueryPhase</code> are emitted when running on Java 11+.
+ * A custom instrumentation can be configured via {@link CriteriaBuilderConfiguration#withQueryInstrumentation(QueryInstrumentation)}.
+ *
+ * Implementations must be thread safe and should be cheap when disabled, as the instrumentation is invoked for every query.
+ *
+ * @author Christian Beikov
+ * @since 1.6.19
+ */
+public interface QueryInstrumentation {
+
+    /**
+     * Starts timing the given phase.
+     *
+     * @param phase The phase
+     * @return The timer for the phase, never <code>null</code>
+     */
+    public Timer start(QueryPhase phase);
+
+    /**
+     * The timer of a single phase execution.
+     *
+     * @author Christian Beikov
+     * @since 1.6.19
+     */
+    public interface Timer {
+
+        /**
+         * Ends the timing of the phase without reporting it yet. If not invoked, the phase ends when it is committed.
+         */
+        public void end();
+
+        /**
+         * Ends the timing of the phase, if not done already, and reports it.
+         * The query string should only be used to compute a fingerprint via {@link QueryFingerprint#of(String)}
+         * if the phase is actually reported, as that is comparatively expensive.
+         *
+         * @param type The name of the result type i.e. the entity view or entity type, may be <code>null</code>
+         * @param query The JPQL or SQL query string, may be <code>null</code>
+         */
+        public void commit(String type, String query);
+    }
+}
@@ -0,0 +1,44 @@
+/*
+ * SPDX-License-Identifier: Apache-2.0
+ * Copyright Blazebit
+ */
+
+package com.blazebit.persistence.spi;
+
+/**
+ * The phases of building and executing a query that are reported to the {@link QueryInstrumentation}.
+ *
+ * @author Christian Beikov
+ * @since 1.6.19
+ */
+public enum QueryPhase {
+    /**
+     * Applying the selects of an object builder to a query builder e.g. when applying an entity view setting.
+     */
+    BUILDER_CONSTRUCTION,
+    /**
+     * Resolving implicit joins and validating the query builder before rendering.
+     */
+    IMPLICIT_JOIN_RESOLUTION,
+    /**
+     * Rendering the query builder to a JPQL query string.
+     */
+    RENDERING,
+    /**
+     * Rewriting the SQL of the JPA provider through the {@link ExtendedQuerySupport} e.g. for CTEs or entity functions.
+     */
+    SQL_REWRITE,
+    /**
+     * Executing a query with a SQL rewrite through the {@link ExtendedQuerySupport}.
+     */
+    EXECUTION,
+    /**
+     * Building the result objects from the result tuples through an object builder, excluding the execution of the query.
+     */
+    OBJECT_BUILDING,
+    /**
+     * Loading the correlated objects for a batch of correlation keys of an entity view.
+     * The type is the name of the entity view type, followed by <code>#</code> and the path of the correlated attribute.
+     */
+    CORRELATION_BATCH;
+}
@@ -9,6 +9,7 @@ import com.blazebit.persistence.BaseFromQueryBuilder;
 import com.blazebit.persistence.BaseSubqueryBuilder;
 import com.blazebit.persistence.CTEBuilder;
 import com.blazebit.persistence.CaseWhenStarterBuilder;
+import com.blazebit.persistence.CopyableObjectBuilder;
 import com.blazebit.persistence.CriteriaBuilder;
 import com.blazebit.persistence.CriteriaBuilderFactory;
 import com.blazebit.persistence.DefaultKeyset;
@@ -25,6 +26,7 @@ import com.blazebit.persistence.MultipleSubqueryInitiator;
 import com.blazebit.persistence.ObjectBuilder;
 import com.blazebit.persistence.Path;
 import com.blazebit.persistence.PredicateBuilder;
+import com.blazebit.persistence.QueryTemplate;
 import com.blazebit.persistence.RestrictionBuilder;
 import com.blazebit.persistence.ReturningModificationCriteriaBuilderFactory;
 import com.blazebit.persistence.SelectRecursiveCTECriteriaBuilder;
@@ -64,6 +66,7 @@ import com.blazebit.persistence.impl.transform.SimpleTransformerGroup;
 import com.blazebit.persistence.impl.transform.SizeTransformationVisitor;
 import com.blazebit.persistence.impl.transform.SizeTransformerGroup;
 import com.blazebit.persistence.impl.transform.SubqueryRecursiveExpressionVisitor;
+import com.blazebit.persistence.impl.util.ParameterPaddingUtils;
 import com.blazebit.persistence.impl.util.SetView;
 import com.blazebit.persistence.impl.util.SqlUtils;
 import com.blazebit.persistence.parser.AliasReplacementVisitor;
@@ -96,8 +99,11 @@ import com.blazebit.persistence.spi.DbmsStatementType;
 import com.blazebit.persistence.spi.ExtendedAttribute;
 import com.blazebit.persistence.spi.ExtendedManagedType;
 import com.blazebit.persistence.spi.ExtendedQuerySupport;
+import com.blazebit.persistence.spi.InstrumentationTypeProvider;
 import com.blazebit.persistence.spi.JpqlMacro;
 import com.blazebit.persistence.spi.LateralStyle;
+import com.blazebit.persistence.spi.QueryInstrumentation;
+import com.blazebit.persistence.spi.QueryPhase;
 import com.blazebit.persistence.spi.ServiceProvider;
 import com.blazebit.persistence.spi.SetOperationType;
 import com.blazebit.persistence.spi.ValuesStrategy;
@@ -255,7 +261,7 @@ public abstract class AbstractCommonQueryBuilder<QueryResultType, BuilderType, S
 
         this.aliasManager = new AliasManager(queryContext.getParent().aliasManager);
         this.expressionFactory = builder.expressionFactory;
-        this.queryGenerator = new ResolvingQueryGenerator(cbf.getMetamodel(), this.aliasManager, parameterManager, mainQuery.parameterTransformerFactory, mainQuery.jpaProvider, mainQuery.dbmsDialect, mainQuery.registeredFunctions, mainQuery.registeredFunctionNames);
+        this.queryGenerator = new ResolvingQueryGenerator(mainQuery, cbf.getMetamodel(), this.aliasManager, parameterManager, mainQuery.parameterTransformerFactory, mainQuery.jpaProvider, mainQuery.dbmsDialect, mainQuery.registeredFunctions, mainQuery.registeredFunctionNames);
         this.joinManager = new JoinManager(mainQuery, this, queryGenerator, this.aliasManager, queryContext.getParent().joinManager, expressionFactory);
         this.fromClassExplicitlySet = builder.fromClassExplicitlySet;
 
@@ -308,7 +314,7 @@ public abstract class AbstractCommonQueryBuilder<QueryResultType, BuilderType, S
 
         this.aliasManager = new AliasManager(aliasManager);
         this.expressionFactory = expressionFactory;
-        this.queryGenerator = new ResolvingQueryGenerator(cbf.getMetamodel(), this.aliasManager, parameterManager, mainQuery.parameterTransformerFactory, mainQuery.jpaProvider, mainQuery.dbmsDialect, mainQuery.registeredFunctions, mainQuery.registeredFunctionNames);
+        this.queryGenerator = new ResolvingQueryGenerator(mainQuery, cbf.getMetamodel(), this.aliasManager, parameterManager, mainQuery.parameterTransformerFactory, mainQuery.jpaProvider, mainQuery.dbmsDialect, mainQuery.registeredFunctions, mainQuery.registeredFunctionNames);
         this.joinManager = new JoinManager(mainQuery, this, queryGenerator, this.aliasManager, parentJoinManager, expressionFactory);
 
         if (implicitFromClause) {
@@ -867,29 +873,38 @@ public abstract class AbstractCommonQueryBuilder<QueryResultType, BuilderType, S
     }
 
     public <T> BuilderType fromValues(Class<T> valueClass, String alias, Collection<T> values) {
-        BuilderType result = fromValues(valueClass, alias, values.size());
+        BuilderType result = fromValues(valueClass, alias, getValuesCount(values));
         setParameter(alias, values);
         return result;
     }
 
     public BuilderType fromValues(Class<?> entityBaseClass, String attributeName, String alias, Collection<?> values) {
-        BuilderType result = fromValues(entityBaseClass, attributeName, alias, values.size());
+        BuilderType result = fromValues(entityBaseClass, attributeName, alias, getValuesCount(values));
         setParameter(alias, values);
         return result;
     }
 
     public <T> BuilderType fromIdentifiableValues(Class<T> valueClass, String alias, Collection<T> values) {
-        BuilderType result = fromIdentifiableValues(valueClass, alias, values.size());
+        BuilderType result = fromIdentifiableValues(valueClass, alias, getValuesCount(values));
         setParameter(alias, values);
         return result;
     }
 
     public <T> BuilderType fromIdentifiableValues(Class<T> valueClass, String identifierAttribute, String alias, Collection<T> values) {
-        BuilderType result = fromIdentifiableValues(valueClass, identifierAttribute, alias, values.size());
+        BuilderType result = fromIdentifiableValues(valueClass, identifierAttribute, alias, getValuesCount(values));
         setParameter(alias, values);
         return result;
     }
 
+    private int getValuesCount(Collection<?> values) {
+        QueryConfiguration queryConfiguration = mainQuery.getQueryConfiguration();
+        // Padding the VALUES clause is only possible if the null rows for absent values are filtered
+        if (queryConfiguration.isInListParameterPaddingEnabled() && queryConfiguration.isValuesClauseFilterNullsEnabled()) {
+            return ParameterPaddingUtils.getPaddedSize(values.size());
+        }
+        return values.size();
+    }
+
     public BuilderType fromIdentifiableValues(Class<?> valueClass, String alias, int valueCount) {
         return fromIdentifiableValues(valueClass, null, alias, valueCount);
     }
@@ -1813,6 +1828,61 @@ public abstract class AbstractCommonQueryBuilder<QueryResultType, BuilderType, S
         orderByManager.orderBy(expression, ascending, nullFirst);
     }
 
+    /**
+     * Appends ascending <code>ORDER BY</code> items for the select items at the given indexes the query isn't ordered by yet.
+     * The tuples with equal values for these select items are adjacent, unless a preceding <code>ORDER BY</code> item
+     * has multiple values for them, like an attribute of a collection element, which {@link #verifyGroupingTuplesAdjacent(int[])} detects.
+     * The appended items are supposed to be removed via {@link #removeLastOrderBys(int)} after rendering the query.
+     *
+     * @param tupleIndexes The indexes of the select items
+     * @return The number of appended <code>ORDER BY</code> items
+     */
+    protected final int orderByGroupingTuples(int[] tupleIndexes) {
+        List<SelectInfo> selectInfos = selectManager.getSelectInfos();
+        int count = 0;
+        for (int i = 0; i < tupleIndexes.length; i++) {
+            SelectInfo selectInfo = selectInfos.get(tupleIndexes[i]);
+            if (orderByManager.indexOfOrderBy(selectInfo.getExpression(), selectInfo.getAlias()) == -1) {
+                orderBy(selectInfo.getExpression().copy(ExpressionCopyContext.EMPTY), true, false);
+                count++;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Throws an {@link IllegalStateException} if an <code>ORDER BY</code> item that precedes the <code>ORDER BY</code> item
+     * of one of the select items at the given indexes refers to an element of a collection, because then the tuples with equal values
+     * for these select items might not be adjacent. Requires that the query was rendered.
+     *
+     * @param tupleIndexes The indexes of the select items
+     */
+    protected final void verifyGroupingTuplesAdjacent(int[] tupleIndexes) {
+        List<SelectInfo> selectInfos = selectManager.getSelectInfos();
+        int lastIndex = -1;
+        for (int i = 0; i < tupleIndexes.length; i++) {
+            SelectInfo selectInfo = selectInfos.get(tupleIndexes[i]);
+            lastIndex = Math.max(lastIndex, orderByManager.indexOfOrderBy(selectInfo.getExpression(), selectInfo.getAlias()));
+        }
+        String collectionElementOrderBy = orderByManager.getCollectionElementOrderBy(lastIndex);
+        if (collectionElementOrderBy != null) {
+            throw new IllegalStateException("The results can't be streamed because the ORDER BY item [" + collectionElementOrderBy
+                    + "] refers to a collection element, which splits the rows of an object. Order by the id of the object first or use getResultList() instead!");
+        }
+    }
+
+    /**
+     * Removes the given number of <code>ORDER BY</code> items that were appended last.
+     *
+     * @param count The number of <code>ORDER BY</code> items to remove
+     */
+    protected final void removeLastOrderBys(int count) {
+        if (count != 0) {
+            prepareForModification(ClauseType.ORDER_BY);
+            orderByManager.removeLastOrderBys(count);
+        }
+    }
+
     /*
      * Window methods
      */
@@ -2832,8 +2902,35 @@ public abstract class AbstractCommonQueryBuilder<QueryResultType, BuilderType, S
     }
     
     protected String getBaseQueryStringWithCheck(StringBuilder lateralSb, JoinNode lateralJoinNode) {
-        prepareAndCheck(null);
-        return getBaseQueryString(lateralSb, lateralJoinNode);
+        QueryInstrumentation queryInstrumentation = cbf.getQueryInstrumentation();
+        QueryInstrumentation.Timer implicitJoinTimer = queryInstrumentation.start(QueryPhase.IMPLICIT_JOIN_RESOLUTION);
+        QueryInstrumentation.Timer renderingTimer = null;
+        String baseQueryString = null;
+        try {
+            prepareAndCheck(null);
+            implicitJoinTimer.end();
+            renderingTimer = queryInstrumentation.start(QueryPhase.RENDERING);
+            baseQueryString = getBaseQueryString(lateralSb, lateralJoinNode);
+            renderingTimer.end();
+        } finally {
+            String instrumentationType = getInstrumentationType();
+            implicitJoinTimer.commit(instrumentationType, baseQueryString);
+            if (renderingTimer != null) {
+                renderingTimer.commit(instrumentationType, baseQueryString);
+            }
+        }
+        return baseQueryString;
+    }
+
+    /**
+     * Returns the type name with which query instrumentation phases are tagged.
+     * This is the type provided by the object builder, if it implements {@link InstrumentationTypeProvider}, or the result type name otherwise.
+     *
+     * @return The type name for instrumentation
+     */
+    public String getInstrumentationType() {
+        String instrumentationType = selectManager.getInstrumentationType();
+        return instrumentationType == null ? resultType.getName() : instrumentationType;
     }
 
     protected final TypedQuery<QueryResultType> getTypedQueryForFinalOperationBuilder() {
@@ -2846,6 +2943,18 @@ public abstract class AbstractCommonQueryBuilder<QueryResultType, BuilderType, S
     }
 
     protected TypedQuery<QueryResultType> getTypedQuery(StringBuilder lateralSb, JoinNode lateralJoinNode) {
+        String queryStringCacheKey = null;
+        Set<String> parameterNames = null;
+        if (lateralSb == null && isQueryStringCacheApplicable()) {
+            queryStringCacheKey = QueryStringCacheKeyGenerator.generate(this);
+            if (queryStringCacheKey != null) {
+                QueryStringCache.Entry entry = cbf.getQueryStringCache().get(queryStringCacheKey);
+                if (entry != null) {
+                    return getTypedQuery(entry);
+                }
+                parameterNames = new HashSet<>(parameterManager.getParameterNames());
+            }
+        }
         // NOTE: This must happen first because it generates implicit joins
         String baseQueryString = getBaseQueryStringWithCheck(lateralSb, lateralJoinNode);
         // We can only use the query directly if we have no ctes, entity functions or hibernate bugs
@@ -2862,6 +2971,9 @@ public abstract class AbstractCommonQueryBuilder<QueryResultType, BuilderType, S
             if (isCacheable()) {
                 mainQuery.jpaProvider.setCacheable(query);
             }
+            if (queryStringCacheKey != null) {
+                putQueryStringCacheEntry(queryStringCacheKey, parameterNames, baseQueryString, query);
+            }
 
             parameterManager.parameterizeQuery(query);
             return applyObjectBuilder(query);
@@ -2916,6 +3028,111 @@ public abstract class AbstractCommonQueryBuilder<QueryResultType, BuilderType, S
         return applyObjectBuilder(query);
     }
 
+    private boolean isQueryStringCacheApplicable() {
+        if (!needsCheck || !mainQuery.getQueryConfiguration().isQueryStringCacheEnabled()) {
+            return false;
+        }
+        // The query string cache only handles simple queries that are rendered to JPQL directly
+        if (!isMainQuery || statementType != DbmsStatementType.SELECT || finalSetOperationBuilder != null || mainQuery.cteManager.hasCtes()
+                || joinManager.hasEntityFunctions() || keysetManager.hasKeyset() || !windowManager.getWindows().isEmpty() || parameterManager.getCriteriaNameMapping() != null) {
+            return false;
+        }
+        if (checkSetBuilderEnded) {
+            verifySetBuilderEnded();
+        }
+        verifyBuilderEnded();
+        return true;
+    }
+
+    private TypedQuery<QueryResultType> getTypedQuery(QueryStringCache.Entry entry) {
+        // Only rendering is skipped, the check phase still runs as it validates the builder and prepares state like implicit joins and select wrapping
+        QueryInstrumentation queryInstrumentation = cbf.getQueryInstrumentation();
+        QueryInstrumentation.Timer implicitJoinTimer = queryInstrumentation.start(QueryPhase.IMPLICIT_JOIN_RESOLUTION);
+        try {
+            prepareAndCheck(null);
+        } finally {
+            implicitJoinTimer.commit(getInstrumentationType(), entry.getQueryString());
+        }
+        for (Map.Entry<String, ParameterValueTransformer> transformerEntry : entry.getParameterTransformers().entrySet()) {
+            parameterManager.getParameter(transformerEntry.getKey()).setTransformer(transformerEntry.getValue());
+        }
+        TypedQuery<QueryResultType> query = (TypedQuery<QueryResultType>) em.createQuery(entry.getQueryString(), entry.getExpectedQueryResultType());
+        if (firstResult != 0) {
+            query.setFirstResult(firstResult);
+        }
+        if (maxResults != Integer.MAX_VALUE) {
+            query.setMaxResults(maxResults);
+        }
+        if (isCacheable()) {
+            mainQuery.jpaProvider.setCacheable(query);
+        }
+
+        parameterManager.parameterizeQuery(query);
+        return applyObjectBuilder(query);
+    }
+
+    private void putQueryStringCacheEntry(String queryStringCacheKey, Set<String> parameterNames, String queryString, Query query) {
+        // Rendering must not have registered new parameters or inlined parameter values as literals
+        Set<String> queryParameterNames = new HashSet<>(parameterNames.size());
+        for (Parameter<?> parameter : query.getParameters()) {
+            queryParameterNames.add(parameter.getName() == null ? parameter.getPosition().toString() : parameter.getName());
+        }
+        if (!parameterNames.equals(queryParameterNames) || !parameterNames.equals(parameterManager.getParameterNames())) {
+            return;
+        }
+        cbf.getQueryStringCache().putIfAbsent(queryStringCacheKey, new QueryStringCache.Entry(queryString, selectManager.getExpectedQueryResultType(), parameterManager.getTransformers()));
+    }
+
+    @SuppressWarnings("unchecked")
+    protected final QueryTemplate<QueryResultType> compileQueryTemplate() {
+        // A template can only hold queries that are rendered to JPQL directly
+        if (!isMainQuery || statementType != DbmsStatementType.SELECT || finalSetOperationBuilder != null || mainQuery.cteManager.hasCtes()
+                || joinManager.hasEntityFunctions() || keysetManager.hasKeyset() || !windowManager.getWindows().isEmpty()) {
+            throw new IllegalStateException("Only queries that are rendered to plain JPQL can be compiled to a query template!");
+        }
+        ObjectBuilder<QueryResultType> selectObjectBuilder = selectManager.getSelectObjectBuilder();
+        CopyableObjectBuilder<QueryResultType> objectBuilder = null;
+        if (selectObjectBuilder != null) {
+            if (!(selectObjectBuilder instanceof CopyableObjectBuilder<?>)) {
+                throw new IllegalStateException("The object builder [" + selectObjectBuilder + "] can't be used for a query template because it does not implement " + CopyableObjectBuilder.class.getName());
+            }
+            objectBuilder = (CopyableObjectBuilder<QueryResultType>) selectObjectBuilder;
+            // Fail early if the object builder depends on state that can't be copied
+            objectBuilder.copy();
+        }
+        Set<String> parameterNames = new HashSet<>(parameterManager.getParameterNames());
+        String queryString = getBaseQueryStringWithCheck(null, null);
+        if (needsSqlReplacement(getKeyRestrictedLeftJoins())) {
+            throw new IllegalStateException("Only queries that are rendered to plain JPQL can be compiled to a query template!");
+        }
+        if (!mainQuery.jpaProvider.supportsTransientEntityAsParameter() && !parameterManager.getTransformers().isEmpty()) {
+            throw new IllegalStateException("Queries with entity parameters can't be compiled to a query template because the JPA provider requires managed entities as parameter values!");
+        }
+        // Rendering must not have registered new parameters or inlined parameter values as literals
+        Query query = em.createQuery(queryString, selectManager.getExpectedQueryResultType());
+        Set<String> queryParameterNames = new HashSet<>(parameterNames.size());
+        for (Parameter<?> parameter : query.getParameters()) {
+            queryParameterNames.add(parameter.getName() == null ? parameter.getPosition().toString() : parameter.getName());
+        }
+        if (!parameterNames.equals(queryParameterNames) || !parameterNames.equals(parameterManager.getParameterNames())) {
+            throw new IllegalStateException("The query can't be compiled to a query template because parameter values are rendered into the query string!");
+        }
+        return new QueryTemplateImpl<>(
+                queryString,
+                selectManager.getExpectedQueryResultType(),
+                firstResult,
+                maxResults,
+                isCacheable(),
+                mainQuery.getQueryConfiguration().isInListParameterPaddingEnabled(),
+                mainQuery.jpaProvider,
+                parameterManager.getParameterImpls(),
+                parameterManager.getCriteriaNameMapping(),
+                objectBuilder,
+                cbf.getQueryInstrumentation(),
+                getInstrumentationType()
+        );
+    }
+
     protected boolean needsSqlReplacement(Set<JoinNode> keyRestrictedLeftJoins) {
         return isMainQuery && mainQuery.cteManager.hasCtes() || joinManager.hasEntityFunctions() || !keyRestrictedLeftJoins.isEmpty() || !isMainQuery && hasLimit();
     }
@@ -3997,7 +4214,7 @@ public abstract class AbstractCommonQueryBuilder<QueryResultType, BuilderType, S
     protected final TypedQuery<QueryResultType> applyObjectBuilder(TypedQuery<?> query) {
         ObjectBuilder<QueryResultType> selectObjectBuilder = selectManager.getSelectObjectBuilder();
         if (selectObjectBuilder != null) {
-            return new ObjectBuilderTypedQuery<>(query, query instanceof AbstractCustomQuery<?> ? null : parameterManager.getCriteriaNameMapping(), selectObjectBuilder);
+            return new ObjectBuilderTypedQuery<>(query, query instanceof AbstractCustomQuery<?> ? null : parameterManager.getCriteriaNameMapping(), selectObjectBuilder, cbf.getQueryInstrumentation(), getInstrumentationType());
         } else if (parameterManager.getCriteriaNameMapping() != null) {
             return new TypedQueryWrapper<>((TypedQuery<QueryResultType>) query, parameterManager.getCriteriaNameMapping());
         } else {
@@ -44,6 +44,8 @@ import com.blazebit.persistence.parser.util.JpaMetamodelUtils;
 import com.blazebit.persistence.parser.util.TypeUtils;
 import com.blazebit.persistence.spi.AttributeAccessor;
 import com.blazebit.persistence.spi.JpaMetamodelAccessor;
+import com.blazebit.persistence.spi.QueryInstrumentation;
+import com.blazebit.persistence.spi.QueryPhase;
 
 import javax.persistence.Parameter;
 import javax.persistence.Query;
@@ -1004,7 +1006,12 @@ public abstract class AbstractFullQueryBuilder<T, X extends FullQueryBuilder<T,
         }
 
         verifyBuilderEnded();
-        selectManager.selectNew((X) this, objectBuilder);
+        QueryInstrumentation.Timer timer = cbf.getQueryInstrumentation().start(QueryPhase.BUILDER_CONSTRUCTION);
+        try {
+            selectManager.selectNew((X) this, objectBuilder);
+        } finally {
+            timer.commit(getInstrumentationType(), null);
+        }
         return (FullQueryBuilder<Y, ?>) this;
     }
 
@@ -12,6 +12,8 @@ import javax.persistence.NoResultException;
 import javax.persistence.TypedQuery;
 
 import com.blazebit.persistence.FullQueryBuilder;
+import com.blazebit.persistence.GroupingObjectBuilder;
+import com.blazebit.persistence.ObjectBuilder;
 import com.blazebit.persistence.Queryable;
 import com.blazebit.persistence.spi.DbmsStatementType;
 
@@ -63,7 +65,22 @@ public abstract class AbstractQueryBuilder<T, X extends Queryable<T, X>, Z, W, F
     }
 
     @Override
+    @SuppressWarnings("unchecked")
     public Stream<T> getResultStream() {
+        ObjectBuilder<T> objectBuilder = selectManager.getSelectObjectBuilder();
+        if (objectBuilder instanceof GroupingObjectBuilder<?> && ((GroupingObjectBuilder<T>) objectBuilder).isGrouping()) {
+            // The tuples of a group must be adjacent to be reduced while streaming,
+            // but the ORDER BY items are only appended for the streamed query to leave this builder unchanged
+            int[] groupingTupleIndexes = ((GroupingObjectBuilder<T>) objectBuilder).getGroupingTupleIndexes();
+            int orderByCount = orderByGroupingTuples(groupingTupleIndexes);
+            try {
+                TypedQuery<T> query = getQuery();
+                verifyGroupingTuplesAdjacent(groupingTupleIndexes);
+                return query.getResultStream();
+            } finally {
+                removeLastOrderBys(orderByCount);
+            }
+        }
         return getQuery().getResultStream();
     }
 
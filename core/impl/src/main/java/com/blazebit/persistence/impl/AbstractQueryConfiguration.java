@@ -28,12 +28,17 @@ public abstract class AbstractQueryConfiguration implements QueryConfiguration {
             case ConfigurationProperties.IMPLICIT_GROUP_BY_FROM_ORDER_BY: return Boolean.toString(isImplicitGroupByFromOrderByEnabled());
             case ConfigurationProperties.EXPRESSION_OPTIMIZATION: return Boolean.toString(isExpressionOptimizationEnabled());
             case ConfigurationProperties.EXPRESSION_CACHE_CLASS: return getExpressionCacheClass();
+            case ConfigurationProperties.EXPRESSION_CACHE_MAXIMUM_SIZE: return getExpressionCacheMaximumSize() == null ? null : Integer.toString(getExpressionCacheMaximumSize());
             case ConfigurationProperties.VALUES_CLAUSE_FILTER_NULLS: return Boolean.toString(isValuesClauseFilterNullsEnabled());
             case ConfigurationProperties.OPTIMIZED_KEYSET_PREDICATE_RENDERING: return Boolean.toString(isOptimizedKeysetPredicateRenderingEnabled());
             case ConfigurationProperties.INLINE_ID_QUERY: return getInlineIdQueryEnabled() == null ? "auto" : Boolean.toString(getInlineIdQueryEnabled());
             case ConfigurationProperties.INLINE_COUNT_QUERY: return getInlineCountQueryEnabled() == null ? "auto" : Boolean.toString(getInlineCountQueryEnabled());
             case ConfigurationProperties.INLINE_CTES: return getInlineCtesEnabled() == null ? "auto" : Boolean.toString(getInlineCtesEnabled());
             case ConfigurationProperties.QUERY_PLAN_CACHE_ENABLED: return Boolean.toString(isQueryPlanCacheEnabled());
+            case ConfigurationProperties.QUERY_STRING_CACHE_ENABLED: return Boolean.toString(isQueryStringCacheEnabled());
+            case ConfigurationProperties.QUERY_STRING_CACHE_MAXIMUM_SIZE: return Integer.toString(getQueryStringCacheMaximumSize());
+            case ConfigurationProperties.IN_ARRAY_PARAMETER_BINDING: return Boolean.toString(isInArrayParameterBindingEnabled());
+            case ConfigurationProperties.IN_LIST_PARAMETER_PADDING: return Boolean.toString(isInListParameterPaddingEnabled());
             default: return null;
         }
     }
@@ -49,12 +54,17 @@ public abstract class AbstractQueryConfiguration implements QueryConfiguration {
         properties.put(ConfigurationProperties.IMPLICIT_GROUP_BY_FROM_ORDER_BY, Boolean.toString(isImplicitGroupByFromOrderByEnabled()));
         properties.put(ConfigurationProperties.EXPRESSION_OPTIMIZATION, Boolean.toString(isExpressionOptimizationEnabled()));
         properties.put(ConfigurationProperties.EXPRESSION_CACHE_CLASS, getExpressionCacheClass());
+        properties.put(ConfigurationProperties.EXPRESSION_CACHE_MAXIMUM_SIZE, getExpressionCacheMaximumSize() == null ? null : Integer.toString(getExpressionCacheMaximumSize()));
         properties.put(ConfigurationProperties.VALUES_CLAUSE_FILTER_NULLS, Boolean.toString(isValuesClauseFilterNullsEnabled()));
         properties.put(ConfigurationProperties.OPTIMIZED_KEYSET_PREDICATE_RENDERING, Boolean.toString(isOptimizedKeysetPredicateRenderingEnabled()));
         properties.put(ConfigurationProperties.INLINE_ID_QUERY, getInlineIdQueryEnabled() == null ? "auto" : Boolean.toString(getInlineIdQueryEnabled()));
         properties.put(ConfigurationProperties.INLINE_COUNT_QUERY, getInlineCountQueryEnabled() == null ? "auto" : Boolean.toString(getInlineCountQueryEnabled()));
         properties.put(ConfigurationProperties.INLINE_CTES, getInlineCtesEnabled() == null ? "auto" : Boolean.toString(getInlineCtesEnabled()));
         properties.put(ConfigurationProperties.QUERY_PLAN_CACHE_ENABLED, Boolean.toString(isQueryPlanCacheEnabled()));
+        properties.put(ConfigurationProperties.QUERY_STRING_CACHE_ENABLED, Boolean.toString(isQueryStringCacheEnabled()));
+        properties.put(ConfigurationProperties.QUERY_STRING_CACHE_MAXIMUM_SIZE, Integer.toString(getQueryStringCacheMaximumSize()));
+        properties.put(ConfigurationProperties.IN_ARRAY_PARAMETER_BINDING, Boolean.toString(isInArrayParameterBindingEnabled()));
+        properties.put(ConfigurationProperties.IN_LIST_PARAMETER_PADDING, Boolean.toString(isInListParameterPaddingEnabled()));
         return properties;
     }
 
@@ -0,0 +1,89 @@
+/*
+ * SPDX-License-Identifier: Apache-2.0
+ * Copyright Blazebit
+ */
+
+package com.blazebit.persistence.impl;
+
+import javax.persistence.Query;
+import java.util.Collection;
+
+/**
+ * Derives the value of a synthetic array parameter from a collection valued parameter.
+ * The collection is transformed into the text representation of an SQL array e.g. <code>{"1","2"}</code>
+ * which is bound as single parameter and cast to an array in SQL. The value of the original parameter is left unchanged,
+ * so that other usages of the parameter are still expanded to one parameter per element.
+ *
+ * @author Christian Beikov
+ * @since 1.6.19
+ */
+public class ArrayLiteralParameterTransformer implements ParameterValueTransformer {
+
+    private final ParameterManager parameterManager;
+    private final String arrayParameterName;
+
+    public ArrayLiteralParameterTransformer(ParameterManager parameterManager, String arrayParameterName) {
+        this.parameterManager = parameterManager;
+        this.arrayParameterName = arrayParameterName;
+    }
+
+    @Override
+    public ParameterValueTransformer forQuery(final Query query) {
+        return new ParameterValueTransformer() {
+            @Override
+            public ParameterValueTransformer forQuery(Query query) {
+                return ArrayLiteralParameterTransformer.this.forQuery(query);
+            }
+
+            @Override
+            public Object transform(Object originalValue) {
+                query.setParameter(arrayParameterName, toArrayLiteral(originalValue));
+                return originalValue;
+            }
+        };
+    }
+
+    public String getArrayParameterName() {
+        return arrayParameterName;
+    }
+
+    @Override
+    public Object transform(Object originalValue) {
+        parameterManager.satisfyParameter(arrayParameterName, toArrayLiteral(originalValue));
+        return originalValue;
+    }
+
+    static Object toArrayLiteral(Object originalValue) {
+        if (!(originalValue instanceof Collection<?>)) {
+            return originalValue;
+        }
+        Collection<?> values = (Collection<?>) originalValue;
+        StringBuilder sb = new StringBuilder(values.size() * 8 + 2);
+        sb.append('{');
+        boolean first = true;
+        for (Object value : values) {
+            if (first) {
+                first = false;
+            } else {
+                sb.append(',');
+            }
+            if (value == null) {
+                sb.append("NULL");
+            } else {
+                String string = value.toString();
+                sb.append('"');
+                for (int i = 0; i < string.length(); i++) {
+                    char c = string.charAt(i);
+                    if (c == '"' || c == '\\') {
+                        sb.append('\\');
+                    }
+                    sb.append(c);
+                }
+                sb.append('"');
+            }
+        }
+        sb.append('}');
+        return sb.toString();
+    }
+
+}
@@ -345,6 +345,7 @@ import com.blazebit.persistence.impl.function.groupingsets.CubeFunction;
 import com.blazebit.persistence.impl.function.groupingsets.GroupingSetFunction;
 import com.blazebit.persistence.impl.function.groupingsets.GroupingSetsFunction;
 import com.blazebit.persistence.impl.function.groupingsets.RollupFunction;
+import com.blazebit.persistence.impl.function.inarray.InArrayFunction;
 import com.blazebit.persistence.impl.function.jsonget.AbstractJsonGetFunction;
 import com.blazebit.persistence.impl.function.jsonget.DB2JsonGetFunction;
 import com.blazebit.persistence.impl.function.jsonget.MSSQLJsonGetFunction;
@@ -531,6 +532,7 @@ import com.blazebit.persistence.spi.JpqlFunctionKind;
 import com.blazebit.persistence.spi.JpqlMacro;
 import com.blazebit.persistence.spi.LateralStyle;
 import com.blazebit.persistence.spi.PackageOpener;
+import com.blazebit.persistence.spi.QueryInstrumentation;
 import com.blazebit.persistence.spi.SetOperationType;
 import java.math.BigDecimal;
 import java.math.BigInteger;
@@ -564,6 +566,7 @@ public class CriteriaBuilderConfigurationImpl implements CriteriaBuilderConfigur
     private final Map<String, JpqlMacro> macros = new HashMap<String, JpqlMacro>();
     private final List<EntityManagerFactoryIntegrator> entityManagerIntegrators = new ArrayList<EntityManagerFactoryIntegrator>();
     private PackageOpener packageOpener;
+    private QueryInstrumentation queryInstrumentation = QueryInstrumentations.createDefault();
     private Properties properties = new Properties();
     private ExtendedQuerySupport extendedQuerySupport;
 
@@ -1632,6 +1635,12 @@ public class CriteriaBuilderConfigurationImpl implements CriteriaBuilderConfigur
         jpqlFunctionGroup = new JpqlFunctionGroup(RowValueSubqueryComparisonFunction.FUNCTION_NAME, false);
         jpqlFunctionGroup.add(null, new RowValueSubqueryComparisonFunction());
         registerFunction(jpqlFunctionGroup);
+
+        // in array
+        jpqlFunctionGroup = new JpqlFunctionGroup(InArrayFunction.FUNCTION_NAME, false);
+        jpqlFunctionGroup.add("postgresql", new InArrayFunction());
+        jpqlFunctionGroup.add("cockroach", new InArrayFunction());
+        registerFunction(jpqlFunctionGroup);
     }
 
     private void loadInternalFunctions() {
@@ -2234,6 +2243,19 @@ public class CriteriaBuilderConfigurationImpl implements CriteriaBuilderConfigur
         return packageOpener;
     }
 
+    @Override
+    public CriteriaBuilderConfiguration withQueryInstrumentation(QueryInstrumentation queryInstrumentation) {
+        if (queryInstrumentation == null) {
+            throw new NullPointerException("queryInstrumentation");
+        }
+        this.queryInstrumentation = queryInstrumentation;
+        return this;
+    }
+
+    QueryInstrumentation getQueryInstrumentation() {
+        return queryInstrumentation;
+    }
+
     @Override
     public CriteriaBuilderConfiguration registerFunction(JpqlFunctionGroup jpqlFunctionGroup) {
         String functionName = jpqlFunctionGroup.getName().toLowerCase();
@@ -5,15 +5,19 @@
 
 package com.blazebit.persistence.impl;
 
+import com.blazebit.persistence.ConfigurationProperties;
 import com.blazebit.persistence.CriteriaBuilder;
 import com.blazebit.persistence.CriteriaBuilderFactory;
 import com.blazebit.persistence.DeleteCriteriaBuilder;
 import com.blazebit.persistence.InsertCriteriaBuilder;
 import com.blazebit.persistence.LeafOngoingFinalSetOperationCriteriaBuilder;
+import com.blazebit.persistence.QueryStringCacheStatistics;
 import com.blazebit.persistence.StartOngoingSetOperationCriteriaBuilder;
 import com.blazebit.persistence.UpdateCriteriaBuilder;
+import com.blazebit.persistence.impl.function.tomultiset.ToMultisetFunction;
 import com.blazebit.persistence.parser.FunctionKind;
 import com.blazebit.persistence.parser.expression.ExpressionCache;
+import com.blazebit.persistence.parser.expression.ExpressionCacheStatistics;
 import com.blazebit.persistence.parser.expression.ExpressionFactory;
 import com.blazebit.persistence.parser.expression.ExpressionFactoryImpl;
 import com.blazebit.persistence.parser.expression.MacroConfiguration;
@@ -29,14 +33,17 @@ import com.blazebit.persistence.spi.JpqlFunction;
 import com.blazebit.persistence.spi.JpqlFunctionGroup;
 import com.blazebit.persistence.spi.JpqlFunctionKind;
 import com.blazebit.persistence.spi.PackageOpener;
+import com.blazebit.persistence.spi.QueryInstrumentation;
 
 import javax.persistence.EntityManager;
 import javax.persistence.EntityManagerFactory;
 import javax.persistence.metamodel.Metamodel;
 import java.util.Collections;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 
 /**
  *
@@ -45,7 +52,10 @@ import java.util.Map;
  */
 public class CriteriaBuilderFactoryImpl implements CriteriaBuilderFactory {
 
+    private static final String SUBQUERY_EXPRESSION_CACHE_NAME_PREFIX = "subquery:";
+
     private final PackageOpener packageOpener;
+    private final QueryInstrumentation queryInstrumentation;
     private final EntityManagerFactory entityManagerFactory;
     private final EntityMetamodelImpl metamodel;
     private final AssociationParameterTransformerFactory transientEntityParameterTransformerFactory;
@@ -56,6 +66,7 @@ public class CriteriaBuilderFactoryImpl implements CriteriaBuilderFactory {
     private final ExpressionFactory expressionFactory;
     private final ExpressionFactory subqueryExpressionFactory;
     private final QueryConfiguration queryConfiguration;
+    private final QueryStringCache queryStringCache;
 
     private final MacroConfiguration macroConfiguration;
     private final String configuredDbms;
@@ -74,7 +85,8 @@ public class CriteriaBuilderFactoryImpl implements CriteriaBuilderFactory {
             throw new IllegalArgumentException("Multiple EntityManagerFactoryIntegrator were found on the classpath! Please remove the wrong integrations from the classpath!");
         }
         EntityManagerFactoryIntegrator integrator = integrators.get(0);
-        EntityManagerFactory emf = integrator.registerFunctions(entityManagerFactory, config.getFunctions());
+        Map<String, JpqlFunctionGroup> functionGroups = applyMultisetJsonEncoding(config.getFunctions(), config.getDbmsDialects().keySet(), config.getProperty(ConfigurationProperties.MULTISET_POSITIONAL_JSON_ENCODING));
+        EntityManagerFactory emf = integrator.registerFunctions(entityManagerFactory, functionGroups);
         Map<String, JpqlFunction> registeredFunctions = new HashMap<>(integrator.getRegisteredFunctions(emf));
         String dbms = integrator.getDbms(emf);
         Map<String, DbmsDialect> dbmsDialects = config.getDbmsDialects();
@@ -86,6 +98,7 @@ public class CriteriaBuilderFactoryImpl implements CriteriaBuilderFactory {
         }
 
         this.packageOpener = config.getPackageOpener();
+        this.queryInstrumentation = config.getQueryInstrumentation();
         this.configuredDbms = dbms;
         this.configuredDbmsDialect = dialect;
         this.configuredRegisteredFunctions = registeredFunctions;
@@ -101,28 +114,69 @@ public class CriteriaBuilderFactoryImpl implements CriteriaBuilderFactory {
 
         this.transientEntityParameterTransformerFactory = new TransientEntityAssociationParameterTransformerFactory(metamodel, new AssociationToIdParameterTransformer(jpaProvider));
         this.extendedQuerySupport = config.getExtendedQuerySupport();
-        this.functions = resolveFunctions(config.getFunctions(), configuredRegisteredFunctions);
+        this.functions = resolveFunctions(functionGroups, configuredRegisteredFunctions);
         this.registeredFunctionNames = caseInsensitiveFunctions(configuredRegisteredFunctions);
         this.namedTypes = resolveNamedTypes(config.getNamedTypes());
 
         ExpressionFactory originalExpressionFactory = new ExpressionFactoryImpl(functions, metamodel.getEntityTypes(), metamodel.getEnumTypes(), metamodel.getEnumTypesForLiterals(), !compatibleMode, optimize);
-        this.expressionCache = createCache(queryConfiguration.getExpressionCacheClass());
+        this.expressionCache = createCache(queryConfiguration.getExpressionCacheClass(), queryConfiguration.getExpressionCacheMaximumSize());
         ExpressionFactory cachingExpressionFactory = new SimpleCachingExpressionFactory(originalExpressionFactory, expressionCache);
-        ExpressionFactory cachingSubqueryExpressionFactory = new SimpleCachingExpressionFactory(new SubqueryExpressionFactory(functions, metamodel.getEntityTypes(), metamodel.getEnumTypes(), metamodel.getEnumTypesForLiterals(), !compatibleMode, optimize, originalExpressionFactory));
+        // Subquery expressions are parsed differently, so they are cached under separate cache names
+        // This way the statistics of the expression cache cover the subquery expressions as well
+        ExpressionFactory cachingSubqueryExpressionFactory = new SimpleCachingExpressionFactory(new SubqueryExpressionFactory(functions, metamodel.getEntityTypes(), metamodel.getEnumTypes(), metamodel.getEnumTypesForLiterals(), !compatibleMode, optimize, originalExpressionFactory), expressionCache, SUBQUERY_EXPRESSION_CACHE_NAME_PREFIX);
         this.macroConfiguration = MacroConfiguration.of(JpqlMacroAdapter.createMacros(config.getMacros(), cachingExpressionFactory));
         JpqlMacroStorage macroStorage = new JpqlMacroStorage(null, macroConfiguration);
         this.expressionFactory = new JpqlMacroAwareExpressionFactory(cachingExpressionFactory, macroStorage);
         this.subqueryExpressionFactory = new JpqlMacroAwareExpressionFactory(cachingSubqueryExpressionFactory, macroStorage);
+        this.queryStringCache = new QueryStringCache(queryConfiguration.getQueryStringCacheMaximumSize());
     }
 
-    private ExpressionCache createCache(String className) {
+    private ExpressionCache createCache(String className, Integer maximumSize) {
         try {
-            return (ExpressionCache) Class.forName(className).newInstance();
+            Class<?> cacheClass = Class.forName(className);
+            if (maximumSize == null) {
+                return (ExpressionCache) cacheClass.newInstance();
+            }
+            return (ExpressionCache) cacheClass.getConstructor(int.class).newInstance(maximumSize);
+        } catch (NoSuchMethodException ex) {
+            throw new IllegalArgumentException("The expression cache " + className + " does not support a maximum size", ex);
         } catch (Exception ex) {
             throw new IllegalArgumentException("Could not instantiate expression cache: " + className, ex);
         }
     }
 
+    private static Map<String, JpqlFunctionGroup> applyMultisetJsonEncoding(Map<String, JpqlFunctionGroup> functions, Set<String> dbmsNames, String positionalJsonEncoding) {
+        if (positionalJsonEncoding == null || positionalJsonEncoding.isEmpty() || "false".equalsIgnoreCase(positionalJsonEncoding)) {
+            return functions;
+        }
+        JpqlFunctionGroup multisetFunctionGroup = functions.get(ToMultisetFunction.FUNCTION_NAME);
+        if (multisetFunctionGroup == null) {
+            return functions;
+        }
+        Set<String> positionalDbmsNames;
+        if ("true".equalsIgnoreCase(positionalJsonEncoding)) {
+            positionalDbmsNames = dbmsNames;
+        } else {
+            positionalDbmsNames = new HashSet<>();
+            for (String dbmsName : positionalJsonEncoding.split(",")) {
+                positionalDbmsNames.add(dbmsName.trim());
+            }
+        }
+        // Copy the function group to leave the configuration untouched
+        JpqlFunctionGroup positionalFunctionGroup = new JpqlFunctionGroup(multisetFunctionGroup.getName(), multisetFunctionGroup.getKind());
+        for (String dbmsName : dbmsNames) {
+            JpqlFunction function = multisetFunctionGroup.get(dbmsName);
+            if (function instanceof ToMultisetFunction && positionalDbmsNames.contains(dbmsName)) {
+                positionalFunctionGroup.add(dbmsName, ((ToMultisetFunction) function).withPositionalJsonEncoding());
+            } else if (function != null) {
+                positionalFunctionGroup.add(dbmsName, function);
+            }
+        }
+        Map<String, JpqlFunctionGroup> newFunctions = new HashMap<>(functions);
+        newFunctions.put(ToMultisetFunction.FUNCTION_NAME, positionalFunctionGroup);
+        return newFunctions;
+    }
+
     private static Map<String, FunctionKind> resolveFunctions(Map<String, JpqlFunctionGroup> functions, Map<String, JpqlFunction> configuredFunctions) {
         Map<String, FunctionKind> map = new HashMap<>();
         for (Map.Entry<String, JpqlFunctionGroup> entry : functions.entrySet()) {
@@ -209,6 +263,14 @@ public class CriteriaBuilderFactoryImpl implements CriteriaBuilderFactory {
         return namedTypes;
     }
 
+    public QueryInstrumentation getQueryInstrumentation() {
+        return queryInstrumentation;
+    }
+
+    public QueryStringCache getQueryStringCache() {
+        return queryStringCache;
+    }
+
     public ExpressionCache getExpressionCache() {
         return expressionCache;
     }
@@ -355,6 +417,14 @@ public class CriteriaBuilderFactoryImpl implements CriteriaBuilderFactory {
             return (T) jpaProvider;
         } else if (ExpressionCache.class.equals(serviceClass)) {
             return (T) expressionCache;
+        } else if (QueryStringCacheStatistics.class.equals(serviceClass)) {
+            return (T) queryStringCache;
+        } else if (QueryInstrumentation.class.equals(serviceClass)) {
+            return (T) queryInstrumentation;
+        } else if (ExpressionCacheStatistics.class.equals(serviceClass)) {
+            if (expressionCache instanceof ExpressionCacheStatistics) {
+                return (T) expressionCache;
+            }
         } else if (Metamodel.class.isAssignableFrom(serviceClass)) {
             return (T) metamodel;
         } else if (EntityManagerFactory.class.equals(serviceClass)) {
@@ -9,6 +9,7 @@ import com.blazebit.persistence.CriteriaBuilder;
 import com.blazebit.persistence.LeafOngoingFinalSetOperationCriteriaBuilder;
 import com.blazebit.persistence.LeafOngoingSetOperationCriteriaBuilder;
 import com.blazebit.persistence.ObjectBuilder;
+import com.blazebit.persistence.QueryTemplate;
 import com.blazebit.persistence.SelectObjectBuilder;
 import com.blazebit.persistence.StartOngoingSetOperationCriteriaBuilder;
 import com.blazebit.persistence.spi.SetOperationType;
@@ -64,6 +65,11 @@ public class CriteriaBuilderImpl<T> extends AbstractFullQueryBuilder<T, Criteria
         return getExternalQueryRootCountQueryString(maximumCount);
     }
 
+    @Override
+    public QueryTemplate<T> compile() {
+        return compileQueryTemplate();
+    }
+
     private String getCountQueryRootQueryStringWithoutCheck(long maximumCount) {
         if (cachedQueryRootMaximumCount != maximumCount) {
             cachedQueryRootMaximumCount = maximumCount;
@@ -21,6 +21,7 @@ public class ImmutableQueryConfiguration extends AbstractQueryConfiguration {
     private final boolean compatibleModeEnabled;
     private final boolean expressionOptimizationEnabled;
     private final String expressionCacheClass;
+    private final Integer expressionCacheMaximumSize;
 
     private final boolean returningClauseCaseSensitive;
     private final boolean sizeToCountTransformationEnabled;
@@ -34,11 +35,16 @@ public class ImmutableQueryConfiguration extends AbstractQueryConfiguration {
     private final Boolean inlineCountQuery;
     private final Boolean inlineCtes;
     private final boolean queryPlanCacheEnabled;
+    private final boolean queryStringCacheEnabled;
+    private final int queryStringCacheMaximumSize;
+    private final boolean inArrayParameterBindingEnabled;
+    private final boolean inListParameterPaddingEnabled;
 
     public ImmutableQueryConfiguration(Map<String, String> properties) {
         this.compatibleModeEnabled = PropertyUtils.getAsBooleanProperty(properties, ConfigurationProperties.COMPATIBLE_MODE, false);
         this.expressionOptimizationEnabled = PropertyUtils.getAsBooleanProperty(properties, ConfigurationProperties.EXPRESSION_OPTIMIZATION, true);
         this.expressionCacheClass = properties.get(ConfigurationProperties.EXPRESSION_CACHE_CLASS);
+        this.expressionCacheMaximumSize = getIntegerProperty(properties, ConfigurationProperties.EXPRESSION_CACHE_MAXIMUM_SIZE);
 
         this.returningClauseCaseSensitive =                 getBooleanProperty(properties, ConfigurationProperties.RETURNING_CLAUSE_CASE_SENSITIVE,     "false");
         this.sizeToCountTransformationEnabled =             getBooleanProperty(properties, ConfigurationProperties.SIZE_TO_COUNT_TRANSFORMATION,        "true");
@@ -55,6 +61,11 @@ public class ImmutableQueryConfiguration extends AbstractQueryConfiguration {
         this.inlineCountQuery = "auto".equalsIgnoreCase(inlineCountQuery) ? null : Boolean.parseBoolean(inlineCountQuery);
         this.inlineCtes = "auto".equalsIgnoreCase(inlineCtes) ? null : Boolean.parseBoolean(inlineCtes);
         this.queryPlanCacheEnabled =                        getBooleanProperty(properties, ConfigurationProperties.QUERY_PLAN_CACHE_ENABLED,            "true");
+        this.queryStringCacheEnabled =                      getBooleanProperty(properties, ConfigurationProperties.QUERY_STRING_CACHE_ENABLED,          "false");
+        Integer queryStringCacheMaximumSize =               getIntegerProperty(properties, ConfigurationProperties.QUERY_STRING_CACHE_MAXIMUM_SIZE);
+        this.queryStringCacheMaximumSize = queryStringCacheMaximumSize == null ? 2048 : queryStringCacheMaximumSize;
+        this.inArrayParameterBindingEnabled =               getBooleanProperty(properties, ConfigurationProperties.IN_ARRAY_PARAMETER_BINDING,          "false");
+        this.inListParameterPaddingEnabled =                getBooleanProperty(properties, ConfigurationProperties.IN_LIST_PARAMETER_PADDING,           "false");
     }
 
     @Override
@@ -77,6 +88,11 @@ public class ImmutableQueryConfiguration extends AbstractQueryConfiguration {
         return expressionCacheClass;
     }
 
+    @Override
+    public Integer getExpressionCacheMaximumSize() {
+        return expressionCacheMaximumSize;
+    }
+
     @Override
     public boolean isCountTransformationEnabled() {
         return sizeToCountTransformationEnabled;
@@ -142,6 +158,26 @@ public class ImmutableQueryConfiguration extends AbstractQueryConfiguration {
         return queryPlanCacheEnabled;
     }
 
+    @Override
+    public boolean isQueryStringCacheEnabled() {
+        return queryStringCacheEnabled;
+    }
+
+    @Override
+    public int getQueryStringCacheMaximumSize() {
+        return queryStringCacheMaximumSize;
+    }
+
+    @Override
+    public boolean isInArrayParameterBindingEnabled() {
+        return inArrayParameterBindingEnabled;
+    }
+
+    @Override
+    public boolean isInListParameterPaddingEnabled() {
+        return inListParameterPaddingEnabled;
+    }
+
     @Override
     public String getProperty(String name) {
         switch (name) {
@@ -153,6 +189,7 @@ public class ImmutableQueryConfiguration extends AbstractQueryConfiguration {
             case ConfigurationProperties.IMPLICIT_GROUP_BY_FROM_ORDER_BY: return Boolean.toString(implicitGroupByFromOrderByEnabled);
             case ConfigurationProperties.EXPRESSION_OPTIMIZATION: return Boolean.toString(expressionOptimizationEnabled);
             case ConfigurationProperties.EXPRESSION_CACHE_CLASS: return expressionCacheClass;
+            case ConfigurationProperties.EXPRESSION_CACHE_MAXIMUM_SIZE: return expressionCacheMaximumSize == null ? null : Integer.toString(expressionCacheMaximumSize);
             case ConfigurationProperties.VALUES_CLAUSE_FILTER_NULLS: return Boolean.toString(valuesClauseFilterNullsEnabled);
             case ConfigurationProperties.PARAMETER_AS_LITERAL_RENDERING: return Boolean.toString(parameterAsLiteralRenderingEnabled);
             case ConfigurationProperties.OPTIMIZED_KEYSET_PREDICATE_RENDERING: return Boolean.toString(optimizedKeysetPredicateRenderingEnabled);
@@ -160,6 +197,10 @@ public class ImmutableQueryConfiguration extends AbstractQueryConfiguration {
             case ConfigurationProperties.INLINE_COUNT_QUERY: return inlineIdQuery == null ? "auto" : Boolean.toString(inlineIdQuery);
             case ConfigurationProperties.INLINE_CTES: return inlineCtes == null ? "auto" : Boolean.toString(inlineCtes);
             case ConfigurationProperties.QUERY_PLAN_CACHE_ENABLED: return Boolean.toString(queryPlanCacheEnabled);
+            case ConfigurationProperties.QUERY_STRING_CACHE_ENABLED: return Boolean.toString(queryStringCacheEnabled);
+            case ConfigurationProperties.QUERY_STRING_CACHE_MAXIMUM_SIZE: return Integer.toString(queryStringCacheMaximumSize);
+            case ConfigurationProperties.IN_ARRAY_PARAMETER_BINDING: return Boolean.toString(inArrayParameterBindingEnabled);
+            case ConfigurationProperties.IN_LIST_PARAMETER_PADDING: return Boolean.toString(inListParameterPaddingEnabled);
             default: return null;
         }
     }
@@ -175,6 +216,7 @@ public class ImmutableQueryConfiguration extends AbstractQueryConfiguration {
         properties.put(ConfigurationProperties.IMPLICIT_GROUP_BY_FROM_ORDER_BY, Boolean.toString(implicitGroupByFromOrderByEnabled));
         properties.put(ConfigurationProperties.EXPRESSION_OPTIMIZATION, Boolean.toString(expressionOptimizationEnabled));
         properties.put(ConfigurationProperties.EXPRESSION_CACHE_CLASS, expressionCacheClass);
+        properties.put(ConfigurationProperties.EXPRESSION_CACHE_MAXIMUM_SIZE, expressionCacheMaximumSize == null ? null : Integer.toString(expressionCacheMaximumSize));
         properties.put(ConfigurationProperties.VALUES_CLAUSE_FILTER_NULLS, Boolean.toString(valuesClauseFilterNullsEnabled));
         properties.put(ConfigurationProperties.PARAMETER_AS_LITERAL_RENDERING, Boolean.toString(parameterAsLiteralRenderingEnabled));
         properties.put(ConfigurationProperties.OPTIMIZED_KEYSET_PREDICATE_RENDERING, Boolean.toString(optimizedKeysetPredicateRenderingEnabled));
@@ -182,6 +224,10 @@ public class ImmutableQueryConfiguration extends AbstractQueryConfiguration {
         properties.put(ConfigurationProperties.INLINE_COUNT_QUERY, getInlineCountQueryEnabled() == null ? "auto" : Boolean.toString(getInlineCountQueryEnabled()));
         properties.put(ConfigurationProperties.INLINE_CTES, getInlineCtesEnabled() == null ? "auto" : Boolean.toString(getInlineCtesEnabled()));
         properties.put(ConfigurationProperties.QUERY_PLAN_CACHE_ENABLED, Boolean.toString(queryPlanCacheEnabled));
+        properties.put(ConfigurationProperties.QUERY_STRING_CACHE_ENABLED, Boolean.toString(queryStringCacheEnabled));
+        properties.put(ConfigurationProperties.QUERY_STRING_CACHE_MAXIMUM_SIZE, Integer.toString(queryStringCacheMaximumSize));
+        properties.put(ConfigurationProperties.IN_ARRAY_PARAMETER_BINDING, Boolean.toString(inArrayParameterBindingEnabled));
+        properties.put(ConfigurationProperties.IN_LIST_PARAMETER_PADDING, Boolean.toString(inListParameterPaddingEnabled));
         return properties;
     }
 
@@ -201,6 +247,19 @@ public class ImmutableQueryConfiguration extends AbstractQueryConfiguration {
         return Boolean.parseBoolean(getProperty(properties, propertyName, defaultValue));
     }
 
+    private Integer getIntegerProperty(Map<String, String> properties, String propertyName) {
+        String value = properties.get(propertyName);
+        if (value == null) {
+            return null;
+        }
+
+        try {
+            return Integer.valueOf(value);
+        } catch (NumberFormatException ex) {
+            throw new IllegalArgumentException("Illegal value '" + value + "' for integer property '" + propertyName + "'", ex);
+        }
+    }
+
     private String getProperty(Map<String, String> properties, String propertyName, String defaultValue) {
         String value = properties.get(propertyName);
         if (value == null) {
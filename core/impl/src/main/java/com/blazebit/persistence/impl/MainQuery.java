@@ -52,6 +52,7 @@ public class MainQuery {
         this.registeredFunctions = registeredFunctions;
         this.registeredFunctionNames = registeredFunctionNames;
         this.parameterManager = parameterManager;
+        this.parameterManager.setMainQuery(this);
         this.cteManager = new CTEManager(this);
 
         if (jpaProvider.supportsTransientEntityAsParameter()) {
@@ -19,6 +19,7 @@ public class MutableQueryConfiguration extends AbstractQueryConfiguration {
     private final boolean compatibleModeEnabled;
     private final boolean expressionOptimizationEnabled;
     private final String expressionCacheClass;
+    private final Integer expressionCacheMaximumSize;
 
     private boolean returningClauseCaseSensitive;
     private boolean sizeToCountTransformationEnabled;
@@ -33,11 +34,16 @@ public class MutableQueryConfiguration extends AbstractQueryConfiguration {
     private Boolean inlineCountQuery;
     private Boolean inlineCtes;
     private boolean queryPlanCacheEnabled;
+    private boolean queryStringCacheEnabled;
+    private final int queryStringCacheMaximumSize;
+    private boolean inArrayParameterBindingEnabled;
+    private boolean inListParameterPaddingEnabled;
 
     public MutableQueryConfiguration(QueryConfiguration queryConfiguration) {
         this.compatibleModeEnabled = queryConfiguration.isCompatibleModeEnabled();
         this.expressionOptimizationEnabled = queryConfiguration.isExpressionOptimizationEnabled();
         this.expressionCacheClass = queryConfiguration.getExpressionCacheClass();
+        this.expressionCacheMaximumSize = queryConfiguration.getExpressionCacheMaximumSize();
         this.returningClauseCaseSensitive = queryConfiguration.isReturningClauseCaseSensitive();
         this.sizeToCountTransformationEnabled = queryConfiguration.isCountTransformationEnabled();
         this.implicitGroupByFromSelectEnabled = queryConfiguration.isImplicitGroupByFromSelectEnabled();
@@ -50,6 +56,10 @@ public class MutableQueryConfiguration extends AbstractQueryConfiguration {
         this.inlineIdQuery = queryConfiguration.getInlineIdQueryEnabled();
         this.inlineCountQuery = queryConfiguration.getInlineCountQueryEnabled();
         this.inlineCtes = queryConfiguration.getInlineCtesEnabled();
+        this.queryStringCacheEnabled = queryConfiguration.isQueryStringCacheEnabled();
+        this.queryStringCacheMaximumSize = queryConfiguration.getQueryStringCacheMaximumSize();
+        this.inArrayParameterBindingEnabled = queryConfiguration.isInArrayParameterBindingEnabled();
+        this.inListParameterPaddingEnabled = queryConfiguration.isInListParameterPaddingEnabled();
     }
 
     @Override
@@ -72,6 +82,11 @@ public class MutableQueryConfiguration extends AbstractQueryConfiguration {
         return expressionCacheClass;
     }
 
+    @Override
+    public Integer getExpressionCacheMaximumSize() {
+        return expressionCacheMaximumSize;
+    }
+
     @Override
     public boolean isCountTransformationEnabled() {
         return sizeToCountTransformationEnabled;
@@ -137,6 +152,26 @@ public class MutableQueryConfiguration extends AbstractQueryConfiguration {
         return queryPlanCacheEnabled;
     }
 
+    @Override
+    public boolean isQueryStringCacheEnabled() {
+        return queryStringCacheEnabled;
+    }
+
+    @Override
+    public int getQueryStringCacheMaximumSize() {
+        return queryStringCacheMaximumSize;
+    }
+
+    @Override
+    public boolean isInArrayParameterBindingEnabled() {
+        return inArrayParameterBindingEnabled;
+    }
+
+    @Override
+    public boolean isInListParameterPaddingEnabled() {
+        return inListParameterPaddingEnabled;
+    }
+
     @Override
     public void setProperties(Map<String, String> properties) {
         for (Map.Entry<String, String> entry : properties.entrySet()) {
@@ -156,6 +191,7 @@ public class MutableQueryConfiguration extends AbstractQueryConfiguration {
             case ConfigurationProperties.IMPLICIT_GROUP_BY_FROM_ORDER_BY:       implicitGroupByFromOrderByEnabled = booleanOrFail(propertyName, propertyValue); break;
             case ConfigurationProperties.EXPRESSION_OPTIMIZATION:               throw propertySetNotAllowed(propertyName);
             case ConfigurationProperties.EXPRESSION_CACHE_CLASS:                throw propertySetNotAllowed(propertyName);
+            case ConfigurationProperties.EXPRESSION_CACHE_MAXIMUM_SIZE:         throw propertySetNotAllowed(propertyName);
             case ConfigurationProperties.VALUES_CLAUSE_FILTER_NULLS:            valuesClauseFilterNullsEnabled = booleanOrFail(propertyName, propertyValue); break;
             case ConfigurationProperties.PARAMETER_AS_LITERAL_RENDERING:        parameterAsLiteralRenderingEnabled = booleanOrFail(propertyName, propertyValue); break;
             case ConfigurationProperties.OPTIMIZED_KEYSET_PREDICATE_RENDERING:  optimizedKeysetPredicateRenderingEnabled = booleanOrFail(propertyName, propertyValue); break;
@@ -163,6 +199,10 @@ public class MutableQueryConfiguration extends AbstractQueryConfiguration {
             case ConfigurationProperties.INLINE_COUNT_QUERY:                    inlineCountQuery = "auto".equalsIgnoreCase(propertyValue) ? null : booleanOrFail(propertyName, propertyValue); break;
             case ConfigurationProperties.INLINE_CTES:                           inlineCtes = "auto".equalsIgnoreCase(propertyValue) ? null : booleanOrFail(propertyName, propertyValue); break;
             case ConfigurationProperties.QUERY_PLAN_CACHE_ENABLED:              queryPlanCacheEnabled = booleanOrFail(propertyName, propertyValue); break;
+            case ConfigurationProperties.QUERY_STRING_CACHE_ENABLED:            queryStringCacheEnabled = booleanOrFail(propertyName, propertyValue); break;
+            case ConfigurationProperties.QUERY_STRING_CACHE_MAXIMUM_SIZE:       throw propertySetNotAllowed(propertyName);
+            case ConfigurationProperties.IN_ARRAY_PARAMETER_BINDING:            inArrayParameterBindingEnabled = booleanOrFail(propertyName, propertyValue); break;
+            case ConfigurationProperties.IN_LIST_PARAMETER_PADDING:             inListParameterPaddingEnabled = booleanOrFail(propertyName, propertyValue); break;
             default: break;
         }
         // CHECKSTYLE:ON: OneStatementPerLine
@@ -0,0 +1,36 @@
+/*
+ * SPDX-License-Identifier: Apache-2.0
+ * Copyright Blazebit
+ */
+
+package com.blazebit.persistence.impl;
+
+import com.blazebit.persistence.spi.QueryInstrumentation;
+import com.blazebit.persistence.spi.QueryPhase;
+
+/**
+ * A query instrumentation that does nothing.
+ *
+ * @author Christian Beikov
+ * @since 1.6.19
+ */
+public final class NoopQueryInstrumentation implements QueryInstrumentation, QueryInstrumentation.Timer {
+
+    public static final NoopQueryInstrumentation INSTANCE = new NoopQueryInstrumentation();
+
+    private NoopQueryInstrumentation() {
+    }
+
+    @Override
+    public Timer start(QueryPhase phase) {
+        return this;
+    }
+
+    @Override
+    public void end() {
+    }
+
+    @Override
+    public void commit(String type, String query) {
+    }
+}
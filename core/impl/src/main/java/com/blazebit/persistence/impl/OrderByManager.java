@@ -20,6 +20,7 @@ import com.blazebit.persistence.parser.expression.NumericType;
 import com.blazebit.persistence.parser.expression.PathExpression;
 import com.blazebit.persistence.parser.expression.PropertyExpression;
 import com.blazebit.persistence.parser.expression.StringLiteral;
+import com.blazebit.persistence.parser.expression.VisitorAdapter;
 import com.blazebit.persistence.parser.expression.WhenClauseExpression;
 import com.blazebit.persistence.parser.expression.modifier.ExpressionModifier;
 import com.blazebit.persistence.parser.predicate.CompoundPredicate;
@@ -131,6 +132,57 @@ public class OrderByManager extends AbstractManager<ExpressionModifier> {
         return false;
     }
 
+    public boolean containsOrderByExpression(Expression expression) {
+        List<OrderByInfo> infos = orderByInfos;
+        int size = infos.size();
+        for (int i = 0; i < size; i++) {
+            if (expression.equals(infos.get(i).getExpression())) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    public int indexOfOrderBy(Expression expression, String selectAlias) {
+        List<OrderByInfo> infos = orderByInfos;
+        int size = infos.size();
+        for (int i = 0; i < size; i++) {
+            final OrderByInfo orderByInfo = infos.get(i);
+            if (expression.equals(orderByInfo.getExpression()) || selectAlias != null && selectAlias.equals(orderByInfo.getExpressionString())) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Returns the first of the <code>ORDER BY</code> items before the given index that refers to an element of a collection,
+     * or <code>null</code> if there is none. Requires that implicit joins are applied.
+     *
+     * @param endIndex The index of the first <code>ORDER BY</code> item that isn't checked
+     * @return The <code>ORDER BY</code> item that refers to an element of a collection or <code>null</code>
+     */
+    public String getCollectionElementOrderBy(int endIndex) {
+        List<OrderByInfo> infos = orderByInfos;
+        int size = Math.min(endIndex, infos.size());
+        for (int i = 0; i < size; i++) {
+            final OrderByInfo orderByInfo = infos.get(i);
+            CollectionElementDetector detector = new CollectionElementDetector(aliasManager);
+            orderByInfo.getExpression().accept(detector);
+            if (detector.isCollectionElement()) {
+                return orderByInfo.getExpressionString();
+            }
+        }
+        return null;
+    }
+
+    void removeLastOrderBys(int count) {
+        List<OrderByInfo> infos = orderByInfos;
+        for (int i = 0; i < count; i++) {
+            unregisterParameterExpressions(infos.remove(infos.size() - 1).getExpression());
+        }
+    }
+
     void splitEmbeddables(JoinVisitor joinVisitor) {
         List<OrderByInfo> infos = orderByInfos;
         int size = infos.size();
@@ -339,6 +391,15 @@ public class OrderByManager extends AbstractManager<ExpressionModifier> {
         }
     }
 
+    void appendQueryStringCacheKey(QueryStringCacheKeyGenerator generator) {
+        List<OrderByInfo> infos = orderByInfos;
+        int size = infos.size();
+        for (int i = 0; i < size; i++) {
+            final OrderByInfo orderByInfo = infos.get(i);
+            generator.visitOrderBy(orderByInfo.getExpression(), orderByInfo.ascending, orderByInfo.nullFirst);
+        }
+    }
+
     void buildSelectClauses(StringBuilder sb, boolean allClauses, boolean aliasFunction, int[] keysetToSelectIndexMapping) {
         if (orderByInfos.isEmpty()) {
             return;
@@ -577,6 +638,43 @@ public class OrderByManager extends AbstractManager<ExpressionModifier> {
         queryGenerator.setClauseType(null);
     }
 
+    /**
+     * Detects paths that refer to an element of a collection, which has multiple values per row of the query root.
+     *
+     * @author Christian Beikov
+     * @since 1.6.19
+     */
+    private static class CollectionElementDetector extends VisitorAdapter {
+
+        private final AliasManager aliasManager;
+        private boolean collectionElement;
+
+        public CollectionElementDetector(AliasManager aliasManager) {
+            this.aliasManager = aliasManager;
+        }
+
+        public boolean isCollectionElement() {
+            return collectionElement;
+        }
+
+        @Override
+        public void visit(PathExpression expression) {
+            AliasInfo aliasInfo = aliasManager.getAliasInfo(expression.toString());
+            if (aliasInfo instanceof SelectInfo) {
+                ((SelectInfo) aliasInfo).getExpression().accept(this);
+            } else if (expression.getBaseNode() instanceof JoinNode) {
+                JoinNode joinNode = (JoinNode) expression.getBaseNode();
+                while (joinNode != null && joinNode.getParentTreeNode() != null) {
+                    if (joinNode.getParentTreeNode().isCollection()) {
+                        collectionElement = true;
+                        return;
+                    }
+                    joinNode = joinNode.getParent();
+                }
+            }
+        }
+    }
+
     // TODO: needs equals-hashCode implementation
 
     /**
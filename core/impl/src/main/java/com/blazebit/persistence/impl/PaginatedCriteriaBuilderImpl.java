@@ -7,6 +7,7 @@ package com.blazebit.persistence.impl;
 
 import com.blazebit.persistence.CaseWhenStarterBuilder;
 import com.blazebit.persistence.ConfigurationProperties;
+import com.blazebit.persistence.CountStrategy;
 import com.blazebit.persistence.CriteriaBuilder;
 import com.blazebit.persistence.FullQueryBuilder;
 import com.blazebit.persistence.HavingOrBuilder;
@@ -89,6 +90,7 @@ public class PaginatedCriteriaBuilderImpl<T> extends AbstractFullQueryBuilder<T,
     private Boolean withInlineIdQuery;
     private boolean withInlineCountQuery;
     private long maximumCount = Long.MAX_VALUE;
+    private CountStrategy countStrategy;
     private int highestOffset = 0;
     private final KeysetPage keysetPage;
     private final ResolvedExpression[] identifierExpressions;
@@ -160,6 +162,7 @@ public class PaginatedCriteriaBuilderImpl<T> extends AbstractFullQueryBuilder<T,
         builder.withKeysetExtraction(keysetExtraction);
         builder.withExtractAllKeysets(withExtractAllKeysets);
         builder.withCountQuery(withCountQuery);
+        builder.withCountStrategy(countStrategy);
         builder.withForceIdQuery(withForceIdQuery);
         builder.withHighestKeysetOffset(highestOffset);
         return builder;
@@ -308,6 +311,21 @@ public class PaginatedCriteriaBuilderImpl<T> extends AbstractFullQueryBuilder<T,
         return maximumCount;
     }
 
+    @Override
+    public PaginatedCriteriaBuilder<T> withCountStrategy(CountStrategy countStrategy) {
+        this.countStrategy = countStrategy;
+        if (countStrategy != null && withInlineCountQuery) {
+            // The count strategy is invoked after fetching the page, so we must not inline the count query
+            withInlineCountQuery(false);
+        }
+        return this;
+    }
+
+    @Override
+    public CountStrategy getCountStrategy() {
+        return countStrategy;
+    }
+
     @Override
     public PaginatedCriteriaBuilder<T> withForceIdQuery(boolean withForceIdQuery) {
         this.withForceIdQuery = withForceIdQuery;
@@ -594,7 +612,11 @@ public class PaginatedCriteriaBuilderImpl<T> extends AbstractFullQueryBuilder<T,
                 keysetPage,
                 forceFirstResult,
                 inlinedIdQuery,
-                inlinedCountQuery
+                inlinedCountQuery,
+                entityId == null ? countStrategy : null,
+                em,
+                countQueryString,
+                cbf.getExtendedQuerySupport()
         );
         return query;
     }
@@ -991,7 +1013,7 @@ public class PaginatedCriteriaBuilderImpl<T> extends AbstractFullQueryBuilder<T,
         }
 
         if (transformerObjectBuilder != null) {
-            query = new ObjectBuilderTypedQuery<>(query, query instanceof AbstractCustomQuery<?> ? null : parameterManager.getCriteriaNameMapping(), transformerObjectBuilder);
+            query = new ObjectBuilderTypedQuery<>(query, query instanceof AbstractCustomQuery<?> ? null : parameterManager.getCriteriaNameMapping(), transformerObjectBuilder, cbf.getQueryInstrumentation(), getInstrumentationType());
         } else if (parameterManager.getCriteriaNameMapping() != null) {
             if (!(query instanceof CustomSQLTypedQuery<?>)) {
                 query = new TypedQueryWrapper<>(query, parameterManager.getCriteriaNameMapping());
@@ -5,6 +5,7 @@
 
 package com.blazebit.persistence.impl;
 
+import com.blazebit.persistence.CountStrategy;
 import com.blazebit.persistence.KeysetPage;
 import com.blazebit.persistence.ObjectBuilder;
 import com.blazebit.persistence.PagedArrayList;
@@ -15,8 +16,11 @@ import com.blazebit.persistence.impl.builder.object.KeysetExtractionObjectBuilde
 import com.blazebit.persistence.impl.keyset.KeysetMode;
 import com.blazebit.persistence.DefaultKeysetPage;
 import com.blazebit.persistence.impl.keyset.KeysetPaginationHelper;
+import com.blazebit.persistence.impl.query.AbstractCustomQuery;
 import com.blazebit.persistence.impl.util.SetView;
+import com.blazebit.persistence.spi.ExtendedQuerySupport;
 
+import javax.persistence.EntityManager;
 import javax.persistence.FlushModeType;
 import javax.persistence.LockModeType;
 import javax.persistence.NoResultException;
@@ -70,9 +74,15 @@ public class PaginatedTypedQueryImpl<X> implements PaginatedTypedQuery<X> {
     private final boolean forceFirstResult;
     private final boolean inlinedIdQuery;
     private final boolean inlinedCountQuery;
+    private final CountStrategy countStrategy;
+    private final EntityManager em;
+    private final String countQueryString;
+    private final ExtendedQuerySupport extendedQuerySupport;
+    private boolean totalSizeEstimated;
 
     public PaginatedTypedQueryImpl(boolean withExtractAllKeysets, boolean withCount, boolean boundedCount, int highestOffset, TypedQuery<?> countQuery, Query idQuery, TypedQuery<X> objectQuery, ObjectBuilder<X> objectBuilder, Collection<ParameterManager.ParameterImpl<?>> parameters, Map<ParameterExpression<?>, String> criteriaNameMapping,
-                                   Object entityId, int firstResult, int pageSize, int identifierCount, boolean needsNewIdList, int[] keysetToSelectIndexMapping, KeysetMode keysetMode, KeysetPage keysetPage, boolean forceFirstResult, boolean inlinedIdQuery, boolean inlinedCountQuery) {
+                                   Object entityId, int firstResult, int pageSize, int identifierCount, boolean needsNewIdList, int[] keysetToSelectIndexMapping, KeysetMode keysetMode, KeysetPage keysetPage, boolean forceFirstResult, boolean inlinedIdQuery, boolean inlinedCountQuery,
+                                   CountStrategy countStrategy, EntityManager em, String countQueryString, ExtendedQuerySupport extendedQuerySupport) {
         this.withExtractAllKeysets = withExtractAllKeysets;
         this.withCount = withCount;
         this.boundedCount = boundedCount;
@@ -94,6 +104,10 @@ public class PaginatedTypedQueryImpl<X> implements PaginatedTypedQuery<X> {
         this.inlinedIdQuery = inlinedIdQuery;
         this.inlinedCountQuery = inlinedCountQuery;
         this.criteriaNameMapping = criteriaNameMapping;
+        this.countStrategy = countStrategy;
+        this.em = em;
+        this.countQueryString = countQueryString;
+        this.extendedQuerySupport = extendedQuerySupport;
 
         Map<String, Parameter<?>> params = new HashMap<>(parameters.size());
         for (ParameterManager.ParameterImpl<?> parameter : parameters) {
@@ -168,11 +182,22 @@ public class PaginatedTypedQueryImpl<X> implements PaginatedTypedQuery<X> {
         return ((Number) countQuery.getSingleResult()).longValue();
     }
 
+    private long getTotalCount(int firstRow, int pageResultCount) {
+        if (countStrategy == null) {
+            return getTotalCount();
+        }
+        CountStrategyContext context = new CountStrategyContext(firstRow, pageResultCount);
+        long totalCount = countStrategy.getTotalCount(context);
+        totalSizeEstimated = context.isEstimated();
+        return totalCount;
+    }
+
     @Override
     public List<X> getPageResultList() {
         int queryFirstResult = firstResult;
         int firstRow = firstResult;
-        return getResultList(queryFirstResult, firstRow, -1L);
+        totalSizeEstimated = false;
+        return getResultList(queryFirstResult, firstRow, -1L, false);
     }
 
     @Override
@@ -181,7 +206,10 @@ public class PaginatedTypedQueryImpl<X> implements PaginatedTypedQuery<X> {
         int queryFirstResult = firstResult;
         int firstRow = firstResult;
         long totalSize = -1L;
-        if (withCount && !inlinedCountQuery) {
+        // When using a count strategy, the count is determined after fetching the page
+        boolean deferredCount = withCount && !inlinedCountQuery && countStrategy != null;
+        totalSizeEstimated = false;
+        if (withCount && !inlinedCountQuery && !deferredCount) {
             if (entityId == null) {
                 totalSize = ((Number) countQuery.getSingleResult()).longValue();
             } else {
@@ -204,10 +232,10 @@ public class PaginatedTypedQueryImpl<X> implements PaginatedTypedQuery<X> {
             return new PagedArrayList<X>(null, totalSize, queryFirstResult, pageSize);
         }
 
-        return getResultList(queryFirstResult, firstRow, totalSize);
+        return getResultList(queryFirstResult, firstRow, totalSize, deferredCount);
     }
 
-    private PagedList<X> getResultList(int queryFirstResult, int firstRow, long totalSize) {
+    private PagedList<X> getResultList(int queryFirstResult, int firstRow, long totalSize, boolean deferredCount) {
         if (idQuery != null) {
             idQuery.setMaxResults(pageSize);
 
@@ -227,7 +255,7 @@ public class PaginatedTypedQueryImpl<X> implements PaginatedTypedQuery<X> {
                 }
                 long size;
                 if (withCount && totalSize == -1) {
-                    size = getTotalCount();
+                    size = getTotalCount(firstRow, 0);
                 } else {
                     size = totalSize;
                 }
@@ -238,7 +266,7 @@ public class PaginatedTypedQueryImpl<X> implements PaginatedTypedQuery<X> {
                         size = Math.max(size, firstRow);
                     }
                 }
-                return new PagedArrayList<X>(newKeysetPage, size, queryFirstResult, pageSize);
+                return new PagedArrayList<X>(newKeysetPage, size, totalSizeEstimated, queryFirstResult, pageSize);
             }
 
             Serializable[] lowest = null;
@@ -373,10 +401,13 @@ public class PaginatedTypedQueryImpl<X> implements PaginatedTypedQuery<X> {
                 newKeyset = new DefaultKeysetPage(firstRow, pageSize, lowest, highest, keysets);
             }
 
+            if (deferredCount) {
+                totalSize = getTotalCount(firstRow, ids.size());
+            }
             totalSize = Math.max(totalSize, firstRow + ids.size());
             List<X> queryResultList = objectQuery.getResultList();
 
-            PagedList<X> pagedResultList = new PagedArrayList<X>(queryResultList, newKeyset, totalSize, queryFirstResult, pageSize);
+            PagedList<X> pagedResultList = new PagedArrayList<X>(queryResultList, newKeyset, totalSize, totalSizeEstimated, queryFirstResult, pageSize);
             return pagedResultList;
         } else {
             if (!inlinedIdQuery) {
@@ -402,7 +433,7 @@ public class PaginatedTypedQueryImpl<X> implements PaginatedTypedQuery<X> {
                     if (inlinedCountQuery && firstRow == 0) {
                         totalSize = 0L;
                     } else if (withCount) {
-                        totalSize = getTotalCount();
+                        totalSize = getTotalCount(firstRow, 0);
                     }
                 }
                 if (boundedCount) {
@@ -413,7 +444,7 @@ public class PaginatedTypedQueryImpl<X> implements PaginatedTypedQuery<X> {
                     }
                 }
 
-                return new PagedArrayList<X>(newKeysetPage, totalSize, queryFirstResult, pageSize);
+                return new PagedArrayList<X>(newKeysetPage, totalSize, totalSizeEstimated, queryFirstResult, pageSize);
             }
 
             if (keysetMode == KeysetMode.PREVIOUS) {
@@ -452,9 +483,12 @@ public class PaginatedTypedQueryImpl<X> implements PaginatedTypedQuery<X> {
                 }
             }
 
+            if (deferredCount) {
+                totalSize = getTotalCount(firstRow, result.size());
+            }
             totalSize = Math.max(totalSize, firstRow + result.size());
 
-            PagedList<X> pagedResultList = new PagedArrayList<X>(result, newKeyset, totalSize, queryFirstResult, pageSize);
+            PagedList<X> pagedResultList = new PagedArrayList<X>(result, newKeyset, totalSize, totalSizeEstimated, queryFirstResult, pageSize);
             return pagedResultList;
         }
     }
@@ -722,6 +756,85 @@ public class PaginatedTypedQueryImpl<X> implements PaginatedTypedQuery<X> {
         throw new PersistenceException("Unsupported unwrap: " + cls.getName());
     }
 
+    /**
+     * @author Christian Beikov
+     * @since 1.6.19
+     */
+    private class CountStrategyContext implements CountStrategy.Context {
+
+        private final int firstRow;
+        private final int pageResultCount;
+        private Map<String, Object> parameterValues;
+        private boolean estimated;
+
+        public CountStrategyContext(int firstRow, int pageResultCount) {
+            this.firstRow = firstRow;
+            this.pageResultCount = pageResultCount;
+        }
+
+        @Override
+        public EntityManager getEntityManager() {
+            return em;
+        }
+
+        @Override
+        public String getCountQueryString() {
+            return countQueryString;
+        }
+
+        @Override
+        public String getCountSql() {
+            if (countQuery instanceof AbstractCustomQuery<?>) {
+                return ((AbstractCustomQuery<?>) countQuery).getSql();
+            } else if (extendedQuerySupport != null) {
+                return extendedQuerySupport.getSql(em, countQuery);
+            }
+            return null;
+        }
+
+        @Override
+        public Map<String, Object> getParameterValues() {
+            if (parameterValues == null) {
+                Map<String, Object> values = new HashMap<>();
+                for (Parameter<?> parameter : countQuery.getParameters()) {
+                    values.put(getParameterName(parameter), countQuery.isBound(parameter) ? countQuery.getParameterValue(parameter) : null);
+                }
+                parameterValues = Collections.unmodifiableMap(values);
+            }
+            return parameterValues;
+        }
+
+        @Override
+        public int getFirstResult() {
+            return firstRow;
+        }
+
+        @Override
+        public int getMaxResults() {
+            return pageSize;
+        }
+
+        @Override
+        public int getPageResultCount() {
+            return pageResultCount;
+        }
+
+        @Override
+        public long getExactCount() {
+            return getTotalCount();
+        }
+
+        @Override
+        public void markEstimated() {
+            estimated = true;
+        }
+
+        @Override
+        public boolean isEstimated() {
+            return estimated;
+        }
+    }
+
     /**
      * @author Christian Beikov
      * @since 1.2.0
@@ -5,6 +5,7 @@
 
 package com.blazebit.persistence.impl;
 
+import com.blazebit.persistence.impl.util.ParameterPaddingUtils;
 import com.blazebit.persistence.parser.EntityMetamodel;
 import com.blazebit.persistence.parser.expression.Expression;
 import com.blazebit.persistence.parser.expression.ParameterExpression;
@@ -61,6 +62,7 @@ public class ParameterManager {
     private final ParameterUnregistrationVisitor parameterUnregistrationVisitor;
     private Map<javax.persistence.criteria.ParameterExpression<?>, String> criteriaNameMapping;
     private int positionalOffset = -1; // Records the last positional parameter index that was used
+    private MainQuery mainQuery;
 
     public ParameterManager(JpaProvider jpaProvider, EntityMetamodel entityMetamodel) {
         this.jpaProvider = jpaProvider;
@@ -69,6 +71,10 @@ public class ParameterManager {
         this.parameterUnregistrationVisitor = new ParameterUnregistrationVisitor(this);
     }
 
+    void setMainQuery(MainQuery mainQuery) {
+        this.mainQuery = mainQuery;
+    }
+
     public ParameterRegistrationVisitor getParameterRegistrationVisitor() {
         return parameterRegistrationVisitor;
     }
@@ -204,6 +210,7 @@ public class ParameterManager {
 
     void parameterizeQuery(Query q, String skippedParameterPrefix) {
         Set<String> requestedValueParameters = new HashSet<String>();
+        boolean padCollections = mainQuery != null && mainQuery.getQueryConfiguration().isInListParameterPaddingEnabled();
         for (Parameter<?> p : q.getParameters()) {
             String parameterName = p.getName();
             // In case of positional parameters, we convert the position to a string and look it up instead
@@ -234,7 +241,7 @@ public class ParameterManager {
                     q.setParameter(parameterName, parameter.getValue());
                 }
             } else {
-                parameter.bind(q);
+                parameter.bind(q, padCollections);
             }
         }
 
@@ -255,6 +262,10 @@ public class ParameterManager {
         return (Collection<Parameter<?>>) (Collection<?>) parameters.values();
     }
 
+    public Set<String> getParameterNames() {
+        return parameters.keySet();
+    }
+
     public Collection<ParameterImpl<?>> getParameterImpls() {
         return parameters.values();
     }
@@ -686,15 +697,19 @@ public class ParameterManager {
 
         @SuppressWarnings("unchecked")
         private T transform(T value) {
-            if (value instanceof Collection<?>) {
+            return (T) transform(transformer, value);
+        }
+
+        static Object transform(ParameterValueTransformer transformer, Object value) {
+            if (value instanceof Collection<?> && !(transformer instanceof ArrayLiteralParameterTransformer)) {
                 Collection<?> values = (Collection<?>) value;
                 List<Object> list = new ArrayList<>(values.size());
                 for (Object o : values) {
                     list.add(transformer.transform(o));
                 }
-                return (T) list;
+                return list;
             } else {
-                return (T) transformer.transform(value);
+                return transformer.transform(value);
             }
         }
 
@@ -714,6 +729,10 @@ public class ParameterManager {
         }
 
         public void bind(Query q) {
+            bind(q, false);
+        }
+
+        public void bind(Query q, boolean padCollections) {
             if (valueSet) {
                 if (value instanceof ParameterValue) {
                     if (name == null) {
@@ -722,6 +741,10 @@ public class ParameterManager {
                         ((ParameterValue) value).bind(q, name);
                     }
                 } else {
+                    Object value = this.value;
+                    if (padCollections && value instanceof Collection<?>) {
+                        value = ParameterPaddingUtils.pad((Collection<?>) value);
+                    }
                     if (name == null) {
                         q.setParameter(position, value);
                     } else {
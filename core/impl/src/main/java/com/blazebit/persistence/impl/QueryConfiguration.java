@@ -22,6 +22,8 @@ public interface QueryConfiguration {
 
     public String getExpressionCacheClass();
 
+    public Integer getExpressionCacheMaximumSize();
+
     public boolean isCountTransformationEnabled();
 
     public boolean isImplicitGroupByFromSelectEnabled();
@@ -55,4 +57,12 @@ public interface QueryConfiguration {
     public boolean isCacheable();
 
     public boolean isQueryPlanCacheEnabled();
+
+    public boolean isQueryStringCacheEnabled();
+
+    public int getQueryStringCacheMaximumSize();
+
+    public boolean isInArrayParameterBindingEnabled();
+
+    public boolean isInListParameterPaddingEnabled();
 }
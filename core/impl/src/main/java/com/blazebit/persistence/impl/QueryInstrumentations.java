@@ -0,0 +1,24 @@
+/*
+ * SPDX-License-Identifier: Apache-2.0
+ * Copyright Blazebit
+ */
+
+package com.blazebit.persistence.impl;
+
+import com.blazebit.persistence.spi.QueryInstrumentation;
+
+/**
+ * Creates the default query instrumentation. On Java 11 this will emit JFR events.
+ *
+ * @author Christian Beikov
+ * @since 1.6.19
+ */
+class QueryInstrumentations {
+
+    private QueryInstrumentations() {
+    }
+
+    public static QueryInstrumentation createDefault() {
+        return NoopQueryInstrumentation.INSTANCE;
+    }
+}
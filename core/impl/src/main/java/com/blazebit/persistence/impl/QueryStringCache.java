@@ -0,0 +1,57 @@
+/*
+ * SPDX-License-Identifier: Apache-2.0
+ * Copyright Blazebit
+ */
+
+package com.blazebit.persistence.impl;
+
+import com.blazebit.persistence.QueryStringCacheStatistics;
+import com.blazebit.persistence.impl.util.BoundedCache;
+
+import java.util.Collections;
+import java.util.Map;
+
+/**
+ * Caches the rendered JPQL query string of simple queries by a structural key of the query builder.
+ * The key is generated by {@link QueryStringCacheKeyGenerator} and does not contain parameter values.
+ *
+ * @author Christian Beikov
+ * @since 1.6.19
+ */
+public class QueryStringCache extends BoundedCache<String, QueryStringCache.Entry> implements QueryStringCacheStatistics {
+
+    public QueryStringCache(int maximumSize) {
+        super(maximumSize);
+    }
+
+    /**
+     * The rendered query string along with the parameter transformers that were registered during rendering.
+     *
+     * @author Christian Beikov
+     * @since 1.6.19
+     */
+    public static final class Entry {
+
+        private final String queryString;
+        private final Class<?> expectedQueryResultType;
+        private final Map<String, ParameterValueTransformer> parameterTransformers;
+
+        public Entry(String queryString, Class<?> expectedQueryResultType, Map<String, ParameterValueTransformer> parameterTransformers) {
+            this.queryString = queryString;
+            this.expectedQueryResultType = expectedQueryResultType;
+            this.parameterTransformers = parameterTransformers.isEmpty() ? Collections.<String, ParameterValueTransformer>emptyMap() : parameterTransformers;
+        }
+
+        public String getQueryString() {
+            return queryString;
+        }
+
+        public Class<?> getExpectedQueryResultType() {
+            return expectedQueryResultType;
+        }
+
+        public Map<String, ParameterValueTransformer> getParameterTransformers() {
+            return parameterTransformers;
+        }
+    }
+}
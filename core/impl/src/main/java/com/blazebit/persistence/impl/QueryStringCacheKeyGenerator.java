@@ -0,0 +1,139 @@
+/*
+ * SPDX-License-Identifier: Apache-2.0
+ * Copyright Blazebit
+ */
+
+package com.blazebit.persistence.impl;
+
+import com.blazebit.persistence.impl.transform.ExpressionModifierVisitor;
+import com.blazebit.persistence.parser.SimpleQueryGenerator;
+import com.blazebit.persistence.parser.expression.Expression;
+import com.blazebit.persistence.parser.expression.ParameterExpression;
+import com.blazebit.persistence.parser.expression.SubqueryExpression;
+import com.blazebit.persistence.parser.expression.modifier.ExpressionModifier;
+import com.blazebit.persistence.parser.util.JpaMetamodelUtils;
+
+import java.util.List;
+
+/**
+ * Generates a key for the {@link QueryStringCache} that describes the structure of a query builder.
+ * Parameter values are ignored, so structurally identical query builders produce the same key.
+ * If the query builder contains something that is not supported by the cache, <code>null</code> is returned.
+ *
+ * @author Christian Beikov
+ * @since 1.6.19
+ */
+public class QueryStringCacheKeyGenerator extends SimpleQueryGenerator implements JoinNodeVisitor, ExpressionModifierVisitor<ExpressionModifier> {
+
+    private boolean cacheable = true;
+
+    private QueryStringCacheKeyGenerator(StringBuilder sb) {
+        setQueryBuffer(sb);
+    }
+
+    public static String generate(AbstractCommonQueryBuilder<?, ?, ?, ?, ?> builder) {
+        StringBuilder sb = new StringBuilder(256);
+        QueryStringCacheKeyGenerator generator = new QueryStringCacheKeyGenerator(sb);
+        sb.append(builder.getClass().getName()).append('|');
+        sb.append(builder.getResultType().getName()).append('|');
+        sb.append(builder.selectManager.getExpectedQueryResultType().getName()).append('|');
+        if (builder.mainQuery.getQueryConfiguration() instanceof MutableQueryConfiguration) {
+            sb.append(builder.mainQuery.getQueryConfiguration().getProperties()).append('|');
+        }
+
+        sb.append("FROM ");
+        List<JoinNode> roots = builder.joinManager.getRoots();
+        for (int i = 0; i < roots.size(); i++) {
+            roots.get(i).accept((JoinNodeVisitor) generator);
+        }
+
+        sb.append("SELECT ");
+        if (builder.selectManager.isDistinct()) {
+            sb.append("DISTINCT ");
+        }
+        List<SelectInfo> selectInfos = builder.selectManager.getSelectInfos();
+        for (int i = 0; i < selectInfos.size(); i++) {
+            SelectInfo selectInfo = selectInfos.get(i);
+            generator.visit(selectInfo, ClauseType.SELECT);
+            if (selectInfo.getAlias() != null) {
+                sb.append(" AS ").append(selectInfo.getAlias());
+            }
+        }
+
+        builder.whereManager.apply(generator);
+        builder.groupByManager.apply(generator);
+        builder.havingManager.apply(generator);
+        builder.orderByManager.appendQueryStringCacheKey(generator);
+
+        return generator.cacheable ? sb.toString() : null;
+    }
+
+    @Override
+    public void visit(JoinNode node) {
+        if (node.getAliasInfo().isImplicit() || node.getValueCount() > 0 || node.getCorrelationParent() != null || node.isInlineCte()) {
+            cacheable = false;
+            return;
+        }
+        sb.append('[');
+        if (node.getParent() != null) {
+            sb.append(node.getParent().getAlias()).append('.');
+            if (node.getParentTreeNode() != null) {
+                sb.append(node.getParentTreeNode().getRelationName());
+            }
+            sb.append(' ').append(node.getJoinType());
+        }
+        sb.append(' ').append(JpaMetamodelUtils.getTypeName(node.getBaseType()));
+        if (node.getTreatType() != null) {
+            sb.append(" TREAT ").append(node.getTreatType().getName());
+        }
+        sb.append(' ').append(node.getAlias());
+        if (node.isFetch()) {
+            sb.append(" FETCH");
+        }
+        if (node.isLateral()) {
+            sb.append(" LATERAL");
+        }
+        if (node.isDefaultJoinNode()) {
+            sb.append(" DEFAULT");
+        }
+        if (node.getQualificationExpression() != null) {
+            sb.append(' ').append(node.getQualificationExpression());
+        }
+        if (node.getOnPredicate() != null) {
+            sb.append(" ON ");
+            node.getOnPredicate().accept(this);
+        }
+        sb.append(']');
+    }
+
+    @Override
+    public void visit(ExpressionModifier expressionModifier, ClauseType clauseType) {
+        Expression expression = expressionModifier.get();
+        if (expression != null) {
+            sb.append(' ').append(clauseType).append(' ');
+            expression.accept(this);
+        }
+    }
+
+    void visitOrderBy(Expression expression, boolean ascending, boolean nullFirst) {
+        sb.append(" ORDER_BY ");
+        expression.accept(this);
+        sb.append(ascending ? " ASC" : " DESC");
+        sb.append(nullFirst ? " NULLS FIRST" : " NULLS LAST");
+    }
+
+    @Override
+    public void visit(ParameterExpression expression) {
+        // The value of a parameter is not part of the structure
+        sb.append(':').append(expression.getName());
+        if (expression.isCollectionValued()) {
+            sb.append("[]");
+        }
+    }
+
+    @Override
+    public void visit(SubqueryExpression expression) {
+        // Subqueries have their own state, so we don't cache the query string
+        cacheable = false;
+    }
+}
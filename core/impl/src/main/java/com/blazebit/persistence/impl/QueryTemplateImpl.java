@@ -0,0 +1,189 @@
+/*
+ * SPDX-License-Identifier: Apache-2.0
+ * Copyright Blazebit
+ */
+
+package com.blazebit.persistence.impl;
+
+import com.blazebit.persistence.CopyableObjectBuilder;
+import com.blazebit.persistence.QueryTemplate;
+import com.blazebit.persistence.impl.query.ObjectBuilderTypedQuery;
+import com.blazebit.persistence.impl.query.TypedQueryWrapper;
+import com.blazebit.persistence.impl.util.ParameterPaddingUtils;
+import com.blazebit.persistence.spi.JpaProvider;
+import com.blazebit.persistence.spi.QueryInstrumentation;
+
+import javax.persistence.EntityManager;
+import javax.persistence.Query;
+import javax.persistence.TypedQuery;
+import javax.persistence.criteria.ParameterExpression;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * An immutable query template that holds the rendered JPQL query string and a snapshot of the parameter state of a query builder.
+ * Parameter values are transformed on every bind with the transformers registered during rendering.
+ * Criteria parameters that were registered on the query builder can be used to parameterize the queries created by the template.
+ *
+ * @param <T> The query result type
+ * @author Christian Beikov
+ * @since 1.6.19
+ */
+public class QueryTemplateImpl<T> implements QueryTemplate<T> {
+
+    private final String queryString;
+    private final Class<?> expectedQueryResultType;
+    private final int firstResult;
+    private final int maxResults;
+    private final boolean cacheable;
+    private final boolean padCollections;
+    private final JpaProvider jpaProvider;
+    private final Map<String, TemplateParameter> parameters;
+    private final Map<ParameterExpression<?>, String> criteriaNameMapping;
+    private final CopyableObjectBuilder<T> objectBuilder;
+    private final QueryInstrumentation queryInstrumentation;
+    private final String instrumentationType;
+
+    public QueryTemplateImpl(String queryString, Class<?> expectedQueryResultType, int firstResult, int maxResults, boolean cacheable, boolean padCollections, JpaProvider jpaProvider,
+                             Collection<ParameterManager.ParameterImpl<?>> parameters, Map<ParameterExpression<?>, String> criteriaNameMapping, CopyableObjectBuilder<T> objectBuilder, QueryInstrumentation queryInstrumentation, String instrumentationType) {
+        this.queryString = queryString;
+        this.expectedQueryResultType = expectedQueryResultType;
+        this.firstResult = firstResult;
+        this.maxResults = maxResults;
+        this.cacheable = cacheable;
+        this.padCollections = padCollections;
+        this.jpaProvider = jpaProvider;
+        Map<String, TemplateParameter> templateParameters = new LinkedHashMap<>(parameters.size());
+        for (ParameterManager.ParameterImpl<?> parameter : parameters) {
+            TemplateParameter templateParameter = new TemplateParameter(parameter);
+            templateParameters.put(templateParameter.key, templateParameter);
+        }
+        this.parameters = Collections.unmodifiableMap(templateParameters);
+        this.criteriaNameMapping = criteriaNameMapping == null ? null : Collections.unmodifiableMap(new HashMap<>(criteriaNameMapping));
+        this.objectBuilder = objectBuilder;
+        this.queryInstrumentation = queryInstrumentation;
+        this.instrumentationType = instrumentationType;
+    }
+
+    @Override
+    public String getQueryString() {
+        return queryString;
+    }
+
+    @Override
+    public Set<String> getParameterNames() {
+        return parameters.keySet();
+    }
+
+    @Override
+    public TypedQuery<T> bind(EntityManager entityManager) {
+        return bind(entityManager, Collections.<String, Object>emptyMap());
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public TypedQuery<T> bind(EntityManager entityManager, Map<String, ?> parameterValues) {
+        if (entityManager == null) {
+            throw new NullPointerException("entityManager");
+        }
+        for (String parameterName : parameterValues.keySet()) {
+            if (!parameters.containsKey(parameterName)) {
+                throw new IllegalArgumentException(String.format("Parameter name \"%s\" does not exist", parameterName));
+            }
+        }
+        TypedQuery<?> query = entityManager.createQuery(queryString, expectedQueryResultType);
+        if (firstResult != 0) {
+            query.setFirstResult(firstResult);
+        }
+        if (maxResults != Integer.MAX_VALUE) {
+            query.setMaxResults(maxResults);
+        }
+        if (cacheable) {
+            jpaProvider.setCacheable(query);
+        }
+        for (TemplateParameter parameter : parameters.values()) {
+            if (parameterValues.containsKey(parameter.key)) {
+                parameter.bind(query, parameterValues.get(parameter.key), padCollections);
+            } else if (parameter.defaultValue != null) {
+                parameter.defaultValue.bind(query, padCollections);
+            }
+        }
+        if (objectBuilder != null) {
+            return new ObjectBuilderTypedQuery<>(query, criteriaNameMapping, objectBuilder.copy(), queryInstrumentation, instrumentationType);
+        } else if (criteriaNameMapping != null) {
+            return new TypedQueryWrapper<>((TypedQuery<T>) query, criteriaNameMapping);
+        }
+        return (TypedQuery<T>) query;
+    }
+
+    /**
+     * The parameter metadata of a template along with the default value, if any.
+     *
+     * @author Christian Beikov
+     * @since 1.6.19
+     */
+    private static final class TemplateParameter {
+
+        private final String key;
+        private final String name;
+        private final Integer position;
+        private final ParameterValueTransformer transformer;
+        private final ParameterManager.ParameterImpl<Object> defaultValue;
+
+        public TemplateParameter(ParameterManager.ParameterImpl<?> parameter) {
+            this.name = parameter.getName();
+            this.position = parameter.getPosition();
+            this.key = name == null ? position.toString() : name;
+            this.transformer = parameter.getTransformer();
+            if (parameter.isValueSet()) {
+                // The value is already transformed, so we copy it into a parameter without transformer
+                Object value;
+                ParameterManager.ParameterValue parameterValue = parameter.getParameterValue();
+                if (parameterValue != null) {
+                    value = parameterValue.copy();
+                } else if (parameter.getValue() instanceof Collection<?>) {
+                    value = Collections.unmodifiableList(new ArrayList<>((Collection<?>) parameter.getValue()));
+                } else {
+                    value = parameter.getValue();
+                }
+                if (name == null) {
+                    this.defaultValue = new ParameterManager.ParameterImpl<>(position, parameter.isCollectionValued(), parameter.isImplicit(), value);
+                } else {
+                    this.defaultValue = new ParameterManager.ParameterImpl<>(name, parameter.isCollectionValued(), parameter.isImplicit(), value);
+                }
+            } else {
+                this.defaultValue = null;
+            }
+        }
+
+        public void bind(Query query, Object value, boolean padCollections) {
+            if (transformer != null) {
+                value = ParameterManager.ParameterImpl.transform(transformer, value);
+            }
+            ParameterManager.ParameterValue parameterValue = defaultValue == null ? null : defaultValue.getParameterValue();
+            if (parameterValue != null) {
+                // Retain the temporal type of the default value
+                parameterValue = parameterValue.copy().withValue(value);
+                if (name == null) {
+                    parameterValue.bind(query, position);
+                } else {
+                    parameterValue.bind(query, name);
+                }
+            } else {
+                if (padCollections && value instanceof Collection<?>) {
+                    value = ParameterPaddingUtils.pad((Collection<?>) value);
+                }
+                if (name == null) {
+                    query.setParameter(position, value);
+                } else {
+                    query.setParameter(name, value);
+                }
+            }
+        }
+    }
+}
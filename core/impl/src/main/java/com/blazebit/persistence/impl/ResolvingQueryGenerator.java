@@ -7,6 +7,7 @@ package com.blazebit.persistence.impl;
 
 import com.blazebit.persistence.BaseFinalSetOperationBuilder;
 import com.blazebit.persistence.impl.function.exist.ExistFunction;
+import com.blazebit.persistence.impl.function.inarray.InArrayFunction;
 import com.blazebit.persistence.parser.EntityMetamodel;
 import com.blazebit.persistence.parser.SimpleQueryGenerator;
 import com.blazebit.persistence.parser.expression.AggregateExpression;
@@ -50,6 +51,7 @@ import com.blazebit.persistence.spi.ExtendedAttribute;
 import com.blazebit.persistence.spi.ExtendedManagedType;
 import com.blazebit.persistence.spi.JpaProvider;
 import com.blazebit.persistence.spi.JpqlFunction;
+import com.blazebit.reflection.ReflectionUtils;
 
 import javax.persistence.metamodel.Attribute;
 import javax.persistence.metamodel.EmbeddableType;
@@ -58,6 +60,8 @@ import javax.persistence.metamodel.IdentifiableType;
 import javax.persistence.metamodel.ManagedType;
 import javax.persistence.metamodel.MapAttribute;
 import javax.persistence.metamodel.Type;
+import java.math.BigDecimal;
+import java.math.BigInteger;
 import java.sql.Time;
 import java.sql.Timestamp;
 import java.util.Arrays;
@@ -78,6 +82,7 @@ import java.util.Set;
 public class ResolvingQueryGenerator extends SimpleQueryGenerator {
 
     private static final Set<String> BUILT_IN_FUNCTIONS;
+    private static final Set<Class<?>> ARRAY_PARAMETER_ELEMENT_TYPES;
 
     protected String aliasPrefix;
     private boolean resolveSelectAliases = true;
@@ -85,6 +90,7 @@ public class ResolvingQueryGenerator extends SimpleQueryGenerator {
     private boolean quantifiedPredicate;
     private Set<JoinNode> renderedJoinNodes;
     private ClauseType clauseType;
+    private final MainQuery mainQuery;
     private final EntityMetamodel entityMetamodel;
     private final Set<String> currentlyResolvingAliases;
     private final AliasManager aliasManager;
@@ -119,9 +125,26 @@ public class ResolvingQueryGenerator extends SimpleQueryGenerator {
         functions.add("current_time");
         functions.add("current_timestamp");
         BUILT_IN_FUNCTIONS = functions;
+
+        Set<Class<?>> arrayParameterElementTypes = new HashSet<>();
+        arrayParameterElementTypes.add(Short.class);
+        arrayParameterElementTypes.add(short.class);
+        arrayParameterElementTypes.add(Integer.class);
+        arrayParameterElementTypes.add(int.class);
+        arrayParameterElementTypes.add(Long.class);
+        arrayParameterElementTypes.add(long.class);
+        arrayParameterElementTypes.add(Float.class);
+        arrayParameterElementTypes.add(float.class);
+        arrayParameterElementTypes.add(Double.class);
+        arrayParameterElementTypes.add(double.class);
+        arrayParameterElementTypes.add(BigInteger.class);
+        arrayParameterElementTypes.add(BigDecimal.class);
+        arrayParameterElementTypes.add(String.class);
+        ARRAY_PARAMETER_ELEMENT_TYPES = arrayParameterElementTypes;
     }
 
-    public ResolvingQueryGenerator(EntityMetamodel entityMetamodel, AliasManager aliasManager, ParameterManager parameterManager, AssociationParameterTransformerFactory parameterTransformerFactory, JpaProvider jpaProvider, DbmsDialect dbmsDialect, Map<String, JpqlFunction> registeredFunctions, Map<String, String> registeredFunctionNames) {
+    public ResolvingQueryGenerator(MainQuery mainQuery, EntityMetamodel entityMetamodel, AliasManager aliasManager, ParameterManager parameterManager, AssociationParameterTransformerFactory parameterTransformerFactory, JpaProvider jpaProvider, DbmsDialect dbmsDialect, Map<String, JpqlFunction> registeredFunctions, Map<String, String> registeredFunctionNames) {
+        this.mainQuery = mainQuery;
         this.entityMetamodel = entityMetamodel;
         this.aliasManager = aliasManager;
         this.parameterManager = parameterManager;
@@ -883,6 +906,9 @@ public class ResolvingQueryGenerator extends SimpleQueryGenerator {
 
     @Override
     public void visit(InPredicate predicate) {
+        if (renderInArrayIfPossible(predicate)) {
+            return;
+        }
         boolean quantifiedPredicate = this.quantifiedPredicate;
         this.quantifiedPredicate = true;
         if (predicate.getRight().size() == 1 && jpaProvider.needsAssociationToIdRewriteInOnClause() && clauseType == ClauseType.JOIN) {
@@ -908,6 +934,46 @@ public class ResolvingQueryGenerator extends SimpleQueryGenerator {
         this.quantifiedPredicate = quantifiedPredicate;
     }
 
+    private boolean renderInArrayIfPossible(InPredicate predicate) {
+        if (externalRepresentation || predicate.getRight().size() != 1 || !(predicate.getLeft() instanceof PathExpression) || !(predicate.getRight().get(0) instanceof ParameterExpression)) {
+            return false;
+        }
+        ParameterExpression parameterExpression = (ParameterExpression) predicate.getRight().get(0);
+        if (!parameterExpression.isCollectionValued() || !mainQuery.getQueryConfiguration().isInArrayParameterBindingEnabled() || !registeredFunctions.containsKey(InArrayFunction.FUNCTION_NAME)) {
+            return false;
+        }
+        PathReference pathReference = ((PathExpression) predicate.getLeft()).getPathReference();
+        if (pathReference == null || pathReference.getType() == null || pathReference.getType().getPersistenceType() != Type.PersistenceType.BASIC
+                || !ARRAY_PARAMETER_ELEMENT_TYPES.contains(pathReference.getType().getJavaType())) {
+            return false;
+        }
+        ParameterManager.ParameterImpl<?> parameter = parameterManager.getParameter(parameterExpression.getName());
+        if (parameter == null || parameter.isUsedInGroupBy() || parameter.getTransformer() != null && !(parameter.getTransformer() instanceof ArrayLiteralParameterTransformer)) {
+            return false;
+        }
+        String sqlType = dbmsDialect.getSqlType(ReflectionUtils.getObjectClassOfPrimitve(pathReference.getType().getJavaType()));
+        if (sqlType == null) {
+            return false;
+        }
+
+        // The array is bound to a synthetic parameter so that other usages of the parameter are unaffected and still expanded
+        String arrayParameterName = "_" + parameterExpression.getName() + "_array";
+        if (parameter.getTransformer() == null) {
+            parameterManager.registerParameterName(arrayParameterName, false, null, null);
+            parameter.setTransformer(new ArrayLiteralParameterTransformer(parameterManager, arrayParameterName));
+        }
+        sb.append(jpaProvider.getCustomFunctionInvocation(InArrayFunction.FUNCTION_NAME, 4));
+        sb.append(predicate.isNegated() ? "'<>'" : "'='");
+        sb.append(", ");
+        predicate.getLeft().accept(this);
+        sb.append(", :");
+        sb.append(arrayParameterName);
+        sb.append(", '");
+        sb.append(sqlType);
+        sb.append("') = 0");
+        return true;
+    }
+
     private Type<?> getAssociationType(Expression expression1, Expression expression2) {
         if (expression1 instanceof PathExpression) {
             return ((PathExpression) expression1).getPathReference().getType();
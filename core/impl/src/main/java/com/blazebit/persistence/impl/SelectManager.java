@@ -46,6 +46,7 @@ import com.blazebit.persistence.parser.expression.StringLiteral;
 import com.blazebit.persistence.parser.expression.Subquery;
 import com.blazebit.persistence.parser.expression.SubqueryExpression;
 import com.blazebit.persistence.spi.ExtendedManagedType;
+import com.blazebit.persistence.spi.InstrumentationTypeProvider;
 import com.blazebit.persistence.spi.JpaProvider;
 import com.blazebit.persistence.spi.JpqlFunction;
 import com.blazebit.persistence.spi.JpqlFunctionProcessor;
@@ -124,6 +125,13 @@ public class SelectManager<T> extends AbstractManager<SelectInfo> {
         selectObjectBuilderEndedListener.verifyBuilderEnded();
     }
 
+    String getInstrumentationType() {
+        if (objectBuilder instanceof InstrumentationTypeProvider) {
+            return ((InstrumentationTypeProvider) objectBuilder).getInstrumentationType();
+        }
+        return null;
+    }
+
     ObjectBuilder<T> getSelectObjectBuilder() {
         ObjectBuilder<T> builder = objectBuilder;
         if (builder == null) {
@@ -8,6 +8,7 @@ package com.blazebit.persistence.impl.builder.object;
 import java.lang.reflect.Constructor;
 import java.util.List;
 
+import com.blazebit.persistence.CopyableObjectBuilder;
 import com.blazebit.persistence.ObjectBuilder;
 import com.blazebit.persistence.SelectBuilder;
 
@@ -16,7 +17,7 @@ import com.blazebit.persistence.SelectBuilder;
  * @author Moritz Becker
  * @since 1.0.0
  */
-public class ClassObjectBuilder<T> implements ObjectBuilder<T> {
+public class ClassObjectBuilder<T> implements CopyableObjectBuilder<T> {
 
     private final Class<T> clazz;
     private Constructor<T> constructor;
@@ -70,6 +71,11 @@ public class ClassObjectBuilder<T> implements ObjectBuilder<T> {
         return list;
     }
 
+    @Override
+    public ObjectBuilder<T> copy() {
+        return this;
+    }
+
     @Override
     public <X extends SelectBuilder<X>> void applySelects(X queryBuilder) {
     }
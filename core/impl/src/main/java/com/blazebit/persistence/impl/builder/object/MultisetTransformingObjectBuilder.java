@@ -5,6 +5,7 @@
 
 package com.blazebit.persistence.impl.builder.object;
 
+import com.blazebit.persistence.CopyableObjectBuilder;
 import com.blazebit.persistence.ObjectBuilder;
 import com.blazebit.persistence.SelectBuilder;
 import com.blazebit.persistence.impl.SelectInfo;
@@ -21,7 +22,7 @@ import java.util.Map;
  * @author Christian Beikov
  * @since 1.5.0
  */
-public class MultisetTransformingObjectBuilder implements ObjectBuilder<Object[]> {
+public class MultisetTransformingObjectBuilder implements CopyableObjectBuilder<Object[]> {
 
     private final ProcessorEntry[] processorEntries;
 
@@ -41,6 +42,11 @@ public class MultisetTransformingObjectBuilder implements ObjectBuilder<Object[]
         this.processorEntries = processorEntries.toArray(new ProcessorEntry[0]);
     }
 
+    @Override
+    public ObjectBuilder<Object[]> copy() {
+        return this;
+    }
+
     @Override
     public <X extends SelectBuilder<X>> void applySelects(X selectBuilder) {
     }
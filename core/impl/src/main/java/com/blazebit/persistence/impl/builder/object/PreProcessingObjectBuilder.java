@@ -5,6 +5,8 @@
 
 package com.blazebit.persistence.impl.builder.object;
 
+import com.blazebit.persistence.CopyableObjectBuilder;
+import com.blazebit.persistence.GroupingObjectBuilder;
 import com.blazebit.persistence.ObjectBuilder;
 import com.blazebit.persistence.SelectBuilder;
 
@@ -15,7 +17,7 @@ import java.util.List;
  * @author Christian Beikov
  * @since 1.5.0
  */
-public class PreProcessingObjectBuilder<T> implements ObjectBuilder<T> {
+public class PreProcessingObjectBuilder<T> implements GroupingObjectBuilder<T>, CopyableObjectBuilder<T> {
 
     private final ObjectBuilder<Object[]> preProcessor;
     private final ObjectBuilder<T> objectBuilder;
@@ -39,4 +41,34 @@ public class PreProcessingObjectBuilder<T> implements ObjectBuilder<T> {
     public List<T> buildList(List<T> list) {
         return objectBuilder.buildList(list);
     }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public ObjectBuilder<T> copy() {
+        if (!(preProcessor instanceof CopyableObjectBuilder<?>) || !(objectBuilder instanceof CopyableObjectBuilder<?>)) {
+            throw new IllegalStateException("The object builder [" + objectBuilder + "] does not implement " + CopyableObjectBuilder.class.getName());
+        }
+        return new PreProcessingObjectBuilder<>(((CopyableObjectBuilder<Object[]>) preProcessor).copy(), ((CopyableObjectBuilder<T>) objectBuilder).copy());
+    }
+
+    @Override
+    public boolean isGrouping() {
+        return objectBuilder instanceof GroupingObjectBuilder<?> && ((GroupingObjectBuilder<T>) objectBuilder).isGrouping();
+    }
+
+    @Override
+    public boolean isSameGroup(T object1, T object2) {
+        return ((GroupingObjectBuilder<T>) objectBuilder).isSameGroup(object1, object2);
+    }
+
+    @Override
+    public int[] getGroupingTupleIndexes() {
+        // The pre-processor only transforms tuple elements in place, so the indexes stay the same
+        return ((GroupingObjectBuilder<T>) objectBuilder).getGroupingTupleIndexes();
+    }
+
+    @Override
+    public int getGroupBatchSize() {
+        return ((GroupingObjectBuilder<T>) objectBuilder).getGroupBatchSize();
+    }
 }
@@ -13,6 +13,7 @@ import java.util.Map;
 import javax.persistence.Tuple;
 import javax.persistence.TupleElement;
 
+import com.blazebit.persistence.CopyableObjectBuilder;
 import com.blazebit.persistence.ObjectBuilder;
 import com.blazebit.persistence.SelectBuilder;
 import com.blazebit.persistence.impl.SelectInfo;
@@ -23,7 +24,7 @@ import com.blazebit.persistence.impl.SelectInfo;
  * @author Moritz Becker
  * @since 1.0.0
  */
-public class TupleObjectBuilder implements ObjectBuilder<Tuple> {
+public class TupleObjectBuilder implements CopyableObjectBuilder<Tuple> {
 
     private final Map<String, Integer> selectAliasToPositionMap;
     private String[] aliases;
@@ -50,6 +51,11 @@ public class TupleObjectBuilder implements ObjectBuilder<Tuple> {
     public <X extends SelectBuilder<X>> void applySelects(X queryBuilder) {
     }
 
+    @Override
+    public ObjectBuilder<Tuple> copy() {
+        return this;
+    }
+
     private String[] getSelectAliases() {
         return aliases;
     }
@@ -0,0 +1,60 @@
+/*
+ * SPDX-License-Identifier: Apache-2.0
+ * Copyright Blazebit
+ */
+
+package com.blazebit.persistence.impl.function.inarray;
+
+import com.blazebit.persistence.spi.FunctionRenderContext;
+import com.blazebit.persistence.spi.JpqlFunction;
+
+/**
+ * Renders an IN predicate against a single array parameter i.e. <code>expr = any(cast(? as type[]))</code>.
+ * The arguments are the quoted operator, the left hand side expression, the array parameter and the quoted SQL element type.
+ *
+ * @author Christian Beikov
+ * @since 1.6.19
+ */
+public class InArrayFunction implements JpqlFunction {
+
+    public static final String FUNCTION_NAME = "in_array";
+
+    @Override
+    public boolean hasArguments() {
+        return true;
+    }
+
+    @Override
+    public boolean hasParenthesesIfNoArguments() {
+        return true;
+    }
+
+    @Override
+    public Class<?> getReturnType(Class<?> firstArgumentType) {
+        return int.class;
+    }
+
+    @Override
+    public void render(FunctionRenderContext context) {
+        if (context.getArgumentsSize() != 4) {
+            throw new RuntimeException("The in_array function needs exactly four arguments <operator>, <expression>, <array_parameter> and <element_type>! args=" + context);
+        }
+        // need to unquote operator and type
+        String operator = context.getArgument(0);
+        operator = operator.substring(1, operator.length() - 1);
+        String elementType = context.getArgument(3);
+        elementType = elementType.substring(1, elementType.length() - 1);
+
+        context.addArgument(1);
+        if ("=".equals(operator)) {
+            context.addChunk(" = any(cast(");
+        } else {
+            context.addChunk(" <> all(cast(");
+        }
+        context.addArgument(2);
+        context.addChunk(" as ");
+        context.addChunk(elementType);
+        context.addChunk("[])) and 0");
+    }
+
+}
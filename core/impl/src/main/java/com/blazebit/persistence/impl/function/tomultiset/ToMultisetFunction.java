@@ -9,12 +9,14 @@ import com.blazebit.persistence.impl.SubqueryInternalBuilder;
 import com.blazebit.persistence.impl.function.tostringjson.AbstractToStringJsonFunction;
 import com.blazebit.persistence.impl.function.tostringxml.AbstractToStringXmlFunction;
 import com.blazebit.persistence.impl.util.SqlUtils;
+import com.blazebit.persistence.parser.CompiledJsonParser;
 import com.blazebit.persistence.parser.expression.Subquery;
 import com.blazebit.persistence.parser.expression.SubqueryExpression;
 import com.blazebit.persistence.spi.FunctionRenderContext;
 import com.blazebit.persistence.spi.JpqlFunction;
 import com.blazebit.persistence.spi.JpqlFunctionProcessor;
 
+import java.util.Arrays;
 import java.util.List;
 
 /**
@@ -27,10 +29,33 @@ public class ToMultisetFunction implements JpqlFunction, JpqlFunctionProcessor<C
 
     private final AbstractToStringJsonFunction toJsonFunction;
     private final AbstractToStringXmlFunction toXmlFunction;
+    private final boolean positionalJson;
+    // Compiled parsers indexed by field count, copied on write since the amount of distinct field counts is small
+    private volatile CompiledJsonParser[] jsonParsers = new CompiledJsonParser[0];
 
     public ToMultisetFunction(AbstractToStringJsonFunction toJsonFunction, AbstractToStringXmlFunction toXmlFunction) {
+        this(toJsonFunction, toXmlFunction, false);
+    }
+
+    public ToMultisetFunction(AbstractToStringJsonFunction toJsonFunction, AbstractToStringXmlFunction toXmlFunction, boolean positionalJson) {
         this.toJsonFunction = toJsonFunction;
         this.toXmlFunction = toXmlFunction;
+        // Fall back to the JSON object encoding if the JSON function does not support the positional encoding
+        this.positionalJson = positionalJson && toJsonFunction != null && toJsonFunction.supportsPositionalEncoding();
+    }
+
+    /**
+     * Returns a function that renders every row of the multiset as JSON array with positional values instead of a JSON object with field names,
+     * if the underlying JSON function supports that. Since the field names aren't repeated for every row, the encoding is more compact.
+     * The processing of the result is independent of the encoding.
+     *
+     * @return the function using the positional JSON encoding or this instance if the encoding is unsupported
+     */
+    public ToMultisetFunction withPositionalJsonEncoding() {
+        if (positionalJson || toJsonFunction == null || !toJsonFunction.supportsPositionalEncoding()) {
+            return this;
+        }
+        return new ToMultisetFunction(toJsonFunction, toXmlFunction, true);
     }
 
     @Override
@@ -52,17 +77,30 @@ public class ToMultisetFunction implements JpqlFunction, JpqlFunctionProcessor<C
     public Object process(CharSequence result, List<Object> arguments) {
         SubqueryExpression subqueryExpression = (SubqueryExpression) arguments.get(0);
         Subquery subquery = subqueryExpression.getSubquery();
-        String[] fields;
+        int fieldCount;
         if (subquery instanceof SubqueryInternalBuilder<?>) {
-            fields = createFields(((SubqueryInternalBuilder<?>) subquery).getSelectExpressions().size());
+            fieldCount = ((SubqueryInternalBuilder<?>) subquery).getSelectExpressions().size();
         } else {
             throw new IllegalArgumentException("Can't handle: " + subquery);
         }
         if (toJsonFunction == null) {
-            return toXmlFunction.process(result, fields);
+            return toXmlFunction.process(result, createFields(fieldCount));
         } else {
-            return toJsonFunction.process(result, fields);
+            return toJsonFunction.process(result, getJsonParser(fieldCount));
+        }
+    }
+
+    private CompiledJsonParser getJsonParser(int fieldCount) {
+        CompiledJsonParser[] parsers = jsonParsers;
+        if (fieldCount < parsers.length && parsers[fieldCount] != null) {
+            return parsers[fieldCount];
         }
+        CompiledJsonParser parser = CompiledJsonParser.compile(createFields(fieldCount));
+        // A concurrent update might get lost, which is fine as the parser is simply compiled again
+        CompiledJsonParser[] newParsers = Arrays.copyOf(parsers, Math.max(parsers.length, fieldCount + 1));
+        newParsers[fieldCount] = parser;
+        jsonParsers = newParsers;
+        return parser;
     }
 
     @Override
@@ -83,6 +121,8 @@ public class ToMultisetFunction implements JpqlFunction, JpqlFunctionProcessor<C
         String[] fields = createFields(selectItemExpressions.length);
         if (toJsonFunction == null) {
             toXmlFunction.render(context, fields, selectItemExpressions, subquery, fromIndex);
+        } else if (positionalJson) {
+            toJsonFunction.renderPositional(context, fields, selectItemExpressions, subquery, fromIndex);
         } else {
             toJsonFunction.render(context, fields, selectItemExpressions, subquery, fromIndex);
         }
@@ -7,6 +7,7 @@ package com.blazebit.persistence.impl.function.tostringjson;
 
 import com.blazebit.persistence.impl.util.JpqlFunctionUtil;
 import com.blazebit.persistence.impl.util.SqlUtils;
+import com.blazebit.persistence.parser.CompiledJsonParser;
 import com.blazebit.persistence.parser.JsonParser;
 import com.blazebit.persistence.spi.FunctionRenderContext;
 import com.blazebit.persistence.spi.JpqlFunction;
@@ -60,5 +61,35 @@ public abstract class AbstractToStringJsonFunction implements JpqlFunction {
         return JsonParser.parseStringOnly(result, fields);
     }
 
+    public Object process(CharSequence result, CompiledJsonParser parser) {
+        if (result == null) {
+            return null;
+        }
+        return parser.parse(result);
+    }
+
     public abstract void render(FunctionRenderContext context, String[] fields, String[] selectItemExpressions, String subquery, int fromIndex);
+
+    /**
+     * Returns whether {@link #renderPositional(FunctionRenderContext, String[], String[], String, int)} is supported.
+     *
+     * @return whether the positional encoding is supported
+     */
+    public boolean supportsPositionalEncoding() {
+        return false;
+    }
+
+    /**
+     * Like {@link #render(FunctionRenderContext, String[], String[], String, int)}, but renders every row as JSON array
+     * that contains the values in the order of the fields instead of a JSON object with the field names as keys.
+     *
+     * @param context The render context
+     * @param fields The field names which might be used as aliases in the rendered SQL
+     * @param selectItemExpressions The select item expressions of the subquery
+     * @param subquery The subquery
+     * @param fromIndex The index of the from clause within the subquery
+     */
+    public void renderPositional(FunctionRenderContext context, String[] fields, String[] selectItemExpressions, String subquery, int fromIndex) {
+        throw new UnsupportedOperationException("The positional JSON encoding is not supported by " + getClass().getName());
+    }
 }
\ No newline at end of file
@@ -81,10 +81,24 @@ public class GroupConcatBasedToStringJsonFunction extends AbstractToStringJsonFu
 
     @Override
     public void render(FunctionRenderContext context, String[] fields, String[] selectItemExpressions, String subquery, int fromIndex) {
+        render(context, fields, selectItemExpressions, subquery, fromIndex, false);
+    }
+
+    @Override
+    public boolean supportsPositionalEncoding() {
+        return true;
+    }
+
+    @Override
+    public void renderPositional(FunctionRenderContext context, String[] fields, String[] selectItemExpressions, String subquery, int fromIndex) {
+        render(context, fields, selectItemExpressions, subquery, fromIndex, true);
+    }
+
+    protected void render(FunctionRenderContext context, String[] fields, String[] selectItemExpressions, String subquery, int fromIndex, boolean positional) {
         int orderByIndex = SqlUtils.indexOfOrderBy(subquery, fromIndex);
         if (orderByIndex == -1) {
             context.addChunk(preChunk);
-            groupConcatFunction.render(context, new AbstractGroupConcatFunction.GroupConcat(false, createGroupConcatArgument(fields, selectItemExpressions, fromIndex), Collections.<Order>emptyList(), ","));
+            groupConcatFunction.render(context, new AbstractGroupConcatFunction.GroupConcat(false, createGroupConcatArgument(fields, selectItemExpressions, fromIndex, positional), Collections.<Order>emptyList(), ","));
             context.addChunk(postChunk);
             context.addChunk(subquery.substring(fromIndex));
         } else {
@@ -128,7 +142,7 @@ public class GroupConcatBasedToStringJsonFunction extends AbstractToStringJsonFu
             }
             if (limit == null) {
                 context.addChunk(preChunk);
-                groupConcatFunction.render(context, new AbstractGroupConcatFunction.GroupConcat(false, createGroupConcatArgument(fields, selectItemExpressions, fromIndex), Collections.<Order>emptyList(), ","));
+                groupConcatFunction.render(context, new AbstractGroupConcatFunction.GroupConcat(false, createGroupConcatArgument(fields, selectItemExpressions, fromIndex, positional), Collections.<Order>emptyList(), ","));
                 context.addChunk(" OVER (");
                 context.addChunk(subquery.substring(orderByIndex));
                 context.addChunk(postChunk);
@@ -137,7 +151,7 @@ public class GroupConcatBasedToStringJsonFunction extends AbstractToStringJsonFu
             } else {
                 if (lateralStyle == LateralStyle.NONE) {
                     context.addChunk(preChunk);
-                    groupConcatFunction.render(context, new AbstractGroupConcatFunction.GroupConcat(false, createGroupConcatArgument(fields, selectItemExpressions, fromIndex), Collections.<Order>emptyList(), ","));
+                    groupConcatFunction.render(context, new AbstractGroupConcatFunction.GroupConcat(false, createGroupConcatArgument(fields, selectItemExpressions, fromIndex, positional), Collections.<Order>emptyList(), ","));
                     context.addChunk(" OVER (");
                     context.addChunk(subquery.substring(orderByIndex, orderByEndIndex));
                     if (offset == null) {
@@ -157,7 +171,7 @@ public class GroupConcatBasedToStringJsonFunction extends AbstractToStringJsonFu
                     context.addChunk(" limit 1)");
                 } else {
                     context.addChunk(preChunk);
-                    groupConcatFunction.render(context, new AbstractGroupConcatFunction.GroupConcat(false, createGroupConcatArgument(fields, fields, fromIndex), Collections.<Order>emptyList(), ","));
+                    groupConcatFunction.render(context, new AbstractGroupConcatFunction.GroupConcat(false, createGroupConcatArgument(fields, fields, fromIndex, positional), Collections.<Order>emptyList(), ","));
                     context.addChunk(postChunk);
                     context.addChunk(" from lateral(select ");
                     for (int i = 0; i < fields.length; i++) {
@@ -175,22 +189,33 @@ public class GroupConcatBasedToStringJsonFunction extends AbstractToStringJsonFu
         }
     }
 
-    private String createGroupConcatArgument(String[] fields, String[] selectItemExpressions, int fromIndex) {
+    private String createGroupConcatArgument(String[] fields, String[] selectItemExpressions, int fromIndex, boolean positional) {
         StringBuilder sb = new StringBuilder(fromIndex);
-        render(sb, fields, selectItemExpressions);
+        render(sb, fields, selectItemExpressions, positional);
         return sb.toString();
     }
 
-    protected void render(StringBuilder sb, String[] fields, String[] selectItemExpressions) {
+    protected void render(StringBuilder sb, String[] fields, String[] selectItemExpressions, boolean positional) {
         sb.append(concatFunction.startConcat());
-        sb.append("'{\"");
+        if (positional) {
+            sb.append("'['");
+        } else {
+            sb.append("'{\"");
+        }
         for (int i = 0; i < fields.length; i++) {
-            if (i != 0) {
-                sb.append(concatFunction.concatSeparator());
-                sb.append("',\"");
+            if (positional) {
+                if (i != 0) {
+                    sb.append(concatFunction.concatSeparator());
+                    sb.append("','");
+                }
+            } else {
+                if (i != 0) {
+                    sb.append(concatFunction.concatSeparator());
+                    sb.append("',\"");
+                }
+                sb.append(fields[i]);
+                sb.append("\":'");
             }
-            sb.append(fields[i]);
-            sb.append("\":'");
             sb.append(concatFunction.concatSeparator());
             // Don't escape nested multiset invocations
             if (selectItemExpressions[i].startsWith(preChunk)) {
@@ -216,7 +241,11 @@ public class GroupConcatBasedToStringJsonFunction extends AbstractToStringJsonFu
             }
         }
         sb.append(concatFunction.concatSeparator());
-        sb.append("'}'");
+        if (positional) {
+            sb.append("']'");
+        } else {
+            sb.append("'}'");
+        }
         sb.append(concatFunction.endConcat());
     }
 
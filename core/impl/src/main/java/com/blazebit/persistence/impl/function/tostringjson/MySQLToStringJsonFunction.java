@@ -15,27 +15,42 @@ import com.blazebit.persistence.spi.FunctionRenderContext;
 public class MySQLToStringJsonFunction extends AbstractToStringJsonFunction {
 
     private static final String START_CHUNK = "(select json_arrayagg(json_object('";
+    private static final String POSITIONAL_START_CHUNK = "(select json_arrayagg(json_array(";
 
     @Override
     public void render(FunctionRenderContext context, String[] fields, String[] selectItemExpressions, String subquery, int fromIndex) {
-        context.addChunk(START_CHUNK);
+        render(context, fields, selectItemExpressions, subquery, fromIndex, false);
+    }
+
+    @Override
+    public boolean supportsPositionalEncoding() {
+        return true;
+    }
+
+    @Override
+    public void renderPositional(FunctionRenderContext context, String[] fields, String[] selectItemExpressions, String subquery, int fromIndex) {
+        render(context, fields, selectItemExpressions, subquery, fromIndex, true);
+    }
+
+    private void render(FunctionRenderContext context, String[] fields, String[] selectItemExpressions, String subquery, int fromIndex, boolean positional) {
+        context.addChunk(positional ? POSITIONAL_START_CHUNK : START_CHUNK);
 
         int orderByIndex = SqlUtils.indexOfOrderBy(subquery, fromIndex);
         if (orderByIndex == -1) {
-            renderJsonObjectArguments(context, fields, selectItemExpressions);
+            renderJsonArguments(context, fields, selectItemExpressions, positional);
             context.addChunk("))");
             context.addChunk(subquery.substring(fromIndex));
         } else {
             int limitIndex = SqlUtils.indexOfLimit(subquery, orderByIndex);
             if (limitIndex == -1) {
-                renderJsonObjectArguments(context, fields, selectItemExpressions);
+                renderJsonArguments(context, fields, selectItemExpressions, positional);
                 context.addChunk("))");
                 context.addChunk(" OVER (");
                 context.addChunk(subquery.substring(orderByIndex));
                 context.addChunk(")");
                 context.addChunk(subquery.substring(fromIndex, orderByIndex));
             } else {
-                renderJsonObjectArguments(context, fields, fields);
+                renderJsonArguments(context, fields, fields, positional);
                 context.addChunk("))");
                 context.addChunk(" from (select ");
                 for (int i = 0; i < fields.length; i++) {
@@ -52,14 +67,20 @@ public class MySQLToStringJsonFunction extends AbstractToStringJsonFunction {
         }
     }
 
-    private void renderJsonObjectArguments(FunctionRenderContext context, String[] fields, String[] selectItemExpressions) {
+    private void renderJsonArguments(FunctionRenderContext context, String[] fields, String[] selectItemExpressions, boolean positional) {
         for (int i = 0; i < fields.length; i++) {
-            if (i != 0) {
-                context.addChunk(",'");
+            if (positional) {
+                if (i != 0) {
+                    context.addChunk(",");
+                }
+            } else {
+                if (i != 0) {
+                    context.addChunk(",'");
+                }
+                context.addChunk(fields[i]);
+                context.addChunk("',");
             }
-            context.addChunk(fields[i]);
-            context.addChunk("',");
-            if (selectItemExpressions[i].startsWith(START_CHUNK)) {
+            if (selectItemExpressions[i].startsWith(START_CHUNK) || selectItemExpressions[i].startsWith(POSITIONAL_START_CHUNK)) {
                 context.addChunk(selectItemExpressions[i]);
             } else {
                 context.addChunk("cast(");
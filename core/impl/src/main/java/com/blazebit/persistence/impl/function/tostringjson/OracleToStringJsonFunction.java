@@ -28,12 +28,12 @@ public class OracleToStringJsonFunction extends GroupConcatBasedToStringJsonFunc
     }
 
     @Override
-    public void render(FunctionRenderContext context, String[] fields, String[] selectItemExpressions, String subquery, int fromIndex) {
+    protected void render(FunctionRenderContext context, String[] fields, String[] selectItemExpressions, String subquery, int fromIndex, boolean positional) {
         int orderByIndex = SqlUtils.indexOfOrderBy(subquery, fromIndex);
         if (orderByIndex == -1) {
             context.addChunk(preChunk);
             StringBuilder sb = new StringBuilder(fromIndex);
-            render(sb, fields, selectItemExpressions);
+            render(sb, fields, selectItemExpressions, positional);
             context.addChunk(sb.toString());
             context.addChunk(postChunk);
             context.addChunk(subquery.substring(fromIndex));
@@ -42,7 +42,7 @@ public class OracleToStringJsonFunction extends GroupConcatBasedToStringJsonFunc
                 context.addChunk(preChunk);
 
                 StringBuilder sb = new StringBuilder(fromIndex);
-                render(sb, fields, selectItemExpressions);
+                render(sb, fields, selectItemExpressions, positional);
                 context.addChunk(sb.toString());
 
                 context.addChunk(ELEMENT_POST_CHUNK);
@@ -56,7 +56,7 @@ public class OracleToStringJsonFunction extends GroupConcatBasedToStringJsonFunc
                 context.addChunk(preChunk);
 
                 StringBuilder sb = new StringBuilder(fromIndex);
-                render(sb, fields, selectItemExpressions);
+                render(sb, fields, selectItemExpressions, positional);
                 context.addChunk(sb.toString());
 
                 context.addChunk(postChunk);
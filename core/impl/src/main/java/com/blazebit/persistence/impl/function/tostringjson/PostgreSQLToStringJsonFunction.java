@@ -15,26 +15,41 @@ import com.blazebit.persistence.spi.FunctionRenderContext;
 public class PostgreSQLToStringJsonFunction extends AbstractToStringJsonFunction {
 
     private static final String START_CHUNK = "(select jsonb_agg(jsonb_build_object('";
+    private static final String POSITIONAL_START_CHUNK = "(select jsonb_agg(jsonb_build_array(";
 
     @Override
     public void render(FunctionRenderContext context, String[] fields, String[] selectItemExpressions, String subquery, int fromIndex) {
-        context.addChunk(START_CHUNK);
+        render(context, fields, selectItemExpressions, subquery, fromIndex, false);
+    }
+
+    @Override
+    public boolean supportsPositionalEncoding() {
+        return true;
+    }
+
+    @Override
+    public void renderPositional(FunctionRenderContext context, String[] fields, String[] selectItemExpressions, String subquery, int fromIndex) {
+        render(context, fields, selectItemExpressions, subquery, fromIndex, true);
+    }
+
+    private void render(FunctionRenderContext context, String[] fields, String[] selectItemExpressions, String subquery, int fromIndex, boolean positional) {
+        context.addChunk(positional ? POSITIONAL_START_CHUNK : START_CHUNK);
 
         int orderByIndex = SqlUtils.indexOfOrderBy(subquery, fromIndex);
         if (orderByIndex == -1) {
-            renderJsonObjectArguments(context, fields, selectItemExpressions);
+            renderJsonArguments(context, fields, selectItemExpressions, positional);
             context.addChunk("))");
             context.addChunk(subquery.substring(fromIndex));
         } else {
             if (SqlUtils.indexOfLimit(subquery, orderByIndex) == -1 && SqlUtils.indexOfFetchFirst(subquery, orderByIndex) == -1) {
-                renderJsonObjectArguments(context, fields, selectItemExpressions);
+                renderJsonArguments(context, fields, selectItemExpressions, positional);
                 context.addChunk("))");
                 context.addChunk(" OVER (");
                 context.addChunk(subquery.substring(orderByIndex));
                 context.addChunk(")");
                 context.addChunk(subquery.substring(fromIndex, orderByIndex));
             } else {
-                renderJsonObjectArguments(context, fields, fields);
+                renderJsonArguments(context, fields, fields, positional);
                 context.addChunk("))");
                 context.addChunk(" from (select ");
                 for (int i = 0; i < fields.length; i++) {
@@ -51,20 +66,27 @@ public class PostgreSQLToStringJsonFunction extends AbstractToStringJsonFunction
         }
     }
 
-    private void renderJsonObjectArguments(FunctionRenderContext context, String[] fields, String[] selectItemExpressions) {
+    private void renderJsonArguments(FunctionRenderContext context, String[] fields, String[] selectItemExpressions, boolean positional) {
         // PostgreSQL has a limit on the amount of function arguments, so we have to split for every 100 arguments
-        for (int j = 0; j < fields.length; j += 50) {
+        int chunkSize = positional ? 100 : 50;
+        for (int j = 0; j < fields.length; j += chunkSize) {
             if (j != 0) {
-                context.addChunk( ") || jsonb_build_object('" );
+                context.addChunk(positional ? ") || jsonb_build_array(" : ") || jsonb_build_object('");
             }
-            int end = Math.min(j + 50, fields.length);
+            int end = Math.min(j + chunkSize, fields.length);
             for (int i = j; i < end; i++) {
-                if (i != j) {
-                    context.addChunk(",'");
+                if (positional) {
+                    if (i != j) {
+                        context.addChunk(",");
+                    }
+                } else {
+                    if (i != j) {
+                        context.addChunk(",'");
+                    }
+                    context.addChunk(fields[i]);
+                    context.addChunk("',");
                 }
-                context.addChunk(fields[i]);
-                context.addChunk("',");
-                if (selectItemExpressions[i].startsWith(START_CHUNK)) {
+                if (selectItemExpressions[i].startsWith(START_CHUNK) || selectItemExpressions[i].startsWith(POSITIONAL_START_CHUNK)) {
                     context.addChunk(selectItemExpressions[i]);
                 } else {
                     context.addChunk("'' || ");
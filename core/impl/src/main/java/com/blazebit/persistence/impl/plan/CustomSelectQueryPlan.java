@@ -6,6 +6,8 @@
 package com.blazebit.persistence.impl.plan;
 
 import com.blazebit.persistence.spi.ExtendedQuerySupport;
+import com.blazebit.persistence.spi.QueryInstrumentation;
+import com.blazebit.persistence.spi.QueryPhase;
 import com.blazebit.persistence.spi.ServiceProvider;
 
 import javax.persistence.NoResultException;
@@ -22,6 +24,8 @@ public class CustomSelectQueryPlan<T> implements SelectQueryPlan<T> {
 
     private final ExtendedQuerySupport extendedQuerySupport;
     private final ServiceProvider serviceProvider;
+    private final QueryInstrumentation queryInstrumentation;
+    private final String instrumentationType;
     private final Query baseQuery;
     private final Query delegate;
     private final List<Query> participatingQueries;
@@ -30,9 +34,12 @@ public class CustomSelectQueryPlan<T> implements SelectQueryPlan<T> {
     private final int maxResults;
     private final boolean queryPlanCacheEnabled;
 
-    public CustomSelectQueryPlan(ExtendedQuerySupport extendedQuerySupport, ServiceProvider serviceProvider, Query baseQuery, Query delegate, List<Query> participatingQueries, String sql, int firstResult, int maxResults, boolean queryPlanCacheEnabled) {
+    public CustomSelectQueryPlan(ExtendedQuerySupport extendedQuerySupport, ServiceProvider serviceProvider, QueryInstrumentation queryInstrumentation, String instrumentationType, Query baseQuery, Query delegate,
+                                 List<Query> participatingQueries, String sql, int firstResult, int maxResults, boolean queryPlanCacheEnabled) {
         this.extendedQuerySupport = extendedQuerySupport;
         this.serviceProvider = serviceProvider;
+        this.queryInstrumentation = queryInstrumentation;
+        this.instrumentationType = instrumentationType;
         this.baseQuery = baseQuery;
         this.delegate = delegate;
         this.participatingQueries = participatingQueries;
@@ -45,13 +52,23 @@ public class CustomSelectQueryPlan<T> implements SelectQueryPlan<T> {
     @Override
     public List<T> getResultList() {
         extendedQuerySupport.applyFirstResultMaxResults(baseQuery, firstResult, maxResults);
-        return extendedQuerySupport.getResultList(serviceProvider, participatingQueries, delegate, sql, queryPlanCacheEnabled);
+        QueryInstrumentation.Timer timer = queryInstrumentation.start(QueryPhase.EXECUTION);
+        try {
+            return extendedQuerySupport.getResultList(serviceProvider, participatingQueries, delegate, sql, queryPlanCacheEnabled);
+        } finally {
+            timer.commit(instrumentationType, sql);
+        }
     }
 
     @Override
     public T getSingleResult() {
         extendedQuerySupport.applyFirstResultMaxResults(baseQuery, firstResult, maxResults);
-        return (T) extendedQuerySupport.getSingleResult(serviceProvider, participatingQueries, delegate, sql, queryPlanCacheEnabled);
+        QueryInstrumentation.Timer timer = queryInstrumentation.start(QueryPhase.EXECUTION);
+        try {
+            return (T) extendedQuerySupport.getSingleResult(serviceProvider, participatingQueries, delegate, sql, queryPlanCacheEnabled);
+        } finally {
+            timer.commit(instrumentationType, sql);
+        }
     }
 
     @Override
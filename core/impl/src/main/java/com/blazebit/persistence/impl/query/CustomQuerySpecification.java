@@ -16,6 +16,8 @@ import com.blazebit.persistence.spi.DbmsModificationState;
 import com.blazebit.persistence.spi.DbmsStatementType;
 import com.blazebit.persistence.spi.ExtendedQuerySupport;
 import com.blazebit.persistence.spi.LateralStyle;
+import com.blazebit.persistence.spi.QueryInstrumentation;
+import com.blazebit.persistence.spi.QueryPhase;
 import com.blazebit.persistence.spi.ServiceProvider;
 
 import javax.persistence.EntityManager;
@@ -42,6 +44,8 @@ public class CustomQuerySpecification<T> implements QuerySpecification<T> {
     protected final DbmsDialect dbmsDialect;
     protected final ServiceProvider serviceProvider;
     protected final ExtendedQuerySupport extendedQuerySupport;
+    protected final QueryInstrumentation queryInstrumentation;
+    protected final String instrumentationType;
 
     protected final DbmsStatementType statementType;
     protected final Query baseQuery;
@@ -71,6 +75,8 @@ public class CustomQuerySpecification<T> implements QuerySpecification<T> {
         this.dbmsDialect = commonQueryBuilder.getService(DbmsDialect.class);
         this.serviceProvider = commonQueryBuilder;
         this.extendedQuerySupport = commonQueryBuilder.getService(ExtendedQuerySupport.class);
+        this.queryInstrumentation = commonQueryBuilder.getService(QueryInstrumentation.class);
+        this.instrumentationType = commonQueryBuilder.getInstrumentationType();
         this.statementType = commonQueryBuilder.getStatementType();
         this.baseQuery = baseQuery;
         this.parameters = parameters;
@@ -106,13 +112,13 @@ public class CustomQuerySpecification<T> implements QuerySpecification<T> {
     @Override
     public SelectQueryPlan<T> createSelectPlan(int firstResult, int maxResults) {
         final String sql = getSql();
-        return new CustomSelectQueryPlan<>(extendedQuerySupport, serviceProvider, baseQuery, countWrapperExampleQuery == null ? baseQuery : countWrapperExampleQuery, participatingQueries, sql, firstResult, maxResults, queryPlanCacheEnabled);
+        return new CustomSelectQueryPlan<>(extendedQuerySupport, serviceProvider, queryInstrumentation, instrumentationType, baseQuery, countWrapperExampleQuery == null ? baseQuery : countWrapperExampleQuery, participatingQueries, sql, firstResult, maxResults, queryPlanCacheEnabled);
     }
 
     @Override
     public String getSql() {
         if (dirty) {
-            initialize();
+            initializeInstrumented();
         }
         return sql;
     }
@@ -120,7 +126,7 @@ public class CustomQuerySpecification<T> implements QuerySpecification<T> {
     @Override
     public List<Query> getParticipatingQueries() {
         if (dirty) {
-            initialize();
+            initializeInstrumented();
         }
         return participatingQueries;
     }
@@ -133,7 +139,7 @@ public class CustomQuerySpecification<T> implements QuerySpecification<T> {
     @Override
     public Map<String, String> getAddedCtes() {
         if (dirty) {
-            initialize();
+            initializeInstrumented();
         }
         return addedCtes;
     }
@@ -152,6 +158,15 @@ public class CustomQuerySpecification<T> implements QuerySpecification<T> {
         }
     }
 
+    private void initializeInstrumented() {
+        QueryInstrumentation.Timer timer = queryInstrumentation.start(QueryPhase.SQL_REWRITE);
+        try {
+            initialize();
+        } finally {
+            timer.commit(instrumentationType, sql);
+        }
+    }
+
     protected void initialize() {
         List<Query> participatingQueries = new ArrayList<>();
 
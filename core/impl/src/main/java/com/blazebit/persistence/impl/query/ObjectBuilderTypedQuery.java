@@ -5,13 +5,22 @@
 
 package com.blazebit.persistence.impl.query;
 
+import com.blazebit.persistence.GroupingObjectBuilder;
 import com.blazebit.persistence.ObjectBuilder;
+import com.blazebit.persistence.spi.QueryInstrumentation;
+import com.blazebit.persistence.spi.QueryPhase;
 
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Spliterator;
+import java.util.Spliterators;
 import java.util.function.Function;
 import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 import javax.persistence.NoResultException;
 import javax.persistence.NonUniqueResultException;
@@ -26,11 +35,19 @@ import javax.persistence.criteria.ParameterExpression;
 public class ObjectBuilderTypedQuery<X> extends TypedQueryWrapper<X> {
 
     private final ObjectBuilder<X> builder;
+    private final QueryInstrumentation queryInstrumentation;
+    private final String instrumentationType;
 
     @SuppressWarnings("unchecked")
-    public ObjectBuilderTypedQuery(TypedQuery<?> delegate, Map<ParameterExpression<?>, String> criteriaNameMapping, ObjectBuilder<X> builder) {
+    public ObjectBuilderTypedQuery(TypedQuery<?> delegate, Map<ParameterExpression<?>, String> criteriaNameMapping, ObjectBuilder<X> builder, QueryInstrumentation queryInstrumentation, String instrumentationType) {
         super((TypedQuery<X>) delegate, criteriaNameMapping);
         this.builder = builder;
+        this.queryInstrumentation = queryInstrumentation;
+        this.instrumentationType = instrumentationType;
+    }
+
+    public ObjectBuilder<X> getObjectBuilder() {
+        return builder;
     }
 
     @Override
@@ -64,24 +81,39 @@ public class ObjectBuilderTypedQuery<X> extends TypedQueryWrapper<X> {
     @Override
     public List<X> getResultList() {
         List<X> list = super.getResultList();
-        int size = list.size();
-        List<X> newList = new ArrayList<X>(size);
-
-        for (int i = 0; i < size; i++) {
-            Object tuple = list.get(i);
-            
-            if (tuple instanceof Object[]) {
-                newList.add(builder.build((Object[]) tuple));
-            } else {
-                newList.add(builder.build(new Object[] { tuple }));
+        QueryInstrumentation.Timer timer = queryInstrumentation.start(QueryPhase.OBJECT_BUILDING);
+        try {
+            int size = list.size();
+            List<X> newList = new ArrayList<X>(size);
+
+            for (int i = 0; i < size; i++) {
+                Object tuple = list.get(i);
+
+                if (tuple instanceof Object[]) {
+                    newList.add(builder.build((Object[]) tuple));
+                } else {
+                    newList.add(builder.build(new Object[] { tuple }));
+                }
             }
+
+            return builder.buildList(newList);
+        } finally {
+            timer.commit(instrumentationType, null);
         }
-        
-        return builder.buildList(newList);
     }
 
     public Stream<X> getResultStream() {
         final Stream<X> resultStream = super.getResultStream();
+        if (builder instanceof GroupingObjectBuilder<?> && ((GroupingObjectBuilder<X>) builder).isGrouping()) {
+            Iterator<X> iterator = new AdjacentTupleReducingIterator<>((GroupingObjectBuilder<X>) builder, resultStream.iterator());
+            return StreamSupport.stream(Spliterators.spliteratorUnknownSize(iterator, Spliterator.ORDERED), false)
+                .onClose(new Runnable() {
+                    @Override
+                    public void run() {
+                        resultStream.close();
+                    }
+                });
+        }
         return resultStream.map(new Function<X, X>() {
             @Override
             public X apply(X tuple) {
@@ -105,4 +137,85 @@ public class ObjectBuilderTypedQuery<X> extends TypedQueryWrapper<X> {
         });
     }
 
+    /**
+     * Collects adjacent tuples of the same group and reduces them via {@link ObjectBuilder#buildList(List)} as soon as
+     * {@link GroupingObjectBuilder#getGroupBatchSize()} groups are complete, so that at most the tuples of that many groups are held in memory.
+     *
+     * @param <X> The result type
+     * @author Christian Beikov
+     * @since 1.6.19
+     */
+    private static class AdjacentTupleReducingIterator<X> implements Iterator<X> {
+
+        private final GroupingObjectBuilder<X> builder;
+        private final Iterator<X> tupleIterator;
+        private final int groupBatchSize;
+        private List<X> currentTuples = new ArrayList<>();
+        private X currentGroupStart;
+        private Iterator<X> resultIterator = Collections.emptyIterator();
+
+        public AdjacentTupleReducingIterator(GroupingObjectBuilder<X> builder, Iterator<X> tupleIterator) {
+            this.builder = builder;
+            this.tupleIterator = tupleIterator;
+            this.groupBatchSize = Math.max(1, builder.getGroupBatchSize());
+        }
+
+        @Override
+        public boolean hasNext() {
+            while (!resultIterator.hasNext()) {
+                if (!reduceNextGroups()) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        @Override
+        public X next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            return resultIterator.next();
+        }
+
+        @Override
+        public void remove() {
+            throw new UnsupportedOperationException();
+        }
+
+        private boolean reduceNextGroups() {
+            int completedGroups = 0;
+            while (tupleIterator.hasNext()) {
+                Object tuple = tupleIterator.next();
+                X object;
+                if (tuple instanceof Object[]) {
+                    object = builder.build((Object[]) tuple);
+                } else {
+                    object = builder.build(new Object[]{ tuple });
+                }
+                if (currentGroupStart != null && !builder.isSameGroup(currentGroupStart, object)) {
+                    currentGroupStart = object;
+                    if (++completedGroups == groupBatchSize) {
+                        List<X> tuples = currentTuples;
+                        currentTuples = new ArrayList<>();
+                        currentTuples.add(object);
+                        resultIterator = builder.buildList(tuples).iterator();
+                        return true;
+                    }
+                } else if (currentGroupStart == null) {
+                    currentGroupStart = object;
+                }
+                currentTuples.add(object);
+            }
+            if (currentTuples.isEmpty()) {
+                return false;
+            }
+            List<X> tuples = currentTuples;
+            currentTuples = new ArrayList<>(0);
+            currentGroupStart = null;
+            resultIterator = builder.buildList(tuples).iterator();
+            return true;
+        }
+    }
+
 }
@@ -116,7 +116,7 @@ public class SetOperationQuerySpecification<T> extends CustomQuerySpecification<
     @Override
     public SelectQueryPlan<T> createSelectPlan(int firstResult, int maxResults) {
         final String sql = getSql();
-        return new CustomSelectQueryPlan<>(extendedQuerySupport, serviceProvider, baseQuery, baseQuery, participatingQueries, sql, firstResult, maxResults, queryPlanCacheEnabled);
+        return new CustomSelectQueryPlan<>(extendedQuerySupport, serviceProvider, queryInstrumentation, instrumentationType, baseQuery, baseQuery, participatingQueries, sql, firstResult, maxResults, queryPlanCacheEnabled);
     }
 
     private void bindListParameters(Query q) {
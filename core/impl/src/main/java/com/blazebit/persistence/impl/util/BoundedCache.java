@@ -0,0 +1,25 @@
+/*
+ * SPDX-License-Identifier: Apache-2.0
+ * Copyright Blazebit
+ */
+
+package com.blazebit.persistence.impl.util;
+
+import com.blazebit.persistence.CacheStatistics;
+import com.blazebit.persistence.parser.util.ConcurrentBoundedCache;
+
+/**
+ * A thread safe cache that holds at most a fixed number of entries and evicts the least recently used entries when the limit is exceeded.
+ * This is the {@link ConcurrentBoundedCache} that is also used for expressions, exposed with the {@link CacheStatistics} contract.
+ *
+ * @param <K> The key type
+ * @param <V> The value type
+ * @author Christian Beikov
+ * @since 1.6.19
+ */
+public class BoundedCache<K, V> extends ConcurrentBoundedCache<K, V> implements CacheStatistics {
+
+    public BoundedCache(int maximumSize) {
+        super(maximumSize);
+    }
+}
@@ -0,0 +1,60 @@
+/*
+ * SPDX-License-Identifier: Apache-2.0
+ * Copyright Blazebit
+ */
+
+package com.blazebit.persistence.impl.util;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Utility class to pad collection parameter values to the next power of two by repeating the last element,
+ * so that the number of distinct SQL statements only grows logarithmically with the collection size.
+ *
+ * @author Christian Beikov
+ * @since 1.6.19
+ */
+public final class ParameterPaddingUtils {
+
+    private ParameterPaddingUtils() {
+    }
+
+    /**
+     * Returns the next power of two that is greater or equal to the given size.
+     *
+     * @param size The collection size
+     * @return The padded size
+     */
+    public static int getPaddedSize(int size) {
+        if (size <= 2) {
+            return size;
+        }
+        int paddedSize = Integer.highestOneBit(size - 1) << 1;
+        // Protect against overflows for huge sizes
+        return paddedSize < size ? size : paddedSize;
+    }
+
+    /**
+     * Returns a list that contains the elements of the given collection padded with the last element to the padded size,
+     * or the given collection if no padding is necessary.
+     *
+     * @param collection The collection to pad
+     * @return The padded collection
+     */
+    public static Collection<?> pad(Collection<?> collection) {
+        int size = collection.size();
+        int paddedSize = getPaddedSize(size);
+        if (paddedSize == size) {
+            return collection;
+        }
+        List<Object> list = new ArrayList<>(paddedSize);
+        list.addAll(collection);
+        Object last = list.get(size - 1);
+        for (int i = size; i < paddedSize; i++) {
+            list.add(last);
+        }
+        return list;
+    }
+}
@@ -0,0 +1,31 @@
+/*
+ * SPDX-License-Identifier: Apache-2.0
+ * Copyright Blazebit
+ */
+
+package com.blazebit.persistence.impl;
+
+import com.blazebit.persistence.spi.QueryInstrumentation;
+import com.blazebit.persistence.spi.QueryPhase;
+import jdk.jfr.EventType;
+
+/**
+ * A query instrumentation that emits a {@link QueryPhaseEvent} per phase if the event is enabled in a running JFR recording.
+ *
+ * @author Christian Beikov
+ * @since 1.6.19
+ */
+class JfrQueryInstrumentation implements QueryInstrumentation {
+
+    private static final EventType EVENT_TYPE = EventType.getEventType(QueryPhaseEvent.class);
+
+    @Override
+    public Timer start(QueryPhase phase) {
+        if (!EVENT_TYPE.isEnabled()) {
+            return NoopQueryInstrumentation.INSTANCE;
+        }
+        QueryPhaseEvent event = new QueryPhaseEvent(phase.name());
+        event.begin();
+        return event;
+    }
+}
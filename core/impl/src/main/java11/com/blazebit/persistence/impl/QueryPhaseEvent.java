@@ -0,0 +1,52 @@
+/*
+ * SPDX-License-Identifier: Apache-2.0
+ * Copyright Blazebit
+ */
+
+package com.blazebit.persistence.impl;
+
+import com.blazebit.persistence.spi.QueryFingerprint;
+import com.blazebit.persistence.spi.QueryInstrumentation;
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * The JFR event for a {@link com.blazebit.persistence.spi.QueryPhase}.
+ *
+ * @author Christian Beikov
+ * @since 1.6.19
+ */
+@Name("com.blazebit.persistence.QueryPhase")
+@Label("Query Phase")
+@Category({ "Blaze-Persistence" })
+@Description("Time spent in a phase of building or executing a query")
+@StackTrace(false)
+class QueryPhaseEvent extends Event implements QueryInstrumentation.Timer {
+
+    @Label("Phase")
+    String phase;
+    @Label("Type")
+    @Description("The entity view or entity type of the query result")
+    String type;
+    @Label("Query Fingerprint")
+    @Description("The FNV-1a hash of the query string")
+    String fingerprint;
+
+    QueryPhaseEvent(String phase) {
+        this.phase = phase;
+    }
+
+    @Override
+    public void commit(String type, String query) {
+        // The event implicitly ends on commit if end was not invoked
+        if (shouldCommit()) {
+            this.type = type;
+            this.fingerprint = QueryFingerprint.of(query);
+            commit();
+        }
+    }
+}
@@ -0,0 +1,36 @@
+/*
+ * SPDX-License-Identifier: Apache-2.0
+ * Copyright Blazebit
+ */
+
+package com.blazebit.persistence.impl;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+
+import static org.junit.Assert.assertEquals;
+
+public class ArrayLiteralParameterTransformerTest {
+
+    @Test
+    public void testEmpty() {
+        assertEquals("{}", ArrayLiteralParameterTransformer.toArrayLiteral(Collections.emptyList()));
+    }
+
+    @Test
+    public void testNumbers() {
+        assertEquals("{\"1\",\"2\",NULL}", ArrayLiteralParameterTransformer.toArrayLiteral(Arrays.asList(1L, 2L, null)));
+    }
+
+    @Test
+    public void testEscaping() {
+        assertEquals("{\"a,b\",\"\\\"q\\\"\",\"back\\\\slash\",\"NULL\"}", ArrayLiteralParameterTransformer.toArrayLiteral(Arrays.asList("a,b", "\"q\"", "back\\slash", "NULL")));
+    }
+
+    @Test
+    public void testNonCollectionIsUnchanged() {
+        assertEquals(1L, ArrayLiteralParameterTransformer.toArrayLiteral(1L));
+    }
+}
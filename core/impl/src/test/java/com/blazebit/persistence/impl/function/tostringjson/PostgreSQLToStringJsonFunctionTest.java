@@ -0,0 +1,96 @@
+/*
+ * SPDX-License-Identifier: Apache-2.0
+ * Copyright Blazebit
+ */
+package com.blazebit.persistence.impl.function.tostringjson;
+
+import com.blazebit.persistence.spi.FunctionRenderContext;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * @author Christian Beikov
+ * @since 1.6.19
+ */
+public class PostgreSQLToStringJsonFunctionTest {
+
+    private final PostgreSQLToStringJsonFunction function = new PostgreSQLToStringJsonFunction();
+
+    @Test
+    public void testRenderJsonb() {
+        String subquery = "(select d.name,d.age from document d)";
+        String sql = render(false, new String[]{ "f0", "f1" }, new String[]{ "d.name", "d.age" }, subquery);
+        assertEquals("(select jsonb_agg(jsonb_build_object('f0','' || d.name,'f1','' || d.age)) from document d)", sql);
+    }
+
+    @Test
+    public void testRenderPositionalJsonb() {
+        String subquery = "(select d.name,d.age from document d)";
+        String sql = render(true, new String[]{ "f0", "f1" }, new String[]{ "d.name", "d.age" }, subquery);
+        assertEquals("(select jsonb_agg(jsonb_build_array('' || d.name,'' || d.age)) from document d)", sql);
+    }
+
+    @Test
+    public void testRenderNestedJsonb() {
+        String nested = "(select jsonb_agg(jsonb_build_array('' || v.url)) from version v)";
+        String subquery = "(select d.name," + nested + " from document d)";
+        String sql = render(false, new String[]{ "f0", "f1" }, new String[]{ "d.name", nested }, subquery);
+        assertEquals("(select jsonb_agg(jsonb_build_object('f0','' || d.name,'f1'," + nested + ")) from document d)", sql);
+    }
+
+    @Test
+    public void testRenderSplitsArgumentsExceedingLimit() {
+        String[] fields = new String[51];
+        String[] selectItemExpressions = new String[fields.length];
+        StringBuilder sb = new StringBuilder("(select ");
+        for (int i = 0; i < fields.length; i++) {
+            fields[i] = "f" + i;
+            selectItemExpressions[i] = "d.c" + i;
+            if (i != 0) {
+                sb.append(',');
+            }
+            sb.append(selectItemExpressions[i]);
+        }
+        sb.append(" from document d)");
+        String sql = render(false, fields, selectItemExpressions, sb.toString());
+        assertTrue(sql, sql.startsWith("(select jsonb_agg(jsonb_build_object('f0',"));
+        assertTrue(sql, sql.contains(") || jsonb_build_object('f50','' || d.c50))"));
+
+        sql = render(true, fields, selectItemExpressions, sb.toString());
+        assertTrue(sql, sql.startsWith("(select jsonb_agg(jsonb_build_array("));
+    }
+
+    private String render(boolean positional, String[] fields, String[] selectItemExpressions, String subquery) {
+        final StringBuilder sb = new StringBuilder();
+        FunctionRenderContext context = new FunctionRenderContext() {
+            @Override
+            public int getArgumentsSize() {
+                return 0;
+            }
+
+            @Override
+            public String getArgument(int index) {
+                throw new IndexOutOfBoundsException();
+            }
+
+            @Override
+            public void addArgument(int index) {
+                throw new IndexOutOfBoundsException();
+            }
+
+            @Override
+            public void addChunk(String chunk) {
+                sb.append(chunk);
+            }
+        };
+        int fromIndex = subquery.lastIndexOf(" from ");
+        if (positional) {
+            function.renderPositional(context, fields, selectItemExpressions, subquery, fromIndex);
+        } else {
+            function.render(context, fields, selectItemExpressions, subquery, fromIndex);
+        }
+        return sb.toString();
+    }
+}
@@ -0,0 +1,45 @@
+/*
+ * SPDX-License-Identifier: Apache-2.0
+ * Copyright Blazebit
+ */
+
+package com.blazebit.persistence.impl.util;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+
+public class ParameterPaddingUtilsTest {
+
+    @Test
+    public void testPaddedSize() {
+        assertEquals(0, ParameterPaddingUtils.getPaddedSize(0));
+        assertEquals(1, ParameterPaddingUtils.getPaddedSize(1));
+        assertEquals(2, ParameterPaddingUtils.getPaddedSize(2));
+        assertEquals(4, ParameterPaddingUtils.getPaddedSize(3));
+        assertEquals(4, ParameterPaddingUtils.getPaddedSize(4));
+        assertEquals(8, ParameterPaddingUtils.getPaddedSize(5));
+        assertEquals(512, ParameterPaddingUtils.getPaddedSize(500));
+        assertEquals(Integer.MAX_VALUE, ParameterPaddingUtils.getPaddedSize(Integer.MAX_VALUE));
+    }
+
+    @Test
+    public void testPadRepeatsLastElement() {
+        assertEquals(Arrays.asList(1, 2, 3, 3), ParameterPaddingUtils.pad(Arrays.asList(1, 2, 3)));
+        assertEquals(Arrays.asList(1, 2, 3, 4, 5, 5, 5, 5), ParameterPaddingUtils.pad(Arrays.asList(1, 2, 3, 4, 5)));
+    }
+
+    @Test
+    public void testPadReturnsSameCollectionIfNotNecessary() {
+        List<Integer> list = Arrays.asList(1, 2, 3, 4);
+        assertSame(list, ParameterPaddingUtils.pad(list));
+        Collection<Object> empty = Collections.emptyList();
+        assertSame(empty, ParameterPaddingUtils.pad(empty));
+    }
+}
@@ -0,0 +1,406 @@
+/*
+ * SPDX-License-Identifier: Apache-2.0
+ * Copyright Blazebit
+ */
+
+package com.blazebit.persistence.parser;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A parser for the JSON structure that is produced by the JSON functions in Blaze-Persistence i.e. an array of objects with a fixed set of fields.
+ * Elements may also be encoded positionally as arrays, in which case the value at an index of the element array is the value of the field at the same index.
+ * Contrary to {@link JsonParser}, the field layout is compiled once and can be reused for parsing many JSON documents.
+ * Field names are matched directly against the JSON input without allocating strings,
+ * string values without escapes are returned as {@link SubSequence} of the input and only escaped values are copied through a buffer that is reused within a document.
+ *
+ * Besides string values, also number and boolean literals are supported. String, number and boolean values of a field can be decoded by a {@link ValueDecoder}.
+ * Nested arrays and objects are returned as {@link SubSequence} of the input.
+ *
+ * Instances are immutable and thus thread safe.
+ *
+ * @author Christian Beikov
+ * @since 1.6.19
+ */
+public final class CompiledJsonParser {
+
+    private static final int MAX_LONG_DIGITS = 18;
+
+    private final String[] fields;
+    private final ValueDecoder[] decoders;
+
+    private CompiledJsonParser(String[] fields, ValueDecoder[] decoders) {
+        this.fields = fields;
+        this.decoders = decoders;
+    }
+
+    /**
+     * Compiles a parser for objects with the given fields. The field values of an object are placed into an array at the index of the field.
+     *
+     * @param fields The field names
+     * @return The compiled parser
+     */
+    public static CompiledJsonParser compile(String... fields) {
+        return new CompiledJsonParser(fields.clone(), new ValueDecoder[fields.length]);
+    }
+
+    /**
+     * Compiles a parser for objects with the given fields that decodes field values with the decoder at the same index.
+     * A <code>null</code> decoder means that no decoding should happen for the field.
+     *
+     * @param fields The field names
+     * @param decoders The value decoders
+     * @return The compiled parser
+     */
+    public static CompiledJsonParser compile(String[] fields, ValueDecoder[] decoders) {
+        if (fields.length != decoders.length) {
+            throw new IllegalArgumentException("Expected " + fields.length + " decoders but got " + decoders.length);
+        }
+        return new CompiledJsonParser(fields.clone(), decoders.clone());
+    }
+
+    public int getFieldCount() {
+        return fields.length;
+    }
+
+    /**
+     * Parses the given JSON array of objects or positional arrays into a list of arrays that contain the field values.
+     *
+     * @param json The JSON
+     * @return The list of field value arrays
+     */
+    public List<Object[]> parse(CharSequence json) {
+        if (json == null || json.length() == 0) {
+            return new ArrayList<>();
+        }
+        int start = CharSequenceUtils.indexOf(json, '[');
+        int end = CharSequenceUtils.lastIndexOf(json, ']');
+        if (start == -1 || end == -1) {
+            throw new IllegalArgumentException("Expected a JSON array but got: " + json);
+        }
+        return new Cursor(json, start + 1, end).parseArray();
+    }
+
+    /**
+     * Decodes the textual representation of a JSON value into an object.
+     *
+     * @author Christian Beikov
+     * @since 1.6.19
+     */
+    public interface ValueDecoder {
+
+        /**
+         * Decodes the given value. The char sequence must not be retained beyond the call as it might be a reused buffer.
+         *
+         * @param value The textual representation of the value, never <code>null</code>
+         * @return The decoded value
+         */
+        public Object decode(CharSequence value);
+    }
+
+    /**
+     * The parsing state for a single JSON document.
+     *
+     * @author Christian Beikov
+     * @since 1.6.19
+     */
+    private final class Cursor {
+
+        private final CharSequence json;
+        private final int end;
+        private int position;
+        private StringBuilder buffer;
+        private boolean escaped;
+
+        public Cursor(CharSequence json, int start, int end) {
+            this.json = json;
+            this.position = start;
+            this.end = end;
+        }
+
+        public List<Object[]> parseArray() {
+            skipWhitespace();
+            if (position == end) {
+                return new ArrayList<>(0);
+            }
+            List<Object[]> list = new ArrayList<>();
+            while (position < end) {
+                char c = json.charAt(position);
+                if (c == '{') {
+                    list.add(parseObject());
+                } else if (c == '[') {
+                    list.add(parsePositional());
+                } else if (c == ',' || Character.isWhitespace(c)) {
+                    position++;
+                } else {
+                    throw unexpected(c);
+                }
+            }
+            return list;
+        }
+
+        private Object[] parseObject() {
+            Object[] object = new Object[fields.length];
+            int expectedFieldIndex = 0;
+            position++;
+            while (position < end) {
+                char c = json.charAt(position);
+                if (c == '}') {
+                    position++;
+                    return object;
+                } else if (c == ',' || Character.isWhitespace(c)) {
+                    position++;
+                } else if (c == '"') {
+                    int keyStart = position + 1;
+                    int keyEnd = scanString();
+                    int fieldIndex = fieldIndex(keyStart, keyEnd, expectedFieldIndex);
+                    skipWhitespace();
+                    if (position == end || json.charAt(position) != ':') {
+                        throw new IllegalArgumentException("Expected ':' at position " + position + " in: " + json);
+                    }
+                    position++;
+                    skipWhitespace();
+                    object[fieldIndex] = parseValue(decoders[fieldIndex]);
+                    expectedFieldIndex = fieldIndex + 1;
+                } else {
+                    throw unexpected(c);
+                }
+            }
+            throw new IllegalArgumentException("Unterminated object in: " + json);
+        }
+
+        private Object[] parsePositional() {
+            Object[] object = new Object[fields.length];
+            int fieldIndex = 0;
+            position++;
+            while (position < end) {
+                char c = json.charAt(position);
+                if (c == ']') {
+                    position++;
+                    return object;
+                } else if (c == ',' || Character.isWhitespace(c)) {
+                    position++;
+                } else if (fieldIndex == fields.length) {
+                    throw new IllegalArgumentException("Expected at most " + fields.length + " values but found more at position " + position + " in: " + json);
+                } else {
+                    object[fieldIndex] = parseValue(decoders[fieldIndex]);
+                    fieldIndex++;
+                }
+            }
+            throw new IllegalArgumentException("Unterminated array in: " + json);
+        }
+
+        private Object parseValue(ValueDecoder decoder) {
+            char c = json.charAt(position);
+            switch (c) {
+                case '"':
+                    int valueStart = position + 1;
+                    int valueEnd = scanString();
+                    CharSequence value;
+                    if (escaped) {
+                        value = decoder == null ? buffer.toString() : buffer;
+                    } else {
+                        value = new SubSequence(json, valueStart, valueEnd);
+                    }
+                    return decoder == null ? value : decoder.decode(value);
+                case 'n':
+                    consumeLiteral("null");
+                    return null;
+                case 't':
+                    consumeLiteral("true");
+                    return decoder == null ? Boolean.TRUE : decoder.decode("true");
+                case 'f':
+                    consumeLiteral("false");
+                    return decoder == null ? Boolean.FALSE : decoder.decode("false");
+                case '[':
+                case '{':
+                    int nestedStart = position;
+                    position = findEnd(position);
+                    return new SubSequence(json, nestedStart, position);
+                default:
+                    return parseNumber(decoder);
+            }
+        }
+
+        private void consumeLiteral(String literal) {
+            int literalEnd = position + literal.length();
+            if (literalEnd > end) {
+                throw new IllegalArgumentException("Expected '" + literal + "' at position " + position + " in: " + json);
+            }
+            for (int i = 0; i < literal.length(); i++) {
+                if (json.charAt(position + i) != literal.charAt(i)) {
+                    throw new IllegalArgumentException("Expected '" + literal + "' at position " + position + " in: " + json);
+                }
+            }
+            position = literalEnd;
+        }
+
+        private Object parseNumber(ValueDecoder decoder) {
+            int start = position;
+            boolean integral = true;
+            for (; position < end; position++) {
+                char c = json.charAt(position);
+                if (c == '.' || c == 'e' || c == 'E') {
+                    integral = false;
+                } else if ((c < '0' || c > '9') && c != '-' && c != '+') {
+                    break;
+                }
+            }
+            if (start == position) {
+                throw unexpected(json.charAt(start));
+            }
+            SubSequence number = new SubSequence(json, start, position);
+            if (decoder != null) {
+                return decoder.decode(number);
+            }
+            if (!integral) {
+                return new BigDecimal(number.toString());
+            }
+            boolean negative = json.charAt(start) == '-';
+            int digitStart = negative ? start + 1 : start;
+            if (position - digitStart > MAX_LONG_DIGITS) {
+                return new BigInteger(number.toString());
+            }
+            long value = 0;
+            for (int i = digitStart; i < position; i++) {
+                value = value * 10 + (json.charAt(i) - '0');
+            }
+            return negative ? -value : value;
+        }
+
+        /**
+         * Scans the string starting at the current position, which must be a quote, and returns the index of the closing quote.
+         * If the string contains escape sequences, the unescaped string is available through the buffer.
+         */
+        private int scanString() {
+            int start = position + 1;
+            escaped = false;
+            for (int i = start; i < end; i++) {
+                char c = json.charAt(i);
+                if (c == '"') {
+                    position = i + 1;
+                    return i;
+                } else if (c == '\\') {
+                    if (!escaped) {
+                        escaped = true;
+                        if (buffer == null) {
+                            buffer = new StringBuilder(i - start + 16);
+                        } else {
+                            buffer.setLength(0);
+                        }
+                        buffer.append(json, start, i);
+                    }
+                    c = json.charAt(++i);
+                    switch (c) {
+                        case 'b':
+                            c = '\b';
+                            break;
+                        case 'f':
+                            c = '\f';
+                            break;
+                        case 'r':
+                            c = '\r';
+                            break;
+                        case 'n':
+                            c = '\n';
+                            break;
+                        case 't':
+                            c = '\t';
+                            break;
+                        case 'u':
+                            c = (char) Integer.parseInt(json.subSequence(i + 1, i + 5).toString(), 16);
+                            i += 4;
+                            break;
+                        case '"':
+                        case '\\':
+                        case '/':
+                            break;
+                        default:
+                            throw new IllegalArgumentException("Unexpected escape sequence at position " + i + " in: " + json);
+                    }
+                    buffer.append(c);
+                } else if (escaped) {
+                    buffer.append(c);
+                }
+            }
+            throw new IllegalArgumentException("Unterminated string in: " + json);
+        }
+
+        private int fieldIndex(int keyStart, int keyEnd, int expectedFieldIndex) {
+            // The JSON functions usually produce the fields in order, so check the next expected field first
+            if (expectedFieldIndex < fields.length && matches(fields[expectedFieldIndex], keyStart, keyEnd)) {
+                return expectedFieldIndex;
+            }
+            for (int i = 0; i < fields.length; i++) {
+                if (matches(fields[i], keyStart, keyEnd)) {
+                    return i;
+                }
+            }
+            throw new IllegalArgumentException("Unknown field '" + (escaped ? buffer : json.subSequence(keyStart, keyEnd)) + "' at position " + keyStart + " in: " + json);
+        }
+
+        private boolean matches(String field, int keyStart, int keyEnd) {
+            if (escaped) {
+                return field.contentEquals(buffer);
+            }
+            int length = field.length();
+            if (length != keyEnd - keyStart) {
+                return false;
+            }
+            for (int i = 0; i < length; i++) {
+                if (field.charAt(i) != json.charAt(keyStart + i)) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        private int findEnd(int start) {
+            int level = 0;
+            boolean quoteMode = false;
+            for (int i = start; i < end; i++) {
+                final char c = json.charAt(i);
+                if (quoteMode) {
+                    if (c == '\\') {
+                        i++;
+                    } else if (c == '"') {
+                        quoteMode = false;
+                    }
+                } else {
+                    switch (c) {
+                        case '"':
+                            quoteMode = true;
+                            break;
+                        case '[':
+                        case '{':
+                            level++;
+                            break;
+                        case ']':
+                        case '}':
+                            level--;
+                            if (level == 0) {
+                                return i + 1;
+                            }
+                            break;
+                        default:
+                            break;
+                    }
+                }
+            }
+            throw new IllegalArgumentException("Unterminated nested value at position " + start + " in: " + json);
+        }
+
+        private void skipWhitespace() {
+            while (position < end && Character.isWhitespace(json.charAt(position))) {
+                position++;
+            }
+        }
+
+        private IllegalArgumentException unexpected(char c) {
+            return new IllegalArgumentException("Unexpected character '" + c + "' at position " + position + " in: " + json);
+        }
+    }
+}
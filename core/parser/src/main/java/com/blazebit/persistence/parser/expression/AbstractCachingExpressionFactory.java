@@ -69,10 +69,33 @@ public abstract class AbstractCachingExpressionFactory extends AbstractExpressio
 
     private final ExpressionFactory delegate;
     private final ExpressionCache<ExpressionCacheEntry> expressionCache;
+    private final String pathExpressionCacheName;
+    private final String simpleExpressionCacheName;
+    private final String inItemExpressionCacheName;
+    private final String inItemOrPathExpressionCacheName;
+    private final String booleanExpressionCacheName;
 
     public AbstractCachingExpressionFactory(ExpressionFactory delegate, ExpressionCache expressionCache) {
+        this(delegate, expressionCache, "");
+    }
+
+    /**
+     * Creates a caching expression factory that prefixes the names of the caches it uses with the given prefix,
+     * so that factories which parse expressions differently can share a single expression cache.
+     *
+     * @param delegate The expression factory to delegate to on a cache miss
+     * @param expressionCache The expression cache
+     * @param cacheNamePrefix The prefix for cache names
+     * @since 1.6.19
+     */
+    public AbstractCachingExpressionFactory(ExpressionFactory delegate, ExpressionCache expressionCache, String cacheNamePrefix) {
         this.delegate = delegate;
         this.expressionCache = expressionCache;
+        this.pathExpressionCacheName = cacheNamePrefix + "com.blazebit.persistence.parser.expression.cache.PathExpression";
+        this.simpleExpressionCacheName = cacheNamePrefix + "com.blazebit.persistence.parser.expression.cache.SimpleExpression";
+        this.inItemExpressionCacheName = cacheNamePrefix + "com.blazebit.persistence.parser.expression.cache.InPredicateExpression";
+        this.inItemOrPathExpressionCacheName = cacheNamePrefix + "com.blazebit.persistence.parser.expression.cache.InPredicateSingleExpression";
+        this.booleanExpressionCacheName = cacheNamePrefix + "com.blazebit.persistence.parser.expression.cache.PredicateExpression";
     }
 
     @Override
@@ -90,12 +113,12 @@ public abstract class AbstractCachingExpressionFactory extends AbstractExpressio
 
     @Override
     public Expression createPathExpression(final String expression, final MacroConfiguration macroConfiguration, Set<String> usedMacros) {
-        return getOrDefault("com.blazebit.persistence.parser.expression.cache.PathExpression", delegate, expression, false, false, false, macroConfiguration, PATH_EXPRESSION_SUPPLIER);
+        return getOrDefault(pathExpressionCacheName, delegate, expression, false, false, false, macroConfiguration, PATH_EXPRESSION_SUPPLIER);
     }
 
     @Override
     public Expression createSimpleExpression(final String expression, boolean allowOuter, final boolean allowQuantifiedPredicates, boolean allowObjectExpression, final MacroConfiguration macroConfiguration, Set<String> usedMacros) {
-        return getOrDefault("com.blazebit.persistence.parser.expression.cache.SimpleExpression", delegate, expression, allowOuter, allowQuantifiedPredicates, allowObjectExpression, macroConfiguration, SIMPLE_EXPRESSION_SUPPLIER);
+        return getOrDefault(simpleExpressionCacheName, delegate, expression, allowOuter, allowQuantifiedPredicates, allowObjectExpression, macroConfiguration, SIMPLE_EXPRESSION_SUPPLIER);
     }
 
     @Override
@@ -122,17 +145,17 @@ public abstract class AbstractCachingExpressionFactory extends AbstractExpressio
 
     @Override
     public Expression createInItemExpression(final String parameterOrLiteralExpression, final MacroConfiguration macroConfiguration, Set<String> usedMacros) {
-        return getOrDefault("com.blazebit.persistence.parser.expression.cache.InPredicateExpression", delegate, parameterOrLiteralExpression, false, false, false, macroConfiguration, IN_ITEM_EXPRESSION_SUPPLIER);
+        return getOrDefault(inItemExpressionCacheName, delegate, parameterOrLiteralExpression, false, false, false, macroConfiguration, IN_ITEM_EXPRESSION_SUPPLIER);
     }
 
     @Override
     public Expression createInItemOrPathExpression(final String parameterOrLiteralExpression, final MacroConfiguration macroConfiguration, Set<String> usedMacros) {
-        return getOrDefault("com.blazebit.persistence.parser.expression.cache.InPredicateSingleExpression", delegate, parameterOrLiteralExpression, false, false, false, macroConfiguration, IN_ITEM_OR_PATH_EXPRESSION_SUPPLIER);
+        return getOrDefault(inItemOrPathExpressionCacheName, delegate, parameterOrLiteralExpression, false, false, false, macroConfiguration, IN_ITEM_OR_PATH_EXPRESSION_SUPPLIER);
     }
 
     @Override
     public Predicate createBooleanExpression(final String expression, final boolean allowQuantifiedPredicates, final MacroConfiguration macroConfiguration, Set<String> usedMacros) {
-        return getOrDefault("com.blazebit.persistence.parser.expression.cache.PredicateExpression", delegate, expression, false, allowQuantifiedPredicates, false, macroConfiguration, BOOLEAN_EXPRESSION_SUPPLIER);
+        return getOrDefault(booleanExpressionCacheName, delegate, expression, false, allowQuantifiedPredicates, false, macroConfiguration, BOOLEAN_EXPRESSION_SUPPLIER);
     }
 
     private <E extends Expression> E getOrDefault(String cacheName, ExpressionFactory expressionFactory, String expression, boolean allowOuter, boolean allowQuantifiedPredicates, boolean allowObjectExpression, MacroConfiguration macroConfiguration, ExpressionSupplier defaultExpressionSupplier) {
@@ -0,0 +1,108 @@
+/*
+ * SPDX-License-Identifier: Apache-2.0
+ * Copyright Blazebit
+ */
+
+package com.blazebit.persistence.parser.expression;
+
+import com.blazebit.persistence.parser.util.ConcurrentBoundedCache;
+
+import java.util.Collections;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * An expression cache that holds at most {@link #getMaximumSize()} entries per cache name
+ * and evicts the least recently used entries when the limit is exceeded.
+ * Lookups don't take a lock, see {@link ConcurrentBoundedCache} for details.
+ * This is useful when expressions are built from user supplied strings which would otherwise let the cache grow unbounded.
+ *
+ * @author Christian Beikov
+ * @since 1.6.19
+ */
+public class BoundedExpressionCache<T> implements ExpressionCache<T>, ExpressionCacheStatistics {
+
+    public static final int DEFAULT_MAXIMUM_SIZE = 10_000;
+
+    private final int maximumSize;
+    private final ConcurrentMap<String, ConcurrentBoundedCache<Key, T>> cacheManager;
+
+    public BoundedExpressionCache() {
+        this(DEFAULT_MAXIMUM_SIZE);
+    }
+
+    public BoundedExpressionCache(int maximumSize) {
+        if (maximumSize < 1) {
+            throw new IllegalArgumentException("Invalid maximum size for the expression cache: " + maximumSize);
+        }
+        this.maximumSize = maximumSize;
+        this.cacheManager = new ConcurrentHashMap<>();
+    }
+
+    @Override
+    public T get(String cacheName, Key key) {
+        return getCache(cacheName).get(key);
+    }
+
+    @Override
+    public T putIfAbsent(String cacheName, Key key, T value) {
+        return getCache(cacheName).putIfAbsent(key, value);
+    }
+
+    private ConcurrentBoundedCache<Key, T> getCache(String cacheName) {
+        ConcurrentBoundedCache<Key, T> cache = cacheManager.get(cacheName);
+
+        if (cache == null) {
+            cache = new ConcurrentBoundedCache<>(maximumSize);
+            ConcurrentBoundedCache<Key, T> oldCache = cacheManager.putIfAbsent(cacheName, cache);
+
+            if (oldCache != null) {
+                cache = oldCache;
+            }
+        }
+
+        return cache;
+    }
+
+    @Override
+    public Set<String> getCacheNames() {
+        return Collections.unmodifiableSet(cacheManager.keySet());
+    }
+
+    @Override
+    public int getMaximumSize() {
+        return maximumSize;
+    }
+
+    @Override
+    public int getSize(String cacheName) {
+        ConcurrentBoundedCache<Key, T> cache = cacheManager.get(cacheName);
+        return cache == null ? 0 : cache.getSize();
+    }
+
+    @Override
+    public long getHitCount(String cacheName) {
+        ConcurrentBoundedCache<Key, T> cache = cacheManager.get(cacheName);
+        return cache == null ? 0L : cache.getHitCount();
+    }
+
+    @Override
+    public long getMissCount(String cacheName) {
+        ConcurrentBoundedCache<Key, T> cache = cacheManager.get(cacheName);
+        return cache == null ? 0L : cache.getMissCount();
+    }
+
+    @Override
+    public long getEvictionCount(String cacheName) {
+        ConcurrentBoundedCache<Key, T> cache = cacheManager.get(cacheName);
+        return cache == null ? 0L : cache.getEvictionCount();
+    }
+
+    @Override
+    public void clearStatistics() {
+        for (ConcurrentBoundedCache<Key, T> cache : cacheManager.values()) {
+            cache.clearStatistics();
+        }
+    }
+}
@@ -0,0 +1,70 @@
+/*
+ * SPDX-License-Identifier: Apache-2.0
+ * Copyright Blazebit
+ */
+
+package com.blazebit.persistence.parser.expression;
+
+import java.util.Set;
+
+/**
+ * Statistics about the usage of an {@link ExpressionCache}, tracked per cache name.
+ * An instance can be retrieved via {@code CriteriaBuilderFactory.getService(ExpressionCacheStatistics.class)}
+ * if the configured expression cache supports statistics.
+ *
+ * @author Christian Beikov
+ * @since 1.6.19
+ */
+public interface ExpressionCacheStatistics {
+
+    /**
+     * Returns the names of the caches for which statistics exist.
+     *
+     * @return the cache names
+     */
+    public Set<String> getCacheNames();
+
+    /**
+     * Returns the maximum number of entries per cache name.
+     *
+     * @return the maximum size of a cache
+     */
+    public int getMaximumSize();
+
+    /**
+     * Returns the current number of entries in the cache with the given name.
+     *
+     * @param cacheName The cache name
+     * @return the number of entries
+     */
+    public int getSize(String cacheName);
+
+    /**
+     * Returns the number of cache lookups that found an entry in the cache with the given name.
+     *
+     * @param cacheName The cache name
+     * @return the hit count
+     */
+    public long getHitCount(String cacheName);
+
+    /**
+     * Returns the number of cache lookups that found no entry in the cache with the given name.
+     *
+     * @param cacheName The cache name
+     * @return the miss count
+     */
+    public long getMissCount(String cacheName);
+
+    /**
+     * Returns the number of entries that were evicted from the cache with the given name to respect the maximum size.
+     *
+     * @param cacheName The cache name
+     * @return the eviction count
+     */
+    public long getEvictionCount(String cacheName);
+
+    /**
+     * Resets the hit, miss and eviction counters of all caches.
+     */
+    public void clearStatistics();
+}
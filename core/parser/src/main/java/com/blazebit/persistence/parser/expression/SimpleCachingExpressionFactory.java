@@ -20,4 +20,8 @@ public class SimpleCachingExpressionFactory extends AbstractCachingExpressionFac
     public SimpleCachingExpressionFactory(ExpressionFactory delegate, ExpressionCache expressionCache) {
         super(delegate, expressionCache);
     }
+
+    public SimpleCachingExpressionFactory(ExpressionFactory delegate, ExpressionCache expressionCache, String cacheNamePrefix) {
+        super(delegate, expressionCache, cacheNamePrefix);
+    }
 }
@@ -0,0 +1,188 @@
+/*
+ * SPDX-License-Identifier: Apache-2.0
+ * Copyright Blazebit
+ */
+
+package com.blazebit.persistence.parser.util;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * A thread safe cache that holds at most a fixed number of entries and evicts the least recently used entries when the limit is exceeded.
+ * Lookups don't lock, they only record the access by stamping the entry with a logical clock value.
+ * The clock is only advanced if the entry is not already the most recently used one, so that repeated lookups of a hot entry don't write shared state.
+ * When the limit is exceeded, the least recently used entries are evicted under a lock that only writers which exceed the limit contend on.
+ * To amortize the cost of finding these entries, a batch of a sixteenth of the maximum size, but at least one entry, is evicted at once.
+ *
+ * @param <K> The key type
+ * @param <V> The value type
+ * @author Christian Beikov
+ * @since 1.6.19
+ */
+public class ConcurrentBoundedCache<K, V> {
+
+    private static final int EVICTION_BATCH_DIVISOR = 16;
+
+    private static final Comparator<Node<?, ?>> STAMP_COMPARATOR = new Comparator<Node<?, ?>>() {
+        @Override
+        public int compare(Node<?, ?> o1, Node<?, ?> o2) {
+            return Long.compare(o1.stamp, o2.stamp);
+        }
+    };
+
+    private final int maximumSize;
+    private final int evictionBatchSize;
+    private final ConcurrentMap<K, Node<K, V>> map;
+    private final AtomicLong clock = new AtomicLong();
+    private final ReentrantLock evictionLock = new ReentrantLock();
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong evictions = new AtomicLong();
+
+    public ConcurrentBoundedCache(int maximumSize) {
+        if (maximumSize < 1) {
+            throw new IllegalArgumentException("Invalid maximum size for cache: " + maximumSize);
+        }
+        this.maximumSize = maximumSize;
+        this.evictionBatchSize = Math.max(1, maximumSize / EVICTION_BATCH_DIVISOR);
+        this.map = new ConcurrentHashMap<>();
+    }
+
+    public V get(K key) {
+        Node<K, V> node = map.get(key);
+        if (node == null) {
+            misses.incrementAndGet();
+            return null;
+        }
+        hits.incrementAndGet();
+        touch(node);
+        return node.value;
+    }
+
+    public V putIfAbsent(K key, V value) {
+        Node<K, V> node = new Node<>(key, value, clock.incrementAndGet());
+        Node<K, V> oldNode = map.putIfAbsent(key, node);
+        if (oldNode != null) {
+            touch(oldNode);
+            return oldNode.value;
+        }
+        if (map.size() > maximumSize) {
+            evict();
+        }
+        return value;
+    }
+
+    public void remove(K key) {
+        map.remove(key);
+    }
+
+    /**
+     * Returns a snapshot of the keys that are currently cached, without affecting the access order.
+     *
+     * @return The cached keys
+     */
+    public List<K> getKeys() {
+        return new ArrayList<>(map.keySet());
+    }
+
+    public void clear() {
+        map.clear();
+    }
+
+    public int getSize() {
+        return map.size();
+    }
+
+    public int getMaximumSize() {
+        return maximumSize;
+    }
+
+    public long getHitCount() {
+        return hits.get();
+    }
+
+    public long getMissCount() {
+        return misses.get();
+    }
+
+    public long getEvictionCount() {
+        return evictions.get();
+    }
+
+    public double getHitRatio() {
+        long hitCount = hits.get();
+        long lookups = hitCount + misses.get();
+        return lookups == 0 ? 0d : (double) hitCount / lookups;
+    }
+
+    public void clearStatistics() {
+        hits.set(0L);
+        misses.set(0L);
+        evictions.set(0L);
+    }
+
+    /**
+     * Invoked after an entry was evicted because the maximum size was exceeded.
+     *
+     * @param key The key of the evicted entry
+     * @param value The value of the evicted entry
+     */
+    protected void onEviction(K key, V value) {
+    }
+
+    private void touch(Node<K, V> node) {
+        if (node.stamp != clock.get()) {
+            node.stamp = clock.incrementAndGet();
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private void evict() {
+        evictionLock.lock();
+        try {
+            // Another writer might have evicted entries already while we were waiting for the lock
+            int excess = map.size() - maximumSize;
+            if (excess <= 0) {
+                return;
+            }
+            Node<K, V>[] nodes = map.values().toArray(new Node[0]);
+            Arrays.sort(nodes, STAMP_COMPARATOR);
+            // Evicting a whole batch leaves room for further inserts before the map has to be sorted again
+            int evictCount = Math.min(nodes.length, Math.max(excess, evictionBatchSize));
+            for (int i = 0; i < evictCount; i++) {
+                if (map.remove(nodes[i].key, nodes[i])) {
+                    evictions.incrementAndGet();
+                    onEviction(nodes[i].key, nodes[i].value);
+                }
+            }
+        } finally {
+            evictionLock.unlock();
+        }
+    }
+
+    /**
+     * A cache entry along with the logical time of its last access.
+     *
+     * @author Christian Beikov
+     * @since 1.6.19
+     */
+    private static final class Node<K, V> {
+
+        private final K key;
+        private final V value;
+        private volatile long stamp;
+
+        public Node(K key, V value, long stamp) {
+            this.key = key;
+            this.value = value;
+            this.stamp = stamp;
+        }
+    }
+}
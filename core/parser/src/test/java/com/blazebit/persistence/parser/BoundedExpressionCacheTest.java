@@ -0,0 +1,126 @@
+/*
+ * SPDX-License-Identifier: Apache-2.0
+ * Copyright Blazebit
+ */
+
+package com.blazebit.persistence.parser;
+
+import com.blazebit.persistence.parser.expression.BoundedExpressionCache;
+import com.blazebit.persistence.parser.expression.Expression;
+import com.blazebit.persistence.parser.expression.ExpressionCache;
+import com.blazebit.persistence.parser.expression.ExpressionFactory;
+import com.blazebit.persistence.parser.expression.ExpressionFactoryImpl;
+import com.blazebit.persistence.parser.expression.SimpleCachingExpressionFactory;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.HashMap;
+
+/**
+ *
+ * @author Christian Beikov
+ * @since 1.6.19
+ */
+public class BoundedExpressionCacheTest {
+
+    private static final String CACHE_NAME = "test";
+
+    @Test
+    public void testEvictsLeastRecentlyUsed() {
+        BoundedExpressionCache<String> cache = new BoundedExpressionCache<>(2);
+        cache.putIfAbsent(CACHE_NAME, key("a"), "a");
+        cache.putIfAbsent(CACHE_NAME, key("b"), "b");
+        // Access a so that b becomes the eldest entry
+        Assert.assertEquals("a", cache.get(CACHE_NAME, key("a")));
+        cache.putIfAbsent(CACHE_NAME, key("c"), "c");
+
+        Assert.assertEquals(2, cache.getSize(CACHE_NAME));
+        Assert.assertEquals(1L, cache.getEvictionCount(CACHE_NAME));
+        Assert.assertNull(cache.get(CACHE_NAME, key("b")));
+        Assert.assertEquals("a", cache.get(CACHE_NAME, key("a")));
+        Assert.assertEquals("c", cache.get(CACHE_NAME, key("c")));
+    }
+
+    @Test
+    public void testEvictsBatch() {
+        BoundedExpressionCache<String> cache = new BoundedExpressionCache<>(32);
+        for (int i = 0; i < 33; i++) {
+            cache.putIfAbsent(CACHE_NAME, key(Integer.toString(i)), Integer.toString(i));
+        }
+
+        // A sixteenth of the maximum size is evicted at once, so the next insert doesn't have to evict again
+        Assert.assertEquals(31, cache.getSize(CACHE_NAME));
+        Assert.assertEquals(2L, cache.getEvictionCount(CACHE_NAME));
+        Assert.assertNull(cache.get(CACHE_NAME, key("0")));
+        Assert.assertNull(cache.get(CACHE_NAME, key("1")));
+        cache.putIfAbsent(CACHE_NAME, key("33"), "33");
+        Assert.assertEquals(32, cache.getSize(CACHE_NAME));
+        Assert.assertEquals(2L, cache.getEvictionCount(CACHE_NAME));
+    }
+
+    @Test
+    public void testPutIfAbsentReturnsExistingValue() {
+        BoundedExpressionCache<String> cache = new BoundedExpressionCache<>(2);
+        Assert.assertEquals("a", cache.putIfAbsent(CACHE_NAME, key("a"), "a"));
+        Assert.assertEquals("a", cache.putIfAbsent(CACHE_NAME, key("a"), "other"));
+        Assert.assertEquals(1, cache.getSize(CACHE_NAME));
+    }
+
+    @Test
+    public void testStatistics() {
+        BoundedExpressionCache<Object> cache = new BoundedExpressionCache<>(10);
+        ExpressionFactory ef = new SimpleCachingExpressionFactory(new ExpressionFactoryImpl(new HashMap<String, FunctionKind>(), true, true), cache);
+
+        Expression expr1 = ef.createSimpleExpression("a.b + 1", false, false, false, null, null);
+        Expression expr2 = ef.createSimpleExpression("a.b + 1", false, false, false, null, null);
+        Assert.assertEquals(expr1, expr2);
+
+        Assert.assertEquals(1, cache.getCacheNames().size());
+        String cacheName = cache.getCacheNames().iterator().next();
+        Assert.assertEquals(1L, cache.getMissCount(cacheName));
+        Assert.assertEquals(1L, cache.getHitCount(cacheName));
+        Assert.assertEquals(0L, cache.getEvictionCount(cacheName));
+
+        cache.clearStatistics();
+        Assert.assertEquals(0L, cache.getMissCount(cacheName));
+        Assert.assertEquals(0L, cache.getHitCount(cacheName));
+        Assert.assertEquals(1, cache.getSize(cacheName));
+    }
+
+    @Test
+    public void testConcurrentAccess() throws Exception {
+        final BoundedExpressionCache<String> cache = new BoundedExpressionCache<>(300);
+        Thread[] threads = new Thread[4];
+        for (int i = 0; i < threads.length; i++) {
+            final int threadIndex = i;
+            threads[i] = new Thread(new Runnable() {
+                @Override
+                public void run() {
+                    for (int j = 0; j < 1000; j++) {
+                        String expression = Integer.toString((j * 31 + threadIndex) % 500);
+                        if (cache.get(CACHE_NAME, key(expression)) == null) {
+                            Assert.assertEquals(expression, cache.putIfAbsent(CACHE_NAME, key(expression), expression));
+                        }
+                    }
+                }
+            });
+            threads[i].start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+
+        Assert.assertTrue(cache.getSize(CACHE_NAME) <= 300);
+        Assert.assertTrue(cache.getEvictionCount(CACHE_NAME) > 0);
+        Assert.assertEquals(4000L, cache.getHitCount(CACHE_NAME) + cache.getMissCount(CACHE_NAME));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testInvalidMaximumSize() {
+        new BoundedExpressionCache<>(0);
+    }
+
+    private static ExpressionCache.Key key(String expression) {
+        return new ExpressionCache.Key(expression, false, false, false);
+    }
+}
@@ -0,0 +1,118 @@
+/*
+ * SPDX-License-Identifier: Apache-2.0
+ * Copyright Blazebit
+ */
+
+package com.blazebit.persistence.parser;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+/**
+ *
+ * @author Christian Beikov
+ * @since 1.6.19
+ */
+public class CompiledJsonParserTest {
+
+    @Test
+    public void testStringOnly() {
+        CompiledJsonParser nameAge = CompiledJsonParser.compile("name", "age");
+        CompiledJsonParser ageName = CompiledJsonParser.compile("age", "name");
+        assertEquals(new Object[]{ "test", "1" }, nameAge.parse("[{\"name\": \"test\", \"age\": \"1\"}]").get(0));
+        assertEquals(new Object[]{ "test", "1" }, nameAge.parse("[{\"age\": \"1\", \"name\": \"test\"}]").get(0));
+        assertEquals(new Object[]{ "1", "test" }, ageName.parse("[{\"name\": \"test\", \"age\": \"1\"}]").get(0));
+        assertEquals(new Object[]{ "1", "test" }, ageName.parse("[{\"age\": \"1\", \"name\": \"test\"}]").get(0));
+    }
+
+    @Test
+    public void testEscapes() {
+        CompiledJsonParser parser = CompiledJsonParser.compile("name", "age");
+        assertEquals(new Object[]{ "test\"\\/\b\f\n\r\t\uFFFF", "1" }, parser.parse("[{\"name\": \"test\\\"\\\\\\/\\b\\f\\n\\r\\t\\uFFFF\", \"age\": \"1\"}]").get(0));
+        assertEquals(new Object[]{ "test\"\\/\b\f\n\r\t\uFFFF", "1" }, parser.parse("[{\"age\": \"1\", \"name\": \"test\\\"\\\\\\/\\b\\f\\n\\r\\t\\uFFFF\"}]").get(0));
+    }
+
+    @Test
+    public void testMultipleObjects() {
+        List<Object[]> objects = CompiledJsonParser.compile("name", "age").parse("[{\"name\": \"a\\\"\", \"age\": \"1\"},{\"name\": \"b\", \"age\": null}]");
+        Assert.assertEquals(2, objects.size());
+        assertEquals(new Object[]{ "a\"", "1" }, objects.get(0));
+        assertEquals(new Object[]{ "b", null }, objects.get(1));
+    }
+
+    @Test
+    public void testLiterals() {
+        Object[] object = CompiledJsonParser.compile("i", "d", "b", "n").parse("[{\"i\":-12,\"d\":1.5e2,\"b\":true,\"n\":false}]").get(0);
+        Assert.assertEquals(-12L, object[0]);
+        Assert.assertEquals(new BigDecimal("1.5e2"), object[1]);
+        Assert.assertEquals(Boolean.TRUE, object[2]);
+        Assert.assertEquals(Boolean.FALSE, object[3]);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testInvalidLiteral() {
+        CompiledJsonParser.compile("f0").parse("[{\"f0\":nope}]");
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testTruncatedLiteral() {
+        CompiledJsonParser.compile("f0").parse("[[tru]]");
+    }
+
+    @Test
+    public void testDecoders() {
+        CompiledJsonParser.ValueDecoder integerDecoder = new CompiledJsonParser.ValueDecoder() {
+            @Override
+            public Object decode(CharSequence value) {
+                return Integer.valueOf(value.toString());
+            }
+        };
+        CompiledJsonParser parser = CompiledJsonParser.compile(new String[]{ "f0", "f1", "f2" }, new CompiledJsonParser.ValueDecoder[]{ integerDecoder, null, integerDecoder });
+        Object[] object = parser.parse("[{\"f0\":\"1\",\"f1\":\"x\",\"f2\":2}]").get(0);
+        Assert.assertEquals(1, object[0]);
+        Assert.assertEquals("x", object[1].toString());
+        Assert.assertEquals(2, object[2]);
+    }
+
+    @Test
+    public void testNested() {
+        Object[] object = CompiledJsonParser.compile("f0", "f1").parse("[{\"f0\":[{\"f0\":\"]\"}],\"f1\":{\"a\":\"}\"}}]").get(0);
+        assertEquals(new Object[]{ "[{\"f0\":\"]\"}]", "{\"a\":\"}\"}" }, object);
+    }
+
+    @Test
+    public void testPositional() {
+        List<Object[]> objects = CompiledJsonParser.compile("f0", "f1", "f2").parse("[[\"a\\\"\", null, [[\"]\"]]], [\"b\",\"1\",null]]");
+        Assert.assertEquals(2, objects.size());
+        assertEquals(new Object[]{ "a\"", null, "[[\"]\"]]" }, objects.get(0));
+        assertEquals(new Object[]{ "b", "1", null }, objects.get(1));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testPositionalTooManyValues() {
+        CompiledJsonParser.compile("f0").parse("[[\"a\",\"b\"]]");
+    }
+
+    @Test
+    public void testEmpty() {
+        CompiledJsonParser parser = CompiledJsonParser.compile("f0");
+        Assert.assertTrue(parser.parse("").isEmpty());
+        Assert.assertTrue(parser.parse("[]").isEmpty());
+        Assert.assertTrue(parser.parse(" [ ] ").isEmpty());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testUnknownField() {
+        CompiledJsonParser.compile("f0").parse("[{\"f1\":\"1\"}]");
+    }
+
+    private static void assertEquals(Object[] array1, Object[] array2) {
+        Assert.assertEquals(array1.length, array2.length);
+        for (int i = 0; i < array1.length; i++) {
+            Assert.assertEquals(String.valueOf(array1[i]), String.valueOf(array2[i]));
+        }
+    }
+}
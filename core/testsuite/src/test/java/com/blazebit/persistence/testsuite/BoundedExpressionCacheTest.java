@@ -0,0 +1,83 @@
+/*
+ * SPDX-License-Identifier: Apache-2.0
+ * Copyright Blazebit
+ */
+
+package com.blazebit.persistence.testsuite;
+
+import com.blazebit.persistence.ConfigurationProperties;
+import com.blazebit.persistence.CriteriaBuilder;
+import com.blazebit.persistence.parser.expression.BoundedExpressionCache;
+import com.blazebit.persistence.parser.expression.ExpressionCacheStatistics;
+import com.blazebit.persistence.spi.CriteriaBuilderConfiguration;
+import com.blazebit.persistence.testsuite.entity.Document;
+import com.blazebit.persistence.testsuite.entity.Person;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+
+/**
+ *
+ * @author Christian Beikov
+ * @since 1.6.19
+ */
+public class BoundedExpressionCacheTest extends AbstractCoreTest {
+
+    @Override
+    protected void configure(CriteriaBuilderConfiguration config) {
+        super.configure(config);
+        config.setProperty(ConfigurationProperties.EXPRESSION_CACHE_CLASS, BoundedExpressionCache.class.getName());
+        config.setProperty(ConfigurationProperties.EXPRESSION_CACHE_MAXIMUM_SIZE, "2");
+    }
+
+    @Test
+    public void testStatisticsAreExposed() {
+        ExpressionCacheStatistics statistics = cbf.getService(ExpressionCacheStatistics.class);
+        assertNotNull(statistics);
+        assertEquals(2, statistics.getMaximumSize());
+        statistics.clearStatistics();
+
+        for (int i = 0; i < 5; i++) {
+            CriteriaBuilder<Long> criteria = cbf.create(em, Long.class).from(Document.class, "d");
+            criteria.select("d.id").where("d.age + " + i).gt(0L);
+            criteria.getQueryString();
+        }
+
+        long hits = 0;
+        long evictions = 0;
+        for (String cacheName : statistics.getCacheNames()) {
+            assertTrue(statistics.getSize(cacheName) <= 2);
+            hits += statistics.getHitCount(cacheName);
+            evictions += statistics.getEvictionCount(cacheName);
+        }
+        assertTrue(hits > 0);
+        assertTrue(evictions > 0);
+    }
+
+    @Test
+    public void testSubqueryStatisticsAreExposed() {
+        ExpressionCacheStatistics statistics = cbf.getService(ExpressionCacheStatistics.class);
+        statistics.clearStatistics();
+
+        for (int i = 0; i < 2; i++) {
+            CriteriaBuilder<Long> criteria = cbf.create(em, Long.class).from(Document.class, "d");
+            criteria.select("d.id")
+                    .where("d.owner.id").in()
+                        .from(Person.class, "p")
+                        .select("p.id")
+                        .where("p.age").gtExpression("1")
+                    .end();
+            criteria.getQueryString();
+        }
+
+        long subqueryHits = 0;
+        for (String cacheName : statistics.getCacheNames()) {
+            if (cacheName.startsWith("subquery:")) {
+                subqueryHits += statistics.getHitCount(cacheName);
+            }
+        }
+        assertTrue(subqueryHits > 0);
+    }
+}
@@ -0,0 +1,189 @@
+/*
+ * SPDX-License-Identifier: Apache-2.0
+ * Copyright Blazebit
+ */
+
+package com.blazebit.persistence.testsuite;
+
+import com.blazebit.persistence.CountStrategies;
+import com.blazebit.persistence.CountStrategy;
+import com.blazebit.persistence.PagedList;
+import com.blazebit.persistence.PaginatedCriteriaBuilder;
+import com.blazebit.persistence.testsuite.base.jpa.category.NoDB2;
+import com.blazebit.persistence.testsuite.base.jpa.category.NoDatanucleus;
+import com.blazebit.persistence.testsuite.base.jpa.category.NoEclipselink;
+import com.blazebit.persistence.testsuite.base.jpa.category.NoFirebird;
+import com.blazebit.persistence.testsuite.base.jpa.category.NoH2;
+import com.blazebit.persistence.testsuite.base.jpa.category.NoMSSQL;
+import com.blazebit.persistence.testsuite.base.jpa.category.NoMySQL;
+import com.blazebit.persistence.testsuite.base.jpa.category.NoOpenJPA;
+import com.blazebit.persistence.testsuite.base.jpa.category.NoOracle;
+import com.blazebit.persistence.testsuite.base.jpa.category.NoSQLite;
+import com.blazebit.persistence.testsuite.entity.Document;
+import com.blazebit.persistence.testsuite.entity.Person;
+import com.blazebit.persistence.testsuite.tx.TxVoidWork;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+
+import javax.persistence.EntityManager;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.*;
+
+/**
+ *
+ * @author Christian Beikov
+ * @since 1.6.19
+ */
+public class CountStrategyTest extends AbstractCoreTest {
+
+    @Override
+    public void setUpOnce() {
+        cleanDatabase();
+        transactional(new TxVoidWork() {
+            @Override
+            public void work(EntityManager em) {
+                Person o1 = new Person("Karl1");
+                Person o2 = new Person("Karl2");
+                em.persist(o1);
+                em.persist(o2);
+
+                for (int i = 0; i < 5; i++) {
+                    Document doc = new Document("doc" + i);
+                    doc.setOwner(i < 3 ? o1 : o2);
+                    em.persist(doc);
+                }
+            }
+        });
+    }
+
+    @Test
+    public void exactCountIsNotEstimated() {
+        PagedList<Document> result = page("Karl1", 0, 2).withCountStrategy(CountStrategies.exact()).getResultList();
+
+        assertEquals(2, result.size());
+        assertEquals(3, result.getTotalSize());
+        assertFalse(result.isTotalSizeEstimated());
+    }
+
+    @Test
+    public void skipCountWhenPageNotFull() {
+        CountingStrategy delegate = new CountingStrategy(CountStrategies.exact());
+        CountStrategy strategy = CountStrategies.skipWhenPageNotFull(delegate);
+
+        PagedList<Document> result = page("Karl1", 2, 2).withCountStrategy(strategy).getResultList();
+        assertEquals(1, result.size());
+        assertEquals(3, result.getTotalSize());
+        assertEquals(0, delegate.invocations);
+
+        result = page("Karl1", 0, 2).withCountStrategy(strategy).getResultList();
+        assertEquals(2, result.size());
+        assertEquals(3, result.getTotalSize());
+        assertEquals(1, delegate.invocations);
+    }
+
+    @Test
+    public void estimatedCountAboveThreshold() {
+        CountStrategy estimator = new CountStrategy() {
+            @Override
+            public long getTotalCount(Context context) {
+                return 1000L;
+            }
+        };
+
+        PagedList<Document> result = page("Karl1", 0, 2).withCountStrategy(CountStrategies.estimated(estimator, 100L)).getResultList();
+        assertEquals(1000, result.getTotalSize());
+        assertEquals(500, result.getTotalPages());
+        assertTrue(result.isTotalSizeEstimated());
+
+        result = page("Karl1", 0, 2).withCountStrategy(CountStrategies.estimated(estimator, 10000L)).getResultList();
+        assertEquals(3, result.getTotalSize());
+        assertFalse(result.isTotalSizeEstimated());
+    }
+
+    @Test
+    // Only PostgreSQL supports the EXPLAIN output that is parsed
+    @Category({ NoH2.class, NoOracle.class, NoMSSQL.class, NoSQLite.class, NoFirebird.class, NoMySQL.class, NoDB2.class, NoDatanucleus.class, NoEclipselink.class, NoOpenJPA.class })
+    public void postgresqlPlanEstimate() {
+        CountStrategy strategy = CountStrategies.estimated(CountStrategies.postgresqlPlanEstimate(), 0L);
+
+        PagedList<Document> result = cbf.create(em, Document.class, "d")
+                .orderByAsc("d.id")
+                .page(0, 2)
+                .withCountStrategy(strategy)
+                .getResultList();
+        assertTrue(result.isTotalSizeEstimated());
+        assertTrue(result.getTotalSize() > 0);
+
+        // Count queries with parameters fall back to the exact count
+        result = page("Karl1", 0, 2).withCountStrategy(strategy).getResultList();
+        assertEquals(3, result.getTotalSize());
+        assertFalse(result.isTotalSizeEstimated());
+    }
+
+    @Test
+    // Only PostgreSQL has the pg_class catalog
+    @Category({ NoH2.class, NoOracle.class, NoMSSQL.class, NoSQLite.class, NoFirebird.class, NoMySQL.class, NoDB2.class, NoDatanucleus.class, NoEclipselink.class, NoOpenJPA.class })
+    public void postgresqlTableStatisticsEstimate() {
+        transactional(new TxVoidWork() {
+            @Override
+            public void work(EntityManager em) {
+                em.createNativeQuery("ANALYZE document").executeUpdate();
+            }
+        });
+        CountStrategy strategy = CountStrategies.estimated(CountStrategies.postgresqlTableStatisticsEstimate("document"), 0L);
+
+        PagedList<Document> result = cbf.create(em, Document.class, "d")
+                .orderByAsc("d.id")
+                .page(0, 2)
+                .withCountStrategy(strategy)
+                .getResultList();
+        assertTrue(result.isTotalSizeEstimated());
+        assertEquals(5, result.getTotalSize());
+
+        // Count queries with parameters fall back to the exact count
+        result = page("Karl1", 0, 2).withCountStrategy(strategy).getResultList();
+        assertEquals(3, result.getTotalSize());
+        assertFalse(result.isTotalSizeEstimated());
+    }
+
+    @Test
+    public void cachedCountPerParameterValues() {
+        CountingStrategy delegate = new CountingStrategy(CountStrategies.exact());
+        CountStrategy strategy = CountStrategies.cached(delegate, 1, TimeUnit.HOURS, 10);
+
+        assertEquals(3, page("Karl1", 0, 2).withCountStrategy(strategy).getResultList().getTotalSize());
+        assertEquals(3, page("Karl1", 2, 2).withCountStrategy(strategy).getResultList().getTotalSize());
+        assertEquals(1, delegate.invocations);
+
+        assertEquals(2, page("Karl2", 0, 1).withCountStrategy(strategy).getResultList().getTotalSize());
+        assertEquals(2, delegate.invocations);
+    }
+
+    private PaginatedCriteriaBuilder<Document> page(String ownerName, int firstResult, int maxResults) {
+        return cbf.create(em, Document.class, "d")
+                .where("d.owner.name").eq(ownerName)
+                .orderByAsc("d.id")
+                .page(firstResult, maxResults);
+    }
+
+    /**
+     * @author Christian Beikov
+     * @since 1.6.19
+     */
+    private static class CountingStrategy implements CountStrategy {
+
+        private final CountStrategy delegate;
+        private int invocations;
+
+        public CountingStrategy(CountStrategy delegate) {
+            this.delegate = delegate;
+        }
+
+        @Override
+        public long getTotalCount(Context context) {
+            invocations++;
+            return delegate.getTotalCount(context);
+        }
+    }
+}
@@ -0,0 +1,175 @@
+/*
+ * SPDX-License-Identifier: Apache-2.0
+ * Copyright Blazebit
+ */
+
+package com.blazebit.persistence.testsuite;
+
+import com.blazebit.persistence.ConfigurationProperties;
+import com.blazebit.persistence.CriteriaBuilder;
+import com.blazebit.persistence.testsuite.base.jpa.category.NoDB2;
+import com.blazebit.persistence.testsuite.base.jpa.category.NoDatanucleus;
+import com.blazebit.persistence.testsuite.base.jpa.category.NoEclipselink;
+import com.blazebit.persistence.testsuite.base.jpa.category.NoFirebird;
+import com.blazebit.persistence.testsuite.base.jpa.category.NoH2;
+import com.blazebit.persistence.testsuite.base.jpa.category.NoMSSQL;
+import com.blazebit.persistence.testsuite.base.jpa.category.NoMySQL;
+import com.blazebit.persistence.testsuite.base.jpa.category.NoOpenJPA;
+import com.blazebit.persistence.testsuite.base.jpa.category.NoOracle;
+import com.blazebit.persistence.testsuite.base.jpa.category.NoSQLite;
+import com.blazebit.persistence.testsuite.entity.Document;
+import com.blazebit.persistence.testsuite.entity.Person;
+import com.blazebit.persistence.testsuite.tx.TxVoidWork;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+
+import javax.persistence.EntityManager;
+import javax.persistence.Parameter;
+import javax.persistence.Query;
+import javax.persistence.TypedQuery;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ *
+ * @author Christian Beikov
+ * @since 1.6.19
+ */
+public class InArrayParameterBindingTest extends AbstractCoreTest {
+
+    private Document doc1;
+    private Document doc2;
+    private Document doc3;
+
+    @Override
+    public void setUpOnce() {
+        cleanDatabase();
+        transactional(new TxVoidWork() {
+            @Override
+            public void work(EntityManager em) {
+                Person p = new Person("Pers1");
+                em.persist(p);
+                doc1 = new Document("Doc1", p);
+                doc2 = new Document("Doc2", p);
+                doc3 = new Document("Doc3", p);
+                em.persist(doc1);
+                em.persist(doc2);
+                em.persist(doc3);
+            }
+        });
+    }
+
+    @Before
+    public void setUp() {
+        doc1 = cbf.create(em, Document.class).where("name").eq("Doc1").getSingleResult();
+        doc2 = cbf.create(em, Document.class).where("name").eq("Doc2").getSingleResult();
+        doc3 = cbf.create(em, Document.class).where("name").eq("Doc3").getSingleResult();
+    }
+
+    @Test
+    public void testDisabledByDefault() {
+        CriteriaBuilder<String> cb = namesByIds(Arrays.asList(doc1.getId(), doc3.getId()));
+        assertFalse(hasArrayParameter(cb.getQuery()));
+        assertEquals(Arrays.asList("Doc1", "Doc3"), cb.getResultList());
+    }
+
+    @Test
+    public void testFallsBackToExpansionWhenUnsupported() {
+        // The fallback is used for DBMS that have no in_array function, the result must be the same
+        CriteriaBuilder<String> cb = namesByIds(Arrays.asList(doc1.getId(), doc3.getId()))
+                .setProperty(ConfigurationProperties.IN_ARRAY_PARAMETER_BINDING, "true");
+        assertEquals(Arrays.asList("Doc1", "Doc3"), cb.getResultList());
+    }
+
+    @Test
+    @Category({ NoH2.class, NoOracle.class, NoMSSQL.class, NoSQLite.class, NoFirebird.class, NoMySQL.class, NoDB2.class, NoDatanucleus.class, NoEclipselink.class, NoOpenJPA.class })
+    public void testArrayParameter() {
+        CriteriaBuilder<String> cb = namesByIds(Arrays.asList(doc1.getId(), doc3.getId()))
+                .setProperty(ConfigurationProperties.IN_ARRAY_PARAMETER_BINDING, "true");
+        assertTrue(hasArrayParameter(cb.getQuery()));
+        assertEquals(Arrays.asList("Doc1", "Doc3"), cb.getResultList());
+
+        List<Long> manyIds = new ArrayList<>();
+        for (long i = 0; i < 5000; i++) {
+            manyIds.add(-i);
+        }
+        manyIds.add(doc2.getId());
+        cb.setParameter("documentIds", manyIds);
+        assertEquals(Collections.singletonList("Doc2"), cb.getResultList());
+
+        cb = namesByIds(Collections.<Long>emptyList())
+                .setProperty(ConfigurationProperties.IN_ARRAY_PARAMETER_BINDING, "true");
+        assertEquals(Collections.emptyList(), cb.getResultList());
+    }
+
+    @Test
+    @Category({ NoH2.class, NoOracle.class, NoMSSQL.class, NoSQLite.class, NoFirebird.class, NoMySQL.class, NoDB2.class, NoDatanucleus.class, NoEclipselink.class, NoOpenJPA.class })
+    public void testNegatedArrayParameterWithStrings() {
+        CriteriaBuilder<String> cb = cbf.create(em, String.class)
+                .from(Document.class, "d")
+                .select("d.name")
+                .where("d.name").notIn(Arrays.asList("Doc2", "Doc\"4"))
+                .orderByAsc("d.name")
+                .setProperty(ConfigurationProperties.IN_ARRAY_PARAMETER_BINDING, "true");
+        assertTrue(hasArrayParameter(cb.getQuery()));
+        assertEquals(Arrays.asList("Doc1", "Doc3"), cb.getResultList());
+    }
+
+    @Test
+    public void testParameterUsedInIneligiblePredicate() {
+        CriteriaBuilder<String> cb = namesByIdsAndAbsoluteIds(Arrays.asList(doc1.getId(), doc3.getId()))
+                .setProperty(ConfigurationProperties.IN_ARRAY_PARAMETER_BINDING, "true");
+        assertEquals(Arrays.asList("Doc1", "Doc3"), cb.getResultList());
+    }
+
+    @Test
+    @Category({ NoH2.class, NoOracle.class, NoMSSQL.class, NoSQLite.class, NoFirebird.class, NoMySQL.class, NoDB2.class, NoDatanucleus.class, NoEclipselink.class, NoOpenJPA.class })
+    public void testArrayParameterUsedInIneligiblePredicate() {
+        List<Long> ids = Arrays.asList(doc1.getId(), doc3.getId());
+        CriteriaBuilder<String> cb = namesByIdsAndAbsoluteIds(ids)
+                .setProperty(ConfigurationProperties.IN_ARRAY_PARAMETER_BINDING, "true");
+        TypedQuery<String> query = cb.getQuery();
+        // The eligible predicate uses the array parameter, the other one still uses the expanded collection
+        assertTrue(hasArrayParameter(query));
+        assertEquals("documentIds", query.getParameter("documentIds").getName());
+        assertEquals(ids, cb.getParameterValue("documentIds"));
+        assertEquals(Arrays.asList("Doc1", "Doc3"), query.getResultList());
+
+        cb.setParameter("documentIds", Collections.singletonList(doc2.getId()));
+        assertEquals(Collections.singletonList("Doc2"), cb.getResultList());
+    }
+
+    private CriteriaBuilder<String> namesByIdsAndAbsoluteIds(List<Long> ids) {
+        return cbf.create(em, String.class)
+                .from(Document.class, "d")
+                .select("d.name")
+                .whereExpression("d.id IN :documentIds AND ABS(d.id) IN :documentIds")
+                .setParameter("documentIds", ids)
+                .orderByAsc("d.name");
+    }
+
+    private static boolean hasArrayParameter(Query query) {
+        for (Parameter<?> parameter : query.getParameters()) {
+            if (parameter.getName() != null && parameter.getName().endsWith("_array")) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private CriteriaBuilder<String> namesByIds(List<Long> ids) {
+        return cbf.create(em, String.class)
+                .from(Document.class, "d")
+                .select("d.name")
+                .whereExpression("d.id IN :documentIds")
+                .setParameter("documentIds", ids)
+                .orderByAsc("d.name");
+    }
+}
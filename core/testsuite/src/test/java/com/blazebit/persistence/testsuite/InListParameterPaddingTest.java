@@ -0,0 +1,95 @@
+/*
+ * SPDX-License-Identifier: Apache-2.0
+ * Copyright Blazebit
+ */
+
+package com.blazebit.persistence.testsuite;
+
+import com.blazebit.persistence.ConfigurationProperties;
+import com.blazebit.persistence.CriteriaBuilder;
+import com.blazebit.persistence.testsuite.base.jpa.category.NoDatanucleus;
+import com.blazebit.persistence.testsuite.base.jpa.category.NoEclipselink;
+import com.blazebit.persistence.testsuite.base.jpa.category.NoOpenJPA;
+import com.blazebit.persistence.testsuite.entity.Document;
+import com.blazebit.persistence.testsuite.entity.Person;
+import com.blazebit.persistence.testsuite.tx.TxVoidWork;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+
+import javax.persistence.EntityManager;
+import javax.persistence.TypedQuery;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ *
+ * @author Christian Beikov
+ * @since 1.6.19
+ */
+public class InListParameterPaddingTest extends AbstractCoreTest {
+
+    @Override
+    public void setUpOnce() {
+        cleanDatabase();
+        transactional(new TxVoidWork() {
+            @Override
+            public void work(EntityManager em) {
+                Person p = new Person("Pers1");
+                em.persist(p);
+                for (int i = 1; i <= 3; i++) {
+                    Document d = new Document("Doc" + i, i);
+                    d.setOwner(p);
+                    em.persist(d);
+                }
+            }
+        });
+    }
+
+    @Test
+    public void testCollectionParameterIsPadded() {
+        CriteriaBuilder<String> cb = namesByNames(Arrays.asList("Doc1", "Doc2", "Doc3"))
+                .setProperty(ConfigurationProperties.IN_LIST_PARAMETER_PADDING, "true");
+        TypedQuery<String> query = cb.getQuery();
+
+        assertEquals(Arrays.asList("Doc1", "Doc2", "Doc3", "Doc3"), query.getParameterValue("names"));
+        assertEquals(Arrays.asList("Doc1", "Doc2", "Doc3"), query.getResultList());
+    }
+
+    @Test
+    public void testCollectionParameterIsNotPaddedByDefault() {
+        CriteriaBuilder<String> cb = namesByNames(Arrays.asList("Doc1", "Doc2", "Doc3"));
+        TypedQuery<String> query = cb.getQuery();
+
+        assertEquals(3, ((Collection<?>) query.getParameterValue("names")).size());
+        assertEquals(Arrays.asList("Doc1", "Doc2", "Doc3"), query.getResultList());
+    }
+
+    @Test
+    @Category({ NoDatanucleus.class, NoEclipselink.class, NoOpenJPA.class })
+    public void testValuesClauseIsPadded() {
+        CriteriaBuilder<String> cb = cbf.create(em, String.class)
+                .setProperty(ConfigurationProperties.IN_LIST_PARAMETER_PADDING, "true")
+                .fromValues(Long.class, "allowedAge", Arrays.asList(1L, 2L, 3L))
+                .from(Document.class, "doc")
+                .where("doc.age").eqExpression("allowedAge")
+                .select("doc.name")
+                .orderByAsc("doc.name");
+
+        assertTrue(cb.getQueryString().startsWith("SELECT doc.name FROM Long(4 VALUES) allowedAge, Document doc WHERE doc.age = allowedAge"));
+        List<String> resultList = cb.getResultList();
+        assertEquals(Arrays.asList("Doc1", "Doc2", "Doc3"), resultList);
+    }
+
+    private CriteriaBuilder<String> namesByNames(List<String> names) {
+        return cbf.create(em, String.class)
+                .from(Document.class, "d")
+                .select("d.name")
+                .where("d.name").inExpressions(":names")
+                .orderByAsc("d.name")
+                .setParameter("names", names);
+    }
+}
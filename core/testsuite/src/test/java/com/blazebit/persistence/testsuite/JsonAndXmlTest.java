@@ -205,6 +205,37 @@ public class JsonAndXmlTest extends AbstractCoreTest {
         assertEquals(0, objects.size());
     }
 
+    // NOTE: DB2 crashes when executing this test with the GROUP_CONCAT based implementation
+    // NOTE: EclipseLink can't handle multiple subquery select items... Only one expression can be declared in a SELECT clause of a subquery
+    // NOTE: DataNucleus can't handle multiple subquery select items... Number of result expressions in subquery should be 1
+    @Test
+    @Category({ NoDatanucleus.class, NoEclipselink.class, NoDB2.class })
+    public void testDistinctToMultiset() {
+        // The multiset must be comparable, which e.g. isn't the case for the json type on PostgreSQL
+        CriteriaBuilder<Tuple> criteria = cbf.create(em, Tuple.class)
+                .from(Document.class, "d")
+                .selectSubquery("subquery", "TO_MULTISET(subquery)")
+                    .from(Document.class, "doc")
+                    .innerJoin("doc.versions", "v")
+                    .select("doc.name")
+                    .select("v.url")
+                    .where("doc.owner").eqExpression("d.owner")
+                .end()
+                ;
+
+        // Every document of the owner produces the same multiset
+        assertEquals(3, criteria.getResultList().size());
+
+        List<Tuple> results = criteria.distinct().getResultList();
+        assertEquals(1, results.size());
+        List<Object[]> objects = results.get(0).get(0, List.class);
+        assertEquals(3, objects.size());
+        assertRemove(objects, new Object[]{ "Doc1", "a"});
+        assertRemove(objects, new Object[]{ "Doc1", "b"});
+        assertRemove(objects, new Object[]{ "Doc2", "c"});
+        assertEquals(0, objects.size());
+    }
+
     private static void assertRemove(List<Object[]> list, Object[] array2) {
         Iterator<Object[]> iterator = list.iterator();
         OUTER: while (iterator.hasNext()) {
@@ -0,0 +1,122 @@
+/*
+ * SPDX-License-Identifier: Apache-2.0
+ * Copyright Blazebit
+ */
+
+package com.blazebit.persistence.testsuite;
+
+import com.blazebit.persistence.ConfigurationProperties;
+import com.blazebit.persistence.CriteriaBuilder;
+import com.blazebit.persistence.spi.CriteriaBuilderConfiguration;
+import com.blazebit.persistence.testsuite.base.jpa.category.NoDB2;
+import com.blazebit.persistence.testsuite.base.jpa.category.NoDatanucleus;
+import com.blazebit.persistence.testsuite.base.jpa.category.NoEclipselink;
+import com.blazebit.persistence.testsuite.entity.Document;
+import com.blazebit.persistence.testsuite.entity.Person;
+import com.blazebit.persistence.testsuite.entity.Version;
+import com.blazebit.persistence.testsuite.tx.TxVoidWork;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+
+import javax.persistence.EntityManager;
+import javax.persistence.Tuple;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ *
+ * @author Christian Beikov
+ * @since 1.6.19
+ */
+public class MultisetPositionalJsonEncodingTest extends AbstractCoreTest {
+
+    @Override
+    protected void configure(CriteriaBuilderConfiguration config) {
+        super.configure(config);
+        config.setProperty(ConfigurationProperties.MULTISET_POSITIONAL_JSON_ENCODING, "true");
+    }
+
+    @Override
+    public void setUpOnce() {
+        cleanDatabase();
+        transactional(new TxVoidWork() {
+            @Override
+            public void work(EntityManager em) {
+                Person p = new Person("Pers1");
+                em.persist(p);
+
+                Version v1 = new Version();
+                v1.setUrl("a\"");
+                Document doc1 = new Document("Doc1", p, v1);
+                em.persist(doc1);
+                em.persist(v1);
+
+                Version v2 = new Version();
+                v2.setUrl("b");
+                Document doc2 = new Document("Doc2", p, v2);
+                em.persist(doc2);
+                em.persist(v2);
+            }
+        });
+    }
+
+    // NOTE: DB2 crashes when executing this test with the GROUP_CONCAT based implementation
+    // NOTE: EclipseLink can't handle multiple subquery select items... Only one expression can be declared in a SELECT clause of a subquery
+    // NOTE: DataNucleus can't handle multiple subquery select items... Number of result expressions in subquery should be 1
+    @Test
+    @Category({ NoDatanucleus.class, NoEclipselink.class, NoDB2.class })
+    public void testToMultiset() {
+        CriteriaBuilder<Tuple> criteria = cbf.create(em, Tuple.class)
+                .from(Person.class, "p")
+                .selectSubquery("subquery", "TO_MULTISET(subquery)")
+                    .from(Document.class, "doc")
+                    .select("doc.name")
+                    .select("doc.age")
+                .end()
+                ;
+
+        List<Object[]> objects = criteria.getResultList().get(0).get(0, List.class);
+        assertEquals(Arrays.asList("[Doc1, 0]", "[Doc2, 0]"), toSortedStrings(objects));
+    }
+
+    // NOTE: DB2 crashes when executing this test with the GROUP_CONCAT based implementation
+    // NOTE: EclipseLink can't handle multiple subquery select items... Only one expression can be declared in a SELECT clause of a subquery
+    // NOTE: DataNucleus can't handle multiple subquery select items... Number of result expressions in subquery should be 1
+    @Test
+    @Category({ NoDatanucleus.class, NoEclipselink.class, NoDB2.class })
+    public void testNestedToMultiset() {
+        CriteriaBuilder<Tuple> criteria = cbf.create(em, Tuple.class)
+                .from(Person.class, "p")
+                .selectSubquery("subquery", "TO_MULTISET(subquery)")
+                    .from(Document.class, "doc")
+                    .select("doc.name")
+                    .selectSubquery("subquery", "TO_MULTISET(subquery)")
+                        .from("doc.versions", "v")
+                        .select("v.url")
+                    .end()
+                .end()
+                ;
+
+        List<Object[]> objects = criteria.getResultList().get(0).get(0, List.class);
+        assertEquals(2, objects.size());
+        List<String> strings = new ArrayList<>(objects.size());
+        for (Object[] object : objects) {
+            strings.add(object[0] + ":" + toSortedStrings((List<Object[]>) object[1]));
+        }
+        Collections.sort(strings);
+        assertEquals(Arrays.asList("Doc1:[[a\"]]", "Doc2:[[b]]"), strings);
+    }
+
+    private static List<String> toSortedStrings(List<Object[]> objects) {
+        List<String> strings = new ArrayList<>(objects.size());
+        for (Object[] object : objects) {
+            strings.add(Arrays.toString(object));
+        }
+        Collections.sort(strings);
+        return strings;
+    }
+}
@@ -0,0 +1,199 @@
+/*
+ * SPDX-License-Identifier: Apache-2.0
+ * Copyright Blazebit
+ */
+
+package com.blazebit.persistence.testsuite;
+
+import com.blazebit.persistence.CriteriaBuilder;
+import com.blazebit.persistence.ObjectBuilder;
+import com.blazebit.persistence.SelectBuilder;
+import com.blazebit.persistence.spi.CriteriaBuilderConfiguration;
+import com.blazebit.persistence.spi.InstrumentationTypeProvider;
+import com.blazebit.persistence.spi.QueryFingerprint;
+import com.blazebit.persistence.spi.QueryInstrumentation;
+import com.blazebit.persistence.spi.QueryPhase;
+import com.blazebit.persistence.testsuite.base.jpa.category.NoDatanucleus;
+import com.blazebit.persistence.testsuite.base.jpa.category.NoEclipselink;
+import com.blazebit.persistence.testsuite.base.jpa.category.NoOpenJPA;
+import com.blazebit.persistence.testsuite.entity.Document;
+import com.blazebit.persistence.testsuite.entity.Person;
+import com.blazebit.persistence.testsuite.tx.TxVoidWork;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+
+import javax.persistence.EntityManager;
+import javax.persistence.Tuple;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+/**
+ *
+ * @author Christian Beikov
+ * @since 1.6.19
+ */
+public class QueryInstrumentationTest extends AbstractCoreTest {
+
+    private static final RecordingQueryInstrumentation INSTRUMENTATION = new RecordingQueryInstrumentation();
+
+    @Override
+    protected void configure(CriteriaBuilderConfiguration config) {
+        super.configure(config);
+        config.withQueryInstrumentation(INSTRUMENTATION);
+    }
+
+    @Override
+    public void setUpOnce() {
+        cleanDatabase();
+        transactional(new TxVoidWork() {
+            @Override
+            public void work(EntityManager em) {
+                Person p = new Person("Pers1");
+                em.persist(p);
+                Document d = new Document("Doc1", p);
+                d.setAge(1L);
+                em.persist(d);
+            }
+        });
+    }
+
+    @Before
+    public void clearRecords() {
+        INSTRUMENTATION.records.clear();
+    }
+
+    @Test
+    public void testInstrumentationIsExposedAsService() {
+        assertSame(INSTRUMENTATION, cbf.getService(QueryInstrumentation.class));
+    }
+
+    @Test
+    public void testRenderingAndObjectBuilding() {
+        CriteriaBuilder<String> cb = cbf.create(em, Document.class, "d")
+                .where("d.owner.name").eq("Pers1")
+                .selectNew(new NameObjectBuilder());
+        List<String> names = cb.getResultList();
+        String queryString = cb.getQueryString();
+
+        assertEquals(Arrays.asList("Doc1"), names);
+        Record builderConstruction = INSTRUMENTATION.get(QueryPhase.BUILDER_CONSTRUCTION);
+        assertEquals(NameObjectBuilder.class.getName(), builderConstruction.type);
+        assertNull(builderConstruction.fingerprint);
+
+        Record implicitJoinResolution = INSTRUMENTATION.get(QueryPhase.IMPLICIT_JOIN_RESOLUTION);
+        Record rendering = INSTRUMENTATION.get(QueryPhase.RENDERING);
+        assertEquals(NameObjectBuilder.class.getName(), rendering.type);
+        assertEquals(QueryFingerprint.of(queryString), rendering.fingerprint);
+        assertEquals(rendering.fingerprint, implicitJoinResolution.fingerprint);
+
+        assertEquals(NameObjectBuilder.class.getName(), INSTRUMENTATION.get(QueryPhase.OBJECT_BUILDING).type);
+    }
+
+    @Test
+    public void testResultTypeIsDefaultType() {
+        cbf.create(em, Document.class, "d").getResultList();
+        assertEquals(Document.class.getName(), INSTRUMENTATION.get(QueryPhase.RENDERING).type);
+    }
+
+    @Test
+    @Category({ NoDatanucleus.class, NoEclipselink.class, NoOpenJPA.class })
+    public void testSqlRewriteAndExecution() {
+        CriteriaBuilder<Tuple> cb = cbf.create(em, Tuple.class);
+        cb.fromValues(Long.class, "allowedAge", Collections.singleton(1L));
+        cb.from(Document.class, "doc");
+        cb.where("doc.age").eqExpression("allowedAge");
+        cb.select("doc.name");
+        assertEquals(1, cb.getResultList().size());
+
+        Record sqlRewrite = INSTRUMENTATION.get(QueryPhase.SQL_REWRITE);
+        Record execution = INSTRUMENTATION.get(QueryPhase.EXECUTION);
+        assertEquals(Tuple.class.getName(), execution.type);
+        assertEquals(sqlRewrite.fingerprint, execution.fingerprint);
+        assertTrue(execution.fingerprint.matches("[0-9a-f]{16}"));
+    }
+
+    @Test
+    public void testFingerprint() {
+        assertNull(QueryFingerprint.of(null));
+        assertEquals("cbf29ce484222325", QueryFingerprint.of(""));
+        assertEquals("af63dc4c8601ec8c", QueryFingerprint.of("a"));
+        assertEquals(QueryFingerprint.of("SELECT d FROM Document d"), QueryFingerprint.of("SELECT d FROM Document d"));
+        assertNotEquals(QueryFingerprint.of("SELECT d FROM Document d"), QueryFingerprint.of("SELECT d FROM Document e"));
+    }
+
+    private static class NameObjectBuilder implements ObjectBuilder<String>, InstrumentationTypeProvider {
+
+        @Override
+        public <X extends SelectBuilder<X>> void applySelects(X selectBuilder) {
+            selectBuilder.select("d.name");
+        }
+
+        @Override
+        public String build(Object[] tuple) {
+            return (String) tuple[0];
+        }
+
+        @Override
+        public List<String> buildList(List<String> list) {
+            return list;
+        }
+
+        @Override
+        public String getInstrumentationType() {
+            return NameObjectBuilder.class.getName();
+        }
+    }
+
+    private static class Record {
+        final QueryPhase phase;
+        final String type;
+        final String fingerprint;
+
+        Record(QueryPhase phase, String type, String fingerprint) {
+            this.phase = phase;
+            this.type = type;
+            this.fingerprint = fingerprint;
+        }
+    }
+
+    private static class RecordingQueryInstrumentation implements QueryInstrumentation {
+
+        final List<Record> records = Collections.synchronizedList(new ArrayList<Record>());
+
+        @Override
+        public Timer start(final QueryPhase phase) {
+            return new Timer() {
+                @Override
+                public void end() {
+                }
+
+                @Override
+                public void commit(String type, String query) {
+                    records.add(new Record(phase, type, QueryFingerprint.of(query)));
+                }
+            };
+        }
+
+        Record get(QueryPhase phase) {
+            Record result = null;
+            for (Record record : records) {
+                if (record.phase == phase) {
+                    result = record;
+                }
+            }
+            if (result == null) {
+                throw new AssertionError("No record for phase " + phase + " in " + records.size() + " records");
+            }
+            return result;
+        }
+    }
+}
@@ -0,0 +1,159 @@
+/*
+ * SPDX-License-Identifier: Apache-2.0
+ * Copyright Blazebit
+ */
+
+package com.blazebit.persistence.testsuite;
+
+import com.blazebit.persistence.ConfigurationProperties;
+import com.blazebit.persistence.CriteriaBuilder;
+import com.blazebit.persistence.QueryStringCacheStatistics;
+import com.blazebit.persistence.impl.QueryStringCache;
+import com.blazebit.persistence.spi.CriteriaBuilderConfiguration;
+import com.blazebit.persistence.testsuite.entity.Document;
+import com.blazebit.persistence.testsuite.entity.Person;
+import com.blazebit.persistence.testsuite.tx.TxVoidWork;
+import org.junit.Before;
+import org.junit.Test;
+
+import javax.persistence.EntityManager;
+import javax.persistence.Tuple;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+
+/**
+ *
+ * @author Christian Beikov
+ * @since 1.6.19
+ */
+public class QueryStringCacheTest extends AbstractCoreTest {
+
+    private QueryStringCacheStatistics statistics;
+
+    @Override
+    protected void configure(CriteriaBuilderConfiguration config) {
+        super.configure(config);
+        config.setProperty(ConfigurationProperties.QUERY_STRING_CACHE_ENABLED, "true");
+        config.setProperty(ConfigurationProperties.QUERY_STRING_CACHE_MAXIMUM_SIZE, "2");
+    }
+
+    @Override
+    public void setUpOnce() {
+        cleanDatabase();
+        transactional(new TxVoidWork() {
+            @Override
+            public void work(EntityManager em) {
+                Person p = new Person("Pers1");
+                em.persist(p);
+                em.persist(new Document("Doc1", p));
+                em.persist(new Document("Doc2", p));
+                em.persist(new Document("Doc3", p));
+            }
+        });
+    }
+
+    @Before
+    public void clearCache() {
+        statistics = cbf.getService(QueryStringCacheStatistics.class);
+        assertNotNull(statistics);
+        ((QueryStringCache) statistics).clear();
+        statistics.clearStatistics();
+    }
+
+    @Test
+    public void testSameStructureReusesQueryString() {
+        assertEquals(Arrays.asList("Doc1"), findNames("Doc1"));
+        assertEquals(Arrays.asList("Doc2"), findNames("Doc2"));
+        assertEquals(Arrays.asList("Doc3"), findNames("Doc3"));
+
+        assertEquals(1, statistics.getSize());
+        assertEquals(1L, statistics.getMissCount());
+        assertEquals(2L, statistics.getHitCount());
+    }
+
+    @Test
+    public void testCollectionParameterWithImplicitJoin() {
+        assertEquals(Arrays.asList("Doc1", "Doc2"), findNamesByOwner(Arrays.asList("Doc1", "Doc2")));
+        assertEquals(Arrays.asList("Doc3"), findNamesByOwner(Arrays.asList("Doc3")));
+
+        assertEquals(1L, statistics.getHitCount());
+    }
+
+    @Test
+    public void testCacheHitStillPreparesBuilder() {
+        for (int i = 0; i < 2; i++) {
+            CriteriaBuilder<Tuple> cb = cbf.create(em, Tuple.class)
+                    .from(Document.class, "d")
+                    .select("d.name")
+                    .select(":param")
+                    .where("d.owner.name").eq("Pers1")
+                    .where("d.name").eq("Doc" + (i + 1))
+                    .setParameter("param", "Value" + i);
+            List<Tuple> result = cb.getResultList();
+            assertEquals(1, result.size());
+            assertEquals("Doc" + (i + 1), result.get(0).get(0));
+            assertEquals("Value" + i, result.get(0).get(1));
+            // The implicit join for the owner must have been created for the cache hit as well
+            assertNotNull(cb.getFrom("owner_1"));
+        }
+
+        assertEquals(1L, statistics.getHitCount());
+    }
+
+    @Test
+    public void testSubqueryIsNotCached() {
+        for (int i = 0; i < 2; i++) {
+            CriteriaBuilder<String> cb = cbf.create(em, String.class)
+                    .from(Document.class, "d")
+                    .select("d.name")
+                    .where("d.id").in()
+                        .from(Document.class, "sub")
+                        .select("sub.id")
+                        .where("sub.name").eq("Doc1")
+                    .end();
+            assertEquals(Arrays.asList("Doc1"), cb.getResultList());
+        }
+
+        assertEquals(0, statistics.getSize());
+        assertEquals(0L, statistics.getHitCount());
+    }
+
+    @Test
+    public void testEvictsWhenFull() {
+        for (int i = 0; i < 3; i++) {
+            CriteriaBuilder<String> cb = cbf.create(em, String.class)
+                    .from(Document.class, "d")
+                    .select("d.name")
+                    .orderByAsc("d.name");
+            for (int j = 0; j < i; j++) {
+                cb.where("d.id").isNotNull();
+            }
+            assertEquals(3, cb.getResultList().size());
+        }
+
+        assertEquals(2, statistics.getSize());
+        assertEquals(1L, statistics.getEvictionCount());
+    }
+
+    private List<String> findNames(String name) {
+        return cbf.create(em, String.class)
+                .from(Document.class, "d")
+                .select("d.name")
+                .where("d.name").eq(name)
+                .orderByAsc("d.id")
+                .getResultList();
+    }
+
+    private List<String> findNamesByOwner(List<String> names) {
+        return cbf.create(em, String.class)
+                .from(Document.class, "d")
+                .select("d.name")
+                .where("d.owner.name").eq("Pers1")
+                .where("d.name").in(names)
+                .orderByAsc("d.name")
+                .getResultList();
+    }
+}
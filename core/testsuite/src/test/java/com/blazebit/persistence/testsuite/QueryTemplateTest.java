@@ -0,0 +1,212 @@
+/*
+ * SPDX-License-Identifier: Apache-2.0
+ * Copyright Blazebit
+ */
+
+package com.blazebit.persistence.testsuite;
+
+import com.blazebit.persistence.CriteriaBuilder;
+import com.blazebit.persistence.ObjectBuilder;
+import com.blazebit.persistence.QueryTemplate;
+import com.blazebit.persistence.SelectBuilder;
+import com.blazebit.persistence.testsuite.entity.Document;
+import com.blazebit.persistence.testsuite.entity.Person;
+import com.blazebit.persistence.testsuite.tx.TxVoidWork;
+import org.junit.Test;
+
+import javax.persistence.EntityManager;
+import javax.persistence.Tuple;
+import javax.persistence.criteria.ParameterExpression;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
+
+/**
+ *
+ * @author Christian Beikov
+ * @since 1.6.19
+ */
+public class QueryTemplateTest extends AbstractCoreTest {
+
+    @Override
+    public void setUpOnce() {
+        cleanDatabase();
+        transactional(new TxVoidWork() {
+            @Override
+            public void work(EntityManager em) {
+                Person p = new Person("Pers1");
+                em.persist(p);
+                for (int i = 1; i <= 3; i++) {
+                    Document d = new Document("Doc" + i, i);
+                    d.setOwner(p);
+                    em.persist(d);
+                }
+            }
+        });
+    }
+
+    @Test
+    public void testBindWithDifferentEntityManagers() {
+        QueryTemplate<String> template = cbf.create(em, String.class)
+                .from(Document.class, "d")
+                .select("d.name")
+                .where("d.age").geExpression(":minAge")
+                .orderByAsc("d.name")
+                .compile();
+
+        assertEquals(new HashSet<>(Arrays.asList("minAge")), template.getParameterNames());
+        EntityManager em1 = emf.createEntityManager();
+        EntityManager em2 = emf.createEntityManager();
+        try {
+            assertEquals(Arrays.asList("Doc2", "Doc3"), template.bind(em1, Collections.singletonMap("minAge", 2L)).getResultList());
+            assertEquals(Arrays.asList("Doc1", "Doc2", "Doc3"), template.bind(em2, Collections.singletonMap("minAge", 1L)).getResultList());
+        } finally {
+            em1.close();
+            em2.close();
+        }
+    }
+
+    @Test
+    public void testDefaultParameterValues() {
+        CriteriaBuilder<String> cb = cbf.create(em, String.class)
+                .from(Document.class, "d")
+                .select("d.name")
+                .where("d.name").inExpressions(":names")
+                .where("d.age").geExpression(":minAge")
+                .orderByAsc("d.name")
+                .setParameter("names", Arrays.asList("Doc1", "Doc3"))
+                .setParameter("minAge", 1L);
+        QueryTemplate<String> template = cb.compile();
+
+        assertEquals(cb.getQueryString(), template.getQueryString());
+        assertEquals(Arrays.asList("Doc1", "Doc3"), template.bind(em).getResultList());
+        assertEquals(Arrays.asList("Doc3"), template.bind(em, Collections.singletonMap("minAge", 3L)).getResultList());
+        assertEquals(Arrays.asList("Doc2"), template.bind(em, Collections.singletonMap("names", Arrays.asList("Doc2"))).getResultList());
+    }
+
+    @Test
+    public void testTupleAndLimit() {
+        QueryTemplate<Tuple> template = cbf.create(em, Tuple.class)
+                .from(Document.class, "d")
+                .select("d.name", "name")
+                .select("d.age", "age")
+                .orderByDesc("d.age")
+                .setMaxResults(2)
+                .compile();
+
+        List<Tuple> result = template.bind(em).getResultList();
+        assertEquals(2, result.size());
+        assertEquals("Doc3", result.get(0).get("name"));
+        assertEquals(2L, result.get(1).get("age"));
+    }
+
+    @Test
+    public void testConcurrentBind() throws Exception {
+        final QueryTemplate<Tuple> template = cbf.create(em, Tuple.class)
+                .from(Document.class, "d")
+                .select("d.name", "name")
+                .where("d.age").eqExpression(":age")
+                .compile();
+
+        ExecutorService executor = Executors.newFixedThreadPool(3);
+        try {
+            List<Future<String>> futures = new ArrayList<>();
+            for (int i = 0; i < 9; i++) {
+                final long age = i % 3 + 1;
+                futures.add(executor.submit(new Callable<String>() {
+                    @Override
+                    public String call() {
+                        EntityManager em = emf.createEntityManager();
+                        try {
+                            return (String) template.bind(em, Collections.singletonMap("age", age)).getSingleResult().get("name");
+                        } finally {
+                            em.close();
+                        }
+                    }
+                }));
+            }
+            for (int i = 0; i < futures.size(); i++) {
+                assertEquals("Doc" + (i % 3 + 1), futures.get(i).get());
+            }
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    public void testCriteriaParameters() {
+        ParameterExpression<Long> ageParameter = em.getCriteriaBuilder().parameter(Long.class);
+        QueryTemplate<String> template = cbf.create(em, String.class)
+                .from(Document.class, "d")
+                .select("d.name")
+                .where("d.age").eqExpression(":age")
+                .registerCriteriaParameter("age", ageParameter)
+                .compile();
+
+        assertEquals(Arrays.asList("Doc2"), template.bind(em).setParameter(ageParameter, 2L).getResultList());
+        assertEquals(Arrays.asList("Doc3"), template.bind(em, Collections.singletonMap("age", 3L)).getResultList());
+    }
+
+    @Test
+    public void testUnknownParameter() {
+        QueryTemplate<String> template = cbf.create(em, String.class)
+                .from(Document.class, "d")
+                .select("d.name")
+                .compile();
+        try {
+            template.bind(em, Collections.singletonMap("unknown", 1L));
+            fail("Expected IllegalArgumentException");
+        } catch (IllegalArgumentException ex) {
+            // Expected
+        }
+    }
+
+    @Test
+    public void testNonCopyableObjectBuilderIsRejected() {
+        CriteriaBuilder<String> cb = cbf.create(em, Document.class, "d")
+                .selectNew(new ObjectBuilder<String>() {
+                    @Override
+                    public <X extends SelectBuilder<X>> void applySelects(X selectBuilder) {
+                        selectBuilder.select("d.name");
+                    }
+
+                    @Override
+                    public String build(Object[] tuple) {
+                        return (String) tuple[0];
+                    }
+
+                    @Override
+                    public List<String> buildList(List<String> list) {
+                        return list;
+                    }
+                });
+        try {
+            cb.compile();
+            fail("Expected IllegalStateException");
+        } catch (IllegalStateException ex) {
+            // Expected
+        }
+    }
+
+    @Test
+    public void testEntityFunctionIsRejected() {
+        CriteriaBuilder<Long> cb = cbf.create(em, Long.class)
+                .fromValues(Long.class, "val", Arrays.asList(1L, 2L))
+                .select("val");
+        try {
+            cb.compile();
+            fail("Expected IllegalStateException");
+        } catch (IllegalStateException ex) {
+            // Expected
+        }
+    }
+}
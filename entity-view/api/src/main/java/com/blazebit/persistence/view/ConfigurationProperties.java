@@ -92,6 +92,26 @@ public final class ConfigurationProperties {
      * @since 1.3.0
      */
     public static final String EXPECT_BATCH_MODE = "com.blazebit.persistence.view.batch_mode";
+    /**
+     * Enables the concurrent execution of the queries of independent BATCH fetched correlated attributes of the top level entity view.
+     * By default the correlation queries are executed sequentially and this can be overridden by setting this property via {@linkplain com.blazebit.persistence.view.EntityViewSetting#setProperty}.
+     * Valid values are a {@link java.util.concurrent.Executor} instance or <code>true</code>, which uses a shared executor that runs on virtual threads if available.
+     *
+     * Correlation queries that run concurrently use a separate <code>EntityManager</code> created from the entity manager factory configured via {@link #CORRELATION_BATCH_ENTITY_MANAGER_FACTORY}.
+     * Since those entity managers don't see unflushed changes of the current persistence context and correlated entities are detached,
+     * this mode should only be used for read only entity views.
+     *
+     * @since 1.6.19
+     */
+    public static final String CORRELATION_BATCH_EXECUTOR = "com.blazebit.persistence.view.correlation_batch_executor";
+    /**
+     * The {@link javax.persistence.EntityManagerFactory} from which entity managers for concurrently executed correlation queries are created.
+     * By default the entity manager factory of the entity manager of the query is used and this can be overridden by setting this property via {@linkplain com.blazebit.persistence.view.EntityViewSetting#setProperty}.
+     *
+     * @since 1.6.19
+     * @see #CORRELATION_BATCH_EXECUTOR
+     */
+    public static final String CORRELATION_BATCH_ENTITY_MANAGER_FACTORY = "com.blazebit.persistence.view.correlation_batch_entity_manager_factory";
     /**
      * A boolean flag to make it possible to prepare the entity view updater cache on startup.
      * By default the eager loading of entity view updates is disabled to have a better startup performance.
@@ -228,6 +248,17 @@ public final class ConfigurationProperties {
      */
     public static final String STATIC_IMPLEMENTATION_SCANNING_DISABLED = "com.blazebit.persistence.view.static_implementation_scanning_disabled";
 
+    /**
+     * A boolean flag to make it possible to disable the generation of entity view implementation classes at runtime.
+     * When disabled, every entity view interface or abstract class must have a static implementation annotated with {@link StaticImplementation},
+     * which is then also used instead of unsafe proxies. Entity views without static implementation are reported as error during startup.
+     * By default the runtime generation is enabled i.e. the default value is <code>false</code>.
+     * Valid values for this property are <code>true</code> or <code>false</code>.
+     *
+     * @since 1.6.19
+     */
+    public static final String PROXY_RUNTIME_GENERATION_DISABLED = "com.blazebit.persistence.view.proxy.runtime_generation_disabled";
+
     /**
      * A boolean flag to make it possible to disable the scanning for static metmodels annotated with {@link StaticMetamodel}.
      * By default the scanning is enabled i.e. the default value is <code>false</code>.
@@ -245,6 +276,61 @@ public final class ConfigurationProperties {
      * @since 1.5.0
      */
     public static final String CREATE_EMPTY_FLAT_VIEWS = "com.blazebit.persistence.view.create_empty_flat_views";
+    /**
+     * If set to true, the structural part of applying an {@link EntityViewSetting} i.e. the resolution of the mapping constructor,
+     * the effective fetches and the expressions for attribute filters, sorters and pagination, is cached by the signature of the setting.
+     * The signature consists of the entity view class, the constructor name, the entity view root, the fetches,
+     * the filtered and sorted attribute names and whether the setting is paginated. Filter values, sorter directions and parameter values
+     * are applied on every invocation.
+     * Statistics about the cache are available via {@link EntityViewSettingCacheStatistics}.
+     * Valid values for this property are <code>true</code> or <code>false</code>.
+     * Default is <code>false</code>.
+     *
+     * @since 1.6.19
+     */
+    public static final String SETTING_CACHE_ENABLED = "com.blazebit.persistence.view.setting_cache_enabled";
+    /**
+     * The maximum number of entries in the entity view setting cache.
+     * Valid values for this property are positive integers.
+     * Default is <code>2048</code>.
+     *
+     * @since 1.6.19
+     */
+    public static final String SETTING_CACHE_MAXIMUM_SIZE = "com.blazebit.persistence.view.setting_cache_maximum_size";
+    /**
+     * If set to true, entity views loaded via {@link EntityViewManager#find(javax.persistence.EntityManager, EntityViewSetting, Object)}
+     * are cached by the entity view class, the entity id and the fetch signature i.e. the constructor name and the fetched attributes.
+     * Lookups with optional parameters, attribute filters or sorters bypass the cache. Updatable entity views are copied when put into
+     * or returned from the cache, so that changes to a returned object don't affect the cached state.
+     *
+     * Entries are invalidated when entity views are flushed through the {@link EntityViewManager} after the transaction completed.
+     * An update or removal invalidates the entries of the same entity, whereas any flush of an entity type invalidates all entries of
+     * entity view types that contain subviews for that entity type. Changes done through other means than the {@link EntityViewManager}
+     * must be reported via {@link com.blazebit.persistence.view.spi.EntityViewCache#evictEntity(Class, Object)}, which can be retrieved via
+     * {@code EntityViewManager.getService(EntityViewCache.class)}.
+     * Statistics about the cache are available via {@link EntityViewCacheStatistics}.
+     * Valid values for this property are <code>true</code> or <code>false</code>.
+     * Default is <code>false</code>.
+     *
+     * @since 1.6.19
+     */
+    public static final String ENTITY_VIEW_CACHE_ENABLED = "com.blazebit.persistence.view.entity_view_cache_enabled";
+    /**
+     * The maximum number of entries in the entity view cache.
+     * Valid values for this property are positive integers.
+     * Default is <code>2048</code>.
+     *
+     * @since 1.6.19
+     */
+    public static final String ENTITY_VIEW_CACHE_MAXIMUM_SIZE = "com.blazebit.persistence.view.entity_view_cache_maximum_size";
+    /**
+     * The fully qualified class name of the {@link com.blazebit.persistence.view.spi.EntityViewCache} implementation.
+     * The class must have a public constructor accepting the maximum size as <code>int</code>.
+     * Default is <code>com.blazebit.persistence.view.impl.LocalEntityViewCache</code>, which is a local in-memory cache.
+     *
+     * @since 1.6.19
+     */
+    public static final String ENTITY_VIEW_CACHE_CLASS = "com.blazebit.persistence.view.entity_view_cache_class";
 
     private ConfigurationProperties() {
     }
@@ -0,0 +1,19 @@
+/*
+ * SPDX-License-Identifier: Apache-2.0
+ * Copyright Blazebit
+ */
+
+package com.blazebit.persistence.view;
+
+import com.blazebit.persistence.CacheStatistics;
+
+/**
+ * Statistics about the entity view cache that is enabled via {@link ConfigurationProperties#ENTITY_VIEW_CACHE_ENABLED}.
+ * An instance can be retrieved via {@code EntityViewManager.getService(EntityViewCacheStatistics.class)}
+ * if the configured {@link com.blazebit.persistence.view.spi.EntityViewCache} implementation provides statistics.
+ *
+ * @author Christian Beikov
+ * @since 1.6.19
+ */
+public interface EntityViewCacheStatistics extends CacheStatistics {
+}
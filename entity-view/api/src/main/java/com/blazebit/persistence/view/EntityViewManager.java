@@ -13,6 +13,8 @@ import com.blazebit.persistence.view.change.SingularChangeModel;
 import com.blazebit.persistence.view.metamodel.ViewMetamodel;
 
 import javax.persistence.EntityManager;
+import java.util.Collection;
+import java.util.List;
 import java.util.Map;
 
 /**
@@ -70,6 +72,34 @@ public interface EntityViewManager extends ServiceProvider {
      */
     public <T> T find(EntityManager entityManager, EntityViewSetting<T, CriteriaBuilder<T>> entityViewSetting, Object entityId);
 
+    /**
+     * Loads and returns the entity views of the given type having the given entity ids.
+     * The ids are loaded in batches with one query per batch rather than one query per id.
+     * The returned list has the same size and order as the given ids and contains <code>null</code> at the positions of ids for which no entity exists.
+     *
+     * @param entityManager The entity manager to use for querying
+     * @param entityViewClass The entity view class to use
+     * @param entityIds The ids of the entities
+     * @param <T> The type of the entity view class
+     * @return The loaded instances of the given entity view type in the order of the given ids
+     * @since 1.6.19
+     */
+    public <T> List<T> findAll(EntityManager entityManager, Class<T> entityViewClass, Collection<?> entityIds);
+
+    /**
+     * Loads and returns the entity views as determined by the given type {@link EntityViewSetting} having the given entity ids.
+     * The ids are loaded in batches with one query per batch rather than one query per id.
+     * The returned list has the same size and order as the given ids and contains <code>null</code> at the positions of ids for which no entity exists.
+     *
+     * @param entityManager The entity manager to use for querying
+     * @param entityViewSetting The entity view setting to use
+     * @param entityIds The ids of the entities
+     * @param <T> The type of the entity view class
+     * @return The loaded instances of the given entity view type in the order of the given ids
+     * @since 1.6.19
+     */
+    public <T> List<T> findAll(EntityManager entityManager, EntityViewSetting<T, CriteriaBuilder<T>> entityViewSetting, Collection<?> entityIds);
+
     /**
      * Creates a reference instance of the entity view class for the given id and returns it.
      *
@@ -342,6 +372,32 @@ public interface EntityViewManager extends ServiceProvider {
      */
     public void saveFull(EntityManager entityManager, Object view);
 
+    /**
+     * Saves the entities which the given entity views map to within a single flush operation.
+     * New entity views are persisted first in the given order, then the dirty entity views are updated grouped by entity view type and dirty attributes,
+     * so that entity views with the same changes are flushed one after another with the same update statement.
+     * When an entity is referred to by multiple entity views, the changes are applied in the given order.
+     * With the {@link FlushStrategy#ENTITY} flush strategy, the entities of a group are loaded with a single query.
+     * With the {@link FlushStrategy#QUERY} flush strategy, every dirty entity view still executes its own update statement
+     * which is not batched via JDBC, so the saving is not cheaper than calling {@link #save(EntityManager, Object)} for every entity view.
+     * Optimistic locking is applied to every entity view just like with {@link #save(EntityManager, Object)}.
+     *
+     * @param entityManager The entity manager to use for the save
+     * @param views The views to use for saving
+     * @since 1.6.19
+     */
+    public void saveAll(EntityManager entityManager, Iterable<?> views);
+
+    /**
+     * Fully saves the entities which the given entity views map to within a single flush operation.
+     * Apart from flushing all attributes, this works like {@link #saveAll(EntityManager, Iterable)}.
+     *
+     * @param entityManager The entity manager to use for the save
+     * @param views The views to use for saving
+     * @since 1.6.19
+     */
+    public void saveFullAll(EntityManager entityManager, Iterable<?> views);
+
     /**
      * Saves the entity view state onto the given entity.
      * Issues a partial update if enabled for the given view.
@@ -0,0 +1,18 @@
+/*
+ * SPDX-License-Identifier: Apache-2.0
+ * Copyright Blazebit
+ */
+
+package com.blazebit.persistence.view;
+
+import com.blazebit.persistence.CacheStatistics;
+
+/**
+ * Statistics about the entity view setting cache that is enabled via {@link ConfigurationProperties#SETTING_CACHE_ENABLED}.
+ * An instance can be retrieved via {@code EntityViewManager.getService(EntityViewSettingCacheStatistics.class)}.
+ *
+ * @author Christian Beikov
+ * @since 1.6.19
+ */
+public interface EntityViewSettingCacheStatistics extends CacheStatistics {
+}
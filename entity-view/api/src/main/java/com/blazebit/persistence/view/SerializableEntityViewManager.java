@@ -13,6 +13,8 @@ import com.blazebit.persistence.view.metamodel.ViewMetamodel;
 import javax.persistence.EntityManager;
 import java.io.Serializable;
 import java.lang.reflect.Field;
+import java.util.Collection;
+import java.util.List;
 import java.util.Map;
 
 /**
@@ -74,6 +76,16 @@ public class SerializableEntityViewManager implements EntityViewManager, Seriali
         return getEvm().find(entityManager, entityViewSetting, entityId);
     }
 
+    @Override
+    public <T> List<T> findAll(EntityManager entityManager, Class<T> entityViewClass, Collection<?> entityIds) {
+        return getEvm().findAll(entityManager, entityViewClass, entityIds);
+    }
+
+    @Override
+    public <T> List<T> findAll(EntityManager entityManager, EntityViewSetting<T, CriteriaBuilder<T>> entityViewSetting, Collection<?> entityIds) {
+        return getEvm().findAll(entityManager, entityViewSetting, entityIds);
+    }
+
     @Override
     public <T> T getReference(Class<T> entityViewClass, Object id) {
         return getEvm().getReference(entityViewClass, id);
@@ -189,6 +201,16 @@ public class SerializableEntityViewManager implements EntityViewManager, Seriali
         getEvm().saveFull(entityManager, view);
     }
 
+    @Override
+    public void saveAll(EntityManager entityManager, Iterable<?> views) {
+        getEvm().saveAll(entityManager, views);
+    }
+
+    @Override
+    public void saveFullAll(EntityManager entityManager, Iterable<?> views) {
+        getEvm().saveFullAll(entityManager, views);
+    }
+
     @Override
     public void saveTo(EntityManager entityManager, Object view, Object entity) {
         getEvm().saveTo(entityManager, view, entity);
@@ -0,0 +1,67 @@
+/*
+ * SPDX-License-Identifier: Apache-2.0
+ * Copyright Blazebit
+ */
+
+package com.blazebit.persistence.view.spi;
+
+/**
+ * A cache for entity view instances loaded via {@link com.blazebit.persistence.view.EntityViewManager#find}.
+ * The cache is enabled via {@link com.blazebit.persistence.view.ConfigurationProperties#ENTITY_VIEW_CACHE_ENABLED}
+ * and the implementation is configured via {@link com.blazebit.persistence.view.ConfigurationProperties#ENTITY_VIEW_CACHE_CLASS}.
+ * An implementation must have a public constructor accepting the maximum size as <code>int</code> and must be thread safe.
+ *
+ * The entity view manager takes care of copying updatable entity views before they are put into or returned from the cache
+ * and invalidates entries when entity views are flushed through the entity view manager.
+ * Changes that are done through other means must be reported by invoking {@link #evictEntity(Class, Object)}.
+ * The cache of an entity view manager can be retrieved via {@code EntityViewManager.getService(EntityViewCache.class)}.
+ *
+ * @author Christian Beikov
+ * @since 1.6.19
+ */
+public interface EntityViewCache {
+
+    /**
+     * Returns the cached entity view for the given key or <code>null</code>.
+     *
+     * @param key The key
+     * @return The cached entity view or <code>null</code>
+     */
+    public Object get(EntityViewCacheKey key);
+
+    /**
+     * Puts the given entity view into the cache for the given key.
+     *
+     * @param key The key
+     * @param entityView The entity view
+     */
+    public void put(EntityViewCacheKey key, Object entityView);
+
+    /**
+     * Removes the entry for the given key.
+     *
+     * @param key The key
+     */
+    public void remove(EntityViewCacheKey key);
+
+    /**
+     * Removes all entries for entity views of the entity with the given id.
+     * The entity class is the root entity class of the inheritance hierarchy.
+     *
+     * @param entityClass The root entity class
+     * @param entityId The entity id
+     */
+    public void evictEntity(Class<?> entityClass, Object entityId);
+
+    /**
+     * Removes all entries for entity views of the given entity view class.
+     *
+     * @param entityViewClass The entity view class
+     */
+    public void evictEntityView(Class<?> entityViewClass);
+
+    /**
+     * Removes all entries.
+     */
+    public void clear();
+}
@@ -0,0 +1,130 @@
+/*
+ * SPDX-License-Identifier: Apache-2.0
+ * Copyright Blazebit
+ */
+
+package com.blazebit.persistence.view.spi;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * The key of an entry in an {@link EntityViewCache}, which consists of the entity view class, the entity id and the fetch signature
+ * i.e. the constructor name and the fetched attributes.
+ *
+ * @author Christian Beikov
+ * @since 1.6.19
+ */
+public final class EntityViewCacheKey {
+
+    private final Class<?> entityViewClass;
+    private final String viewConstructorName;
+    private final Class<?> entityClass;
+    private final Object entityId;
+    private final Set<String> fetches;
+    private final int hashCode;
+
+    /**
+     * Creates a new key.
+     *
+     * @param entityViewClass The entity view class
+     * @param viewConstructorName The name of the view constructor or <code>null</code>
+     * @param entityClass The root entity class of the inheritance hierarchy of the entity view's entity class
+     * @param entityId The entity id
+     * @param fetches The fetched attributes
+     */
+    public EntityViewCacheKey(Class<?> entityViewClass, String viewConstructorName, Class<?> entityClass, Object entityId, Collection<String> fetches) {
+        this.entityViewClass = entityViewClass;
+        this.viewConstructorName = viewConstructorName;
+        this.entityClass = entityClass;
+        this.entityId = entityId;
+        this.fetches = fetches.isEmpty() ? Collections.<String>emptySet() : Collections.unmodifiableSet(new HashSet<>(fetches));
+        int result = entityViewClass.hashCode();
+        result = 31 * result + (viewConstructorName != null ? viewConstructorName.hashCode() : 0);
+        result = 31 * result + entityClass.hashCode();
+        result = 31 * result + entityId.hashCode();
+        result = 31 * result + this.fetches.hashCode();
+        this.hashCode = result;
+    }
+
+    /**
+     * Returns the entity view class.
+     *
+     * @return the entity view class
+     */
+    public Class<?> getEntityViewClass() {
+        return entityViewClass;
+    }
+
+    /**
+     * Returns the name of the view constructor or <code>null</code>.
+     *
+     * @return the name of the view constructor
+     */
+    public String getViewConstructorName() {
+        return viewConstructorName;
+    }
+
+    /**
+     * Returns the root entity class of the inheritance hierarchy of the entity view's entity class.
+     *
+     * @return the root entity class
+     */
+    public Class<?> getEntityClass() {
+        return entityClass;
+    }
+
+    /**
+     * Returns the entity id.
+     *
+     * @return the entity id
+     */
+    public Object getEntityId() {
+        return entityId;
+    }
+
+    /**
+     * Returns the fetched attributes.
+     *
+     * @return the fetched attributes
+     */
+    public Set<String> getFetches() {
+        return fetches;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof EntityViewCacheKey)) {
+            return false;
+        }
+
+        EntityViewCacheKey that = (EntityViewCacheKey) o;
+        return hashCode == that.hashCode
+                && entityViewClass.equals(that.entityViewClass)
+                && (viewConstructorName != null ? viewConstructorName.equals(that.viewConstructorName) : that.viewConstructorName == null)
+                && entityClass.equals(that.entityClass)
+                && entityId.equals(that.entityId)
+                && fetches.equals(that.fetches);
+    }
+
+    @Override
+    public int hashCode() {
+        return hashCode;
+    }
+
+    @Override
+    public String toString() {
+        return "EntityViewCacheKey{"
+                + "entityViewClass=" + entityViewClass.getName()
+                + ", viewConstructorName=" + viewConstructorName
+                + ", entityClass=" + entityClass.getName()
+                + ", entityId=" + entityId
+                + ", fetches=" + fetches
+                + '}';
+    }
+}
@@ -0,0 +1,108 @@
+/*
+ * SPDX-License-Identifier: Apache-2.0
+ * Copyright Blazebit
+ */
+
+package com.blazebit.persistence.view.impl;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Provides the shared default executor for concurrently executed correlation queries.
+ *
+ * @author Christian Beikov
+ * @since 1.6.19
+ */
+public final class CorrelationBatchExecutors {
+
+    private CorrelationBatchExecutors() {
+    }
+
+    /**
+     * Returns the shared executor that runs tasks on virtual threads if the runtime supports them or on a pool of daemon threads otherwise.
+     * At most as many tasks as there are available processors, but at least two, run concurrently,
+     * as every task occupies a database connection. Further tasks are queued.
+     *
+     * @return The default executor
+     */
+    public static Executor getDefault() {
+        return DefaultExecutorHolder.INSTANCE;
+    }
+
+    /**
+     * Lazily initialized holder to avoid creating the executor if the feature is unused.
+     *
+     * @author Christian Beikov
+     * @since 1.6.19
+     */
+    private static final class DefaultExecutorHolder {
+
+        static final Executor INSTANCE = createDefault();
+
+        private DefaultExecutorHolder() {
+        }
+
+        private static Executor createDefault() {
+            int maximumConcurrency = Math.max(2, Runtime.getRuntime().availableProcessors());
+            try {
+                Method method = Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+                return new ConcurrencyLimitingExecutor((Executor) method.invoke(null), maximumConcurrency);
+            } catch (Exception ex) {
+                // Virtual threads are not available on this runtime
+            }
+            ThreadPoolExecutor executor = new ThreadPoolExecutor(maximumConcurrency, maximumConcurrency, 60L, TimeUnit.SECONDS, new LinkedBlockingQueue<Runnable>(), new ThreadFactory() {
+                private final AtomicInteger counter = new AtomicInteger();
+
+                @Override
+                public Thread newThread(Runnable r) {
+                    Thread thread = new Thread(r, "blaze-persistence-correlation-batch-" + counter.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                }
+            });
+            executor.allowCoreThreadTimeOut(true);
+            return executor;
+        }
+    }
+
+    /**
+     * Limits the number of concurrently running tasks of an executor that creates a thread per task.
+     * Tasks wait for a permit on their own thread, so submitting a task never blocks.
+     *
+     * @author Christian Beikov
+     * @since 1.6.19
+     */
+    private static final class ConcurrencyLimitingExecutor implements Executor {
+
+        private final Executor delegate;
+        private final Semaphore semaphore;
+
+        public ConcurrencyLimitingExecutor(Executor delegate, int maximumConcurrency) {
+            this.delegate = delegate;
+            this.semaphore = new Semaphore(maximumConcurrency);
+        }
+
+        @Override
+        public void execute(final Runnable command) {
+            delegate.execute(new Runnable() {
+                @Override
+                public void run() {
+                    semaphore.acquireUninterruptibly();
+                    try {
+                        command.run();
+                    } finally {
+                        semaphore.release();
+                    }
+                }
+            });
+        }
+    }
+}
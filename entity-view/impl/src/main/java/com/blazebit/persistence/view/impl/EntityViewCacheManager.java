@@ -0,0 +1,471 @@
+/*
+ * SPDX-License-Identifier: Apache-2.0
+ * Copyright Blazebit
+ */
+
+package com.blazebit.persistence.view.impl;
+
+import com.blazebit.persistence.parser.EntityMetamodel;
+import com.blazebit.persistence.parser.expression.Expression;
+import com.blazebit.persistence.parser.expression.FunctionExpression;
+import com.blazebit.persistence.parser.expression.PathElementExpression;
+import com.blazebit.persistence.parser.expression.PathExpression;
+import com.blazebit.persistence.parser.expression.PropertyExpression;
+import com.blazebit.persistence.parser.expression.SubqueryExpression;
+import com.blazebit.persistence.parser.expression.VisitorAdapter;
+import com.blazebit.persistence.parser.predicate.Predicate;
+import com.blazebit.persistence.parser.util.JpaMetamodelUtils;
+import com.blazebit.persistence.view.EntityViewSetting;
+import com.blazebit.persistence.view.impl.metamodel.AbstractAttribute;
+import com.blazebit.persistence.view.metamodel.Attribute;
+import com.blazebit.persistence.view.metamodel.ManagedViewType;
+import com.blazebit.persistence.view.metamodel.MapAttribute;
+import com.blazebit.persistence.view.metamodel.MappingConstructor;
+import com.blazebit.persistence.view.metamodel.MethodAttribute;
+import com.blazebit.persistence.view.metamodel.ParameterAttribute;
+import com.blazebit.persistence.view.metamodel.PluralAttribute;
+import com.blazebit.persistence.view.metamodel.SingularAttribute;
+import com.blazebit.persistence.view.metamodel.Type;
+import com.blazebit.persistence.view.spi.EntityViewCache;
+import com.blazebit.persistence.view.spi.EntityViewCacheKey;
+
+import javax.persistence.metamodel.EntityType;
+import javax.persistence.metamodel.IdentifiableType;
+import javax.persistence.metamodel.ManagedType;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Coordinates the lookup of entity views in the {@link EntityViewCache} with the invalidation caused by flushes.
+ *
+ * Every flushed entity view registers its entity as pending until the transaction completes. While an entity or an entity type a view type depends on
+ * is pending, the cache is bypassed for the view type, so that neither uncommitted nor outdated state is served or cached.
+ * After completion, the affected entries are evicted and the generation is incremented, which prevents results of queries that ran before the
+ * completion from being cached.
+ *
+ * A view type depends on every entity type that its mapping expressions join through, including correlated entities.
+ * If the dependencies can't be determined, e.g. for subquery or correlation providers, a flush of any entity type evicts the view type.
+ *
+ * Lookups only synchronize on the pending registrations while there are any, so cache hits outside of flushing transactions don't contend.
+ *
+ * @author Christian Beikov
+ * @since 1.6.19
+ */
+public class EntityViewCacheManager {
+
+    private static final Set<String> MACRO_FUNCTIONS = new HashSet<>(Arrays.asList("VIEW", "VIEW_ROOT", "EMBEDDING_VIEW", "OUTER"));
+
+    private final EntityViewManagerImpl evm;
+    private final EntityViewCache cache;
+    private final ConcurrentMap<Class<?>, Dependencies> dependencies = new ConcurrentHashMap<>();
+    private final Map<EntityKey, Integer> pendingEntities = new HashMap<>();
+    private final Map<Class<?>, Integer> pendingEntityClasses = new HashMap<>();
+    private final AtomicInteger pendingCount = new AtomicInteger();
+    private final AtomicLong generation = new AtomicLong();
+
+    public EntityViewCacheManager(EntityViewManagerImpl evm, EntityViewCache cache) {
+        this.evm = evm;
+        this.cache = cache;
+    }
+
+    public EntityViewCache getCache() {
+        return cache;
+    }
+
+    public static boolean isCacheable(EntityViewSetting<?, ?> setting) {
+        return setting.getOptionalParameters().isEmpty() && setting.getAttributeFilterActivations().isEmpty() && setting.getAttributeSorters().isEmpty();
+    }
+
+    public EntityViewCacheKey createKey(ManagedViewType<?> viewType, EntityViewSetting<?, ?> setting, Object entityId) {
+        return new EntityViewCacheKey(viewType.getJavaType(), setting.getViewConstructorName(), getRootEntityClass(viewType.getEntityClass()), entityId, setting.getFetches());
+    }
+
+    public long getGeneration() {
+        return generation.get();
+    }
+
+    /**
+     * Returns the cached entity view for the given key or <code>null</code> if there is none or if the cache must be bypassed.
+     *
+     * @param viewType The view type
+     * @param key The key
+     * @param <T> The entity view type
+     * @return The cached entity view or <code>null</code>
+     */
+    public <T> T get(ManagedViewType<T> viewType, EntityViewCacheKey key) {
+        if (isPending(viewType, key)) {
+            return null;
+        }
+        Object entityView = cache.get(key);
+        if (entityView == null) {
+            return null;
+        }
+        return copy(viewType, key, entityView);
+    }
+
+    /**
+     * Puts the given entity view into the cache if there was no completed flush since the given generation was retrieved.
+     *
+     * @param viewType The view type
+     * @param key The key
+     * @param entityView The entity view
+     * @param generation The generation that was retrieved before loading the entity view
+     * @param <T> The entity view type
+     */
+    public <T> void put(ManagedViewType<T> viewType, EntityViewCacheKey key, T entityView, long generation) {
+        if (this.generation.get() != generation || isPending(viewType, key)) {
+            return;
+        }
+        cache.put(key, copy(viewType, key, entityView));
+        // A concurrent completion might have evicted entries before our put, so we have to remove the entry ourselves
+        if (this.generation.get() != generation) {
+            cache.remove(key);
+        }
+    }
+
+    /**
+     * Registers the entity of a flushed entity view as pending until {@link #flushCompleted(List, boolean)} is invoked.
+     * The entity id may be <code>null</code> for persisted entity views.
+     *
+     * @param entityClass The entity class
+     * @param entityId The entity id or <code>null</code>
+     * @param flushedEntities The list to which the registration is added
+     */
+    public void flushed(Class<?> entityClass, Object entityId, List<Object> flushedEntities) {
+        entityClass = getRootEntityClass(entityClass);
+        EntityKey entityKey = entityId == null ? null : new EntityKey(entityClass, entityId);
+        synchronized (this) {
+            increment(pendingEntityClasses, entityClass);
+            if (entityKey != null) {
+                increment(pendingEntities, entityKey);
+            }
+            pendingCount.incrementAndGet();
+        }
+        flushedEntities.add(entityClass);
+        flushedEntities.add(entityKey);
+    }
+
+    /**
+     * Evicts the entries affected by the given flushed entities if the transaction was committed and releases the pending registrations.
+     *
+     * @param flushedEntities The registrations
+     * @param committed Whether the transaction was committed
+     */
+    public void flushCompleted(List<Object> flushedEntities, boolean committed) {
+        if (committed) {
+            generation.incrementAndGet();
+            Set<Class<?>> entityClasses = new HashSet<>();
+            for (int i = 0; i < flushedEntities.size(); i += 2) {
+                entityClasses.add((Class<?>) flushedEntities.get(i));
+                EntityKey entityKey = (EntityKey) flushedEntities.get(i + 1);
+                if (entityKey != null) {
+                    cache.evictEntity(entityKey.entityClass, entityKey.entityId);
+                }
+            }
+            for (Map.Entry<Class<?>, Dependencies> entry : dependencies.entrySet()) {
+                if (entry.getValue().allEntityClasses || !Collections.disjoint(entry.getValue().entityClasses, entityClasses)) {
+                    cache.evictEntityView(entry.getKey());
+                }
+            }
+        }
+        synchronized (this) {
+            for (int i = 0; i < flushedEntities.size(); i += 2) {
+                decrement(pendingEntityClasses, flushedEntities.get(i));
+                Object entityKey = flushedEntities.get(i + 1);
+                if (entityKey != null) {
+                    decrement(pendingEntities, entityKey);
+                }
+            }
+            pendingCount.addAndGet(-flushedEntities.size() / 2);
+        }
+    }
+
+    private boolean isPending(ManagedViewType<?> viewType, EntityViewCacheKey key) {
+        // The dependencies must be registered before the entity view is cached, so that a flush completion evicts it
+        Dependencies dependencies = getDependencies(viewType);
+        // Fast path without locking when no flushed entity is pending
+        if (pendingCount.get() == 0) {
+            return false;
+        }
+        synchronized (this) {
+            if (pendingEntityClasses.isEmpty()) {
+                return false;
+            }
+            if (dependencies.allEntityClasses || pendingEntities.containsKey(new EntityKey(key.getEntityClass(), key.getEntityId()))) {
+                return true;
+            }
+            for (Class<?> entityClass : dependencies.entityClasses) {
+                if (pendingEntityClasses.containsKey(entityClass)) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    @SuppressWarnings("unchecked")
+    private <T> T copy(ManagedViewType<T> viewType, EntityViewCacheKey key, Object entityView) {
+        if (viewType.isUpdatable() || viewType.isCreatable()) {
+            return evm.convert(entityView, viewType.getJavaType(), key.getViewConstructorName());
+        }
+        return (T) entityView;
+    }
+
+    private Dependencies getDependencies(ManagedViewType<?> viewType) {
+        Dependencies viewDependencies = dependencies.get(viewType.getJavaType());
+        if (viewDependencies == null) {
+            viewDependencies = new Dependencies();
+            collectDependencies(viewType, viewDependencies, new HashSet<ManagedViewType<?>>());
+            dependencies.putIfAbsent(viewType.getJavaType(), viewDependencies);
+        }
+        return viewDependencies;
+    }
+
+    private void collectDependencies(ManagedViewType<?> viewType, Dependencies dependencies, Set<ManagedViewType<?>> visited) {
+        if (!visited.add(viewType)) {
+            return;
+        }
+        for (MethodAttribute<?, ?> attribute : viewType.getAttributes()) {
+            collectDependencies(viewType, attribute, dependencies, visited);
+        }
+        for (MappingConstructor<?> constructor : viewType.getConstructors()) {
+            for (ParameterAttribute<?, ?> attribute : constructor.getParameterAttributes()) {
+                collectDependencies(viewType, attribute, dependencies, visited);
+            }
+        }
+        for (ManagedViewType<?> subtype : viewType.getInheritanceSubtypes()) {
+            collectDependencies(subtype, dependencies, visited);
+        }
+    }
+
+    private void collectDependencies(ManagedViewType<?> viewType, Attribute<?, ?> attribute, Dependencies dependencies, Set<ManagedViewType<?>> visited) {
+        AbstractAttribute<?, ?> abstractAttribute = (AbstractAttribute<?, ?>) attribute;
+        EntityMetamodel entityMetamodel = evm.getMetamodel().getEntityMetamodel();
+        ManagedType<?> entityType = entityMetamodel.getManagedType(viewType.getEntityClass());
+        switch (attribute.getMappingType()) {
+            case BASIC:
+                collectDependencies(abstractAttribute.getMappingExpression(), entityType, null, dependencies);
+                break;
+            case CORRELATED:
+                Class<?> correlated = abstractAttribute.getCorrelated();
+                Predicate correlationPredicate = abstractAttribute.getCorrelationPredicate();
+                if (correlated == null || correlationPredicate == null) {
+                    // The correlation provider could join anything
+                    dependencies.allEntityClasses = true;
+                } else {
+                    ManagedType<?> correlatedType = entityMetamodel.getManagedType(correlated);
+                    addEntityClass(correlated, dependencies.entityClasses);
+                    collectDependencies(abstractAttribute.getCorrelationBasisExpression(), entityType, null, dependencies);
+                    collectDependencies(abstractAttribute.getCorrelationResultExpression(), correlatedType, null, dependencies);
+                    collectDependencies(correlationPredicate, correlatedType, abstractAttribute.getCorrelationKeyAlias(), dependencies);
+                }
+                break;
+            case SUBQUERY:
+                // The subquery provider could join anything
+                dependencies.allEntityClasses = true;
+                break;
+            default:
+                break;
+        }
+        if (attribute instanceof PluralAttribute<?, ?, ?>) {
+            collectDependencies(((PluralAttribute<?, ?, ?>) attribute).getElementType(), dependencies, visited);
+            if (attribute instanceof MapAttribute<?, ?, ?>) {
+                collectDependencies(((MapAttribute<?, ?, ?>) attribute).getKeyType(), dependencies, visited);
+            }
+        } else {
+            collectDependencies(((SingularAttribute<?, ?>) attribute).getType(), dependencies, visited);
+        }
+    }
+
+    private void collectDependencies(Type<?> type, Dependencies dependencies, Set<ManagedViewType<?>> visited) {
+        if (type instanceof ManagedViewType<?>) {
+            ManagedViewType<?> subviewType = (ManagedViewType<?>) type;
+            addEntityClass(subviewType.getEntityClass(), dependencies.entityClasses);
+            collectDependencies(subviewType, dependencies, visited);
+        } else if (type != null) {
+            addEntityClass(type.getJavaType(), dependencies.entityClasses);
+        }
+    }
+
+    private void collectDependencies(Expression expression, ManagedType<?> rootType, String skippedAlias, Dependencies dependencies) {
+        if (expression != null) {
+            expression.accept(new DependencyCollectingVisitor(evm.getMetamodel().getEntityMetamodel(), rootType, skippedAlias, dependencies));
+        }
+    }
+
+    private void addEntityClass(Class<?> javaType, Set<Class<?>> entityClasses) {
+        if (evm.getMetamodel().getEntityMetamodel().getEntity(javaType) != null) {
+            entityClasses.add(getRootEntityClass(javaType));
+        }
+    }
+
+    private Class<?> getRootEntityClass(Class<?> entityClass) {
+        EntityMetamodel entityMetamodel = evm.getMetamodel().getEntityMetamodel();
+        IdentifiableType<?> type = entityMetamodel.getEntity(entityClass);
+        if (type == null) {
+            return entityClass;
+        }
+        while (type.getSupertype() instanceof EntityType<?>) {
+            type = type.getSupertype();
+        }
+        return type.getJavaType();
+    }
+
+    private static <K> void increment(Map<K, Integer> counts, K key) {
+        Integer count = counts.get(key);
+        counts.put(key, count == null ? 1 : count + 1);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static void decrement(Map<?, Integer> counts, Object key) {
+        Integer count = counts.get(key);
+        if (count != null) {
+            if (count == 1) {
+                counts.remove(key);
+            } else {
+                ((Map<Object, Integer>) counts).put(key, count - 1);
+            }
+        }
+    }
+
+    /**
+     * The entity types a view type depends on.
+     *
+     * @author Christian Beikov
+     * @since 1.6.19
+     */
+    private static final class Dependencies {
+
+        private final Set<Class<?>> entityClasses = new HashSet<>();
+        private boolean allEntityClasses;
+    }
+
+    /**
+     * Collects the entity types that the paths of an expression join through.
+     * Paths that can't be resolved against the root type, like paths that use a macro, an entity view root or a treat,
+     * and subqueries make the view type depend on all entity types.
+     *
+     * @author Christian Beikov
+     * @since 1.6.19
+     */
+    private static final class DependencyCollectingVisitor extends VisitorAdapter {
+
+        private final EntityMetamodel entityMetamodel;
+        private final ManagedType<?> rootType;
+        private final String skippedAlias;
+        private final Dependencies dependencies;
+
+        public DependencyCollectingVisitor(EntityMetamodel entityMetamodel, ManagedType<?> rootType, String skippedAlias, Dependencies dependencies) {
+            this.entityMetamodel = entityMetamodel;
+            this.rootType = rootType;
+            this.skippedAlias = skippedAlias;
+            this.dependencies = dependencies;
+        }
+
+        @Override
+        public void visit(PathExpression expression) {
+            List<PathElementExpression> elements = expression.getExpressions();
+            int start = 0;
+            if (!elements.isEmpty() && elements.get(0) instanceof PropertyExpression) {
+                String firstProperty = ((PropertyExpression) elements.get(0)).getProperty();
+                if (firstProperty.equals(skippedAlias)) {
+                    // The correlation key is the result of the correlation basis which is handled separately
+                    return;
+                }
+                if ("this".equalsIgnoreCase(firstProperty)) {
+                    start = 1;
+                }
+            }
+            ManagedType<?> type = rootType;
+            for (int i = start; i < elements.size(); i++) {
+                PathElementExpression element = elements.get(i);
+                if (!(element instanceof PropertyExpression) || type == null) {
+                    dependencies.allEntityClasses = true;
+                    return;
+                }
+                javax.persistence.metamodel.Attribute<?, ?> attribute = JpaMetamodelUtils.getAttribute(type, ((PropertyExpression) element).getProperty());
+                if (attribute == null) {
+                    dependencies.allEntityClasses = true;
+                    return;
+                }
+                Class<?> elementClass;
+                if (attribute instanceof javax.persistence.metamodel.PluralAttribute<?, ?, ?>) {
+                    elementClass = ((javax.persistence.metamodel.PluralAttribute<?, ?, ?>) attribute).getElementType().getJavaType();
+                    if (attribute instanceof javax.persistence.metamodel.MapAttribute<?, ?, ?>) {
+                        addEntityType(entityMetamodel.getManagedType(((javax.persistence.metamodel.MapAttribute<?, ?, ?>) attribute).getKeyJavaType()));
+                    }
+                } else {
+                    elementClass = JpaMetamodelUtils.resolveFieldClass(type.getJavaType(), attribute);
+                }
+                type = entityMetamodel.getManagedType(elementClass);
+                addEntityType(type);
+            }
+        }
+
+        @Override
+        public void visit(FunctionExpression expression) {
+            if (expression.getFunctionName() != null && MACRO_FUNCTIONS.contains(expression.getFunctionName().toUpperCase())) {
+                dependencies.allEntityClasses = true;
+            } else {
+                super.visit(expression);
+            }
+        }
+
+        @Override
+        public void visit(SubqueryExpression expression) {
+            dependencies.allEntityClasses = true;
+        }
+
+        private void addEntityType(ManagedType<?> type) {
+            if (type instanceof EntityType<?>) {
+                IdentifiableType<?> entityType = (IdentifiableType<?>) type;
+                while (entityType.getSupertype() instanceof EntityType<?>) {
+                    entityType = entityType.getSupertype();
+                }
+                dependencies.entityClasses.add(entityType.getJavaType());
+            }
+        }
+    }
+
+    /**
+     * @author Christian Beikov
+     * @since 1.6.19
+     */
+    private static final class EntityKey {
+
+        private final Class<?> entityClass;
+        private final Object entityId;
+
+        public EntityKey(Class<?> entityClass, Object entityId) {
+            this.entityClass = entityClass;
+            this.entityId = entityId;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof EntityKey)) {
+                return false;
+            }
+
+            EntityKey entityKey = (EntityKey) o;
+            return entityClass.equals(entityKey.entityClass) && entityId.equals(entityKey.entityId);
+        }
+
+        @Override
+        public int hashCode() {
+            return 31 * entityClass.hashCode() + entityId.hashCode();
+        }
+    }
+}
@@ -19,6 +19,7 @@ import com.blazebit.persistence.view.metamodel.ViewType;
 import com.blazebit.persistence.view.spi.EmbeddingViewJpqlMacro;
 import com.blazebit.persistence.view.spi.ViewJpqlMacro;
 
+import javax.persistence.EntityManagerFactory;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.HashMap;
@@ -26,6 +27,7 @@ import java.util.Map;
 import java.util.NavigableSet;
 import java.util.Set;
 import java.util.TreeSet;
+import java.util.concurrent.Executor;
 
 /**
  * @author Christian Beikov
@@ -42,6 +44,8 @@ public final class EntityViewConfiguration {
     private final NavigableSet<String> fetches;
     private final Map<String, Integer> batchSizeConfiguration;
     private final Map<String, BatchCorrelationMode> expectBatchCorrelationValuesConfiguration;
+    private final Executor correlationBatchExecutor;
+    private final EntityManagerFactory correlationBatchEntityManagerFactory;
 
     public EntityViewConfiguration(FullQueryBuilder<?, ?> criteriaBuilder, ExpressionFactory expressionFactory, ViewJpqlMacro viewJpqlMacro, EmbeddingViewJpqlMacro embeddingViewJpqlMacro, Map<String, Object> optionalParameters, Map<String, Object> properties, Collection<String> fetches, String attributePath) {
         this(criteriaBuilder, expressionFactory, viewJpqlMacro, embeddingViewJpqlMacro, optionalParameters, properties, getFetches(fetches, attributePath));
@@ -51,9 +55,11 @@ public final class EntityViewConfiguration {
         this(criteriaBuilder, expressionFactory, viewJpqlMacro, embeddingViewJpqlMacro, optionalParameters, properties, getFetches(fetches, managedViewType));
     }
 
-    private EntityViewConfiguration(FullQueryBuilder<?, ?> criteriaBuilder, ExpressionFactory expressionFactory, ViewJpqlMacro viewJpqlMacro, EmbeddingViewJpqlMacro embeddingViewJpqlMacro, Map<String, Object> optionalParameters, Map<String, Object> properties, NavigableSet<String> fetches) {
+    public EntityViewConfiguration(FullQueryBuilder<?, ?> criteriaBuilder, ExpressionFactory expressionFactory, ViewJpqlMacro viewJpqlMacro, EmbeddingViewJpqlMacro embeddingViewJpqlMacro, Map<String, Object> optionalParameters, Map<String, Object> properties, NavigableSet<String> fetches) {
         Map<String, Integer> batchSizeConfiguration = new HashMap<String, Integer>(properties.size());
         Map<String, BatchCorrelationMode> expectBatchCorrelationValuesConfiguration = new HashMap<>(properties.size());
+        Executor correlationBatchExecutor = null;
+        EntityManagerFactory correlationBatchEntityManagerFactory = null;
 
         for (Map.Entry<String, Object> entry : properties.entrySet()) {
             String key = entry.getKey();
@@ -87,6 +93,13 @@ public final class EntityViewConfiguration {
                     key = key.substring(ConfigurationProperties.EXPECT_BATCH_MODE.length() + 1);
                     expectBatchCorrelationValuesConfiguration.put(key, value);
                 }
+            } else if (key.equals(ConfigurationProperties.CORRELATION_BATCH_EXECUTOR)) {
+                correlationBatchExecutor = getCorrelationBatchExecutor(key, entry.getValue());
+            } else if (key.equals(ConfigurationProperties.CORRELATION_BATCH_ENTITY_MANAGER_FACTORY)) {
+                if (entry.getValue() != null && !(entry.getValue() instanceof EntityManagerFactory)) {
+                    throw new IllegalArgumentException("Invalid correlation batch entity manager factory configuration for key: " + key);
+                }
+                correlationBatchEntityManagerFactory = (EntityManagerFactory) entry.getValue();
             }
         }
 
@@ -98,6 +111,8 @@ public final class EntityViewConfiguration {
         this.fetches = fetches;
         this.batchSizeConfiguration = Collections.unmodifiableMap(batchSizeConfiguration);
         this.expectBatchCorrelationValuesConfiguration = Collections.unmodifiableMap(expectBatchCorrelationValuesConfiguration);
+        this.correlationBatchExecutor = correlationBatchExecutor;
+        this.correlationBatchEntityManagerFactory = correlationBatchEntityManagerFactory;
         this.criteriaBuilder.registerMacro("view", viewJpqlMacro);
         this.criteriaBuilder.registerMacro("embedding_view", embeddingViewJpqlMacro);
     }
@@ -111,6 +126,9 @@ public final class EntityViewConfiguration {
         this.fetches = fetches;
         this.batchSizeConfiguration = original.batchSizeConfiguration;
         this.expectBatchCorrelationValuesConfiguration = original.expectBatchCorrelationValuesConfiguration;
+        // Correlations of subviews are already executed within a correlation query, so we only run top level correlations concurrently
+        this.correlationBatchExecutor = null;
+        this.correlationBatchEntityManagerFactory = null;
     }
 
     private static NavigableSet<String> getFetches(Collection<String> fetches, String attributePath) {
@@ -130,7 +148,7 @@ public final class EntityViewConfiguration {
         return filteredFetches;
     }
 
-    private static NavigableSet<String> getFetches(Collection<String> fetches, ManagedViewTypeImplementor<?> managedViewType) {
+    static NavigableSet<String> getFetches(Collection<String> fetches, ManagedViewTypeImplementor<?> managedViewType) {
         NavigableSet<String> filteredFetches;
         if (fetches.isEmpty()) {
             filteredFetches = EMPTY_SET;
@@ -305,6 +323,32 @@ public final class EntityViewConfiguration {
         return value;
     }
 
+    public Executor getCorrelationBatchExecutor() {
+        return correlationBatchExecutor;
+    }
+
+    public EntityManagerFactory getCorrelationBatchEntityManagerFactory() {
+        if (correlationBatchEntityManagerFactory == null) {
+            return criteriaBuilder.getEntityManager().getEntityManagerFactory();
+        }
+        return correlationBatchEntityManagerFactory;
+    }
+
+    private Executor getCorrelationBatchExecutor(String key, Object value) {
+        if (value == null || value instanceof Executor) {
+            return (Executor) value;
+        } else if (value instanceof Boolean || value instanceof String) {
+            String s = value.toString();
+            if ("true".equalsIgnoreCase(s)) {
+                return CorrelationBatchExecutors.getDefault();
+            } else if ("false".equalsIgnoreCase(s)) {
+                return null;
+            }
+        }
+
+        throw new IllegalArgumentException("Invalid correlation batch executor configuration " + value + " for key: " + key);
+    }
+
     private BatchCorrelationMode getExpectBatchCorrelationValues(String key, Object value) {
         BatchCorrelationMode val = null;
         if (value instanceof Boolean) {
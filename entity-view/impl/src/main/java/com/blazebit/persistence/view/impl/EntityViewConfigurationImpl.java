@@ -69,8 +69,14 @@ public class EntityViewConfigurationImpl implements EntityViewConfiguration {
         properties.put(ConfigurationProperties.UPDATER_ERROR_ON_INVALID_PLURAL_SETTER, "false");
         properties.put(ConfigurationProperties.STATIC_BUILDER_SCANNING_DISABLED, "false");
         properties.put(ConfigurationProperties.STATIC_IMPLEMENTATION_SCANNING_DISABLED, "false");
+        properties.put(ConfigurationProperties.PROXY_RUNTIME_GENERATION_DISABLED, "false");
         properties.put(ConfigurationProperties.STATIC_METAMODEL_SCANNING_DISABLED, "false");
         properties.put(ConfigurationProperties.CREATE_EMPTY_FLAT_VIEWS, "true");
+        properties.put(ConfigurationProperties.SETTING_CACHE_ENABLED, "false");
+        properties.put(ConfigurationProperties.SETTING_CACHE_MAXIMUM_SIZE, "2048");
+        properties.put(ConfigurationProperties.ENTITY_VIEW_CACHE_ENABLED, "false");
+        properties.put(ConfigurationProperties.ENTITY_VIEW_CACHE_MAXIMUM_SIZE, "2048");
+        properties.put(ConfigurationProperties.ENTITY_VIEW_CACHE_CLASS, LocalEntityViewCache.class.getName());
 
         typeTestValues.put(boolean.class, true);
         typeTestValues.put(byte.class, Byte.MAX_VALUE);
@@ -12,6 +12,7 @@ import com.blazebit.persistence.CriteriaBuilderFactory;
 import com.blazebit.persistence.FullQueryBuilder;
 import com.blazebit.persistence.ObjectBuilder;
 import com.blazebit.persistence.Path;
+import com.blazebit.persistence.impl.NoopQueryInstrumentation;
 import com.blazebit.persistence.parser.EntityMetamodel;
 import com.blazebit.persistence.parser.expression.AbstractCachingExpressionFactory;
 import com.blazebit.persistence.parser.expression.ExpressionFactory;
@@ -23,13 +24,16 @@ import com.blazebit.persistence.spi.JpaProvider;
 import com.blazebit.persistence.spi.JpqlFunction;
 import com.blazebit.persistence.spi.JpqlMacro;
 import com.blazebit.persistence.spi.PackageOpener;
+import com.blazebit.persistence.spi.QueryInstrumentation;
 import com.blazebit.persistence.view.AttributeFilterProvider;
 import com.blazebit.persistence.view.ConfigurationProperties;
 import com.blazebit.persistence.view.ConvertOperationBuilder;
 import com.blazebit.persistence.view.ConvertOption;
 import com.blazebit.persistence.view.EntityViewBuilder;
+import com.blazebit.persistence.view.EntityViewCacheStatistics;
 import com.blazebit.persistence.view.EntityViewManager;
 import com.blazebit.persistence.view.EntityViewSetting;
+import com.blazebit.persistence.view.EntityViewSettingCacheStatistics;
 import com.blazebit.persistence.view.FlushOperationBuilder;
 import com.blazebit.persistence.view.PostCommitListener;
 import com.blazebit.persistence.view.PostPersistEntityListener;
@@ -61,6 +65,7 @@ import com.blazebit.persistence.view.filter.LessThanFilter;
 import com.blazebit.persistence.view.filter.NullFilter;
 import com.blazebit.persistence.view.filter.StartsWithFilter;
 import com.blazebit.persistence.view.filter.StartsWithIgnoreCaseFilter;
+import com.blazebit.persistence.view.impl.accessor.Accessors;
 import com.blazebit.persistence.view.impl.accessor.AttributeAccessor;
 import com.blazebit.persistence.view.impl.accessor.EntityIdAttributeAccessor;
 import com.blazebit.persistence.view.impl.change.ViewChangeModel;
@@ -124,6 +129,8 @@ import com.blazebit.persistence.view.metamodel.PluralAttribute;
 import com.blazebit.persistence.view.metamodel.SingularAttribute;
 import com.blazebit.persistence.view.metamodel.ViewType;
 import com.blazebit.persistence.view.spi.EmbeddingViewJpqlMacro;
+import com.blazebit.persistence.view.spi.EntityViewCache;
+import com.blazebit.persistence.view.spi.EntityViewCacheKey;
 import com.blazebit.persistence.view.spi.TransactionSupport;
 import com.blazebit.persistence.view.spi.ViewJpqlMacro;
 import com.blazebit.persistence.view.spi.type.DirtyStateTrackable;
@@ -141,11 +148,15 @@ import java.lang.reflect.Constructor;
 import java.lang.reflect.Method;
 import java.lang.reflect.Modifier;
 import java.lang.reflect.TypeVariable;
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collection;
 import java.util.Collections;
 import java.util.EnumSet;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
@@ -163,6 +174,8 @@ public class EntityViewManagerImpl implements EntityViewManager {
     private static final String RELATION_CLASS_NAME_SUFFIX = "Relation";
     private static final String MULTI_RELATION_CLASS_NAME_SUFFIX = "MultiRelation";
     private static final String BUILDER_CLASS_NAME_SUFFIX = "Builder";
+    private static final String FIND_ALL_IDS_PARAMETER_NAME = "blazePersistenceEntityIds";
+    private static final int FIND_ALL_BATCH_SIZE = 512;
     private static final Set<ViewTransition> VIEW_TRANSITIONS = EnumSet.allOf(ViewTransition.class);
     private static final Method SYNTHETIC_VERSION_GETTER;
 
@@ -179,12 +192,16 @@ public class EntityViewManagerImpl implements EntityViewManager {
     private final DbmsDialect dbmsDialect;
     private final ExpressionFactory expressionFactory;
     private final PackageOpener packageOpener;
+    private final QueryInstrumentation queryInstrumentation;
     private final AttributeAccessor entityIdAccessor;
     private final ViewMetamodelImpl metamodel;
     private final ProxyFactory proxyFactory;
     private final TransactionSupport transactionSupport;
     private final Map<String, Object> optionalParameters;
     private final boolean supportsTransientReference;
+    private final EntityViewSettingCache settingCache;
+    private final boolean settingCacheEnabled;
+    private final EntityViewCacheManager entityViewCacheManager;
     private final ConcurrentMap<ViewTypeObjectBuilderTemplate.Key, ViewTypeObjectBuilderTemplate<?>> objectBuilderCache;
     private final ConcurrentMap<ManagedViewType<?>, EntityViewUpdaterImpl> entityViewUpdaterCache;
     private final ConcurrentMap<ContextAwareUpdaterKey, EntityViewUpdaterImpl> contextAwareEntityViewUpdaterCache;
@@ -209,12 +226,27 @@ public class EntityViewManagerImpl implements EntityViewManager {
         EntityMetamodel entityMetamodel = cbf.getService(EntityMetamodel.class);
         this.expressionFactory = cbf.getService(ExpressionFactory.class);
         this.packageOpener = cbf.getService(PackageOpener.class);
+        QueryInstrumentation queryInstrumentation = cbf.getService(QueryInstrumentation.class);
+        this.queryInstrumentation = queryInstrumentation == null ? NoopQueryInstrumentation.INSTANCE : queryInstrumentation;
         this.entityIdAccessor = new EntityIdAttributeAccessor(jpaProvider);
-        this.unsafeDisabled = !Boolean.valueOf(String.valueOf(config.getProperty(ConfigurationProperties.PROXY_UNSAFE_ALLOWED)));
+        boolean proxyRuntimeGenerationDisabled = Boolean.valueOf(String.valueOf(config.getProperty(ConfigurationProperties.PROXY_RUNTIME_GENERATION_DISABLED)));
+        // Static implementations are always safe, so unsafe proxies are implicitly disabled when runtime generation is disabled
+        this.unsafeDisabled = proxyRuntimeGenerationDisabled || !Boolean.valueOf(String.valueOf(config.getProperty(ConfigurationProperties.PROXY_UNSAFE_ALLOWED)));
         this.strictCascadingCheck = Boolean.valueOf(String.valueOf(config.getProperty(ConfigurationProperties.UPDATER_STRICT_CASCADING_CHECK)));
-        this.proxyFactory = new ProxyFactory(unsafeDisabled, strictCascadingCheck, packageOpener);
+        this.proxyFactory = new ProxyFactory(unsafeDisabled, proxyRuntimeGenerationDisabled, strictCascadingCheck, packageOpener);
         this.transactionSupport = config.getTransactionSupport();
         this.optionalParameters = Collections.unmodifiableMap(new HashMap<>(config.getOptionalParameters()));
+        this.settingCache = new EntityViewSettingCache(Integer.parseInt(String.valueOf(config.getProperty(ConfigurationProperties.SETTING_CACHE_MAXIMUM_SIZE))));
+        this.settingCacheEnabled = Boolean.valueOf(String.valueOf(config.getProperty(ConfigurationProperties.SETTING_CACHE_ENABLED)));
+        if (Boolean.valueOf(String.valueOf(config.getProperty(ConfigurationProperties.ENTITY_VIEW_CACHE_ENABLED)))) {
+            EntityViewCache entityViewCache = createEntityViewCache(
+                    String.valueOf(config.getProperty(ConfigurationProperties.ENTITY_VIEW_CACHE_CLASS)),
+                    Integer.parseInt(String.valueOf(config.getProperty(ConfigurationProperties.ENTITY_VIEW_CACHE_MAXIMUM_SIZE)))
+            );
+            this.entityViewCacheManager = new EntityViewCacheManager(this, entityViewCache);
+        } else {
+            this.entityViewCacheManager = null;
+        }
         this.serializableDelegates = new ClassValue<EntityViewManager>() {
             @Override
             protected EntityViewManager computeValue(Class<?> type) {
@@ -345,7 +377,11 @@ public class EntityViewManagerImpl implements EntityViewManager {
             if (!javaType.isInterface() && !Modifier.isAbstract(javaType.getModifiers())) {
                 proxyFactory.setImplementation(javaType);
             } else if (scanStaticImplementations) {
-                proxyFactory.loadImplementation(errors, managedView, this);
+                if (!proxyFactory.loadImplementation(errors, managedView, this) && proxyRuntimeGenerationDisabled) {
+                    errors.add("No static implementation found for the entity view type '" + javaType.getName() + "' but the runtime generation of entity view implementations is disabled! Make sure the entity view annotation processor is configured.");
+                }
+            } else if (proxyRuntimeGenerationDisabled) {
+                errors.add("The runtime generation of entity view implementations is disabled but no static implementation was loaded for the entity view type '" + javaType.getName() + "'! Make sure the static implementation scanning is enabled and the entity view annotation processor is configured.");
             }
             if (scanStaticMetamodels) {
                 initializeStaticMetamodel(errors, managedView, relationConstructors, multiRelationConstructors);
@@ -749,10 +785,37 @@ public class EntityViewManagerImpl implements EntityViewManager {
             return (T) transactionSupport;
         } else if (CriteriaBuilderFactory.class.isAssignableFrom(serviceClass)) {
             return (T) cbf;
+        } else if (EntityViewSettingCacheStatistics.class.equals(serviceClass)) {
+            return (T) settingCache;
+        } else if (EntityViewCache.class.equals(serviceClass)) {
+            return entityViewCacheManager == null ? null : (T) entityViewCacheManager.getCache();
+        } else if (EntityViewCacheStatistics.class.equals(serviceClass)) {
+            if (entityViewCacheManager != null && entityViewCacheManager.getCache() instanceof EntityViewCacheStatistics) {
+                return (T) entityViewCacheManager.getCache();
+            }
+            return null;
         }
         return cbf.getService(serviceClass);
     }
 
+    public EntityViewSettingCache getSettingCache() {
+        return settingCacheEnabled ? settingCache : null;
+    }
+
+    public EntityViewCacheManager getEntityViewCacheManager() {
+        return entityViewCacheManager;
+    }
+
+    private static EntityViewCache createEntityViewCache(String className, int maximumSize) {
+        try {
+            return (EntityViewCache) Class.forName(className).getConstructor(int.class).newInstance(maximumSize);
+        } catch (NoSuchMethodException ex) {
+            throw new IllegalArgumentException("The entity view cache " + className + " does not have a constructor accepting the maximum size", ex);
+        } catch (Exception ex) {
+            throw new IllegalArgumentException("Could not instantiate entity view cache: " + className, ex);
+        }
+    }
+
     @Override
     public ViewMetamodelImpl getMetamodel() {
         return metamodel;
@@ -767,6 +830,10 @@ public class EntityViewManagerImpl implements EntityViewManager {
         return jpaProvider;
     }
 
+    public QueryInstrumentation getQueryInstrumentation() {
+        return queryInstrumentation;
+    }
+
     public DbmsDialect getDbmsDialect() {
         return dbmsDialect;
     }
@@ -787,12 +854,84 @@ public class EntityViewManagerImpl implements EntityViewManager {
     @Override
     public <T> T find(EntityManager entityManager, EntityViewSetting<T, CriteriaBuilder<T>> entityViewSetting, Object entityId) {
         ViewTypeImpl<T> managedViewType = metamodel.viewOrError(entityViewSetting.getEntityViewClass());
+        EntityViewCacheKey cacheKey = null;
+        long cacheGeneration = 0L;
+        if (entityViewCacheManager != null && entityId != null && EntityViewCacheManager.isCacheable(entityViewSetting)) {
+            cacheKey = entityViewCacheManager.createKey(managedViewType, entityViewSetting, entityId);
+            T cachedView = entityViewCacheManager.get(managedViewType, cacheKey);
+            if (cachedView != null) {
+                return cachedView;
+            }
+            cacheGeneration = entityViewCacheManager.getGeneration();
+        }
         EntityType<?> entityType = (EntityType<?>) managedViewType.getJpaManagedType();
         javax.persistence.metamodel.SingularAttribute<?, ?> idAttribute = JpaMetamodelUtils.getSingleIdAttribute(entityType);
         CriteriaBuilder<?> cb = cbf.create(entityManager, managedViewType.getEntityClass())
                 .where(idAttribute.getName()).eq(entityId);
         List<T> resultList = applySetting(entityViewSetting, cb).getResultList();
-        return resultList.isEmpty() ? null : resultList.get(0);
+        if (resultList.isEmpty()) {
+            return null;
+        }
+        T view = resultList.get(0);
+        if (cacheKey != null) {
+            entityViewCacheManager.put(managedViewType, cacheKey, view, cacheGeneration);
+        }
+        return view;
+    }
+
+    @Override
+    public <T> List<T> findAll(EntityManager entityManager, Class<T> entityViewClass, Collection<?> entityIds) {
+        return findAll(entityManager, EntityViewSetting.create(entityViewClass), entityIds);
+    }
+
+    @Override
+    public <T> List<T> findAll(EntityManager entityManager, EntityViewSetting<T, CriteriaBuilder<T>> entityViewSetting, Collection<?> entityIds) {
+        ViewTypeImpl<T> managedViewType = metamodel.viewOrError(entityViewSetting.getEntityViewClass());
+        List<T> results = new ArrayList<>(entityIds.size());
+        if (entityIds.isEmpty()) {
+            return results;
+        }
+        Set<Object> distinctEntityIds = new LinkedHashSet<>(entityIds);
+        distinctEntityIds.remove(null);
+        Map<Object, T> viewsById = new HashMap<>(distinctEntityIds.size());
+        if (!distinctEntityIds.isEmpty()) {
+            EntityType<?> entityType = (EntityType<?>) managedViewType.getJpaManagedType();
+            javax.persistence.metamodel.SingularAttribute<?, ?> idAttribute = JpaMetamodelUtils.getSingleIdAttribute(entityType);
+            CriteriaBuilder<?> cb = cbf.create(entityManager, managedViewType.getEntityClass())
+                    .where(idAttribute.getName()).inCollectionExpression(":" + FIND_ALL_IDS_PARAMETER_NAME);
+            // The query is built once and executed for every batch of ids with a different parameter value
+            CriteriaBuilder<T> criteriaBuilder = applySetting(entityViewSetting, cb);
+            AttributeAccessor viewIdAccessor = Accessors.forViewId(this, managedViewType, true);
+            List<Object> batch = new ArrayList<>(Math.min(distinctEntityIds.size(), FIND_ALL_BATCH_SIZE));
+            for (Object entityId : distinctEntityIds) {
+                batch.add(entityId);
+                if (batch.size() == FIND_ALL_BATCH_SIZE) {
+                    findAllBatch(criteriaBuilder, viewIdAccessor, batch, viewsById);
+                    batch.clear();
+                }
+            }
+            if (!batch.isEmpty()) {
+                findAllBatch(criteriaBuilder, viewIdAccessor, batch, viewsById);
+            }
+        }
+
+        Class<?> viewIdType = managedViewType.getIdAttribute().getJavaType();
+        for (Object entityId : entityIds) {
+            if (entityId == null) {
+                results.add(null);
+            } else {
+                Object viewId = viewIdType.isInstance(entityId) ? entityId : getUpdater(null, managedViewType, null, null, null).getFullGraphNode().createViewIdByEntityId(entityId);
+                results.add(viewsById.get(viewId));
+            }
+        }
+        return results;
+    }
+
+    private static <T> void findAllBatch(CriteriaBuilder<T> criteriaBuilder, AttributeAccessor viewIdAccessor, List<Object> entityIds, Map<Object, T> viewsById) {
+        List<T> resultList = criteriaBuilder.setParameter(FIND_ALL_IDS_PARAMETER_NAME, entityIds).getResultList();
+        for (T view : resultList) {
+            viewsById.put(viewIdAccessor.getValue(view), view);
+        }
     }
 
     @Override
@@ -1064,6 +1203,16 @@ public class EntityViewManagerImpl implements EntityViewManager {
         update(em, view, true);
     }
 
+    @Override
+    public void saveAll(EntityManager em, Iterable<?> views) {
+        updateAll(em, views, false);
+    }
+
+    @Override
+    public void saveFullAll(EntityManager em, Iterable<?> views) {
+        updateAll(em, views, true);
+    }
+
     @Override
     public void saveTo(EntityManager em, Object view, Object entity) {
         updateTo(em, view, entity, false);
@@ -1142,6 +1291,65 @@ public class EntityViewManagerImpl implements EntityViewManager {
         update(new DefaultUpdateContext(this, em, forceFull, false, false, null, view, null), view);
     }
 
+    public void updateAll(EntityManager em, Iterable<?> views, boolean forceFull) {
+        // A single context is used so that only one transaction synchronization is registered for all views
+        UpdateContext context = new DefaultUpdateContext(this, em, forceFull, false, false, null, null, null);
+        List<Object> newViews = new ArrayList<>();
+        Map<List<Object>, List<MutableStateTrackable>> dirtyViewGroups = new LinkedHashMap<>();
+        Set<List<Object>> entityIds = new HashSet<>();
+        for (Object view : views) {
+            if (!(view instanceof MutableStateTrackable)) {
+                throw new IllegalArgumentException("Can't update non-updatable entity views: " + view);
+            }
+            MutableStateTrackable updatableProxy = (MutableStateTrackable) view;
+            if (updatableProxy.$$_isNew()) {
+                newViews.add(view);
+            } else {
+                Class<?> entityViewClass = updatableProxy.$$_getEntityViewClass();
+                List<Object> entityId = Arrays.asList(metamodel.managedViewOrError(entityViewClass).getEntityClass(), updatableProxy.$$_getId());
+                if (!entityIds.add(entityId)) {
+                    // The entity was already changed through a previous view, so flush everything up to here to retain the order of the changes
+                    updateAll(context, newViews, dirtyViewGroups);
+                    newViews.clear();
+                    dirtyViewGroups.clear();
+                    entityIds.clear();
+                    entityIds.add(entityId);
+                }
+                // Views of the same type with the same dirty attributes produce the same update statement
+                long[] dirty = updatableProxy.$$_getDirty();
+                List<Object> groupKey = new ArrayList<>(dirty.length + 1);
+                groupKey.add(entityViewClass);
+                for (long dirtyBits : dirty) {
+                    groupKey.add(dirtyBits);
+                }
+                List<MutableStateTrackable> group = dirtyViewGroups.get(groupKey);
+                if (group == null) {
+                    group = new ArrayList<>();
+                    dirtyViewGroups.put(groupKey, group);
+                }
+                group.add(updatableProxy);
+            }
+        }
+
+        updateAll(context, newViews, dirtyViewGroups);
+    }
+
+    private void updateAll(UpdateContext context, List<Object> newViews, Map<List<Object>, List<MutableStateTrackable>> dirtyViewGroups) {
+        for (Object view : newViews) {
+            update(context, view);
+        }
+        for (List<MutableStateTrackable> group : dirtyViewGroups.values()) {
+            ManagedViewTypeImplementor<?> viewType = metamodel.managedViewOrError(group.get(0).$$_getEntityViewClass());
+            EntityViewUpdater updater = getUpdater(null, viewType, null, null, null);
+            try {
+                updater.executeUpdates(context, group);
+            } catch (Throwable t) {
+                context.getTransactionAccess().markRollbackOnly();
+                ExceptionUtils.doThrow(t);
+            }
+        }
+    }
+
     public void updateTo(EntityManager em, Object view, Object entity, boolean forceFull) {
         updateTo(new DefaultUpdateContext(this, em, forceFull, true, false, null, view, null), view, entity);
     }
@@ -0,0 +1,142 @@
+/*
+ * SPDX-License-Identifier: Apache-2.0
+ * Copyright Blazebit
+ */
+
+package com.blazebit.persistence.view.impl;
+
+import com.blazebit.persistence.impl.util.BoundedCache;
+import com.blazebit.persistence.view.EntityViewSetting;
+import com.blazebit.persistence.view.EntityViewSettingCacheStatistics;
+import com.blazebit.persistence.view.impl.metamodel.ManagedViewTypeImplementor;
+import com.blazebit.persistence.view.impl.metamodel.MappingConstructorImpl;
+
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.Set;
+
+/**
+ * Caches the structural part of applying an entity view setting by the signature of the setting.
+ * The signature does not contain filter values, sorter directions or parameter values.
+ *
+ * @author Christian Beikov
+ * @since 1.6.19
+ */
+public class EntityViewSettingCache extends BoundedCache<EntityViewSettingCache.Key, EntityViewSettingCache.Entry> implements EntityViewSettingCacheStatistics {
+
+    public EntityViewSettingCache(int maximumSize) {
+        super(maximumSize);
+    }
+
+    /**
+     * The signature of an entity view setting applied to an entity view root.
+     *
+     * @author Christian Beikov
+     * @since 1.6.19
+     */
+    public static final class Key {
+
+        private final Class<?> entityViewClass;
+        private final String viewConstructorName;
+        private final String entityViewRoot;
+        private final Set<String> fetches;
+        private final Set<String> filteredAttributes;
+        private final Set<String> sortedAttributes;
+        private final boolean paginated;
+        private final int hashCode;
+
+        public Key(EntityViewSetting<?, ?> setting, String entityViewRoot) {
+            this.entityViewClass = setting.getEntityViewClass();
+            this.viewConstructorName = setting.getViewConstructorName();
+            this.entityViewRoot = entityViewRoot;
+            this.fetches = new HashSet<>(setting.getFetches());
+            this.filteredAttributes = new HashSet<>(setting.getAttributeFilterActivations().keySet());
+            this.sortedAttributes = new HashSet<>(setting.getAttributeSorters().keySet());
+            this.paginated = setting.isPaginated();
+            int result = entityViewClass.hashCode();
+            result = 31 * result + (viewConstructorName != null ? viewConstructorName.hashCode() : 0);
+            result = 31 * result + entityViewRoot.hashCode();
+            result = 31 * result + fetches.hashCode();
+            result = 31 * result + filteredAttributes.hashCode();
+            result = 31 * result + sortedAttributes.hashCode();
+            result = 31 * result + (paginated ? 1 : 0);
+            this.hashCode = result;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof Key)) {
+                return false;
+            }
+
+            Key key = (Key) o;
+            return hashCode == key.hashCode
+                    && paginated == key.paginated
+                    && entityViewClass.equals(key.entityViewClass)
+                    && (viewConstructorName != null ? viewConstructorName.equals(key.viewConstructorName) : key.viewConstructorName == null)
+                    && entityViewRoot.equals(key.entityViewRoot)
+                    && fetches.equals(key.fetches)
+                    && filteredAttributes.equals(key.filteredAttributes)
+                    && sortedAttributes.equals(key.sortedAttributes);
+        }
+
+        @Override
+        public int hashCode() {
+            return hashCode;
+        }
+    }
+
+    /**
+     * The structural part of applying an entity view setting.
+     *
+     * @author Christian Beikov
+     * @since 1.6.19
+     */
+    public static final class Entry {
+
+        private final ManagedViewTypeImplementor<?> managedView;
+        private final MappingConstructorImpl<?> mappingConstructor;
+        private final NavigableSet<String> fetches;
+        private final Map<String, String> attributeExpressions;
+        private final String idExpression;
+        private final String[] additionalIdExpressions;
+
+        public Entry(ManagedViewTypeImplementor<?> managedView, MappingConstructorImpl<?> mappingConstructor, NavigableSet<String> fetches, Map<String, String> attributeExpressions, String idExpression, String[] additionalIdExpressions) {
+            this.managedView = managedView;
+            this.mappingConstructor = mappingConstructor;
+            this.fetches = fetches;
+            this.attributeExpressions = Collections.unmodifiableMap(attributeExpressions);
+            this.idExpression = idExpression;
+            this.additionalIdExpressions = additionalIdExpressions;
+        }
+
+        public ManagedViewTypeImplementor<?> getManagedView() {
+            return managedView;
+        }
+
+        public MappingConstructorImpl<?> getMappingConstructor() {
+            return mappingConstructor;
+        }
+
+        public NavigableSet<String> getFetches() {
+            return fetches;
+        }
+
+        public Map<String, String> getAttributeExpressions() {
+            return attributeExpressions;
+        }
+
+        public String getIdExpression() {
+            return idExpression;
+        }
+
+        public String[] getAdditionalIdExpressions() {
+            return additionalIdExpressions == null ? null : additionalIdExpressions.clone();
+        }
+    }
+}
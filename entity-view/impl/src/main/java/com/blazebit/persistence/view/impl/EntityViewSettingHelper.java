@@ -9,10 +9,12 @@ import com.blazebit.persistence.CriteriaBuilder;
 import com.blazebit.persistence.FullQueryBuilder;
 import com.blazebit.persistence.HavingBuilder;
 import com.blazebit.persistence.KeysetPage;
+import com.blazebit.persistence.ObjectBuilder;
 import com.blazebit.persistence.PaginatedCriteriaBuilder;
 import com.blazebit.persistence.Path;
 import com.blazebit.persistence.PredicateBuilder;
 import com.blazebit.persistence.WhereBuilder;
+import com.blazebit.persistence.impl.NoopQueryInstrumentation;
 import com.blazebit.persistence.parser.expression.ExpressionFactory;
 import com.blazebit.persistence.spi.ServiceProvider;
 import com.blazebit.persistence.view.AttributeFilterProvider;
@@ -26,6 +28,7 @@ import com.blazebit.persistence.view.impl.metamodel.AbstractMethodAttribute;
 import com.blazebit.persistence.view.impl.metamodel.ManagedViewTypeImplementor;
 import com.blazebit.persistence.view.impl.metamodel.MappingConstructorImpl;
 import com.blazebit.persistence.view.impl.metamodel.ViewTypeImplementor;
+import com.blazebit.persistence.view.impl.objectbuilder.InstrumentedObjectBuilder;
 import com.blazebit.persistence.view.metamodel.AttributeFilterMapping;
 import com.blazebit.persistence.view.metamodel.FlatViewType;
 import com.blazebit.persistence.view.metamodel.MappingAttribute;
@@ -44,6 +47,7 @@ import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.NavigableMap;
+import java.util.NavigableSet;
 import java.util.Set;
 
 /**
@@ -57,6 +61,46 @@ public final class EntityViewSettingHelper {
 
     @SuppressWarnings("unchecked")
     public static <T, Q extends FullQueryBuilder<T, Q>> Q apply(EntityViewSetting<T, Q> setting, EntityViewManagerImpl evm, CriteriaBuilder<?> criteriaBuilder, String entityViewRoot) {
+        ExpressionFactory ef = criteriaBuilder.getService(ExpressionFactory.class);
+        Map<String, Object> optionalParameters;
+        if (setting.getOptionalParameters().isEmpty()) {
+            optionalParameters = evm.getOptionalParameters();
+        } else {
+            optionalParameters = new HashMap<>(evm.getOptionalParameters());
+            optionalParameters.putAll(setting.getOptionalParameters());
+            optionalParameters = Collections.unmodifiableMap(optionalParameters);
+        }
+        Path root = criteriaBuilder.getRequiredPath(entityViewRoot);
+        entityViewRoot = root.getPath();
+        EntityViewSettingCache.Entry entry;
+        EntityViewSettingCache settingCache = evm.getSettingCache();
+        if (settingCache == null) {
+            entry = createEntry(setting, evm, criteriaBuilder, entityViewRoot);
+        } else {
+            EntityViewSettingCache.Key key = new EntityViewSettingCache.Key(setting, entityViewRoot);
+            entry = settingCache.get(key);
+            if (entry == null) {
+                entry = settingCache.putIfAbsent(key, createEntry(setting, evm, criteriaBuilder, entityViewRoot));
+            }
+        }
+        ManagedViewTypeImplementor<?> managedView = entry.getManagedView();
+        Q queryBuilder = getQueryBuilder(setting, criteriaBuilder, entry, setting.getProperties());
+        EntityViewConfiguration configuration = new EntityViewConfiguration(queryBuilder, ef, new MutableViewJpqlMacro(), new MutableEmbeddingViewJpqlMacro(), optionalParameters, setting.getProperties(), entry.getFetches());
+        ObjectBuilder<?> objectBuilder = evm.createObjectBuilder(managedView, entry.getMappingConstructor(), root.getJavaType(), entityViewRoot, null, criteriaBuilder, configuration, 0, 0, false);
+        if (evm.getQueryInstrumentation() != NoopQueryInstrumentation.INSTANCE) {
+            // The wrapper only provides the entity view type for instrumentation
+            objectBuilder = new InstrumentedObjectBuilder<>(objectBuilder, managedView.getJavaType());
+        }
+        queryBuilder.selectNew(objectBuilder);
+        applyAttributeFilters(setting, evm, queryBuilder, entry.getAttributeExpressions(), managedView);
+        applyViewFilters(setting, evm, queryBuilder, managedView);
+        applyAttributeSorters(setting, queryBuilder, entry.getAttributeExpressions());
+        applyOptionalParameters(optionalParameters, queryBuilder);
+        return queryBuilder;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static EntityViewSettingCache.Entry createEntry(EntityViewSetting<?, ?> setting, EntityViewManagerImpl evm, CriteriaBuilder<?> criteriaBuilder, String entityViewRoot) {
         ManagedViewTypeImplementor<?> managedView = evm.getMetamodel().managedView(setting.getEntityViewClass());
         if (managedView == null) {
             throw new IllegalArgumentException("There is no entity view for the class '" + setting.getEntityViewClass().getName() + "' registered!");
@@ -69,9 +113,9 @@ public final class EntityViewSettingHelper {
             }
             if (mappingConstructor == null) {
                 if (managedView.getConstructors().size() > 1) {
-                    mappingConstructor = (MappingConstructorImpl<T>) managedView.getConstructor("init");
+                    mappingConstructor = (MappingConstructorImpl<?>) managedView.getConstructor("init");
                 } else if (managedView.getConstructors().size() == 1) {
-                    mappingConstructor = (MappingConstructorImpl<T>) managedView.getConstructors().toArray()[0];
+                    mappingConstructor = (MappingConstructorImpl<?>) managedView.getConstructors().toArray()[0];
                 }
             }
             if (mappingConstructor != null && mappingConstructor.hasJoinFetchedCollections()) {
@@ -84,15 +128,6 @@ public final class EntityViewSettingHelper {
             throw new IllegalArgumentException("Specifying fetches for @UpdatableEntityViews is currently disallowed. Remove the fetches!");
         }
 
-        ExpressionFactory ef = criteriaBuilder.getService(ExpressionFactory.class);
-        Map<String, Object> optionalParameters;
-        if (setting.getOptionalParameters().isEmpty()) {
-            optionalParameters = evm.getOptionalParameters();
-        } else {
-            optionalParameters = new HashMap<>(evm.getOptionalParameters());
-            optionalParameters.putAll(setting.getOptionalParameters());
-            optionalParameters = Collections.unmodifiableMap(optionalParameters);
-        }
         Collection<String> requestedFetches;
         if (setting.getFetches().isEmpty() || !setting.hasAttributeFilters() && !setting.hasAttributeSorters()) {
             requestedFetches = setting.getFetches();
@@ -101,20 +136,37 @@ public final class EntityViewSettingHelper {
             addFetchesForNonMappingAttributes(setting.getAttributeFilterActivations().keySet(), managedView, requestedFetches);
             addFetchesForNonMappingAttributes(setting.getAttributeSorters().keySet(), managedView, requestedFetches);
         }
-        Path root = criteriaBuilder.getRequiredPath(entityViewRoot);
-        entityViewRoot = root.getPath();
-        Q queryBuilder = getQueryBuilder(setting, criteriaBuilder, entityViewRoot, managedView, setting.getProperties());
-        EntityViewConfiguration configuration = new EntityViewConfiguration(queryBuilder, ef, new MutableViewJpqlMacro(), new MutableEmbeddingViewJpqlMacro(), optionalParameters, setting.getProperties(), requestedFetches, managedView);
-        queryBuilder.selectNew(evm.createObjectBuilder(managedView, mappingConstructor, root.getJavaType(), entityViewRoot, null, criteriaBuilder, configuration, 0, 0, false));
-        Set<String> fetches = configuration.getFetches();
-        applyAttributeFilters(setting, evm, queryBuilder, entityViewRoot, fetches, managedView);
-        applyViewFilters(setting, evm, queryBuilder, managedView);
-        applyAttributeSorters(setting, queryBuilder, entityViewRoot, fetches, managedView);
-        applyOptionalParameters(optionalParameters, queryBuilder);
-        return queryBuilder;
+        NavigableSet<String> fetches = EntityViewConfiguration.getFetches(requestedFetches, managedView);
+        Map<String, String> attributeExpressions = new HashMap<>();
+        addAttributeExpressions(setting.getAttributeFilterActivations().keySet(), criteriaBuilder, entityViewRoot, fetches, managedView, attributeExpressions, false);
+        addAttributeExpressions(setting.getAttributeSorters().keySet(), criteriaBuilder, entityViewRoot, fetches, managedView, attributeExpressions, true);
+
+        String idExpression = null;
+        String[] additionalIdExpressions = null;
+        // When the result should be paginated, we have to properly paginate by the identifier of the view
+        if (setting.isPaginated() && !(managedView instanceof FlatViewType<?>)) {
+            MethodAttribute<?, ?> idAttribute = ((ViewTypeImplementor<?>) managedView).getIdAttribute();
+            if (idAttribute.isSubview()) {
+                String prefix = getMapping(entityViewRoot, idAttribute, criteriaBuilder);
+                ManagedViewTypeImplementor<?> type = (ManagedViewTypeImplementor<?>) ((SingularAttribute<?, ?>) idAttribute).getType();
+                Set<MethodAttribute<?, ?>> attributes = (Set) type.getAttributes();
+                Iterator<MethodAttribute<?, ?>> iterator = attributes.iterator();
+                idExpression = getMapping(prefix, iterator.next(), criteriaBuilder);
+                if (iterator.hasNext()) {
+                    List<String> expressions = new ArrayList<>(attributes.size() - 1);
+                    while (iterator.hasNext()) {
+                        expressions.add(getMapping(prefix, iterator.next(), criteriaBuilder));
+                    }
+                    additionalIdExpressions = getExpressionArray(expressions);
+                }
+            } else {
+                idExpression = getMapping(entityViewRoot, idAttribute, criteriaBuilder);
+            }
+        }
+        return new EntityViewSettingCache.Entry(managedView, mappingConstructor, fetches, attributeExpressions, idExpression, additionalIdExpressions);
     }
 
-    private static <T, Q extends FullQueryBuilder<T, Q>> Q getQueryBuilder(EntityViewSetting<T, Q> setting, CriteriaBuilder<?> criteriaBuilder, String entityViewRoot, ManagedViewTypeImplementor<?> managedView, Map<String, Object> properties) {
+    private static <T, Q extends FullQueryBuilder<T, Q>> Q getQueryBuilder(EntityViewSetting<T, Q> setting, CriteriaBuilder<?> criteriaBuilder, EntityViewSettingCache.Entry entry, Map<String, Object> properties) {
         if (setting.isPaginated()) {
             KeysetPage keysetPage = setting.getKeysetPage();
             boolean forceUseKeyset = keysetPage != null && getBooleanProperty(properties, ConfigurationProperties.PAGINATION_FORCE_USE_KEYSET, false);
@@ -122,7 +174,7 @@ public final class EntityViewSettingHelper {
                 setting.withKeysetPage(null);
             }
             PaginatedCriteriaBuilder<?> builder;
-            if (managedView instanceof FlatViewType<?>) {
+            if (entry.getManagedView() instanceof FlatViewType<?>) {
                 if (setting.isKeysetPaginated()) {
                     if (setting.getFirstResult() == -1) {
                         builder = criteriaBuilder.pageAndNavigate(setting.getEntityId(), setting.getMaxResults()).withKeysetExtraction(true);
@@ -137,40 +189,19 @@ public final class EntityViewSettingHelper {
                     }
                 }
             } else {
-                // When the result should be paginated, we have to properly paginate by the identifier of the view
-                MethodAttribute<?, ?> idAttribute = ((ViewTypeImplementor<?>) managedView).getIdAttribute();
-                String firstExpression;
-                List<String> expressions;
-                if (idAttribute.isSubview()) {
-                    String prefix = getMapping(entityViewRoot, idAttribute, criteriaBuilder);
-                    ManagedViewTypeImplementor<?> type = (ManagedViewTypeImplementor<?>) ((SingularAttribute<?, ?>) idAttribute).getType();
-                    Set<MethodAttribute<?, ?>> attributes = (Set) type.getAttributes();
-                    Iterator<MethodAttribute<?, ?>> iterator = attributes.iterator();
-                    firstExpression = getMapping(prefix, iterator.next(), criteriaBuilder);
-                    if (iterator.hasNext()) {
-                        expressions = new ArrayList<>(attributes.size() - 1);
-                        while (iterator.hasNext()) {
-                            expressions.add(getMapping(prefix, iterator.next(), criteriaBuilder));
-                        }
-                    } else {
-                        expressions = null;
-                    }
-                } else {
-                    expressions = null;
-                    firstExpression = getMapping(entityViewRoot, idAttribute, criteriaBuilder);
-                }
-
+                String firstExpression = entry.getIdExpression();
+                String[] expressions = entry.getAdditionalIdExpressions();
                 if (setting.isKeysetPaginated()) {
                     if (setting.getFirstResult() == -1) {
-                        builder = criteriaBuilder.pageByAndNavigate(setting.getEntityId(), setting.getMaxResults(), firstExpression, getExpressionArray(expressions)).withKeysetExtraction(true);
+                        builder = criteriaBuilder.pageByAndNavigate(setting.getEntityId(), setting.getMaxResults(), firstExpression, expressions).withKeysetExtraction(true);
                     } else {
-                        builder = criteriaBuilder.pageBy(setting.getKeysetPage(), setting.getFirstResult(), setting.getMaxResults(), firstExpression, getExpressionArray(expressions));
+                        builder = criteriaBuilder.pageBy(setting.getKeysetPage(), setting.getFirstResult(), setting.getMaxResults(), firstExpression, expressions);
                     }
                 } else {
                     if (setting.getFirstResult() == -1) {
-                        builder = criteriaBuilder.pageBy(0, setting.getMaxResults(), firstExpression, getExpressionArray(expressions));
+                        builder = criteriaBuilder.pageBy(0, setting.getMaxResults(), firstExpression, expressions);
                     } else {
-                        builder = criteriaBuilder.pageBy(setting.getFirstResult(), setting.getMaxResults(), firstExpression, getExpressionArray(expressions));
+                        builder = criteriaBuilder.pageBy(setting.getFirstResult(), setting.getMaxResults(), firstExpression, expressions);
                     }
                 }
             }
@@ -301,19 +332,24 @@ public final class EntityViewSettingHelper {
         }
     }
 
-    private static <T, Q extends FullQueryBuilder<T, Q>> void applyAttributeFilters(EntityViewSetting<?, ?> setting, EntityViewManagerImpl evm, Q cb, String viewRoot, Set<String> fetches, ManagedViewTypeImplementor<?> entityViewRoot) throws IllegalArgumentException {
+    private static void addAttributeExpressions(Set<String> attributeNames, ServiceProvider serviceProvider, String viewRoot, Set<String> fetches, ManagedViewTypeImplementor<?> entityViewRoot, Map<String, String> attributeExpressions, boolean sorter) {
         String name = entityViewRoot.getJavaType().getSimpleName();
         StringBuilder sb = null;
-        for (Map.Entry<String, List<EntityViewSetting.AttributeFilterActivation>> attributeFilterEntry : setting.getAttributeFilterActivations().entrySet()) {
-            String attributeName = attributeFilterEntry.getKey();
-            NavigableMap<String, AbstractMethodAttribute<?, ?>> recursiveAttributes = (NavigableMap<String, AbstractMethodAttribute<?, ?>>) entityViewRoot.getRecursiveAttributes();
+        NavigableMap<String, AbstractMethodAttribute<?, ?>> recursiveAttributes = (NavigableMap<String, AbstractMethodAttribute<?, ?>>) entityViewRoot.getRecursiveAttributes();
+        for (String attributeName : attributeNames) {
             Map.Entry<String, AbstractMethodAttribute<?, ?>> entry = recursiveAttributes.floorEntry(attributeName);
             if (entry == null || !attributeName.startsWith(entry.getKey())) {
                 throw new IllegalArgumentException("The attribute with the name '" + attributeName + "' couldn't be found on the view type '" + name + "'");
             }
             if (attributeName.length() != entry.getKey().length()) {
+                if (sorter) {
+                    throw new UnsupportedOperationException("No support yet for entity attribute filtering!");
+                }
                 throw new IllegalArgumentException("No support yet for entity attribute filtering!");
             }
+            if (attributeExpressions.containsKey(attributeName)) {
+                continue;
+            }
             if (sb == null) {
                 sb = new StringBuilder(name.length() + attributeName.length() + 1);
             } else {
@@ -323,13 +359,22 @@ public final class EntityViewSettingHelper {
             if (fetches.isEmpty() || fetches.contains(attributeName)) {
                 attributeExpression = buildAlias(sb, name, attributeName);
             } else {
-                attributeExpression = buildMapping(sb, cb, viewRoot, recursiveAttributes, attributeName);
+                attributeExpression = buildMapping(sb, serviceProvider, viewRoot, recursiveAttributes, attributeName);
             }
+            attributeExpressions.put(attributeName, attributeExpression);
+        }
+    }
+
+    private static <T, Q extends FullQueryBuilder<T, Q>> void applyAttributeFilters(EntityViewSetting<?, ?> setting, EntityViewManagerImpl evm, Q cb, Map<String, String> attributeExpressions, ManagedViewTypeImplementor<?> entityViewRoot) throws IllegalArgumentException {
+        NavigableMap<String, AbstractMethodAttribute<?, ?>> recursiveAttributes = (NavigableMap<String, AbstractMethodAttribute<?, ?>>) entityViewRoot.getRecursiveAttributes();
+        for (Map.Entry<String, List<EntityViewSetting.AttributeFilterActivation>> attributeFilterEntry : setting.getAttributeFilterActivations().entrySet()) {
+            String attributeName = attributeFilterEntry.getKey();
+            String attributeExpression = attributeExpressions.get(attributeName);
+            AbstractMethodAttribute<?, ?> attribute = recursiveAttributes.get(attributeName);
             for (EntityViewSetting.AttributeFilterActivation filterActivation : attributeFilterEntry.getValue()) {
                 Class<? extends AttributeFilterProvider> filterClass;
                 Class<?> expectedType;
 
-                AbstractMethodAttribute<?, ?> attribute = entry.getValue();
                 AttributeFilterMapping<?, ?> filterMapping = attribute.getFilter(filterActivation.getAttributeFilterName());
 
                 if (filterMapping == null) {
@@ -369,45 +414,13 @@ public final class EntityViewSettingHelper {
         }
     }
 
-    private static <T, Q extends FullQueryBuilder<T, Q>> void applyAttributeSorters(EntityViewSetting<?, ?> setting, Q cb, String viewRoot, Set<String> fetches, ManagedViewTypeImplementor<?> entityViewRoot) {
-        String name = entityViewRoot.getJavaType().getSimpleName();
-        StringBuilder sb = null;
+    private static <T, Q extends FullQueryBuilder<T, Q>> void applyAttributeSorters(EntityViewSetting<?, ?> setting, Q cb, Map<String, String> attributeExpressions) {
         for (Map.Entry<String, Sorter> attributeSorterEntry : setting.getAttributeSorters().entrySet()) {
-            String attributeName = attributeSorterEntry.getKey();
-            NavigableMap<String, AbstractMethodAttribute<?, ?>> recursiveAttributes = (NavigableMap<String, AbstractMethodAttribute<?, ?>>) entityViewRoot.getRecursiveAttributes();
-            Map.Entry<String, AbstractMethodAttribute<?, ?>> entry = recursiveAttributes.floorEntry(attributeName);
-            if (entry == null || !attributeName.startsWith(entry.getKey())) {
-                throw new IllegalArgumentException("The attribute with the name '" + attributeName + "' couldn't be found on the view type '" + name + "'");
-            }
-            if (attributeName.length() != entry.getKey().length()) {
-                throw new UnsupportedOperationException("No support yet for entity attribute filtering!");
-
-//                // If we get here, the attribute type is a managed type and we can copy the rest of the parts
-//                for (; i < parts.length; i++) {
-//                    type = jpaMetamodel.managedType(maybeUnmanagedType);
-//                    newSb.append('.');
-//                    newSb.append(parts[i]);
-//                    jpaAttribute = type.getAttribute(parts[i]);
-//                    maybeUnmanagedType = jpaAttribute.getJavaType();
-//                }
-            }
-            Sorter sorter = attributeSorterEntry.getValue();
-            if (sb == null) {
-                sb = new StringBuilder(name.length() + attributeName.length() + 1);
-            } else {
-                sb.setLength(0);
-            }
-            String attributeExpression;
-            if (fetches.isEmpty() || fetches.contains(attributeName)) {
-                attributeExpression = buildAlias(sb, name, attributeName);
-            } else {
-                attributeExpression = buildMapping(sb, cb, viewRoot, recursiveAttributes, attributeName);
-            }
-            sorter.apply(cb, attributeExpression);
+            attributeSorterEntry.getValue().apply(cb, attributeExpressions.get(attributeSorterEntry.getKey()));
         }
     }
 
-    private static <T, Q extends FullQueryBuilder<T, Q>> String buildMapping(StringBuilder sb, Q cb, String viewRoot, NavigableMap<String, AbstractMethodAttribute<?, ?>> recursiveAttributes, String attributePath) {
+    private static String buildMapping(StringBuilder sb, ServiceProvider serviceProvider, String viewRoot, NavigableMap<String, AbstractMethodAttribute<?, ?>> recursiveAttributes, String attributePath) {
         int dotIndex = -1;
         String parent;
         sb.append(viewRoot);
@@ -417,14 +430,14 @@ public final class EntityViewSettingHelper {
             AbstractMethodAttribute<?, ?> methodAttribute = recursiveAttributes.get(attributePath.substring(0, dotIndex));
             // This is ensured by addFetchesForNonMappingAttributes
             assert methodAttribute instanceof MappingAttribute<?, ?>;
-            methodAttribute.renderMapping(parent, cb, sb);
+            methodAttribute.renderMapping(parent, serviceProvider, sb);
         }
         parent = sb.toString();
         sb.setLength(0);
         AbstractMethodAttribute<?, ?> methodAttribute = recursiveAttributes.get(attributePath);
         // This is ensured by addFetchesForNonMappingAttributes
         assert methodAttribute instanceof MappingAttribute<?, ?>;
-        methodAttribute.renderMapping(parent, cb, sb);
+        methodAttribute.renderMapping(parent, serviceProvider, sb);
         return sb.toString();
     }
 
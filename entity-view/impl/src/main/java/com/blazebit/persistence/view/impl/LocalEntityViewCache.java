@@ -0,0 +1,136 @@
+/*
+ * SPDX-License-Identifier: Apache-2.0
+ * Copyright Blazebit
+ */
+
+package com.blazebit.persistence.view.impl;
+
+import com.blazebit.persistence.impl.util.BoundedCache;
+import com.blazebit.persistence.view.EntityViewCacheStatistics;
+import com.blazebit.persistence.view.spi.EntityViewCache;
+import com.blazebit.persistence.view.spi.EntityViewCacheKey;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * The default local in-memory {@link EntityViewCache} that evicts the least recently used entry when the maximum size is exceeded.
+ * The keys are indexed by entity and by entity view class, so that evictions only have to visit the affected entries.
+ * Lookups don't lock, only modifications of the index are done under a lock.
+ *
+ * @author Christian Beikov
+ * @since 1.6.19
+ */
+public class LocalEntityViewCache extends BoundedCache<EntityViewCacheKey, Object> implements EntityViewCache, EntityViewCacheStatistics {
+
+    private final Map<Class<?>, Map<Object, Set<EntityViewCacheKey>>> entityIndex = new HashMap<>();
+    private final Map<Class<?>, Set<EntityViewCacheKey>> entityViewIndex = new HashMap<>();
+
+    public LocalEntityViewCache(int maximumSize) {
+        super(maximumSize);
+    }
+
+    @Override
+    public void put(EntityViewCacheKey key, Object entityView) {
+        // Index before inserting, so that an immediate eviction of the entry also removes it from the index
+        synchronized (entityIndex) {
+            Map<Object, Set<EntityViewCacheKey>> idIndex = entityIndex.get(key.getEntityClass());
+            if (idIndex == null) {
+                idIndex = new HashMap<>();
+                entityIndex.put(key.getEntityClass(), idIndex);
+            }
+            add(idIndex, key.getEntityId(), key);
+            add(entityViewIndex, key.getEntityViewClass(), key);
+        }
+        putIfAbsent(key, entityView);
+    }
+
+    @Override
+    public void remove(EntityViewCacheKey key) {
+        super.remove(key);
+        unindex(key);
+    }
+
+    @Override
+    protected void onEviction(EntityViewCacheKey key, Object value) {
+        unindex(key);
+    }
+
+    @Override
+    public void evictEntity(Class<?> entityClass, Object entityId) {
+        Collection<EntityViewCacheKey> keys;
+        synchronized (entityIndex) {
+            Map<Object, Set<EntityViewCacheKey>> idIndex = entityIndex.get(entityClass);
+            if (idIndex == null) {
+                return;
+            }
+            Set<EntityViewCacheKey> set = idIndex.get(entityId);
+            if (set == null) {
+                return;
+            }
+            keys = new ArrayList<>(set);
+        }
+        removeAll(keys);
+    }
+
+    @Override
+    public void evictEntityView(Class<?> entityViewClass) {
+        Collection<EntityViewCacheKey> keys;
+        synchronized (entityIndex) {
+            Set<EntityViewCacheKey> set = entityViewIndex.get(entityViewClass);
+            if (set == null) {
+                return;
+            }
+            keys = new ArrayList<>(set);
+        }
+        removeAll(keys);
+    }
+
+    @Override
+    public void clear() {
+        super.clear();
+        synchronized (entityIndex) {
+            entityIndex.clear();
+            entityViewIndex.clear();
+        }
+    }
+
+    private void removeAll(Collection<EntityViewCacheKey> keys) {
+        for (EntityViewCacheKey key : keys) {
+            remove(key);
+        }
+    }
+
+    private void unindex(EntityViewCacheKey key) {
+        synchronized (entityIndex) {
+            Map<Object, Set<EntityViewCacheKey>> idIndex = entityIndex.get(key.getEntityClass());
+            if (idIndex != null) {
+                remove(idIndex, key.getEntityId(), key);
+                if (idIndex.isEmpty()) {
+                    entityIndex.remove(key.getEntityClass());
+                }
+            }
+            remove(entityViewIndex, key.getEntityViewClass(), key);
+        }
+    }
+
+    private static <K> void add(Map<K, Set<EntityViewCacheKey>> index, K indexKey, EntityViewCacheKey key) {
+        Set<EntityViewCacheKey> set = index.get(indexKey);
+        if (set == null) {
+            set = new HashSet<>();
+            index.put(indexKey, set);
+        }
+        set.add(key);
+    }
+
+    private static <K> void remove(Map<K, Set<EntityViewCacheKey>> index, K indexKey, EntityViewCacheKey key) {
+        Set<EntityViewCacheKey> set = index.get(indexKey);
+        if (set != null && set.remove(key) && set.isEmpty()) {
+            index.remove(indexKey);
+        }
+    }
+}
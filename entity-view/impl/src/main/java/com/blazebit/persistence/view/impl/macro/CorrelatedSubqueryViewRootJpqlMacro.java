@@ -5,7 +5,9 @@
 
 package com.blazebit.persistence.view.impl.macro;
 
+import com.blazebit.persistence.ConfigurationProperties;
 import com.blazebit.persistence.FullQueryBuilder;
+import com.blazebit.persistence.impl.util.ParameterPaddingUtils;
 import com.blazebit.persistence.spi.FunctionRenderContext;
 import com.blazebit.persistence.view.spi.ViewRootJpqlMacro;
 
@@ -82,8 +84,13 @@ public class CorrelatedSubqueryViewRootJpqlMacro implements ViewRootJpqlMacro {
             }
 
             if (criteriaBuilder.containsParameter(paramName)) {
-                criteriaBuilder.setParameter(paramName, viewRootEntities);
-                query.setParameter(paramName, viewRootEntities);
+                // The last batch usually contains fewer elements, so we pad it to avoid a distinct statement for every size
+                Collection<?> parameterValue = viewRootEntities;
+                if (Boolean.parseBoolean(criteriaBuilder.getProperty(ConfigurationProperties.IN_LIST_PARAMETER_PADDING))) {
+                    parameterValue = ParameterPaddingUtils.pad(viewRootEntities);
+                }
+                criteriaBuilder.setParameter(paramName, parameterValue);
+                query.setParameter(paramName, parameterValue);
             }
         } else if (criteriaBuilder.containsParameter(paramName)) {
             Object viewRootEntity = em.getReference(viewRootEntityType, viewRootId);
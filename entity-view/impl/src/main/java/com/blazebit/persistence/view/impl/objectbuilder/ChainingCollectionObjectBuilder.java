@@ -5,6 +5,7 @@
 
 package com.blazebit.persistence.view.impl.objectbuilder;
 
+import com.blazebit.persistence.GroupingObjectBuilder;
 import com.blazebit.persistence.ObjectBuilder;
 import com.blazebit.persistence.ParameterHolder;
 import com.blazebit.persistence.SelectBuilder;
@@ -21,14 +22,16 @@ import java.util.Map;
  * @author Christian Beikov
  * @since 1.6.4
  */
-public class ChainingCollectionObjectBuilder<T> implements ObjectBuilder<T> {
+public class ChainingCollectionObjectBuilder<T> implements GroupingObjectBuilder<T> {
 
     private final TupleTransformator transformator;
     private final ObjectBuilder<T> objectBuilder;
+    private final int[] idPositions;
 
-    public ChainingCollectionObjectBuilder(TupleTransformatorFactory transformatorFactory, ObjectBuilder<T> objectBuilder, ParameterHolder<?> parameterHolder, Map<String, Object> optionalParameters, EntityViewConfiguration entityViewConfiguration) {
+    public ChainingCollectionObjectBuilder(TupleTransformatorFactory transformatorFactory, ObjectBuilder<T> objectBuilder, ParameterHolder<?> parameterHolder, Map<String, Object> optionalParameters, EntityViewConfiguration entityViewConfiguration, int[] idPositions) {
         this.transformator = transformatorFactory.create(parameterHolder, optionalParameters, entityViewConfiguration);
         this.objectBuilder = objectBuilder;
+        this.idPositions = idPositions;
     }
 
     @Override
@@ -52,4 +55,26 @@ public class ChainingCollectionObjectBuilder<T> implements ObjectBuilder<T> {
         }
         return objectBuilder.buildList(resultList);
     }
+
+    @Override
+    public boolean isGrouping() {
+        // Tuples can only be grouped by the root view id
+        return idPositions != null;
+    }
+
+    @Override
+    public boolean isSameGroup(T object1, T object2) {
+        return new TupleId(idPositions, (Object[]) object1).equals(new TupleId(idPositions, (Object[]) object2));
+    }
+
+    @Override
+    public int[] getGroupingTupleIndexes() {
+        return idPositions;
+    }
+
+    @Override
+    public int getGroupBatchSize() {
+        // Reduce as many groups at once as needed to fill the batches of batch correlations
+        return transformator.getMaximumBatchSize();
+    }
 }
@@ -7,6 +7,7 @@ package com.blazebit.persistence.view.impl.objectbuilder;
 
 import java.util.List;
 
+import com.blazebit.persistence.CopyableObjectBuilder;
 import com.blazebit.persistence.ObjectBuilder;
 import com.blazebit.persistence.SelectBuilder;
 
@@ -37,4 +38,12 @@ public class DelegatingObjectBuilder<T> implements ObjectBuilder<T> {
     public List<T> buildList(List<T> list) {
         return delegate.buildList(list);
     }
+
+    @SuppressWarnings("unchecked")
+    protected ObjectBuilder<T> copyDelegate() {
+        if (!(delegate instanceof CopyableObjectBuilder<?>)) {
+            throw new IllegalStateException("The object builder [" + delegate + "] does not implement " + CopyableObjectBuilder.class.getName());
+        }
+        return ((CopyableObjectBuilder<T>) delegate).copy();
+    }
 }
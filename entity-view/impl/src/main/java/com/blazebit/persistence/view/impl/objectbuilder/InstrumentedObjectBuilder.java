@@ -0,0 +1,62 @@
+/*
+ * SPDX-License-Identifier: Apache-2.0
+ * Copyright Blazebit
+ */
+
+package com.blazebit.persistence.view.impl.objectbuilder;
+
+import com.blazebit.persistence.CopyableObjectBuilder;
+import com.blazebit.persistence.GroupingObjectBuilder;
+import com.blazebit.persistence.ObjectBuilder;
+import com.blazebit.persistence.spi.InstrumentationTypeProvider;
+
+/**
+ * Tags the query instrumentation of the query to which the entity view object builder is applied with the entity view type.
+ *
+ * @author Christian Beikov
+ * @since 1.6.19
+ */
+public class InstrumentedObjectBuilder<T> extends DelegatingObjectBuilder<T> implements GroupingObjectBuilder<T>, CopyableObjectBuilder<T>, InstrumentationTypeProvider {
+
+    private final String instrumentationType;
+
+    public InstrumentedObjectBuilder(ObjectBuilder<T> delegate, Class<?> viewType) {
+        super(delegate);
+        this.instrumentationType = viewType.getName();
+    }
+
+    private InstrumentedObjectBuilder(ObjectBuilder<T> delegate, String instrumentationType) {
+        super(delegate);
+        this.instrumentationType = instrumentationType;
+    }
+
+    @Override
+    public String getInstrumentationType() {
+        return instrumentationType;
+    }
+
+    @Override
+    public ObjectBuilder<T> copy() {
+        return new InstrumentedObjectBuilder<>(copyDelegate(), instrumentationType);
+    }
+
+    @Override
+    public boolean isGrouping() {
+        return delegate instanceof GroupingObjectBuilder<?> && ((GroupingObjectBuilder<T>) delegate).isGrouping();
+    }
+
+    @Override
+    public boolean isSameGroup(T object1, T object2) {
+        return ((GroupingObjectBuilder<T>) delegate).isSameGroup(object1, object2);
+    }
+
+    @Override
+    public int[] getGroupingTupleIndexes() {
+        return ((GroupingObjectBuilder<T>) delegate).getGroupingTupleIndexes();
+    }
+
+    @Override
+    public int getGroupBatchSize() {
+        return ((GroupingObjectBuilder<T>) delegate).getGroupBatchSize();
+    }
+}
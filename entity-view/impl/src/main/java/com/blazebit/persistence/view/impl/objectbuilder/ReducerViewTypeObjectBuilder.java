@@ -7,6 +7,7 @@ package com.blazebit.persistence.view.impl.objectbuilder;
 
 import java.util.Arrays;
 
+import com.blazebit.persistence.CopyableObjectBuilder;
 import com.blazebit.persistence.ObjectBuilder;
 
 /**
@@ -14,7 +15,7 @@ import com.blazebit.persistence.ObjectBuilder;
  * @author Christian Beikov
  * @since 1.0.0
  */
-public class ReducerViewTypeObjectBuilder<T> extends DelegatingObjectBuilder<T> {
+public class ReducerViewTypeObjectBuilder<T> extends DelegatingObjectBuilder<T> implements CopyableObjectBuilder<T> {
 
     private final int start;
     private final int suffix;
@@ -31,6 +32,16 @@ public class ReducerViewTypeObjectBuilder<T> extends DelegatingObjectBuilder<T>
         this.newTuple = new FastArrayList(length);
     }
 
+    protected ReducerViewTypeObjectBuilder(ReducerViewTypeObjectBuilder<T> original, ObjectBuilder<T> delegate) {
+        this(delegate, original.start, original.suffix, original.length, original.keepTuplePrefix);
+    }
+
+    @Override
+    public ObjectBuilder<T> copy() {
+        // The tuple buffer must not be shared between executions
+        return new ReducerViewTypeObjectBuilder<>(this, copyDelegate());
+    }
+
     @Override
     public T build(Object[] tuple) {
         newTuple.clear();
@@ -5,6 +5,7 @@
 
 package com.blazebit.persistence.view.impl.objectbuilder;
 
+import com.blazebit.persistence.CopyableObjectBuilder;
 import com.blazebit.persistence.FullQueryBuilder;
 import com.blazebit.persistence.ObjectBuilder;
 import com.blazebit.persistence.ParameterHolder;
@@ -24,7 +25,7 @@ import java.util.NavigableSet;
  * @author Christian Beikov
  * @since 1.0.0
  */
-public class ViewTypeObjectBuilder<T> implements ObjectBuilder<T> {
+public class ViewTypeObjectBuilder<T> implements CopyableObjectBuilder<T> {
 
     final boolean hasId;
     final boolean nullIfEmpty;
@@ -74,6 +75,11 @@ public class ViewTypeObjectBuilder<T> implements ObjectBuilder<T> {
         return list;
     }
 
+    @Override
+    public ObjectBuilder<T> copy() {
+        return this;
+    }
+
     @Override
     public <X extends SelectBuilder<X>> void applySelects(X queryBuilder) {
         if (fetches == null || fetches.isEmpty()) {
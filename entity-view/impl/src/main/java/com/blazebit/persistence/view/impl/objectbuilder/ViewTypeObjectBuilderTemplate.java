@@ -1459,7 +1459,7 @@ public class ViewTypeObjectBuilderTemplate<T> {
 
         if (tupleTransformatorFactory.hasTransformers() && !isSubview) {
             if (tupleTransformatorFactory.hasListTransformers()) {
-                result = new ChainingCollectionObjectBuilder<T>(tupleTransformatorFactory, result, parameterHolder, optionalParameters, entityViewConfiguration);
+                result = new ChainingCollectionObjectBuilder<T>(tupleTransformatorFactory, result, parameterHolder, optionalParameters, entityViewConfiguration, hasId ? idPositions : null);
             } else {
                 result = new ChainingObjectBuilder<T>(tupleTransformatorFactory, result, parameterHolder, optionalParameters, entityViewConfiguration);
             }
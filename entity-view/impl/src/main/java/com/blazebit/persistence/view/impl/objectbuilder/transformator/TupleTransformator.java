@@ -8,12 +8,20 @@ package com.blazebit.persistence.view.impl.objectbuilder.transformator;
 import com.blazebit.persistence.view.impl.objectbuilder.TupleRest;
 import com.blazebit.persistence.view.impl.objectbuilder.transformer.TupleListTransformer;
 import com.blazebit.persistence.view.impl.objectbuilder.transformer.TupleTransformer;
+import com.blazebit.persistence.view.impl.objectbuilder.transformer.correlation.AbstractCorrelatedBatchTupleListTransformer;
 
+import javax.persistence.EntityManager;
+import javax.persistence.EntityManagerFactory;
+import java.util.ArrayList;
 import java.util.HashSet;
 import java.util.Iterator;
 import java.util.List;
 import java.util.ListIterator;
 import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.FutureTask;
 
 /**
  * @author Christian Beikov
@@ -22,9 +30,17 @@ import java.util.Set;
 public class TupleTransformator {
 
     private final List<TupleTransformatorLevel> transformatorLevels;
+    private final Executor correlationBatchExecutor;
+    private final EntityManagerFactory correlationBatchEntityManagerFactory;
 
     public TupleTransformator(List<TupleTransformatorLevel> transformatorLevels) {
+        this(transformatorLevels, null, null);
+    }
+
+    public TupleTransformator(List<TupleTransformatorLevel> transformatorLevels, Executor correlationBatchExecutor, EntityManagerFactory correlationBatchEntityManagerFactory) {
         this.transformatorLevels = transformatorLevels;
+        this.correlationBatchExecutor = correlationBatchExecutor;
+        this.correlationBatchEntityManagerFactory = correlationBatchEntityManagerFactory;
     }
 
     public List<Object[]> transformAll(List<Object[]> tupleList) {
@@ -39,7 +55,13 @@ public class TupleTransformator {
                     newTupleListIter.set(transform(i, tuple, updatableViewMap));
                 }
             }
-            tupleList = transform(i, tupleList);
+            int lastIndependentLevel = getLastIndependentCorrelationLevel(i);
+            if (lastIndependentLevel == i) {
+                tupleList = transform(i, tupleList);
+            } else {
+                tupleList = transformConcurrently(i, lastIndependentLevel, tupleList);
+                i = lastIndependentLevel;
+            }
         }
 
         // if we have multiple levels, we must filter duplicates afterwards
@@ -58,6 +80,22 @@ public class TupleTransformator {
         return tupleList;
     }
 
+    /**
+     * Returns the largest batch size of the batch correlations of this transformator or 1 if there are none.
+     *
+     * @return The largest batch size
+     */
+    public int getMaximumBatchSize() {
+        int maximumBatchSize = 1;
+        for (int i = 0; i < transformatorLevels.size(); i++) {
+            AbstractCorrelatedBatchTupleListTransformer transformer = getBatchTransformer(transformatorLevels.get(i).tupleListTransformer);
+            if (transformer != null) {
+                maximumBatchSize = Math.max(maximumBatchSize, transformer.getBatchSize());
+            }
+        }
+        return maximumBatchSize;
+    }
+
     public Object[] transform(Object[] tuple) {
         if (transformatorLevels.size() != 1) {
             throw new IllegalStateException("Can only do single transformations if there is only a single level");
@@ -75,6 +113,102 @@ public class TupleTransformator {
         return currentTuple;
     }
 
+    private int getLastIndependentCorrelationLevel(int level) {
+        if (correlationBatchExecutor == null || getBatchTransformer(transformatorLevels.get(level).tupleListTransformer) == null) {
+            return level;
+        }
+        // Batch correlations don't change the tuple list, so subsequent levels that only consist of batch correlations
+        // can run concurrently, as long as they don't read the tuple elements written by one another
+        int lastLevel = level;
+        for (int i = level + 1; i < transformatorLevels.size(); i++) {
+            TupleTransformatorLevel transformatorLevel = transformatorLevels.get(i);
+            AbstractCorrelatedBatchTupleListTransformer transformer = getBatchTransformer(transformatorLevel.tupleListTransformer);
+            if (transformatorLevel.tupleTransformers.length != 0 || transformer == null) {
+                break;
+            }
+            for (int j = level; j < i; j++) {
+                if (!transformer.isIndependentOf(getBatchTransformer(transformatorLevels.get(j).tupleListTransformer))) {
+                    return lastLevel;
+                }
+            }
+            lastLevel = i;
+        }
+        return lastLevel;
+    }
+
+    // Unwraps the constraints to subtypes of inheritance views and returns null if the transformer is no batch correlation
+    private static AbstractCorrelatedBatchTupleListTransformer getBatchTransformer(TupleListTransformer tupleListTransformer) {
+        while (tupleListTransformer instanceof TupleTransformatorFactory.ConstrainedTupleListTransformer) {
+            tupleListTransformer = ((TupleTransformatorFactory.ConstrainedTupleListTransformer) tupleListTransformer).getDelegate();
+        }
+        if (tupleListTransformer instanceof AbstractCorrelatedBatchTupleListTransformer) {
+            return (AbstractCorrelatedBatchTupleListTransformer) tupleListTransformer;
+        }
+        return null;
+    }
+
+    private static List<Object[]> constrain(TupleListTransformer tupleListTransformer, List<Object[]> tupleList) {
+        while (tupleListTransformer instanceof TupleTransformatorFactory.ConstrainedTupleListTransformer) {
+            TupleTransformatorFactory.ConstrainedTupleListTransformer constrainedTransformer = (TupleTransformatorFactory.ConstrainedTupleListTransformer) tupleListTransformer;
+            tupleList = constrainedTransformer.constrain(tupleList);
+            tupleListTransformer = constrainedTransformer.getDelegate();
+        }
+        return tupleList;
+    }
+
+    private List<Object[]> transformConcurrently(int startLevel, int endLevel, final List<Object[]> tupleList) {
+        List<FutureTask<List<Object[]>>> tasks = new ArrayList<>(endLevel - startLevel);
+        List<Object[]> result;
+        try {
+            for (int i = startLevel + 1; i <= endLevel; i++) {
+                TupleListTransformer tupleListTransformer = transformatorLevels.get(i).tupleListTransformer;
+                final AbstractCorrelatedBatchTupleListTransformer transformer = getBatchTransformer(tupleListTransformer);
+                final List<Object[]> constrainedTupleList = constrain(tupleListTransformer, tupleList);
+                if (constrainedTupleList.isEmpty()) {
+                    continue;
+                }
+                FutureTask<List<Object[]>> task = new FutureTask<>(new Callable<List<Object[]>>() {
+                    @Override
+                    public List<Object[]> call() {
+                        EntityManager entityManager = correlationBatchEntityManagerFactory.createEntityManager();
+                        try {
+                            return transformer.transform(constrainedTupleList, entityManager);
+                        } finally {
+                            entityManager.close();
+                        }
+                    }
+                });
+                tasks.add(task);
+                correlationBatchExecutor.execute(task);
+            }
+            // The first level is transformed in the current thread with the entity manager of the query
+            result = transform(startLevel, tupleList);
+        } catch (RuntimeException | Error ex) {
+            for (FutureTask<List<Object[]>> task : tasks) {
+                task.cancel(true);
+            }
+            throw ex;
+        }
+
+        for (FutureTask<List<Object[]>> task : tasks) {
+            try {
+                task.get();
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+                throw new RuntimeException("Interrupted while waiting for the correlation queries", ex);
+            } catch (ExecutionException ex) {
+                Throwable cause = ex.getCause();
+                if (cause instanceof RuntimeException) {
+                    throw (RuntimeException) cause;
+                } else if (cause instanceof Error) {
+                    throw (Error) cause;
+                }
+                throw new RuntimeException("Error during the execution of a correlation query", cause);
+            }
+        }
+        return result;
+    }
+
     private List<Object[]> transform(int level, List<Object[]> tupleList) {
         TupleListTransformer tupleListTransformer = transformatorLevels.get(level).tupleListTransformer;
         if (tupleListTransformer == null) {
@@ -170,7 +170,7 @@ public class TupleTransformatorFactory {
      * @author Christian Beikov
      * @since 1.3.0
      */
-    private static class ConstrainedTupleListTransformer extends TupleListTransformer {
+    static class ConstrainedTupleListTransformer extends TupleListTransformer {
 
         private final int classMappingIndex;
         private final int[] subtypeIndexes;
@@ -188,9 +188,17 @@ public class TupleTransformatorFactory {
             return delegate.getConsumableIndex();
         }
 
+        public TupleListTransformer getDelegate() {
+            return delegate;
+        }
+
+        public List<Object[]> constrain(List<Object[]> tuples) {
+            return new ConstrainedTupleList(classMappingIndex, subtypeIndexes, tuples);
+        }
+
         @Override
         public List<Object[]> transform(List<Object[]> tuples) {
-            ConstrainedTupleList tupleList = new ConstrainedTupleList(classMappingIndex, subtypeIndexes, tuples);
+            List<Object[]> tupleList = constrain(tuples);
             if (!tupleList.isEmpty()) {
                 delegate.transform(tupleList);
             }
@@ -274,6 +282,9 @@ public class TupleTransformatorFactory {
             newTransformatorLevels[i] = new TupleTransformatorLevel(tupleTransformers, tupleListTransformer);
         }
         
-        return new TupleTransformator(Arrays.asList(newTransformatorLevels));
+        if (entityViewConfiguration.getCorrelationBatchExecutor() == null) {
+            return new TupleTransformator(Arrays.asList(newTransformatorLevels));
+        }
+        return new TupleTransformator(Arrays.asList(newTransformatorLevels), entityViewConfiguration.getCorrelationBatchExecutor(), entityViewConfiguration.getCorrelationBatchEntityManagerFactory());
     }
 }
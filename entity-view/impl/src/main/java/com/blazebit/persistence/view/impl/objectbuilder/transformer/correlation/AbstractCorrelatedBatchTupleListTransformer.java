@@ -10,6 +10,8 @@ import com.blazebit.persistence.FullQueryBuilder;
 import com.blazebit.persistence.ObjectBuilder;
 import com.blazebit.persistence.parser.expression.Expression;
 import com.blazebit.persistence.parser.expression.ExpressionFactory;
+import com.blazebit.persistence.spi.QueryInstrumentation;
+import com.blazebit.persistence.spi.QueryPhase;
 import com.blazebit.persistence.view.CorrelationProvider;
 import com.blazebit.persistence.view.impl.BatchCorrelationMode;
 import com.blazebit.persistence.view.CorrelationProviderFactory;
@@ -49,6 +51,8 @@ public abstract class AbstractCorrelatedBatchTupleListTransformer extends Abstra
     protected final BatchCorrelationMode expectBatchCorrelationMode;
     protected final int valueIndex;
     protected final int keyIndex;
+    protected final QueryInstrumentation queryInstrumentation;
+    protected final String instrumentationType;
 
     protected String correlationParamName;
     protected String correlationSelectExpression;
@@ -56,6 +60,7 @@ public abstract class AbstractCorrelatedBatchTupleListTransformer extends Abstra
     protected CorrelatedSubqueryViewRootJpqlMacro viewRootJpqlMacro;
     protected CorrelatedSubqueryEmbeddingViewJpqlMacro embeddingViewJpqlMacro;
     protected Query query;
+    protected EntityManager entityManager;
 
     public AbstractCorrelatedBatchTupleListTransformer(ExpressionFactory ef, Correlator correlator, ContainerAccumulator<?> containerAccumulator, ManagedViewTypeImplementor<?> viewRootType, ManagedViewTypeImplementor<?> embeddingViewType, Expression correlationResult, CorrelationProviderFactory correlationProviderFactory, String attributePath, String[] fetches, String[] indexFetches,
                                                        Expression indexExpression, Correlator indexCorrelator, boolean correlatesThis, int viewRootIndex, int embeddingViewIndex, int tupleIndex, int defaultBatchSize, Class<?> correlationBasisType, Class<?> correlationBasisEntity, Limiter limiter, EntityViewConfiguration entityViewConfiguration) {
@@ -65,6 +70,8 @@ public abstract class AbstractCorrelatedBatchTupleListTransformer extends Abstra
         this.expectBatchCorrelationMode = entityViewConfiguration.getExpectBatchCorrelationValues(attributePath);
         this.valueIndex = correlator.getElementOffset();
         this.keyIndex = valueIndex + 1;
+        this.queryInstrumentation = entityViewConfiguration.getCriteriaBuilder().getService(QueryInstrumentation.class);
+        this.instrumentationType = (embeddingViewType == null ? viewRootType : embeddingViewType).getJavaType().getName() + "#" + attributePath;
     }
 
     private String generateCorrelationParamName() {
@@ -112,7 +119,7 @@ public abstract class AbstractCorrelatedBatchTupleListTransformer extends Abstra
             embeddingViewExpression = CORRELATION_KEY_ALIAS;
         }
 
-        this.criteriaBuilder = queryBuilder.getCriteriaBuilderFactory().create(queryBuilder.getEntityManager(), Object[].class);
+        this.criteriaBuilder = queryBuilder.getCriteriaBuilderFactory().create(entityManager == null ? queryBuilder.getEntityManager() : entityManager, Object[].class);
         this.viewRootJpqlMacro = new CorrelatedSubqueryViewRootJpqlMacro(criteriaBuilder, optionalParameters, viewRootExpression != null, viewRootEntityClass, viewRootIdAttributePath, viewRootExpression);
         this.embeddingViewJpqlMacro = new CorrelatedSubqueryEmbeddingViewJpqlMacro(criteriaBuilder, optionalParameters, embeddingViewExpression != null, embeddingViewEntityClass, embeddingViewIdAttributePath, embeddingViewExpression, batchedIdValues, viewRootJpqlMacro);
         this.criteriaBuilder.registerMacro("view", new MutableViewJpqlMacro(correlationResult));
@@ -174,6 +181,48 @@ public abstract class AbstractCorrelatedBatchTupleListTransformer extends Abstra
         return correlationBuilder.getCorrelationRoot();
     }
 
+    /**
+     * Like {@link #transform(List)}, but executes the correlation queries with the given entity manager instead of the one of the main query.
+     *
+     * @param tuples The tuples to transform
+     * @param entityManager The entity manager to use for the correlation queries
+     * @return The transformed tuples
+     */
+    public List<Object[]> transform(List<Object[]> tuples, EntityManager entityManager) {
+        this.entityManager = entityManager;
+        try {
+            return transform(tuples);
+        } finally {
+            this.entityManager = null;
+        }
+    }
+
+    public int getBatchSize() {
+        return batchSize;
+    }
+
+    /**
+     * Returns whether this and the given transformer can transform the same tuples concurrently
+     * i.e. whether neither of them reads a tuple element that the other one writes.
+     *
+     * @param other The other transformer
+     * @return Whether the transformers are independent of each other
+     */
+    public boolean isIndependentOf(AbstractCorrelatedBatchTupleListTransformer other) {
+        return !readsWrittenIndex(other) && !other.readsWrittenIndex(this);
+    }
+
+    private boolean readsWrittenIndex(AbstractCorrelatedBatchTupleListTransformer other) {
+        return other.writes(startIndex) || other.writes(viewRootIndex) || other.writes(embeddingViewIndex);
+    }
+
+    private boolean writes(int index) {
+        // See consumeTupleMacroViewValues for the indexes that are written besides the start index
+        return index == startIndex
+                || index == viewRootIndex && viewRootIndex > startIndex
+                || index == embeddingViewIndex && embeddingViewIndex > startIndex;
+    }
+
     @Override
     public List<Object[]> transform(List<Object[]> tuples) {
         FixedArrayList correlationParams = new FixedArrayList(batchSize);
@@ -453,27 +502,32 @@ public abstract class AbstractCorrelatedBatchTupleListTransformer extends Abstra
     }
 
     private void batchLoad(Map<Object, TuplePromise> correlationValues, FixedArrayList batchParameters, FixedArrayList viewRootIds, Object defaultKey, CorrelatedSubqueryViewRootJpqlMacro macro, BatchCorrelationMode batchCorrelationMode) {
-        batchParameters.clearRest();
-        if (criteriaBuilder.containsParameter(correlationParamName)) {
-            if (batchSize > 1 && batchCorrelationMode == BatchCorrelationMode.VALUES) {
-                criteriaBuilder.setParameter(correlationParamName, batchParameters);
-                query.setParameter(correlationParamName, batchParameters);
-            } else {
-                criteriaBuilder.setParameter(correlationParamName, batchParameters.get(0));
-                query.setParameter(correlationParamName, batchParameters.get(0));
+        QueryInstrumentation.Timer timer = queryInstrumentation.start(QueryPhase.CORRELATION_BATCH);
+        try {
+            batchParameters.clearRest();
+            if (criteriaBuilder.containsParameter(correlationParamName)) {
+                if (batchSize > 1 && batchCorrelationMode == BatchCorrelationMode.VALUES) {
+                    criteriaBuilder.setParameter(correlationParamName, batchParameters);
+                    query.setParameter(correlationParamName, batchParameters);
+                } else {
+                    criteriaBuilder.setParameter(correlationParamName, batchParameters.get(0));
+                    query.setParameter(correlationParamName, batchParameters.get(0));
+                }
             }
-        }
 
-        if (viewRootIds != null) {
-            viewRootIds.clearRest();
-            if (viewRootIds.size() == 1) {
-                macro.setParameters(criteriaBuilder, query, viewRootIds.get(0));
-            } else {
-                macro.setParameters(criteriaBuilder, query, viewRootIds);
+            if (viewRootIds != null) {
+                viewRootIds.clearRest();
+                if (viewRootIds.size() == 1) {
+                    macro.setParameters(criteriaBuilder, query, viewRootIds.get(0));
+                } else {
+                    macro.setParameters(criteriaBuilder, query, viewRootIds);
+                }
             }
-        }
 
-        populateResult(correlationValues, defaultKey, (List<Object>) query.getResultList());
+            populateResult(correlationValues, defaultKey, (List<Object>) query.getResultList());
+        } finally {
+            timer.commit(instrumentationType, null);
+        }
 
         batchParameters.reset();
         if (viewRootIds != null) {
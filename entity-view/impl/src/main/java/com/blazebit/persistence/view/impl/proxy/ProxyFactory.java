@@ -124,8 +124,9 @@ public class ProxyFactory {
     private final ConcurrentMap<Class<?>, Class<?>> unsafeProxyClasses = new ConcurrentHashMap<>();
     private final ConcurrentMap<Class<?>, Class<?>> proxyClassesToViewClasses = new ConcurrentHashMap<>();
     private final Object proxyLock = new Object();
-    private final ClassPool pool;
+    private ClassPool pool;
     private final boolean unsafeDisabled;
+    private final boolean runtimeGenerationDisabled;
     private final boolean strictCascadingCheck;
     private final PackageOpener packageOpener;
 
@@ -156,10 +157,12 @@ public class ProxyFactory {
     }
 
     public ProxyFactory(boolean unsafeDisabled, boolean strictCascadingCheck, PackageOpener packageOpener) {
-        ClassPool pool = new ClassPool((ClassPool) null);
-        pool.appendSystemPath();
-        this.pool = pool;
+        this(unsafeDisabled, false, strictCascadingCheck, packageOpener);
+    }
+
+    public ProxyFactory(boolean unsafeDisabled, boolean runtimeGenerationDisabled, boolean strictCascadingCheck, PackageOpener packageOpener) {
         this.unsafeDisabled = unsafeDisabled;
+        this.runtimeGenerationDisabled = runtimeGenerationDisabled;
         this.strictCascadingCheck = strictCascadingCheck;
         this.packageOpener = packageOpener;
     }
@@ -200,7 +203,7 @@ public class ProxyFactory {
         return sb.toString();
     }
 
-    public void loadImplementation(Set<String> errors, ManagedViewType<?> managedView, EntityViewManager entityViewManager) {
+    public boolean loadImplementation(Set<String> errors, ManagedViewType<?> managedView, EntityViewManager entityViewManager) {
         Class<?> javaType = managedView.getJavaType();
         Class<?> entityViewImplementationClass;
         String implementationClassName = getImplementationClassName(javaType, managedView.getJavaType());
@@ -210,13 +213,13 @@ public class ProxyFactory {
             if (annotation != null) {
                 if (annotation.value() != javaType) {
                     errors.add("The static implementation class '" + entityViewImplementationClass.getName() + "' was expected to be defined for the entity view type '" + javaType.getName() + "' but was defined for: " + annotation.value().getName());
-                    return;
+                    return false;
                 }
             }
         } catch (ClassNotFoundException e) {
             LOG.fine("Could not load static implementation class '" + implementationClassName + "'");
             // Ignore
-            return;
+            return false;
         }
         try {
             entityViewImplementationClass.getDeclaredField(SerializableEntityViewManager.EVM_FIELD_NAME).set(null, entityViewManager);
@@ -230,7 +233,9 @@ public class ProxyFactory {
             StringWriter sw = new StringWriter();
             e.printStackTrace(new PrintWriter(sw));
             errors.add("The initialization of the static metamodel class '" + entityViewImplementationClass.getName() + "' failed: " + sw.toString());
+            return false;
         }
+        return true;
     }
 
     public void setImplementation(Class<?> entityViewImplementationClass) {
@@ -249,6 +254,15 @@ public class ProxyFactory {
             synchronized (proxyLock) {
                 proxyClass = (Class<? extends T>) classes.get(clazz);
                 if (proxyClass == null) {
+                    if (runtimeGenerationDisabled) {
+                        throw new IllegalStateException("No static implementation found for the entity view type '" + clazz.getName() + "' but the runtime generation of entity view implementations is disabled!");
+                    }
+                    if (pool == null) {
+                        // The class pool is created lazily as it is not needed when all entity views have a static implementation
+                        ClassPool classPool = new ClassPool((ClassPool) null);
+                        classPool.appendSystemPath();
+                        pool = classPool;
+                    }
                     proxyClass = createProxyClass(entityViewManager, viewType, unsafe);
                     classes.put(clazz, proxyClass);
                     proxyClassesToViewClasses.put(proxyClass, clazz);
@@ -12,6 +12,8 @@ import com.blazebit.persistence.view.impl.update.flush.DirtyAttributeFlusher;
 import com.blazebit.persistence.view.impl.update.flush.FetchGraphNode;
 import com.blazebit.persistence.view.spi.type.EntityViewProxy;
 
+import java.util.List;
+
 /**
  *
  * @author Christian Beikov
@@ -29,6 +31,8 @@ public interface EntityViewUpdater extends UpdateQueryFactory {
 
     public Object executeUpdate(UpdateContext context, Object entity, MutableStateTrackable updatableProxy);
 
+    public void executeUpdates(UpdateContext context, List<MutableStateTrackable> updatableProxies);
+
     public Object executePersist(UpdateContext context, MutableStateTrackable updatableProxy);
 
     public Object executePersist(UpdateContext context, Object entity, MutableStateTrackable updatableProxy);
@@ -635,6 +635,22 @@ public class EntityViewUpdaterImpl implements EntityViewUpdater {
         return entity;
     }
 
+    @Override
+    public void executeUpdates(UpdateContext context, List<MutableStateTrackable> updatableProxies) {
+        if (updatableProxies.size() > 1 && rootUpdateAllowed) {
+            // The views are expected to have the same dirty attributes, so the dirty flusher of the first view applies to all of them
+            @SuppressWarnings("unchecked")
+            DirtyAttributeFlusher<?, Object, Object> flusher = getNestedDirtyFlusher(context, updatableProxies.get(0), (DirtyAttributeFlusher) null);
+            if (flusher instanceof CompositeAttributeFlusher && flusher.loadForEntityFlush()
+                    && (flushStrategy == FlushStrategy.ENTITY || context.isForceEntity() || !flusher.supportsQueryFlush())) {
+                ((CompositeAttributeFlusher) flusher).loadEntities(context, updatableProxies);
+            }
+        }
+        for (int i = 0; i < updatableProxies.size(); i++) {
+            update(context, null, updatableProxies.get(i));
+        }
+    }
+
     @Override
     public Query createUpdateQuery(UpdateContext context, MutableStateTrackable updatableProxy, DirtyAttributeFlusher<?, ?, ?> flusher) {
         String queryString;
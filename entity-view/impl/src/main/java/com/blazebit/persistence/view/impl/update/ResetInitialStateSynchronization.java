@@ -6,6 +6,7 @@
 package com.blazebit.persistence.view.impl.update;
 
 import com.blazebit.persistence.view.ViewTransition;
+import com.blazebit.persistence.view.impl.EntityViewCacheManager;
 import com.blazebit.persistence.view.impl.collection.CollectionAction;
 import com.blazebit.persistence.view.impl.collection.MapAction;
 import com.blazebit.persistence.view.impl.collection.RecordingCollection;
@@ -43,12 +44,24 @@ public class ResetInitialStateSynchronization implements Synchronization, Initia
     private List<Object> updatedViews;
     private List<Object> removedViews;
     private List<Object> versionedViews;
+    private List<Object> cacheFlushedEntities;
 
     public ResetInitialStateSynchronization(UpdateContext updateContext, ListenerManager listenerManager) {
         this.updateContext = updateContext;
         this.listenerManager = listenerManager;
     }
 
+    private void addCacheFlushedEntity(EntityViewProxy view, boolean hasId) {
+        EntityViewCacheManager cacheManager = updateContext.getEntityViewManager().getEntityViewCacheManager();
+        if (cacheManager != null) {
+            if (cacheFlushedEntities == null) {
+                cacheFlushedEntities = new ArrayList<>();
+            }
+            Object entityId = hasId ? updateContext.getEntityViewManager().getEntityId(updateContext.getEntityManager(), view) : null;
+            cacheManager.flushed(view.$$_getJpaManagedClass(), entityId, cacheFlushedEntities);
+        }
+    }
+
     @Override
     public void addRecordingCollection(RecordingCollection<?, ?> recordingCollection, List<? extends CollectionAction<?>> actions, Map<?, ?> addedElements, Map<?, ?> removedElements) {
         if (coalescedRecordingActions == null) {
@@ -78,6 +91,7 @@ public class ResetInitialStateSynchronization implements Synchronization, Initia
         if (persistedViews == null) {
             persistedViews = new ArrayList<>();
         }
+        addCacheFlushedEntity(persistedView, false);
         persistedView.$$_setIsNew(false);
         persistedViews.add(persistedView);
         persistedViews.add(null);
@@ -94,6 +108,7 @@ public class ResetInitialStateSynchronization implements Synchronization, Initia
         if (persistedViews == null) {
             persistedViews = new ArrayList<>();
         }
+        addCacheFlushedEntity(persistedView, false);
         persistedView.$$_setIsNew(false);
         persistedViews.add(persistedView);
         persistedViews.add(null);
@@ -115,6 +130,7 @@ public class ResetInitialStateSynchronization implements Synchronization, Initia
         if (updatedViews == null) {
             updatedViews = new ArrayList<>();
         }
+        addCacheFlushedEntity(updatedView, true);
         long[] dirtyMask = updatedView.$$_resetDirty();
         updatedViews.add(updatedView);
         updatedViews.add(dirtyMask);
@@ -126,6 +142,7 @@ public class ResetInitialStateSynchronization implements Synchronization, Initia
         if (removedViews == null) {
             removedViews = new ArrayList<>();
         }
+        addCacheFlushedEntity(view, true);
         removedViews.add(view);
         if (view instanceof MutableStateTrackable) {
             MutableStateTrackable removedView = (MutableStateTrackable) view;
@@ -165,6 +182,10 @@ public class ResetInitialStateSynchronization implements Synchronization, Initia
     @Override
     @SuppressWarnings("unchecked")
     public void afterCompletion(int status) {
+        if (cacheFlushedEntities != null) {
+            // Invalidate before invoking listeners so that they already see the new state
+            updateContext.getEntityViewManager().getEntityViewCacheManager().flushCompleted(cacheFlushedEntities, status == Status.STATUS_COMMITTED);
+        }
         if (status != Status.STATUS_COMMITTED) {
             Map<EntityViewProxy, ViewTransition> objects;
             if (listenerManager.hasPostRollbackListeners()) {
@@ -331,6 +331,23 @@ public class CompositeAttributeFlusher extends CompositeAttributeFetchGraphNode<
         return (features & FEATURE_LOAD_FOR_ENTITY_FLUSH) != 0;
     }
 
+    /**
+     * Loads the entities for the given views with a single query into the persistence context,
+     * so that a subsequent entity flush of the views doesn't have to load every entity separately.
+     *
+     * @param context The update context
+     * @param updatableProxies The views for which to load the entities
+     */
+    public void loadEntities(UpdateContext context, List<? extends MutableStateTrackable> updatableProxies) {
+        List<Object> views = new ArrayList<>(updatableProxies.size());
+        List<Object> ids = new ArrayList<>(updatableProxies.size());
+        for (MutableStateTrackable updatableProxy : updatableProxies) {
+            views.add(updatableProxy);
+            ids.add(updatableProxy.$$_getId());
+        }
+        entityLoader.toEntities(context, views, ids);
+    }
+
     @Override
     public Query flushQuery(UpdateContext context, String parameterPrefix, UpdateQueryFactory queryFactory, Query query, Object ownerView, Object view, Object value, UnmappedOwnerAwareDeleter ownerAwareDeleter, DirtyAttributeFlusher<?, ?, ?> ownerFlusher) {
         if (element != null) {
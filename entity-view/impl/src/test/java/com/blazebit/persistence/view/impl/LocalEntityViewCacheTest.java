@@ -0,0 +1,78 @@
+/*
+ * SPDX-License-Identifier: Apache-2.0
+ * Copyright Blazebit
+ */
+package com.blazebit.persistence.view.impl;
+
+import com.blazebit.persistence.view.spi.EntityViewCacheKey;
+import org.junit.Test;
+
+import java.util.Collections;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+/**
+ * @author Christian Beikov
+ * @since 1.6.19
+ */
+public class LocalEntityViewCacheTest {
+
+    @Test
+    public void evictEntityOnlyRemovesEntriesOfEntity() {
+        LocalEntityViewCache cache = new LocalEntityViewCache(10);
+        EntityViewCacheKey key1 = key(String.class, 1L);
+        EntityViewCacheKey key2 = key(Integer.class, 1L);
+        EntityViewCacheKey key3 = key(String.class, 2L);
+        cache.put(key1, "1");
+        cache.put(key2, "2");
+        cache.put(key3, "3");
+
+        cache.evictEntity(Object.class, 1L);
+
+        assertNull(cache.get(key1));
+        assertNull(cache.get(key2));
+        assertEquals("3", cache.get(key3));
+    }
+
+    @Test
+    public void evictEntityViewOnlyRemovesEntriesOfEntityView() {
+        LocalEntityViewCache cache = new LocalEntityViewCache(10);
+        EntityViewCacheKey key1 = key(String.class, 1L);
+        EntityViewCacheKey key2 = key(Integer.class, 1L);
+        EntityViewCacheKey key3 = key(String.class, 2L);
+        cache.put(key1, "1");
+        cache.put(key2, "2");
+        cache.put(key3, "3");
+
+        cache.evictEntityView(String.class);
+
+        assertNull(cache.get(key1));
+        assertEquals("2", cache.get(key2));
+        assertNull(cache.get(key3));
+    }
+
+    @Test
+    public void evictedEntriesCanBeCachedAgain() {
+        LocalEntityViewCache cache = new LocalEntityViewCache(1);
+        EntityViewCacheKey key1 = key(String.class, 1L);
+        EntityViewCacheKey key2 = key(String.class, 2L);
+        cache.put(key1, "1");
+        // Exceeds the maximum size and evicts the first entry
+        cache.put(key2, "2");
+        assertNull(cache.get(key1));
+
+        cache.evictEntity(Object.class, 2L);
+        assertNull(cache.get(key2));
+
+        cache.put(key1, "1");
+        assertEquals("1", cache.get(key1));
+        cache.evictEntityView(String.class);
+        assertNull(cache.get(key1));
+        assertEquals(0, cache.getSize());
+    }
+
+    private static EntityViewCacheKey key(Class<?> entityViewClass, Object entityId) {
+        return new EntityViewCacheKey(entityViewClass, null, Object.class, entityId, Collections.<String>emptySet());
+    }
+}
@@ -0,0 +1,84 @@
+/*
+ * SPDX-License-Identifier: Apache-2.0
+ * Copyright Blazebit
+ */
+
+package com.blazebit.persistence.view.testsuite.basic;
+
+import com.blazebit.persistence.CriteriaBuilder;
+import com.blazebit.persistence.testsuite.entity.Document;
+import com.blazebit.persistence.testsuite.entity.Person;
+import com.blazebit.persistence.testsuite.tx.TxVoidWork;
+import com.blazebit.persistence.view.ConfigurationProperties;
+import com.blazebit.persistence.view.EntityViewManager;
+import com.blazebit.persistence.view.EntityViewSetting;
+import com.blazebit.persistence.view.EntityViewSettingCacheStatistics;
+import com.blazebit.persistence.view.EntityViews;
+import com.blazebit.persistence.view.Sorters;
+import com.blazebit.persistence.view.spi.EntityViewConfiguration;
+import com.blazebit.persistence.view.testsuite.AbstractEntityViewTest;
+import com.blazebit.persistence.view.testsuite.basic.model.FindAllDocumentView;
+import org.junit.Test;
+
+import javax.persistence.EntityManager;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ *
+ * @author Christian Beikov
+ * @since 1.6.19
+ */
+public class EntityViewSettingCacheTest extends AbstractEntityViewTest {
+
+    @Override
+    public void setUpOnce() {
+        cleanDatabase();
+        transactional(new TxVoidWork() {
+            @Override
+            public void work(EntityManager em) {
+                Person p1 = new Person("pers1");
+                Person p2 = new Person("pers2");
+                em.persist(p1);
+                em.persist(p2);
+                em.persist(new Document("doc1", p1));
+                em.persist(new Document("doc2", p2));
+                em.persist(new Document("doc3", p1));
+            }
+        });
+    }
+
+    @Test
+    public void testStructureIsReusedWithDifferentValues() {
+        EntityViewConfiguration cfg = EntityViews.createDefaultConfiguration();
+        cfg.setProperty(ConfigurationProperties.SETTING_CACHE_ENABLED, "true");
+        EntityViewManager evm = build(cfg, FindAllDocumentView.class);
+        EntityViewSettingCacheStatistics statistics = evm.getService(EntityViewSettingCacheStatistics.class);
+        statistics.clearStatistics();
+
+        List<FindAllDocumentView> results = evm.applySetting(createSetting("pers1", true), cbf.create(em, Document.class)).getResultList();
+        assertEquals(2, results.size());
+        assertEquals("doc3", results.get(0).getName());
+        assertEquals(0, statistics.getHitCount());
+        assertEquals(1, statistics.getMissCount());
+
+        results = evm.applySetting(createSetting("pers2", false), cbf.create(em, Document.class)).getResultList();
+        assertEquals(1, results.size());
+        assertEquals("doc2", results.get(0).getName());
+        assertEquals(1, statistics.getHitCount());
+        assertEquals(0.5d, statistics.getHitRatio(), 0.0001d);
+
+        EntityViewSetting<FindAllDocumentView, CriteriaBuilder<FindAllDocumentView>> setting = EntityViewSetting.create(FindAllDocumentView.class);
+        assertEquals(3, evm.applySetting(setting, cbf.create(em, Document.class)).getResultList().size());
+        assertEquals(1, statistics.getHitCount());
+        assertEquals(2, statistics.getMissCount());
+    }
+
+    private static EntityViewSetting<FindAllDocumentView, CriteriaBuilder<FindAllDocumentView>> createSetting(String ownerName, boolean descending) {
+        EntityViewSetting<FindAllDocumentView, CriteriaBuilder<FindAllDocumentView>> setting = EntityViewSetting.create(FindAllDocumentView.class);
+        setting.addAttributeFilter("ownerName", ownerName);
+        setting.addAttributeSorter("name", descending ? Sorters.descending() : Sorters.ascending());
+        return setting;
+    }
+}
@@ -0,0 +1,106 @@
+/*
+ * SPDX-License-Identifier: Apache-2.0
+ * Copyright Blazebit
+ */
+
+package com.blazebit.persistence.view.testsuite.basic;
+
+import com.blazebit.persistence.CriteriaBuilder;
+import com.blazebit.persistence.testsuite.entity.Document;
+import com.blazebit.persistence.testsuite.entity.Person;
+import com.blazebit.persistence.testsuite.tx.TxVoidWork;
+import com.blazebit.persistence.view.EntityViewManager;
+import com.blazebit.persistence.view.EntityViewSetting;
+import com.blazebit.persistence.view.testsuite.AbstractEntityViewTest;
+import com.blazebit.persistence.view.testsuite.basic.model.FindAllDocumentView;
+import org.junit.Before;
+import org.junit.Test;
+
+import javax.persistence.EntityManager;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+/**
+ *
+ * @author Christian Beikov
+ * @since 1.6.19
+ */
+public class FindAllTest extends AbstractEntityViewTest {
+
+    private Document doc1;
+    private Document doc2;
+    private Document doc3;
+
+    @Override
+    public void setUpOnce() {
+        cleanDatabase();
+        transactional(new TxVoidWork() {
+            @Override
+            public void work(EntityManager em) {
+                Person p1 = new Person("pers1");
+                Person p2 = new Person("pers2");
+                em.persist(p1);
+                em.persist(p2);
+                em.persist(new Document("doc1", p1));
+                em.persist(new Document("doc2", p2));
+                em.persist(new Document("doc3", p1));
+            }
+        });
+    }
+
+    @Before
+    public void setUp() {
+        doc1 = cbf.create(em, Document.class).where("name").eq("doc1").getSingleResult();
+        doc2 = cbf.create(em, Document.class).where("name").eq("doc2").getSingleResult();
+        doc3 = cbf.create(em, Document.class).where("name").eq("doc3").getSingleResult();
+    }
+
+    @Test
+    public void testFindAllInInputOrder() {
+        EntityViewManager evm = build(FindAllDocumentView.class);
+        List<FindAllDocumentView> results = evm.findAll(em, FindAllDocumentView.class, Arrays.asList(doc3.getId(), doc1.getId(), doc2.getId()));
+
+        assertEquals(3, results.size());
+        assertEquals("doc3", results.get(0).getName());
+        assertEquals("doc1", results.get(1).getName());
+        assertEquals("doc2", results.get(2).getName());
+        assertEquals("pers2", results.get(2).getOwnerName());
+    }
+
+    @Test
+    public void testFindAllReportsMissingIds() {
+        EntityViewManager evm = build(FindAllDocumentView.class);
+        List<FindAllDocumentView> results = evm.findAll(em, FindAllDocumentView.class, Arrays.asList(doc2.getId(), -1L, null, doc2.getId()));
+
+        assertEquals(4, results.size());
+        assertEquals("doc2", results.get(0).getName());
+        assertNull(results.get(1));
+        assertNull(results.get(2));
+        assertSame(results.get(0), results.get(3));
+    }
+
+    @Test
+    public void testFindAllWithSetting() {
+        EntityViewManager evm = build(FindAllDocumentView.class);
+        EntityViewSetting<FindAllDocumentView, CriteriaBuilder<FindAllDocumentView>> setting = EntityViewSetting.create(FindAllDocumentView.class);
+        setting.addAttributeFilter("ownerName", "pers1");
+        List<FindAllDocumentView> results = evm.findAll(em, setting, Arrays.asList(doc1.getId(), doc2.getId(), doc3.getId()));
+
+        assertEquals(3, results.size());
+        assertEquals("doc1", results.get(0).getName());
+        assertNull(results.get(1));
+        assertEquals("doc3", results.get(2).getName());
+    }
+
+    @Test
+    public void testFindAllEmpty() {
+        EntityViewManager evm = build(FindAllDocumentView.class);
+        assertTrue(evm.findAll(em, FindAllDocumentView.class, Collections.emptyList()).isEmpty());
+    }
+}
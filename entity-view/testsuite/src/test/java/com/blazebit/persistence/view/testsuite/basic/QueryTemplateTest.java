@@ -0,0 +1,68 @@
+/*
+ * SPDX-License-Identifier: Apache-2.0
+ * Copyright Blazebit
+ */
+
+package com.blazebit.persistence.view.testsuite.basic;
+
+import com.blazebit.persistence.CriteriaBuilder;
+import com.blazebit.persistence.QueryTemplate;
+import com.blazebit.persistence.testsuite.entity.Document;
+import com.blazebit.persistence.testsuite.entity.Person;
+import com.blazebit.persistence.testsuite.tx.TxVoidWork;
+import com.blazebit.persistence.view.EntityViewManager;
+import com.blazebit.persistence.view.EntityViewSetting;
+import com.blazebit.persistence.view.testsuite.AbstractEntityViewTest;
+import com.blazebit.persistence.view.testsuite.basic.model.FindAllDocumentView;
+import org.junit.Test;
+
+import javax.persistence.EntityManager;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ *
+ * @author Christian Beikov
+ * @since 1.6.19
+ */
+public class QueryTemplateTest extends AbstractEntityViewTest {
+
+    @Override
+    public void setUpOnce() {
+        cleanDatabase();
+        transactional(new TxVoidWork() {
+            @Override
+            public void work(EntityManager em) {
+                Person p1 = new Person("pers1");
+                Person p2 = new Person("pers2");
+                em.persist(p1);
+                em.persist(p2);
+                em.persist(new Document("doc1", p1));
+                em.persist(new Document("doc2", p2));
+                em.persist(new Document("doc3", p1));
+            }
+        });
+    }
+
+    @Test
+    public void testCompileEntityViewQuery() {
+        EntityViewManager evm = build(FindAllDocumentView.class);
+        EntityViewSetting<FindAllDocumentView, CriteriaBuilder<FindAllDocumentView>> setting = EntityViewSetting.create(FindAllDocumentView.class);
+        setting.addAttributeFilter("ownerName", "pers1");
+        QueryTemplate<FindAllDocumentView> template = evm.applySetting(setting, cbf.create(em, Document.class).orderByAsc("name")).compile();
+
+        EntityManager otherEm = emf.createEntityManager();
+        try {
+            for (EntityManager entityManager : new EntityManager[]{ em, otherEm }) {
+                List<FindAllDocumentView> results = template.bind(entityManager).getResultList();
+                assertEquals(2, results.size());
+                assertEquals("doc1", results.get(0).getName());
+                assertEquals("doc3", results.get(1).getName());
+                assertEquals("pers1", results.get(1).getOwnerName());
+            }
+        } finally {
+            otherEm.close();
+        }
+    }
+}
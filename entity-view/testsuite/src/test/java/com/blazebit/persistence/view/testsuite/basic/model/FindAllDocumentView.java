@@ -0,0 +1,31 @@
+/*
+ * SPDX-License-Identifier: Apache-2.0
+ * Copyright Blazebit
+ */
+
+package com.blazebit.persistence.view.testsuite.basic.model;
+
+import com.blazebit.persistence.testsuite.entity.Document;
+import com.blazebit.persistence.view.AttributeFilter;
+import com.blazebit.persistence.view.EntityView;
+import com.blazebit.persistence.view.IdMapping;
+import com.blazebit.persistence.view.Mapping;
+import com.blazebit.persistence.view.filter.EqualFilter;
+
+/**
+ *
+ * @author Christian Beikov
+ * @since 1.6.19
+ */
+@EntityView(Document.class)
+public interface FindAllDocumentView {
+
+    @IdMapping
+    public Long getId();
+
+    public String getName();
+
+    @Mapping("owner.name")
+    @AttributeFilter(EqualFilter.class)
+    public String getOwnerName();
+}
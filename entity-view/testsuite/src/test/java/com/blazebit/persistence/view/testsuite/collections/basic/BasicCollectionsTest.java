@@ -6,10 +6,13 @@
 package com.blazebit.persistence.view.testsuite.collections.basic;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
 
 import java.util.Arrays;
 import java.util.Collection;
 import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 import javax.persistence.EntityManager;
 
@@ -153,4 +156,78 @@ public class BasicCollectionsTest<T extends BasicDocumentCollectionsView> extend
         assertEquals(doc2.getPartners(), results.get(1).getPartners());
         assertEquals(doc2.getPersonList(), results.get(1).getPersonList());
     }
+
+    @Test
+    // NOTE: DataNucleus renders joins wrong: https://github.com/datanucleus/datanucleus-rdbms/issues/177
+    // Eclipselink has a result set mapping bug in case of map keys
+    @Category({ NoEclipselink.class, NoDatanucleus.class })
+    public void testCollectionsStream() {
+        EntityViewManager evm = build(viewType);
+
+        CriteriaBuilder<DocumentForCollections> criteria = cbf.create(em, DocumentForCollections.class, "d")
+            .orderByAsc("id");
+        CriteriaBuilder<T> cb = evm.applySetting(EntityViewSetting.create(viewType), criteria);
+        List<T> results;
+        try (Stream<T> stream = cb.getResultStream()) {
+            results = stream.collect(Collectors.toList());
+        }
+
+        assertEquals(2, results.size());
+        // Doc1
+        assertEquals(doc1.getName(), results.get(0).getName());
+        assertEquals(doc1.getContacts(), results.get(0).getContacts());
+        assertEquals(doc1.getPartners(), results.get(0).getPartners());
+        assertEquals(doc1.getPersonList(), results.get(0).getPersonList());
+
+        // Doc2
+        assertEquals(doc2.getName(), results.get(1).getName());
+        assertEquals(doc2.getContacts(), results.get(1).getContacts());
+        assertEquals(doc2.getPartners(), results.get(1).getPartners());
+        assertEquals(doc2.getPersonList(), results.get(1).getPersonList());
+    }
+
+    @Test
+    // NOTE: DataNucleus renders joins wrong: https://github.com/datanucleus/datanucleus-rdbms/issues/177
+    // Eclipselink has a result set mapping bug in case of map keys
+    @Category({ NoEclipselink.class, NoDatanucleus.class })
+    public void testCollectionsStreamOrdersById() {
+        EntityViewManager evm = build(viewType);
+
+        CriteriaBuilder<DocumentForCollections> criteria = cbf.create(em, DocumentForCollections.class, "d")
+            .orderByDesc("name");
+        CriteriaBuilder<T> cb = evm.applySetting(EntityViewSetting.create(viewType), criteria);
+        String queryString = cb.getQueryString();
+        List<T> results;
+        try (Stream<T> stream = cb.getResultStream()) {
+            results = stream.collect(Collectors.toList());
+        }
+
+        // The id is only appended to the ORDER BY clause of the streamed query so that the rows of a view are adjacent
+        assertEquals(queryString, cb.getQueryString());
+        assertEquals(2, results.size());
+        assertEquals(doc2.getName(), results.get(0).getName());
+        assertEquals(doc2.getContacts(), results.get(0).getContacts());
+        assertEquals(doc1.getName(), results.get(1).getName());
+        assertEquals(doc1.getContacts(), results.get(1).getContacts());
+    }
+
+    @Test
+    // NOTE: DataNucleus renders joins wrong: https://github.com/datanucleus/datanucleus-rdbms/issues/177
+    // Eclipselink has a result set mapping bug in case of map keys
+    @Category({ NoEclipselink.class, NoDatanucleus.class })
+    public void testCollectionsStreamFailsForCollectionElementOrderBy() {
+        EntityViewManager evm = build(viewType);
+
+        CriteriaBuilder<DocumentForCollections> criteria = cbf.create(em, DocumentForCollections.class, "d")
+            .orderByAsc("contacts.name");
+        CriteriaBuilder<T> cb = evm.applySetting(EntityViewSetting.create(viewType), criteria);
+        String queryString = cb.getQueryString();
+        try {
+            cb.getResultStream();
+            fail("Expected IllegalStateException");
+        } catch (IllegalStateException ex) {
+            // The rows of a view wouldn't be adjacent
+        }
+        assertEquals(queryString, cb.getQueryString());
+    }
 }
@@ -0,0 +1,130 @@
+/*
+ * SPDX-License-Identifier: Apache-2.0
+ * Copyright Blazebit
+ */
+
+package com.blazebit.persistence.view.testsuite.correlation.parallel;
+
+import com.blazebit.persistence.CriteriaBuilder;
+import com.blazebit.persistence.testsuite.base.jpa.category.NoDatanucleus;
+import com.blazebit.persistence.testsuite.base.jpa.category.NoEclipselink;
+import com.blazebit.persistence.testsuite.base.jpa.category.NoOpenJPA;
+import com.blazebit.persistence.testsuite.entity.Document;
+import com.blazebit.persistence.testsuite.entity.Person;
+import com.blazebit.persistence.testsuite.tx.TxVoidWork;
+import com.blazebit.persistence.view.ConfigurationProperties;
+import com.blazebit.persistence.view.EntityViewManager;
+import com.blazebit.persistence.view.EntityViewSetting;
+import com.blazebit.persistence.view.testsuite.AbstractEntityViewTest;
+import com.blazebit.persistence.view.testsuite.correlation.parallel.model.DocumentParallelCorrelationView;
+import com.blazebit.persistence.view.testsuite.correlation.parallel.model.OldPersonParallelCorrelationView;
+import com.blazebit.persistence.view.testsuite.correlation.parallel.model.PersonParallelCorrelationView;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+
+import javax.persistence.EntityManager;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+
+/**
+ *
+ * @author Christian Beikov
+ * @since 1.6.19
+ */
+public class ParallelCorrelationTest extends AbstractEntityViewTest {
+
+    @Override
+    public void setUpOnce() {
+        cleanDatabase();
+        transactional(new TxVoidWork() {
+            @Override
+            public void work(EntityManager em) {
+                Person p1 = new Person("pers1", 10L);
+                Person p2 = new Person("pers2", 20L);
+                em.persist(p1);
+                em.persist(p2);
+                em.persist(new Document("doc1", p1));
+                em.persist(new Document("doc2", p1));
+                em.persist(new Document("doc3", p2));
+            }
+        });
+    }
+
+    @Test
+    @Category({ NoDatanucleus.class, NoEclipselink.class, NoOpenJPA.class })
+    public void testConcurrentCorrelationsHaveSameResultAsSequential() {
+        EntityViewManager evm = build(DocumentParallelCorrelationView.class);
+        final AtomicInteger tasks = new AtomicInteger();
+        Executor executor = new Executor() {
+            @Override
+            public void execute(Runnable command) {
+                tasks.incrementAndGet();
+                new Thread(command).start();
+            }
+        };
+
+        EntityViewSetting<DocumentParallelCorrelationView, CriteriaBuilder<DocumentParallelCorrelationView>> setting = EntityViewSetting.create(DocumentParallelCorrelationView.class);
+        List<DocumentParallelCorrelationView> sequential = evm.applySetting(setting, cbf.create(em, Document.class, "d").orderByAsc("id")).getResultList();
+
+        setting = EntityViewSetting.create(DocumentParallelCorrelationView.class);
+        setting.setProperty(ConfigurationProperties.CORRELATION_BATCH_EXECUTOR, executor);
+        List<DocumentParallelCorrelationView> concurrent = evm.applySetting(setting, cbf.create(em, Document.class, "d").orderByAsc("id")).getResultList();
+
+        // The first correlation runs in the calling thread
+        assertEquals(2, tasks.get());
+        assertEquals(3, concurrent.size());
+        for (int i = 0; i < concurrent.size(); i++) {
+            assertEquals(sequential.get(i).getName(), concurrent.get(i).getName());
+            assertEquals(sequential.get(i).getOwnerName(), concurrent.get(i).getOwnerName());
+            assertEquals(sequential.get(i).getOwnerAge(), concurrent.get(i).getOwnerAge());
+            assertEquals(sequential.get(i).getOwnerDocumentNames(), concurrent.get(i).getOwnerDocumentNames());
+        }
+        assertEquals("pers1", concurrent.get(0).getOwnerName());
+        assertEquals(Long.valueOf(10L), concurrent.get(0).getOwnerAge());
+        assertEquals(new HashSet<>(Arrays.asList("doc1", "doc2")), concurrent.get(0).getOwnerDocumentNames());
+        assertEquals("pers2", concurrent.get(2).getOwnerName());
+        assertEquals(new HashSet<>(Arrays.asList("doc3")), concurrent.get(2).getOwnerDocumentNames());
+    }
+
+    @Test
+    @Category({ NoDatanucleus.class, NoEclipselink.class, NoOpenJPA.class })
+    public void testConcurrentCorrelationsOfInheritanceSubtype() {
+        EntityViewManager evm = build(PersonParallelCorrelationView.class, OldPersonParallelCorrelationView.class);
+        final AtomicInteger tasks = new AtomicInteger();
+        Executor executor = new Executor() {
+            @Override
+            public void execute(Runnable command) {
+                tasks.incrementAndGet();
+                new Thread(command).start();
+            }
+        };
+
+        EntityViewSetting<PersonParallelCorrelationView, CriteriaBuilder<PersonParallelCorrelationView>> setting = EntityViewSetting.create(PersonParallelCorrelationView.class);
+        setting.setProperty(ConfigurationProperties.CORRELATION_BATCH_EXECUTOR, executor);
+        List<PersonParallelCorrelationView> results = evm.applySetting(setting, cbf.create(em, Person.class, "p").orderByAsc("id")).getResultList();
+
+        // The correlations of the subtype are constrained to the tuples of the subtype and the first one runs in the calling thread
+        assertEquals(1, tasks.get());
+        assertEquals(2, results.size());
+        assertFalse(results.get(0) instanceof OldPersonParallelCorrelationView);
+        OldPersonParallelCorrelationView oldPerson = (OldPersonParallelCorrelationView) results.get(1);
+        assertEquals(new HashSet<>(Arrays.asList("doc3")), oldPerson.getOwnedDocumentNames());
+        assertEquals(1, oldPerson.getOwnedDocumentIds().size());
+    }
+
+    @Test
+    public void testDisableConcurrentCorrelations() {
+        EntityViewManager evm = build(DocumentParallelCorrelationView.class);
+        EntityViewSetting<DocumentParallelCorrelationView, CriteriaBuilder<DocumentParallelCorrelationView>> setting = EntityViewSetting.create(DocumentParallelCorrelationView.class);
+        setting.setProperty(ConfigurationProperties.CORRELATION_BATCH_EXECUTOR, "false");
+        List<DocumentParallelCorrelationView> results = evm.applySetting(setting, cbf.create(em, Document.class, "d").orderByAsc("id")).getResultList();
+        assertEquals(3, results.size());
+        assertEquals("pers1", results.get(0).getOwnerName());
+    }
+}
@@ -0,0 +1,42 @@
+/*
+ * SPDX-License-Identifier: Apache-2.0
+ * Copyright Blazebit
+ */
+
+package com.blazebit.persistence.view.testsuite.correlation.parallel.model;
+
+import com.blazebit.persistence.testsuite.entity.Document;
+import com.blazebit.persistence.testsuite.entity.Person;
+import com.blazebit.persistence.view.BatchFetch;
+import com.blazebit.persistence.view.EntityView;
+import com.blazebit.persistence.view.FetchStrategy;
+import com.blazebit.persistence.view.IdMapping;
+import com.blazebit.persistence.view.MappingCorrelatedSimple;
+
+import java.util.Set;
+
+/**
+ *
+ * @author Christian Beikov
+ * @since 1.6.19
+ */
+@EntityView(Document.class)
+public interface DocumentParallelCorrelationView {
+
+    @IdMapping
+    public Long getId();
+
+    public String getName();
+
+    @BatchFetch(size = 2)
+    @MappingCorrelatedSimple(correlationBasis = "owner.id", correlationResult = "name", correlated = Person.class, correlationExpression = "id IN correlationKey", fetch = FetchStrategy.SELECT)
+    public String getOwnerName();
+
+    @BatchFetch(size = 2)
+    @MappingCorrelatedSimple(correlationBasis = "owner.id", correlationResult = "name", correlated = Document.class, correlationExpression = "owner.id IN correlationKey", fetch = FetchStrategy.SELECT)
+    public Set<String> getOwnerDocumentNames();
+
+    @BatchFetch(size = 2)
+    @MappingCorrelatedSimple(correlationBasis = "owner.id", correlationResult = "age", correlated = Person.class, correlationExpression = "id IN correlationKey", fetch = FetchStrategy.SELECT)
+    public Long getOwnerAge();
+}
@@ -0,0 +1,34 @@
+/*
+ * SPDX-License-Identifier: Apache-2.0
+ * Copyright Blazebit
+ */
+
+package com.blazebit.persistence.view.testsuite.correlation.parallel.model;
+
+import com.blazebit.persistence.testsuite.entity.Document;
+import com.blazebit.persistence.testsuite.entity.Person;
+import com.blazebit.persistence.view.BatchFetch;
+import com.blazebit.persistence.view.EntityView;
+import com.blazebit.persistence.view.EntityViewInheritanceMapping;
+import com.blazebit.persistence.view.FetchStrategy;
+import com.blazebit.persistence.view.MappingCorrelatedSimple;
+
+import java.util.Set;
+
+/**
+ *
+ * @author Christian Beikov
+ * @since 1.6.19
+ */
+@EntityView(Person.class)
+@EntityViewInheritanceMapping("age > 15")
+public interface OldPersonParallelCorrelationView extends PersonParallelCorrelationView {
+
+    @BatchFetch(size = 2)
+    @MappingCorrelatedSimple(correlationBasis = "id", correlationResult = "name", correlated = Document.class, correlationExpression = "owner.id IN correlationKey", fetch = FetchStrategy.SELECT)
+    public Set<String> getOwnedDocumentNames();
+
+    @BatchFetch(size = 2)
+    @MappingCorrelatedSimple(correlationBasis = "id", correlationResult = "id", correlated = Document.class, correlationExpression = "owner.id IN correlationKey", fetch = FetchStrategy.SELECT)
+    public Set<Long> getOwnedDocumentIds();
+}
@@ -0,0 +1,26 @@
+/*
+ * SPDX-License-Identifier: Apache-2.0
+ * Copyright Blazebit
+ */
+
+package com.blazebit.persistence.view.testsuite.correlation.parallel.model;
+
+import com.blazebit.persistence.testsuite.entity.Person;
+import com.blazebit.persistence.view.EntityView;
+import com.blazebit.persistence.view.EntityViewInheritance;
+import com.blazebit.persistence.view.IdMapping;
+
+/**
+ *
+ * @author Christian Beikov
+ * @since 1.6.19
+ */
+@EntityView(Person.class)
+@EntityViewInheritance({ OldPersonParallelCorrelationView.class })
+public interface PersonParallelCorrelationView {
+
+    @IdMapping
+    public Long getId();
+
+    public String getName();
+}
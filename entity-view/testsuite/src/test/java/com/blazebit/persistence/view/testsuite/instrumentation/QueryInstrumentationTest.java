@@ -0,0 +1,87 @@
+/*
+ * SPDX-License-Identifier: Apache-2.0
+ * Copyright Blazebit
+ */
+
+package com.blazebit.persistence.view.testsuite.instrumentation;
+
+import com.blazebit.persistence.CriteriaBuilder;
+import com.blazebit.persistence.spi.CriteriaBuilderConfiguration;
+import com.blazebit.persistence.spi.QueryInstrumentation;
+import com.blazebit.persistence.spi.QueryPhase;
+import com.blazebit.persistence.testsuite.entity.Document;
+import com.blazebit.persistence.testsuite.entity.Person;
+import com.blazebit.persistence.testsuite.tx.TxVoidWork;
+import com.blazebit.persistence.view.EntityViewManager;
+import com.blazebit.persistence.view.EntityViewSetting;
+import com.blazebit.persistence.view.testsuite.AbstractEntityViewTest;
+import com.blazebit.persistence.view.testsuite.instrumentation.model.DocumentInstrumentationView;
+import org.junit.Test;
+
+import javax.persistence.EntityManager;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ *
+ * @author Christian Beikov
+ * @since 1.6.19
+ */
+public class QueryInstrumentationTest extends AbstractEntityViewTest {
+
+    private static final List<String> RECORDS = Collections.synchronizedList(new ArrayList<String>());
+
+    @Override
+    protected void configure(CriteriaBuilderConfiguration config) {
+        super.configure(config);
+        config.withQueryInstrumentation(new QueryInstrumentation() {
+            @Override
+            public Timer start(final QueryPhase phase) {
+                return new Timer() {
+                    @Override
+                    public void end() {
+                    }
+
+                    @Override
+                    public void commit(String type, String query) {
+                        RECORDS.add(phase + ":" + type);
+                    }
+                };
+            }
+        });
+    }
+
+    @Override
+    public void setUpOnce() {
+        cleanDatabase();
+        transactional(new TxVoidWork() {
+            @Override
+            public void work(EntityManager em) {
+                Person p = new Person("pers1");
+                em.persist(p);
+                em.persist(new Document("doc1", p));
+                em.persist(new Document("doc2", p));
+            }
+        });
+    }
+
+    @Test
+    public void testPhasesAreTaggedWithEntityViewType() {
+        EntityViewManager evm = build(DocumentInstrumentationView.class);
+        CriteriaBuilder<Document> criteria = cbf.create(em, Document.class, "d").orderByAsc("id");
+        RECORDS.clear();
+        List<DocumentInstrumentationView> results = evm.applySetting(EntityViewSetting.create(DocumentInstrumentationView.class), criteria).getResultList();
+
+        assertEquals(2, results.size());
+        assertEquals("pers1", results.get(0).getOwnerName());
+        String viewType = DocumentInstrumentationView.class.getName();
+        assertTrue(RECORDS.toString(), RECORDS.contains(QueryPhase.BUILDER_CONSTRUCTION + ":" + viewType));
+        assertTrue(RECORDS.toString(), RECORDS.contains(QueryPhase.RENDERING + ":" + viewType));
+        assertTrue(RECORDS.toString(), RECORDS.contains(QueryPhase.OBJECT_BUILDING + ":" + viewType));
+        assertTrue(RECORDS.toString(), RECORDS.contains(QueryPhase.CORRELATION_BATCH + ":" + viewType + "#ownerName"));
+    }
+}
@@ -0,0 +1,30 @@
+/*
+ * SPDX-License-Identifier: Apache-2.0
+ * Copyright Blazebit
+ */
+
+package com.blazebit.persistence.view.testsuite.instrumentation.model;
+
+import com.blazebit.persistence.testsuite.entity.Document;
+import com.blazebit.persistence.testsuite.entity.Person;
+import com.blazebit.persistence.view.EntityView;
+import com.blazebit.persistence.view.FetchStrategy;
+import com.blazebit.persistence.view.IdMapping;
+import com.blazebit.persistence.view.MappingCorrelatedSimple;
+
+/**
+ *
+ * @author Christian Beikov
+ * @since 1.6.19
+ */
+@EntityView(Document.class)
+public interface DocumentInstrumentationView {
+
+    @IdMapping
+    public Long getId();
+
+    public String getName();
+
+    @MappingCorrelatedSimple(correlationBasis = "owner.id", correlationResult = "name", correlated = Person.class, correlationExpression = "id IN correlationKey", fetch = FetchStrategy.SELECT)
+    public String getOwnerName();
+}
@@ -0,0 +1,136 @@
+/*
+ * SPDX-License-Identifier: Apache-2.0
+ * Copyright Blazebit
+ */
+
+package com.blazebit.persistence.view.testsuite.proxy;
+
+import com.blazebit.persistence.testsuite.entity.Person;
+import com.blazebit.persistence.testsuite.tx.TxVoidWork;
+import com.blazebit.persistence.view.ConfigurationProperties;
+import com.blazebit.persistence.view.EntityViewManager;
+import com.blazebit.persistence.view.EntityViewSetting;
+import com.blazebit.persistence.view.EntityViews;
+import com.blazebit.persistence.view.spi.EntityViewConfiguration;
+import com.blazebit.persistence.view.spi.type.DirtyStateTrackable;
+import com.blazebit.persistence.view.testsuite.AbstractEntityViewTest;
+import com.blazebit.persistence.view.testsuite.proxy.model.DocumentInterfaceView;
+import com.blazebit.persistence.view.testsuite.proxy.model.PersonStaticImplementationUpdatableView;
+import com.blazebit.persistence.view.testsuite.proxy.model.PersonStaticImplementationView;
+import org.junit.Assume;
+import org.junit.Before;
+import org.junit.Test;
+
+import javax.persistence.EntityManager;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/**
+ * The static implementations are generated by the annotation processor which only runs in the hibernate-apt profile.
+ * Tests that require a static implementation are skipped in other profiles.
+ *
+ * @author Christian Beikov
+ * @since 1.6.19
+ */
+public class ProxyRuntimeGenerationDisabledTest extends AbstractEntityViewTest {
+
+    private Person person;
+
+    @Override
+    public void setUpOnce() {
+        cleanDatabase();
+        transactional(new TxVoidWork() {
+            @Override
+            public void work(EntityManager em) {
+                em.persist(new Person("pers1"));
+            }
+        });
+    }
+
+    @Before
+    public void setUp() {
+        person = cbf.create(em, Person.class).getSingleResult();
+    }
+
+    @Test
+    public void testStaticImplementationIsUsed() {
+        Class<?> implementationClass = getStaticImplementation(PersonStaticImplementationView.class);
+        EntityViewManager evm = createEntityViewManager(PersonStaticImplementationView.class);
+
+        List<PersonStaticImplementationView> results = evm.applySetting(EntityViewSetting.create(PersonStaticImplementationView.class), cbf.create(em, Person.class)).getResultList();
+
+        assertEquals(1, results.size());
+        assertEquals(implementationClass, results.get(0).getClass());
+        assertEquals("pers1", results.get(0).getName());
+        assertEquals(implementationClass, evm.getReference(PersonStaticImplementationView.class, person.getId()).getClass());
+    }
+
+    @Test
+    public void testUpdatableStaticImplementationTracksDirtyState() {
+        Class<?> implementationClass = getStaticImplementation(PersonStaticImplementationUpdatableView.class);
+        final EntityViewManager evm = createEntityViewManager(PersonStaticImplementationUpdatableView.class);
+
+        final PersonStaticImplementationUpdatableView view = evm.find(em, PersonStaticImplementationUpdatableView.class, person.getId());
+        assertEquals(implementationClass, view.getClass());
+        assertFalse(((DirtyStateTrackable) view).$$_isDirty());
+        assertFalse(evm.getChangeModel(view).isDirty());
+
+        view.setName("pers2");
+        assertTrue(((DirtyStateTrackable) view).$$_isDirty());
+        assertTrue(evm.getChangeModel(view).get("name").isDirty());
+
+        transactional(new TxVoidWork() {
+            @Override
+            public void work(EntityManager em) {
+                evm.update(em, view);
+            }
+        });
+
+        assertFalse(((DirtyStateTrackable) view).$$_isDirty());
+        em.clear();
+        assertEquals("pers2", em.find(Person.class, person.getId()).getName());
+
+        transactional(new TxVoidWork() {
+            @Override
+            public void work(EntityManager em) {
+                em.find(Person.class, person.getId()).setName("pers1");
+            }
+        });
+    }
+
+    @Test
+    public void testMissingStaticImplementationIsReported() {
+        EntityViewConfiguration cfg = EntityViews.createDefaultConfiguration();
+        cfg.setProperty(ConfigurationProperties.PROXY_RUNTIME_GENERATION_DISABLED, "true");
+        // Disable the scanning so that the static implementation is also missing when the annotation processor ran
+        cfg.setProperty(ConfigurationProperties.STATIC_IMPLEMENTATION_SCANNING_DISABLED, "true");
+        cfg.addEntityView(DocumentInterfaceView.class);
+        try {
+            cfg.createEntityViewManager(cbf);
+            fail("Expected failure because of missing static implementation");
+        } catch (IllegalArgumentException ex) {
+            assertTrue(ex.getMessage(), ex.getMessage().contains("no static implementation was loaded for the entity view type '" + DocumentInterfaceView.class.getName() + "'"));
+        }
+    }
+
+    private EntityViewManager createEntityViewManager(Class<?> entityViewClass) {
+        EntityViewConfiguration cfg = EntityViews.createDefaultConfiguration();
+        cfg.setProperty(ConfigurationProperties.PROXY_RUNTIME_GENERATION_DISABLED, "true");
+        cfg.addEntityView(entityViewClass);
+        // Build directly to avoid reusing a cached proxy factory that is able to generate classes
+        return cfg.createEntityViewManager(cbf);
+    }
+
+    private static Class<?> getStaticImplementation(Class<?> entityViewClass) {
+        try {
+            return Class.forName(entityViewClass.getName() + "Impl", true, entityViewClass.getClassLoader());
+        } catch (ClassNotFoundException ex) {
+            Assume.assumeTrue("The static implementation is only generated when the annotation processor runs", false);
+            return null;
+        }
+    }
+}
@@ -0,0 +1,28 @@
+/*
+ * SPDX-License-Identifier: Apache-2.0
+ * Copyright Blazebit
+ */
+
+package com.blazebit.persistence.view.testsuite.proxy.model;
+
+import com.blazebit.persistence.testsuite.entity.Person;
+import com.blazebit.persistence.view.EntityView;
+import com.blazebit.persistence.view.IdMapping;
+import com.blazebit.persistence.view.UpdatableEntityView;
+
+/**
+ *
+ * @author Christian Beikov
+ * @since 1.6.19
+ */
+@UpdatableEntityView
+@EntityView(Person.class)
+public interface PersonStaticImplementationUpdatableView {
+
+    @IdMapping
+    public Long getId();
+
+    public String getName();
+
+    public void setName(String name);
+}
@@ -9,6 +9,7 @@ import com.blazebit.persistence.testsuite.base.jpa.assertion.AssertStatementBuil
 import com.blazebit.persistence.testsuite.base.jpa.category.NoDatanucleus;
 import com.blazebit.persistence.testsuite.base.jpa.category.NoEclipselink;
 import com.blazebit.persistence.testsuite.entity.Document;
+import com.blazebit.persistence.testsuite.tx.TxVoidWork;
 import com.blazebit.persistence.view.FlushMode;
 import com.blazebit.persistence.view.FlushStrategy;
 import com.blazebit.persistence.view.change.ChangeModel;
@@ -16,11 +17,13 @@ import com.blazebit.persistence.view.change.SingularChangeModel;
 import com.blazebit.persistence.view.spi.type.MutableStateTrackable;
 import com.blazebit.persistence.view.testsuite.update.basic.AbstractEntityViewUpdateBasicTest;
 import com.blazebit.persistence.view.testsuite.update.basic.mutable.model.UpdatableDocumentBasicView;
+import org.junit.Assume;
 import org.junit.Test;
 import org.junit.experimental.categories.Category;
 import org.junit.runner.RunWith;
 import org.junit.runners.Parameterized;
 
+import javax.persistence.EntityManager;
 import java.util.Arrays;
 import java.util.Date;
 
@@ -164,6 +167,134 @@ public class EntityViewUpdateMutableBasicTest extends AbstractEntityViewUpdateBa
         }
     }
 
+    @Test
+    public void testSaveAll() {
+        // Given
+        final UpdatableDocumentBasicView docView1 = getDoc1View();
+        final UpdatableDocumentBasicView docView2 = getDoc2View();
+        Long oldVersion1 = docView1.getVersion();
+        Long oldVersion2 = docView2.getVersion();
+
+        // When
+        docView1.setName("newDoc1");
+        docView2.setArchived(true);
+        docView2.setName("newDoc2");
+        transactional(new TxVoidWork() {
+            @Override
+            public void work(EntityManager em) {
+                evm.saveAll(em, Arrays.asList(docView1, docView2));
+                em.flush();
+            }
+        });
+
+        // Then
+        clearPersistenceContextAndReload();
+        assertEquals("newDoc1", doc1.getName());
+        assertEquals("newDoc2", doc2.getName());
+        assertTrue(doc2.isArchived());
+        assertVersionDiff(oldVersion1, docView1.getVersion(), 1, 1);
+        assertVersionDiff(oldVersion2, docView2.getVersion(), 1, 1);
+        assertEquals(doc1.getVersion(), docView1.getVersion());
+        assertEquals(doc2.getVersion(), docView2.getVersion());
+        assertFalse(evm.getChangeModel(docView1).isDirty());
+    }
+
+    @Test
+    public void testSaveAllOptimisticLock() {
+        Assume.assumeTrue("Optimistic locking requires a version attribute", version);
+        // Given
+        final UpdatableDocumentBasicView docView1 = getDoc1View();
+        final UpdatableDocumentBasicView docView2 = getDoc2View();
+        transactional(new TxVoidWork() {
+            @Override
+            public void work(EntityManager em) {
+                em.createQuery("UPDATE Document d SET d.version = d.version + 1 WHERE d.id = :id")
+                        .setParameter("id", doc2.getId())
+                        .executeUpdate();
+            }
+        });
+
+        // When
+        docView1.setName("newDoc1");
+        docView2.setName("newDoc2");
+        try {
+            transactional(new TxVoidWork() {
+                @Override
+                public void work(EntityManager em) {
+                    evm.saveAll(em, Arrays.asList(docView1, docView2));
+                    em.flush();
+                }
+            });
+            fail("Expected an optimistic lock exception");
+        } catch (javax.persistence.OptimisticLockException ex) {
+            // Expected
+        }
+
+        // Then
+        clearPersistenceContextAndReload();
+        assertEquals("doc1", doc1.getName());
+        assertEquals("doc2", doc2.getName());
+    }
+
+    @Test
+    public void testSaveAllStatements() {
+        // Given
+        final UpdatableDocumentBasicView docView1 = getDoc1View();
+        final UpdatableDocumentBasicView docView2 = getDoc2View();
+        clearPersistenceContextAndReload();
+        clearQueries();
+
+        // When
+        docView1.setName("newDoc1");
+        docView2.setName("newDoc2");
+        transactional(new TxVoidWork() {
+            @Override
+            public void work(EntityManager em) {
+                evm.saveAll(em, Arrays.asList(docView1, docView2));
+                em.flush();
+            }
+        });
+
+        // Then
+        AssertStatementBuilder builder = assertUnorderedQuerySequence();
+        if (!isQueryStrategy()) {
+            // The entities of both views are loaded with a single query
+            fullFetch(builder);
+        }
+        builder.update(Document.class)
+                .update(Document.class)
+                .validate();
+        clearPersistenceContextAndReload();
+        assertEquals("newDoc1", doc1.getName());
+        assertEquals("newDoc2", doc2.getName());
+    }
+
+    @Test
+    public void testSaveAllRetainsOrderOfRepeatedEntity() {
+        Assume.assumeFalse("The second view of the same entity has an outdated version", version);
+        // Given
+        final UpdatableDocumentBasicView docView1 = getDoc1View();
+        final UpdatableDocumentBasicView docView2 = getDoc2View();
+        final UpdatableDocumentBasicView docView1Copy = getDoc1View();
+
+        // When
+        docView1.setName("newDoc1");
+        docView2.setName("newDoc2");
+        docView1Copy.setName("newerDoc1");
+        transactional(new TxVoidWork() {
+            @Override
+            public void work(EntityManager em) {
+                evm.saveAll(em, Arrays.asList(docView1, docView2, docView1Copy));
+                em.flush();
+            }
+        });
+
+        // Then
+        clearPersistenceContextAndReload();
+        assertEquals("newerDoc1", doc1.getName());
+        assertEquals("newDoc2", doc2.getName());
+    }
+
     private void fullFetchUpdateAndReload(UpdatableDocumentBasicView docView) {
         // Assert that not only the document is loaded and finally also updated
         AssertStatementBuilder builder = assertUnorderedQuerySequence();
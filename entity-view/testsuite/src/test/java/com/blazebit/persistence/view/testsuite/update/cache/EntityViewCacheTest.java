@@ -0,0 +1,182 @@
+/*
+ * SPDX-License-Identifier: Apache-2.0
+ * Copyright Blazebit
+ */
+
+package com.blazebit.persistence.view.testsuite.update.cache;
+
+import com.blazebit.persistence.testsuite.base.jpa.category.NoDatanucleus;
+import com.blazebit.persistence.testsuite.base.jpa.category.NoEclipselink;
+import com.blazebit.persistence.testsuite.entity.Document;
+import com.blazebit.persistence.testsuite.entity.Person;
+import com.blazebit.persistence.testsuite.tx.TxVoidWork;
+import com.blazebit.persistence.view.ConfigurationProperties;
+import com.blazebit.persistence.view.EntityViewCacheStatistics;
+import com.blazebit.persistence.view.EntityViewManager;
+import com.blazebit.persistence.view.EntityViews;
+import com.blazebit.persistence.view.spi.EntityViewCache;
+import com.blazebit.persistence.view.spi.EntityViewConfiguration;
+import com.blazebit.persistence.view.testsuite.AbstractEntityViewTest;
+import com.blazebit.persistence.view.testsuite.update.cache.model.CacheDocumentOwnerNameView;
+import com.blazebit.persistence.view.testsuite.update.cache.model.CacheDocumentView;
+import com.blazebit.persistence.view.testsuite.update.cache.model.CachePersonDocumentCountView;
+import com.blazebit.persistence.view.testsuite.update.cache.model.CachePersonView;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+
+import javax.persistence.EntityManager;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+
+/**
+ *
+ * @author Christian Beikov
+ * @since 1.6.19
+ */
+// NOTE: No Datanucleus support yet
+@Category({ NoDatanucleus.class, NoEclipselink.class})
+public class EntityViewCacheTest extends AbstractEntityViewTest {
+
+    private EntityViewManager evm;
+    private EntityViewCacheStatistics statistics;
+    private Document doc1;
+    private Person p1;
+
+    @Override
+    public void setUpOnce() {
+        cleanDatabase();
+        transactional(new TxVoidWork() {
+            @Override
+            public void work(EntityManager em) {
+                Person p1 = new Person("pers1");
+                em.persist(p1);
+                em.persist(new Document("doc1", p1));
+            }
+        });
+    }
+
+    @Before
+    public void setUp() {
+        EntityViewConfiguration cfg = EntityViews.createDefaultConfiguration();
+        cfg.setProperty(ConfigurationProperties.ENTITY_VIEW_CACHE_ENABLED, "true");
+        evm = build(cfg, CacheDocumentView.class, CachePersonView.class, CacheDocumentOwnerNameView.class, CachePersonDocumentCountView.class);
+        statistics = evm.getService(EntityViewCacheStatistics.class);
+        evm.getService(EntityViewCache.class).clear();
+        statistics.clearStatistics();
+        doc1 = cbf.create(em, Document.class).where("name").eq("doc1").getSingleResult();
+        p1 = doc1.getOwner();
+    }
+
+    @Test
+    public void testFindIsCachedAndCopied() {
+        CacheDocumentView first = evm.find(em, CacheDocumentView.class, doc1.getId());
+        first.setName("changed");
+        CacheDocumentView second = evm.find(em, CacheDocumentView.class, doc1.getId());
+
+        assertNotSame(first, second);
+        assertEquals("doc1", second.getName());
+        assertEquals(1, statistics.getHitCount());
+        assertEquals(1, statistics.getMissCount());
+    }
+
+    @Test
+    public void testUpdateInvalidates() {
+        final CacheDocumentView docView = evm.find(em, CacheDocumentView.class, doc1.getId());
+        docView.setName("newDoc");
+        transactional(new TxVoidWork() {
+            @Override
+            public void work(EntityManager em) {
+                evm.save(em, docView);
+            }
+        });
+
+        assertEquals("newDoc", evm.find(em, CacheDocumentView.class, doc1.getId()).getName());
+        assertEquals(0, statistics.getHitCount());
+
+        transactional(new TxVoidWork() {
+            @Override
+            public void work(EntityManager em) {
+                docView.setName("doc1");
+                evm.save(em, docView);
+            }
+        });
+    }
+
+    @Test
+    public void testSubviewEntityUpdateInvalidates() {
+        assertEquals("pers1", evm.find(em, CacheDocumentView.class, doc1.getId()).getOwner().getName());
+        final CachePersonView personView = evm.find(em, CachePersonView.class, p1.getId());
+        personView.setName("newPerson");
+        transactional(new TxVoidWork() {
+            @Override
+            public void work(EntityManager em) {
+                evm.save(em, personView);
+            }
+        });
+
+        assertEquals("newPerson", evm.find(em, CacheDocumentView.class, doc1.getId()).getOwner().getName());
+        assertEquals(0, statistics.getHitCount());
+
+        transactional(new TxVoidWork() {
+            @Override
+            public void work(EntityManager em) {
+                personView.setName("pers1");
+                evm.save(em, personView);
+            }
+        });
+    }
+
+    @Test
+    public void testMappingPathEntityUpdateInvalidates() {
+        assertEquals("pers1", evm.find(em, CacheDocumentOwnerNameView.class, doc1.getId()).getOwnerName());
+        final CachePersonView personView = evm.find(em, CachePersonView.class, p1.getId());
+        personView.setName("newPerson");
+        transactional(new TxVoidWork() {
+            @Override
+            public void work(EntityManager em) {
+                evm.save(em, personView);
+            }
+        });
+
+        assertEquals("newPerson", evm.find(em, CacheDocumentOwnerNameView.class, doc1.getId()).getOwnerName());
+        assertEquals(0, statistics.getHitCount());
+
+        transactional(new TxVoidWork() {
+            @Override
+            public void work(EntityManager em) {
+                personView.setName("pers1");
+                evm.save(em, personView);
+            }
+        });
+    }
+
+    @Test
+    public void testFunctionArgumentEntityUpdateInvalidatesOnlyDependentViews() {
+        assertEquals(1L, evm.find(em, CachePersonDocumentCountView.class, p1.getId()).getDocumentCount().longValue());
+        evm.find(em, CachePersonView.class, p1.getId());
+        final CacheDocumentView docView = evm.find(em, CacheDocumentView.class, doc1.getId());
+        docView.setName("newDoc");
+        transactional(new TxVoidWork() {
+            @Override
+            public void work(EntityManager em) {
+                evm.save(em, docView);
+            }
+        });
+
+        // The document count view joins through documents, the person view doesn't
+        assertEquals(1L, evm.find(em, CachePersonDocumentCountView.class, p1.getId()).getDocumentCount().longValue());
+        assertEquals(0, statistics.getHitCount());
+        evm.find(em, CachePersonView.class, p1.getId());
+        assertEquals(1, statistics.getHitCount());
+
+        transactional(new TxVoidWork() {
+            @Override
+            public void work(EntityManager em) {
+                docView.setName("doc1");
+                evm.save(em, docView);
+            }
+        });
+    }
+}
@@ -0,0 +1,29 @@
+/*
+ * SPDX-License-Identifier: Apache-2.0
+ * Copyright Blazebit
+ */
+
+package com.blazebit.persistence.view.testsuite.update.cache.model;
+
+import com.blazebit.persistence.testsuite.entity.Person;
+import com.blazebit.persistence.view.EntityView;
+import com.blazebit.persistence.view.IdMapping;
+import com.blazebit.persistence.view.UpdatableEntityView;
+
+/**
+ *
+ * @author Christian Beikov
+ * @since 1.6.19
+ */
+@UpdatableEntityView
+@EntityView(Person.class)
+public interface CachePersonView {
+
+    @IdMapping
+    public Long getId();
+
+    public String getName();
+
+    public void setName(String name);
+
+}
@@ -0,0 +1,464 @@
+/*
+ * SPDX-License-Identifier: Apache-2.0
+ * Copyright Blazebit
+ */
+
+package com.blazebit.persistence.integration.graphql;
+
+import java.io.Serializable;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
+import java.time.DateTimeException;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.OffsetDateTime;
+import java.time.OffsetTime;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * A {@link GraphQLCursorCodec} that encodes cursors to a compact, versioned binary format which is Base64url encoded without padding.
+ * Only tuple values of the common JDBC types are supported i.e. strings, numbers, booleans, characters, byte arrays, {@link UUID}
+ * as well as the {@link java.util.Date}, {@link java.sql} and {@link java.time} date and time types.
+ *
+ * The format starts with a version byte, followed by the variable length encoded offset, page size and tuple length.
+ * Every tuple element is encoded as type tag followed by the value.
+ *
+ * @author Christian Beikov
+ * @since 1.6.19
+ */
+public class BinaryGraphQLCursorCodec implements GraphQLCursorCodec {
+
+    /**
+     * The current version of the binary format.
+     */
+    public static final byte VERSION = 1;
+
+    private static final byte NULL = 0;
+    private static final byte FALSE = 1;
+    private static final byte TRUE = 2;
+    private static final byte BYTE = 3;
+    private static final byte SHORT = 4;
+    private static final byte INTEGER = 5;
+    private static final byte LONG = 6;
+    private static final byte FLOAT = 7;
+    private static final byte DOUBLE = 8;
+    private static final byte CHARACTER = 9;
+    private static final byte STRING = 10;
+    private static final byte BIG_INTEGER = 11;
+    private static final byte BIG_DECIMAL = 12;
+    private static final byte BYTE_ARRAY = 13;
+    private static final byte UUID_TYPE = 14;
+    private static final byte UTIL_DATE = 15;
+    private static final byte SQL_DATE = 16;
+    private static final byte SQL_TIME = 17;
+    private static final byte SQL_TIMESTAMP = 18;
+    private static final byte LOCAL_DATE = 19;
+    private static final byte LOCAL_TIME = 20;
+    private static final byte LOCAL_DATE_TIME = 21;
+    private static final byte INSTANT = 22;
+    private static final byte OFFSET_TIME = 23;
+    private static final byte OFFSET_DATE_TIME = 24;
+    private static final byte ZONED_DATE_TIME = 25;
+
+    private static final Map<Class<?>, Byte> TYPE_TAGS;
+
+    static {
+        Map<Class<?>, Byte> typeTags = new HashMap<>();
+        typeTags.put(Byte.class, BYTE);
+        typeTags.put(Short.class, SHORT);
+        typeTags.put(Integer.class, INTEGER);
+        typeTags.put(Long.class, LONG);
+        typeTags.put(Float.class, FLOAT);
+        typeTags.put(Double.class, DOUBLE);
+        typeTags.put(Character.class, CHARACTER);
+        typeTags.put(String.class, STRING);
+        typeTags.put(BigInteger.class, BIG_INTEGER);
+        typeTags.put(BigDecimal.class, BIG_DECIMAL);
+        typeTags.put(byte[].class, BYTE_ARRAY);
+        typeTags.put(UUID.class, UUID_TYPE);
+        typeTags.put(java.util.Date.class, UTIL_DATE);
+        typeTags.put(java.sql.Date.class, SQL_DATE);
+        typeTags.put(java.sql.Time.class, SQL_TIME);
+        typeTags.put(java.sql.Timestamp.class, SQL_TIMESTAMP);
+        typeTags.put(LocalDate.class, LOCAL_DATE);
+        typeTags.put(LocalTime.class, LOCAL_TIME);
+        typeTags.put(LocalDateTime.class, LOCAL_DATE_TIME);
+        typeTags.put(Instant.class, INSTANT);
+        typeTags.put(OffsetTime.class, OFFSET_TIME);
+        typeTags.put(OffsetDateTime.class, OFFSET_DATE_TIME);
+        typeTags.put(ZonedDateTime.class, ZONED_DATE_TIME);
+        TYPE_TAGS = typeTags;
+    }
+
+    @Override
+    public String encode(GraphQLCursor cursor) {
+        Serializable[] tuple = cursor.getTuple();
+        Writer writer = new Writer(tuple == null ? 8 : 8 + tuple.length * 9);
+        writer.writeByte(VERSION);
+        writer.writeVarLong(cursor.getOffset());
+        writer.writeVarLong(cursor.getPageSize());
+        if (tuple == null) {
+            writer.writeVarLong(0);
+        } else {
+            writer.writeVarLong(tuple.length + 1L);
+            for (int i = 0; i < tuple.length; i++) {
+                writeValue(writer, tuple[i]);
+            }
+        }
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(writer.toByteArray());
+    }
+
+    @Override
+    public GraphQLCursor decode(String cursor) {
+        byte[] bytes;
+        try {
+            bytes = Base64.getUrlDecoder().decode(cursor);
+        } catch (IllegalArgumentException ex) {
+            throw new IllegalArgumentException("Couldn't read cursor", ex);
+        }
+        if (bytes.length == 0 || bytes[0] != VERSION) {
+            throw new IllegalArgumentException("Unsupported cursor format version: " + (bytes.length == 0 ? "none" : Byte.toString(bytes[0])));
+        }
+        Reader reader = new Reader(bytes, 1);
+        try {
+            int offset = toInt(reader.readVarLong());
+            int pageSize = toInt(reader.readVarLong());
+            int tupleLength = toInt(reader.readVarLong()) - 1;
+            Serializable[] tuple;
+            if (tupleLength > bytes.length - reader.position) {
+                throw new IllegalArgumentException("Invalid tuple length in cursor: " + tupleLength);
+            } else if (tupleLength == -1) {
+                tuple = null;
+            } else {
+                tuple = new Serializable[tupleLength];
+                for (int i = 0; i < tupleLength; i++) {
+                    tuple[i] = readValue(reader);
+                }
+            }
+            if (reader.position != bytes.length) {
+                throw new IllegalArgumentException("Unexpected trailing data");
+            }
+            return new GraphQLCursor(offset, pageSize, tuple);
+        } catch (ArrayIndexOutOfBoundsException | DateTimeException ex) {
+            throw new IllegalArgumentException("Couldn't read cursor", ex);
+        }
+    }
+
+    private static void writeValue(Writer writer, Serializable value) {
+        if (value == null) {
+            writer.writeByte(NULL);
+            return;
+        } else if (value instanceof Boolean) {
+            writer.writeByte((Boolean) value ? TRUE : FALSE);
+            return;
+        }
+        Byte tag = TYPE_TAGS.get(value.getClass());
+        if (tag == null) {
+            throw new IllegalArgumentException("Unsupported cursor value type: " + value.getClass().getName());
+        }
+        writer.writeByte(tag);
+        switch (tag) {
+            case BYTE:
+                writer.writeByte((Byte) value);
+                break;
+            case SHORT:
+                writer.writeZigZag((Short) value);
+                break;
+            case INTEGER:
+                writer.writeZigZag((Integer) value);
+                break;
+            case LONG:
+                writer.writeZigZag((Long) value);
+                break;
+            case FLOAT:
+                writer.writeFixed(Float.floatToIntBits((Float) value), 4);
+                break;
+            case DOUBLE:
+                writer.writeFixed(Double.doubleToLongBits((Double) value), 8);
+                break;
+            case CHARACTER:
+                writer.writeVarLong((Character) value);
+                break;
+            case STRING:
+                writer.writeBytes(((String) value).getBytes(StandardCharsets.UTF_8));
+                break;
+            case BIG_INTEGER:
+                writer.writeBytes(((BigInteger) value).toByteArray());
+                break;
+            case BIG_DECIMAL:
+                BigDecimal bigDecimal = (BigDecimal) value;
+                writer.writeZigZag(bigDecimal.scale());
+                writer.writeBytes(bigDecimal.unscaledValue().toByteArray());
+                break;
+            case BYTE_ARRAY:
+                writer.writeBytes((byte[]) value);
+                break;
+            case UUID_TYPE:
+                UUID uuid = (UUID) value;
+                writer.writeFixed(uuid.getMostSignificantBits(), 8);
+                writer.writeFixed(uuid.getLeastSignificantBits(), 8);
+                break;
+            case UTIL_DATE:
+            case SQL_DATE:
+            case SQL_TIME:
+                writer.writeZigZag(((java.util.Date) value).getTime());
+                break;
+            case SQL_TIMESTAMP:
+                java.sql.Timestamp timestamp = (java.sql.Timestamp) value;
+                writer.writeZigZag(timestamp.getTime());
+                writer.writeVarLong(timestamp.getNanos());
+                break;
+            case LOCAL_DATE:
+                writer.writeZigZag(((LocalDate) value).toEpochDay());
+                break;
+            case LOCAL_TIME:
+                writer.writeVarLong(((LocalTime) value).toNanoOfDay());
+                break;
+            case LOCAL_DATE_TIME:
+                writeLocalDateTime(writer, (LocalDateTime) value);
+                break;
+            case INSTANT:
+                Instant instant = (Instant) value;
+                writer.writeZigZag(instant.getEpochSecond());
+                writer.writeVarLong(instant.getNano());
+                break;
+            case OFFSET_TIME:
+                OffsetTime offsetTime = (OffsetTime) value;
+                writer.writeVarLong(offsetTime.toLocalTime().toNanoOfDay());
+                writer.writeZigZag(offsetTime.getOffset().getTotalSeconds());
+                break;
+            case OFFSET_DATE_TIME:
+                OffsetDateTime offsetDateTime = (OffsetDateTime) value;
+                writeLocalDateTime(writer, offsetDateTime.toLocalDateTime());
+                writer.writeZigZag(offsetDateTime.getOffset().getTotalSeconds());
+                break;
+            case ZONED_DATE_TIME:
+                ZonedDateTime zonedDateTime = (ZonedDateTime) value;
+                writeLocalDateTime(writer, zonedDateTime.toLocalDateTime());
+                writer.writeZigZag(zonedDateTime.getOffset().getTotalSeconds());
+                writer.writeBytes(zonedDateTime.getZone().getId().getBytes(StandardCharsets.UTF_8));
+                break;
+            default:
+                throw new IllegalStateException("Unhandled type tag: " + tag);
+        }
+    }
+
+    private static Serializable readValue(Reader reader) {
+        byte tag = reader.readByte();
+        switch (tag) {
+            case NULL:
+                return null;
+            case FALSE:
+                return Boolean.FALSE;
+            case TRUE:
+                return Boolean.TRUE;
+            case BYTE:
+                return reader.readByte();
+            case SHORT:
+                return (short) reader.readZigZag();
+            case INTEGER:
+                return (int) reader.readZigZag();
+            case LONG:
+                return reader.readZigZag();
+            case FLOAT:
+                return Float.intBitsToFloat((int) reader.readFixed(4));
+            case DOUBLE:
+                return Double.longBitsToDouble(reader.readFixed(8));
+            case CHARACTER:
+                return (char) reader.readVarLong();
+            case STRING:
+                return reader.readString();
+            case BIG_INTEGER:
+                return new BigInteger(reader.readBytes());
+            case BIG_DECIMAL:
+                int scale = (int) reader.readZigZag();
+                return new BigDecimal(new BigInteger(reader.readBytes()), scale);
+            case BYTE_ARRAY:
+                return reader.readBytes();
+            case UUID_TYPE:
+                return new UUID(reader.readFixed(8), reader.readFixed(8));
+            case UTIL_DATE:
+                return new java.util.Date(reader.readZigZag());
+            case SQL_DATE:
+                return new java.sql.Date(reader.readZigZag());
+            case SQL_TIME:
+                return new java.sql.Time(reader.readZigZag());
+            case SQL_TIMESTAMP:
+                java.sql.Timestamp timestamp = new java.sql.Timestamp(reader.readZigZag());
+                timestamp.setNanos((int) reader.readVarLong());
+                return timestamp;
+            case LOCAL_DATE:
+                return LocalDate.ofEpochDay(reader.readZigZag());
+            case LOCAL_TIME:
+                return LocalTime.ofNanoOfDay(reader.readVarLong());
+            case LOCAL_DATE_TIME:
+                return readLocalDateTime(reader);
+            case INSTANT:
+                long seconds = reader.readZigZag();
+                return Instant.ofEpochSecond(seconds, reader.readVarLong());
+            case OFFSET_TIME:
+                LocalTime localTime = LocalTime.ofNanoOfDay(reader.readVarLong());
+                return OffsetTime.of(localTime, ZoneOffset.ofTotalSeconds((int) reader.readZigZag()));
+            case OFFSET_DATE_TIME:
+                LocalDateTime localDateTime = readLocalDateTime(reader);
+                return OffsetDateTime.of(localDateTime, ZoneOffset.ofTotalSeconds((int) reader.readZigZag()));
+            case ZONED_DATE_TIME:
+                LocalDateTime zonedLocalDateTime = readLocalDateTime(reader);
+                ZoneOffset offset = ZoneOffset.ofTotalSeconds((int) reader.readZigZag());
+                return ZonedDateTime.ofLocal(zonedLocalDateTime, ZoneId.of(reader.readString()), offset);
+            default:
+                throw new IllegalArgumentException("Unknown cursor value type tag: " + tag);
+        }
+    }
+
+    private static void writeLocalDateTime(Writer writer, LocalDateTime localDateTime) {
+        writer.writeZigZag(localDateTime.toLocalDate().toEpochDay());
+        writer.writeVarLong(localDateTime.toLocalTime().toNanoOfDay());
+    }
+
+    private static LocalDateTime readLocalDateTime(Reader reader) {
+        LocalDate localDate = LocalDate.ofEpochDay(reader.readZigZag());
+        return LocalDateTime.of(localDate, LocalTime.ofNanoOfDay(reader.readVarLong()));
+    }
+
+    private static int toInt(long value) {
+        if (value < 0 || value > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("Invalid cursor length or offset: " + value);
+        }
+        return (int) value;
+    }
+
+    /**
+     * A growable byte buffer with support for variable length encoded numbers.
+     *
+     * @author Christian Beikov
+     * @since 1.6.19
+     */
+    private static final class Writer {
+
+        private byte[] buffer;
+        private int position;
+
+        public Writer(int initialCapacity) {
+            this.buffer = new byte[initialCapacity];
+        }
+
+        public void writeByte(byte value) {
+            ensureCapacity(1);
+            buffer[position++] = value;
+        }
+
+        public void writeVarLong(long value) {
+            ensureCapacity(10);
+            while ((value & ~0x7FL) != 0) {
+                buffer[position++] = (byte) ((value & 0x7F) | 0x80);
+                value >>>= 7;
+            }
+            buffer[position++] = (byte) value;
+        }
+
+        public void writeZigZag(long value) {
+            writeVarLong((value << 1) ^ (value >> 63));
+        }
+
+        public void writeFixed(long value, int bytes) {
+            ensureCapacity(bytes);
+            for (int i = (bytes - 1) * 8; i >= 0; i -= 8) {
+                buffer[position++] = (byte) (value >>> i);
+            }
+        }
+
+        public void writeBytes(byte[] bytes) {
+            writeVarLong(bytes.length);
+            ensureCapacity(bytes.length);
+            System.arraycopy(bytes, 0, buffer, position, bytes.length);
+            position += bytes.length;
+        }
+
+        public byte[] toByteArray() {
+            return Arrays.copyOf(buffer, position);
+        }
+
+        private void ensureCapacity(int additional) {
+            if (position + additional > buffer.length) {
+                buffer = Arrays.copyOf(buffer, Math.max(buffer.length << 1, position + additional));
+            }
+        }
+    }
+
+    /**
+     * A reader for the format produced by {@link Writer}.
+     *
+     * @author Christian Beikov
+     * @since 1.6.19
+     */
+    private static final class Reader {
+
+        private final byte[] buffer;
+        private int position;
+
+        public Reader(byte[] buffer, int position) {
+            this.buffer = buffer;
+            this.position = position;
+        }
+
+        public byte readByte() {
+            return buffer[position++];
+        }
+
+        public long readVarLong() {
+            long value = 0;
+            for (int shift = 0; shift < 64; shift += 7) {
+                byte b = buffer[position++];
+                value |= (long) (b & 0x7F) << shift;
+                if ((b & 0x80) == 0) {
+                    return value;
+                }
+            }
+            throw new IllegalArgumentException("Malformed variable length number in cursor");
+        }
+
+        public long readZigZag() {
+            long value = readVarLong();
+            return (value >>> 1) ^ -(value & 1);
+        }
+
+        public long readFixed(int bytes) {
+            long value = 0;
+            for (int i = 0; i < bytes; i++) {
+                value = (value << 8) | (buffer[position++] & 0xFF);
+            }
+            return value;
+        }
+
+        public byte[] readBytes() {
+            int length = toInt(readVarLong());
+            if (length > buffer.length - position) {
+                throw new IllegalArgumentException("Invalid length in cursor: " + length);
+            }
+            byte[] bytes = Arrays.copyOfRange(buffer, position, position + length);
+            position += length;
+            return bytes;
+        }
+
+        public String readString() {
+            int length = toInt(readVarLong());
+            if (length > buffer.length - position) {
+                throw new IllegalArgumentException("Invalid length in cursor: " + length);
+            }
+            String string = new String(buffer, position, length, StandardCharsets.UTF_8);
+            position += length;
+            return string;
+        }
+    }
+}
@@ -0,0 +1,34 @@
+/*
+ * SPDX-License-Identifier: Apache-2.0
+ * Copyright Blazebit
+ */
+
+package com.blazebit.persistence.integration.graphql;
+
+/**
+ * Encodes {@link GraphQLCursor} objects to the opaque string representation that is exposed to GraphQL clients and decodes them again.
+ *
+ * @author Christian Beikov
+ * @since 1.6.19
+ * @see JavaSerializationGraphQLCursorCodec
+ * @see BinaryGraphQLCursorCodec
+ */
+public interface GraphQLCursorCodec {
+
+    /**
+     * Encodes the given cursor to a string.
+     *
+     * @param cursor The cursor to encode
+     * @return the encoded cursor
+     */
+    public String encode(GraphQLCursor cursor);
+
+    /**
+     * Decodes the given string to a cursor.
+     *
+     * @param cursor The encoded cursor
+     * @return a new cursor
+     * @throws IllegalArgumentException When the cursor can't be decoded
+     */
+    public GraphQLCursor decode(String cursor);
+}
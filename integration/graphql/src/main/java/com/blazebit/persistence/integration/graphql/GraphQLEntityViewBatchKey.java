@@ -0,0 +1,151 @@
+/*
+ * SPDX-License-Identifier: Apache-2.0
+ * Copyright Blazebit
+ */
+
+package com.blazebit.persistence.integration.graphql;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * The key for loading an entity view through a {@link GraphQLEntityViewBatchLoader}.
+ * A key either refers to the entity view with a specific entity id, or to the list of entity views of which the parent attribute has a specific value.
+ * Keys with the same entity view class and parent attribute are loaded with a single query, even if they have different fetches.
+ *
+ * @author Christian Beikov
+ * @since 1.6.19
+ */
+public final class GraphQLEntityViewBatchKey {
+
+    private final Class<?> entityViewClass;
+    private final Set<String> fetches;
+    private final String parentAttribute;
+    private final Object key;
+
+    /**
+     * Creates a new key for the entity view with the given entity id.
+     *
+     * @param entityViewClass The entity view class
+     * @param fetches The attributes to fetch
+     * @param entityId The entity id
+     */
+    public GraphQLEntityViewBatchKey(Class<?> entityViewClass, Collection<String> fetches, Object entityId) {
+        if (entityViewClass == null) {
+            throw new IllegalArgumentException("Invalid null entity view class given!");
+        }
+        if (entityId == null) {
+            throw new IllegalArgumentException("Invalid null entity id given!");
+        }
+        this.entityViewClass = entityViewClass;
+        this.fetches = fetches.isEmpty() ? Collections.<String>emptySet() : Collections.unmodifiableSet(new HashSet<>(fetches));
+        this.parentAttribute = null;
+        this.key = entityId;
+    }
+
+    /**
+     * Creates a new key for the list of entity views of which the given parent attribute has the given value.
+     * The parent attribute must be a singular attribute with a path mapping, like <code>@Mapping("owner.id") Long getOwnerId()</code>.
+     *
+     * @param entityViewClass The entity view class
+     * @param fetches The attributes to fetch
+     * @param parentAttribute The name of the entity view attribute that refers to the parent
+     * @param parentKey The value of the parent attribute
+     */
+    public GraphQLEntityViewBatchKey(Class<?> entityViewClass, Collection<String> fetches, String parentAttribute, Object parentKey) {
+        if (entityViewClass == null) {
+            throw new IllegalArgumentException("Invalid null entity view class given!");
+        }
+        if (parentAttribute == null) {
+            throw new IllegalArgumentException("Invalid null parent attribute given!");
+        }
+        if (parentKey == null) {
+            throw new IllegalArgumentException("Invalid null parent key given!");
+        }
+        this.entityViewClass = entityViewClass;
+        this.fetches = fetches.isEmpty() ? Collections.<String>emptySet() : Collections.unmodifiableSet(new HashSet<>(fetches));
+        this.parentAttribute = parentAttribute;
+        this.key = parentKey;
+    }
+
+    /**
+     * Returns the entity view class.
+     *
+     * @return the entity view class
+     */
+    public Class<?> getEntityViewClass() {
+        return entityViewClass;
+    }
+
+    /**
+     * Returns the attributes to fetch.
+     *
+     * @return the attributes to fetch
+     */
+    public Set<String> getFetches() {
+        return fetches;
+    }
+
+    /**
+     * Returns the entity id or <code>null</code> if this key refers to the entity views of a parent.
+     *
+     * @return the entity id or <code>null</code> if this key refers to the entity views of a parent
+     */
+    public Object getEntityId() {
+        return parentAttribute == null ? key : null;
+    }
+
+    /**
+     * Returns the name of the entity view attribute that refers to the parent or <code>null</code> if this key refers to an entity id.
+     *
+     * @return the name of the entity view attribute that refers to the parent or <code>null</code> if this key refers to an entity id
+     */
+    public String getParentAttribute() {
+        return parentAttribute;
+    }
+
+    /**
+     * Returns the value of the parent attribute or <code>null</code> if this key refers to an entity id.
+     *
+     * @return the value of the parent attribute or <code>null</code> if this key refers to an entity id
+     */
+    public Object getParentKey() {
+        return parentAttribute == null ? null : key;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof GraphQLEntityViewBatchKey)) {
+            return false;
+        }
+
+        GraphQLEntityViewBatchKey that = (GraphQLEntityViewBatchKey) o;
+        return entityViewClass.equals(that.entityViewClass)
+                && fetches.equals(that.fetches)
+                && (parentAttribute == null ? that.parentAttribute == null : parentAttribute.equals(that.parentAttribute))
+                && key.equals(that.key);
+    }
+
+    @Override
+    public int hashCode() {
+        int result = entityViewClass.hashCode();
+        result = 31 * result + fetches.hashCode();
+        result = 31 * result + (parentAttribute == null ? 0 : parentAttribute.hashCode());
+        result = 31 * result + key.hashCode();
+        return result;
+    }
+
+    @Override
+    public String toString() {
+        return "GraphQLEntityViewBatchKey{"
+                + "entityViewClass=" + entityViewClass.getName()
+                + ", fetches=" + fetches
+                + (parentAttribute == null ? ", entityId=" + key : ", parentAttribute=" + parentAttribute + ", parentKey=" + key)
+                + '}';
+    }
+}
@@ -0,0 +1,209 @@
+/*
+ * SPDX-License-Identifier: Apache-2.0
+ * Copyright Blazebit
+ */
+
+package com.blazebit.persistence.integration.graphql;
+
+import com.blazebit.persistence.CriteriaBuilder;
+import com.blazebit.persistence.CriteriaBuilderFactory;
+import com.blazebit.persistence.view.EntityViewManager;
+import com.blazebit.persistence.view.EntityViewSetting;
+import com.blazebit.persistence.view.metamodel.ManagedViewType;
+import com.blazebit.persistence.view.metamodel.MappingAttribute;
+import com.blazebit.persistence.view.metamodel.MethodAttribute;
+import org.dataloader.MappedBatchLoader;
+
+import javax.persistence.EntityManager;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+
+/**
+ * A batch loader for a {@link org.dataloader.DataLoader} that loads entity views by {@link GraphQLEntityViewBatchKey}.
+ * All keys that are collected until the data loader is dispatched are grouped by entity view class and parent attribute,
+ * and every group is loaded with a single query that fetches the union of the fetches of the keys.
+ * Keys that refer to an entity id are loaded with {@link EntityViewManager#findAll(EntityManager, EntityViewSetting, java.util.Collection)}
+ * and are mapped to <code>null</code> if no entity exists.
+ * Keys that refer to a parent are loaded with a query that restricts the mapping of the parent attribute to the parent keys
+ * and are mapped to the list of entity views of the parent in no particular order, which is empty if there are none.
+ *
+ * Since the entity manager is not thread safe, the loader is supposed to be created per request, like the data loader it is used with.
+ *
+ * @author Christian Beikov
+ * @since 1.6.19
+ */
+public class GraphQLEntityViewBatchLoader implements MappedBatchLoader<GraphQLEntityViewBatchKey, Object> {
+
+    private final EntityViewManager entityViewManager;
+    private final EntityManager entityManager;
+
+    /**
+     * Creates a new batch loader.
+     *
+     * @param entityViewManager The entity view manager
+     * @param entityManager The entity manager to use for querying
+     */
+    public GraphQLEntityViewBatchLoader(EntityViewManager entityViewManager, EntityManager entityManager) {
+        this.entityViewManager = entityViewManager;
+        this.entityManager = entityManager;
+    }
+
+    @Override
+    public CompletionStage<Map<GraphQLEntityViewBatchKey, Object>> load(Set<GraphQLEntityViewBatchKey> keys) {
+        Map<GraphQLEntityViewBatchKey, Object> result = new HashMap<>(keys.size());
+        try {
+            Map<Class<?>, Map<String, List<GraphQLEntityViewBatchKey>>> keysByViewClass = new LinkedHashMap<>();
+            for (GraphQLEntityViewBatchKey key : keys) {
+                Map<String, List<GraphQLEntityViewBatchKey>> keysByParentAttribute = keysByViewClass.get(key.getEntityViewClass());
+                if (keysByParentAttribute == null) {
+                    keysByParentAttribute = new LinkedHashMap<>();
+                    keysByViewClass.put(key.getEntityViewClass(), keysByParentAttribute);
+                }
+                List<GraphQLEntityViewBatchKey> groupKeys = keysByParentAttribute.get(key.getParentAttribute());
+                if (groupKeys == null) {
+                    groupKeys = new ArrayList<>();
+                    keysByParentAttribute.put(key.getParentAttribute(), groupKeys);
+                }
+                groupKeys.add(key);
+            }
+            for (Map.Entry<Class<?>, Map<String, List<GraphQLEntityViewBatchKey>>> entry : keysByViewClass.entrySet()) {
+                for (Map.Entry<String, List<GraphQLEntityViewBatchKey>> groupEntry : entry.getValue().entrySet()) {
+                    if (groupEntry.getKey() == null) {
+                        loadByEntityId(entry.getKey(), groupEntry.getValue(), result);
+                    } else {
+                        loadByParent(entry.getKey(), groupEntry.getKey(), groupEntry.getValue(), result);
+                    }
+                }
+            }
+        } catch (RuntimeException ex) {
+            CompletableFuture<Map<GraphQLEntityViewBatchKey, Object>> future = new CompletableFuture<>();
+            future.completeExceptionally(ex);
+            return future;
+        }
+        return CompletableFuture.completedFuture(result);
+    }
+
+    private void loadByEntityId(Class<?> entityViewClass, List<GraphQLEntityViewBatchKey> keys, Map<GraphQLEntityViewBatchKey, Object> result) {
+        Set<Object> entityIdSet = new LinkedHashSet<>(keys.size());
+        for (int i = 0; i < keys.size(); i++) {
+            entityIdSet.add(keys.get(i).getEntityId());
+        }
+        List<Object> entityIds = new ArrayList<>(entityIdSet);
+        List<?> entityViews = loadAll(entityViewClass, mergeFetches(keys), entityIds);
+        Map<Object, Object> entityViewsById = new HashMap<>(entityIds.size());
+        for (int i = 0; i < entityIds.size(); i++) {
+            Object entityView = entityViews.get(i);
+            if (entityView != null) {
+                entityViewsById.put(entityIds.get(i), entityView);
+            }
+        }
+        for (int i = 0; i < keys.size(); i++) {
+            Object entityView = entityViewsById.get(keys.get(i).getEntityId());
+            if (entityView != null) {
+                result.put(keys.get(i), entityView);
+            }
+        }
+    }
+
+    private void loadByParent(Class<?> entityViewClass, String parentAttribute, List<GraphQLEntityViewBatchKey> keys, Map<GraphQLEntityViewBatchKey, Object> result) {
+        Set<Object> parentKeySet = new LinkedHashSet<>(keys.size());
+        for (int i = 0; i < keys.size(); i++) {
+            parentKeySet.add(keys.get(i).getParentKey());
+        }
+        Map<Object, List<Object>> entityViewsByParentKey = loadAllByParent(entityViewClass, mergeFetches(keys), parentAttribute, new ArrayList<>(parentKeySet));
+        for (int i = 0; i < keys.size(); i++) {
+            List<Object> entityViews = entityViewsByParentKey.get(keys.get(i).getParentKey());
+            result.put(keys.get(i), entityViews == null ? Collections.emptyList() : entityViews);
+        }
+    }
+
+    private static Set<String> mergeFetches(List<GraphQLEntityViewBatchKey> keys) {
+        Set<String> fetches = new HashSet<>();
+        for (int i = 0; i < keys.size(); i++) {
+            Set<String> keyFetches = keys.get(i).getFetches();
+            // No fetches means that all attributes are fetched, so there is nothing to merge
+            if (keyFetches.isEmpty()) {
+                return Collections.emptySet();
+            }
+            fetches.addAll(keyFetches);
+        }
+        return fetches;
+    }
+
+    /**
+     * Loads the entity views of the given entity view class with the given fetches for the given entity ids.
+     *
+     * @param entityViewClass The entity view class
+     * @param fetches The attributes to fetch
+     * @param entityIds The distinct entity ids
+     * @return The entity views in the order of the given entity ids, with <code>null</code> for ids for which no entity exists
+     */
+    @SuppressWarnings("unchecked")
+    protected List<?> loadAll(Class<?> entityViewClass, Set<String> fetches, List<Object> entityIds) {
+        EntityViewSetting<Object, CriteriaBuilder<Object>> setting = EntityViewSetting.create((Class<Object>) entityViewClass);
+        for (String fetch : fetches) {
+            setting.fetch(fetch);
+        }
+        return entityViewManager.findAll(entityManager, setting, entityIds);
+    }
+
+    /**
+     * Loads the entity views of the given entity view class with the given fetches of which the given parent attribute has one of the given values.
+     *
+     * @param entityViewClass The entity view class
+     * @param fetches The attributes to fetch
+     * @param parentAttribute The name of the entity view attribute that refers to the parent
+     * @param parentKeys The distinct values of the parent attribute
+     * @return The entity views grouped by the value of the parent attribute
+     */
+    @SuppressWarnings("unchecked")
+    protected Map<Object, List<Object>> loadAllByParent(Class<?> entityViewClass, Set<String> fetches, String parentAttribute, List<Object> parentKeys) {
+        ManagedViewType<?> viewType = entityViewManager.getMetamodel().managedView(entityViewClass);
+        if (viewType == null) {
+            throw new IllegalArgumentException("The class '" + entityViewClass.getName() + "' is not a registered entity view type!");
+        }
+        MethodAttribute<?, ?> attribute = viewType.getAttribute(parentAttribute);
+        if (!(attribute instanceof MappingAttribute<?, ?>) || attribute.isCollection()) {
+            throw new IllegalArgumentException("The parent attribute '" + parentAttribute + "' of the entity view type '" + entityViewClass.getName() + "' is not a singular attribute with a mapping!");
+        }
+        CriteriaBuilder<Object> criteriaBuilder = entityViewManager.getService(CriteriaBuilderFactory.class).create(entityManager, (Class<Object>) viewType.getEntityClass());
+        criteriaBuilder.where(((MappingAttribute<?, ?>) attribute).getMapping()).in(parentKeys);
+        EntityViewSetting<Object, CriteriaBuilder<Object>> setting = EntityViewSetting.create((Class<Object>) entityViewClass);
+        if (!fetches.isEmpty()) {
+            for (String fetch : fetches) {
+                setting.fetch(fetch);
+            }
+            // The parent attribute is needed to group the results
+            setting.fetch(parentAttribute);
+        }
+        List<Object> entityViews = entityViewManager.applySetting(setting, criteriaBuilder).getResultList();
+        Method getter = attribute.getJavaMethod();
+        Map<Object, List<Object>> entityViewsByParentKey = new HashMap<>(parentKeys.size());
+        for (Object entityView : entityViews) {
+            Object parentKey;
+            try {
+                parentKey = getter.invoke(entityView);
+            } catch (IllegalAccessException | InvocationTargetException ex) {
+                throw new RuntimeException("Couldn't read the parent attribute '" + parentAttribute + "' of the entity view type '" + entityViewClass.getName() + "'", ex);
+            }
+            List<Object> parentEntityViews = entityViewsByParentKey.get(parentKey);
+            if (parentEntityViews == null) {
+                parentEntityViews = new ArrayList<>();
+                entityViewsByParentKey.put(parentKey, parentEntityViews);
+            }
+            parentEntityViews.add(entityView);
+        }
+        return entityViewsByParentKey;
+    }
+}
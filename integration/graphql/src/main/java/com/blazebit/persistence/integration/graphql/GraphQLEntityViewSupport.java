@@ -5,6 +5,7 @@
 
 package com.blazebit.persistence.integration.graphql;
 
+import com.blazebit.persistence.CacheStatistics;
 import com.blazebit.persistence.CriteriaBuilder;
 import com.blazebit.persistence.DefaultKeyset;
 import com.blazebit.persistence.DefaultKeysetPage;
@@ -12,10 +13,17 @@ import com.blazebit.persistence.Keyset;
 import com.blazebit.persistence.KeysetPage;
 import com.blazebit.persistence.PagedList;
 import com.blazebit.persistence.PaginatedCriteriaBuilder;
+import com.blazebit.persistence.impl.util.BoundedCache;
 import com.blazebit.persistence.view.ConfigurationProperties;
 import com.blazebit.persistence.view.EntityViewSetting;
 import com.blazebit.persistence.view.metamodel.ManagedViewType;
 import com.blazebit.persistence.view.metamodel.ViewType;
+import graphql.execution.ExecutionStepInfo;
+import graphql.language.Argument;
+import graphql.language.Directive;
+import graphql.language.Node;
+import graphql.language.OperationDefinition;
+import graphql.language.VariableReference;
 import graphql.relay.Connection;
 import graphql.relay.DefaultConnection;
 import graphql.relay.DefaultConnectionCursor;
@@ -37,17 +45,13 @@ import graphql.schema.GraphQLUnionType;
 import graphql.schema.GraphQLUnmodifiedType;
 import graphql.schema.SelectedField;
 
-import java.io.ByteArrayInputStream;
-import java.io.ByteArrayOutputStream;
-import java.io.IOException;
-import java.io.ObjectInputStream;
-import java.io.ObjectOutputStream;
 import java.io.Serializable;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Base64;
 import java.util.Collections;
 import java.util.HashSet;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
@@ -109,8 +113,12 @@ public class GraphQLEntityViewSupport {
     private final Map<String, Map<String, String>> typeNameToFieldMapping;
     private final Map<String, Set<DefaultFetchMapping>> typeNameToDefaultFetchMappings;
     private final Set<String> serializableBasicTypes;
+    private final GraphQLCursorCodec cursorCodec;
+    private final JavaSerializationGraphQLCursorCodec javaSerializationCursorCodec;
     private final ConcurrentMap<TypeRootCacheKey, GraphQLUnmodifiedType> typeReferenceCache = new ConcurrentHashMap<>();
     private final ConcurrentMap<String, String[]> selectedFieldCache = new ConcurrentHashMap<>();
+    private final BoundedCache<FetchCacheKey, String[]> fetchCache;
+    private final BoundedCache<OperationDefinition, String[]> conditionVariableNamesCache;
 
     private final String pageSizeName;
     private final String offsetName;
@@ -125,7 +133,7 @@ public class GraphQLEntityViewSupport {
      * A default constructor to make this class proxyable.
      */
     GraphQLEntityViewSupport() {
-        this(null, null, null, null, null, null, null, null, null, null, null, null);
+        this(null, null, null, null, null, 0, null, null, null, null, null, null, null, null);
     }
 
     /**
@@ -226,6 +234,63 @@ public class GraphQLEntityViewSupport {
      * @param elementCursorName The name of the cursor field within elements
      */
     public GraphQLEntityViewSupport(Map<String, ManagedViewType<?>> typeNameToViewType, Map<String, Map<String, String>> typeNameToFieldMapping, Map<String, Set<DefaultFetchMapping>> typeNameToDefaultFetchMappings, Set<String> serializableBasicTypes, String pageSizeName, String offsetName, String beforeCursorName, String afterCursorName, String totalCountName, String pageElementsName, String pageElementObjectName, String elementCursorName) {
+        this(typeNameToViewType, typeNameToFieldMapping, typeNameToDefaultFetchMappings, serializableBasicTypes, null, pageSizeName, offsetName, beforeCursorName, afterCursorName, totalCountName, pageElementsName, pageElementObjectName, elementCursorName);
+    }
+
+    /**
+     * Creates a new {@link GraphQLEntityViewSupport} instance with the given type name to class mapping, serializable basic type whitelist and cursor codec.
+     * Cursors that were encoded with Java serialization are always accepted for decoding, as long as the contained types are part of the whitelist.
+     *
+     * @param typeNameToViewType The mapping from GraphQL type names to entity view metamodels
+     * @param typeNameToFieldMapping The mapping from GraphQL type names to a map from GraphQL field name to entity view attribute name
+     * @param typeNameToDefaultFetchMappings The mapping from GraphQL type names to a list of default fetch mappings
+     * @param serializableBasicTypes The whitelist of allowed serializable basic types to use for cursor deserialization
+     * @param cursorCodec The codec for encoding and decoding cursors or <code>null</code> to use Java serialization
+     * @param pageSizeName The name of the page size field
+     * @param offsetName The name of the offset field
+     * @param beforeCursorName The name of the beforeCursor field
+     * @param afterCursorName The name of the afterCursor field
+     * @param totalCountName The name of the totalCount field
+     * @param pageElementsName The name of the elements field
+     * @param pageElementObjectName The name of the element object field within elements
+     * @param elementCursorName The name of the cursor field within elements
+     * @since 1.6.19
+     */
+    public GraphQLEntityViewSupport(Map<String, ManagedViewType<?>> typeNameToViewType, Map<String, Map<String, String>> typeNameToFieldMapping, Map<String, Set<DefaultFetchMapping>> typeNameToDefaultFetchMappings, Set<String> serializableBasicTypes, GraphQLCursorCodec cursorCodec,
+                                    String pageSizeName, String offsetName, String beforeCursorName, String afterCursorName, String totalCountName, String pageElementsName, String pageElementObjectName, String elementCursorName) {
+        this(typeNameToViewType, typeNameToFieldMapping, typeNameToDefaultFetchMappings, serializableBasicTypes, cursorCodec, 0, pageSizeName, offsetName, beforeCursorName, afterCursorName, totalCountName, pageElementsName, pageElementObjectName, elementCursorName);
+    }
+
+    /**
+     * Creates a new {@link GraphQLEntityViewSupport} instance with the given type name to class mapping, serializable basic type whitelist, cursor codec and fetch cache size.
+     * If the fetch cache maximum size is positive, the fetches that are determined for a field of an operation are cached,
+     * which avoids inspecting the selection set when the same parsed operation document is executed again, e.g. when using a {@link graphql.execution.preparsed.PreparsedDocumentProvider}.
+     *
+     * @param typeNameToViewType The mapping from GraphQL type names to entity view metamodels
+     * @param typeNameToFieldMapping The mapping from GraphQL type names to a map from GraphQL field name to entity view attribute name
+     * @param typeNameToDefaultFetchMappings The mapping from GraphQL type names to a list of default fetch mappings
+     * @param serializableBasicTypes The whitelist of allowed serializable basic types to use for cursor deserialization
+     * @param cursorCodec The codec for encoding and decoding cursors or <code>null</code> to use Java serialization
+     * @param fetchCacheMaximumSize The maximum number of cached fetch sets or <code>0</code> to disable the cache
+     * @param pageSizeName The name of the page size field
+     * @param offsetName The name of the offset field
+     * @param beforeCursorName The name of the beforeCursor field
+     * @param afterCursorName The name of the afterCursor field
+     * @param totalCountName The name of the totalCount field
+     * @param pageElementsName The name of the elements field
+     * @param pageElementObjectName The name of the element object field within elements
+     * @param elementCursorName The name of the cursor field within elements
+     * @since 1.6.19
+     */
+    public GraphQLEntityViewSupport(Map<String, ManagedViewType<?>> typeNameToViewType, Map<String, Map<String, String>> typeNameToFieldMapping, Map<String, Set<DefaultFetchMapping>> typeNameToDefaultFetchMappings, Set<String> serializableBasicTypes, GraphQLCursorCodec cursorCodec, int fetchCacheMaximumSize,
+                                    String pageSizeName, String offsetName, String beforeCursorName, String afterCursorName, String totalCountName, String pageElementsName, String pageElementObjectName, String elementCursorName) {
+        if (fetchCacheMaximumSize > 0) {
+            this.fetchCache = new BoundedCache<>(fetchCacheMaximumSize);
+            this.conditionVariableNamesCache = new BoundedCache<>(fetchCacheMaximumSize);
+        } else {
+            this.fetchCache = null;
+            this.conditionVariableNamesCache = null;
+        }
         this.pageSizeName = pageSizeName;
         this.offsetName = offsetName;
         this.beforeCursorName = beforeCursorName;
@@ -236,6 +301,8 @@ public class GraphQLEntityViewSupport {
         this.typeNameToFieldMapping = typeNameToFieldMapping;
         this.typeNameToDefaultFetchMappings = typeNameToDefaultFetchMappings;
         this.serializableBasicTypes = serializableBasicTypes;
+        this.javaSerializationCursorCodec = new JavaSerializationGraphQLCursorCodec(serializableBasicTypes);
+        this.cursorCodec = cursorCodec == null ? javaSerializationCursorCodec : cursorCodec;
         this.pageElementObjectName = pageElementObjectName;
         this.elementCursorName = elementCursorName;
     }
@@ -575,6 +642,75 @@ public class GraphQLEntityViewSupport {
         return setting;
     }
 
+    /**
+     * Like calling {@link #createBatchKey(DataFetchingEnvironment, String, Object)} with an empty element root.
+     *
+     * @param dataFetchingEnvironment The GraphQL data fetching environment
+     * @param entityId The entity id
+     * @return the batch key
+     * @since 1.6.19
+     */
+    public GraphQLEntityViewBatchKey createBatchKey(DataFetchingEnvironment dataFetchingEnvironment, Object entityId) {
+        return createBatchKey(dataFetchingEnvironment, "", entityId);
+    }
+
+    /**
+     * Returns a new key for loading the entity view with the given entity id through a {@link org.dataloader.DataLoader}
+     * that uses a {@link GraphQLEntityViewBatchLoader}. The entity view class is determined by the type of the element root
+     * and the fetches are determined by the selection set, just like for {@link #createSetting(DataFetchingEnvironment, String)}.
+     *
+     * @param dataFetchingEnvironment The GraphQL data fetching environment
+     * @param elementRoot The field at which to find the elements for fetch extraction
+     * @param entityId The entity id
+     * @return the batch key
+     * @since 1.6.19
+     */
+    public GraphQLEntityViewBatchKey createBatchKey(DataFetchingEnvironment dataFetchingEnvironment, String elementRoot, Object entityId) {
+        EntityViewSetting<?, ?> setting = createBatchKeySetting(dataFetchingEnvironment, elementRoot);
+        return new GraphQLEntityViewBatchKey(setting.getEntityViewClass(), setting.getFetches(), entityId);
+    }
+
+    /**
+     * Like calling {@link #createBatchKeyByParent(DataFetchingEnvironment, String, String, Object)} with an empty element root.
+     *
+     * @param dataFetchingEnvironment The GraphQL data fetching environment
+     * @param parentAttribute The name of the entity view attribute that refers to the parent
+     * @param parentKey The value of the parent attribute
+     * @return the batch key
+     * @since 1.6.19
+     */
+    public GraphQLEntityViewBatchKey createBatchKeyByParent(DataFetchingEnvironment dataFetchingEnvironment, String parentAttribute, Object parentKey) {
+        return createBatchKeyByParent(dataFetchingEnvironment, "", parentAttribute, parentKey);
+    }
+
+    /**
+     * Returns a new key for loading the list of entity views of which the given parent attribute has the given value through a {@link org.dataloader.DataLoader}
+     * that uses a {@link GraphQLEntityViewBatchLoader}. The entity view class is determined by the type of the element root
+     * and the fetches are determined by the selection set, just like for {@link #createSetting(DataFetchingEnvironment, String)}.
+     *
+     * @param dataFetchingEnvironment The GraphQL data fetching environment
+     * @param elementRoot The field at which to find the elements for fetch extraction
+     * @param parentAttribute The name of the entity view attribute that refers to the parent
+     * @param parentKey The value of the parent attribute
+     * @return the batch key
+     * @since 1.6.19
+     */
+    public GraphQLEntityViewBatchKey createBatchKeyByParent(DataFetchingEnvironment dataFetchingEnvironment, String elementRoot, String parentAttribute, Object parentKey) {
+        EntityViewSetting<?, ?> setting = createBatchKeySetting(dataFetchingEnvironment, elementRoot);
+        return new GraphQLEntityViewBatchKey(setting.getEntityViewClass(), setting.getFetches(), parentAttribute, parentKey);
+    }
+
+    private EntityViewSetting<?, ?> createBatchKeySetting(DataFetchingEnvironment dataFetchingEnvironment, String elementRoot) {
+        String typeName = getElementTypeName(dataFetchingEnvironment, elementRoot);
+        ManagedViewType<?> entityViewClass = typeNameToViewType.get(typeName);
+        if (entityViewClass == null) {
+            throw new IllegalArgumentException("No entity view type is registered for the name: " + typeName);
+        }
+        EntityViewSetting<?, ?> setting = EntityViewSetting.create(entityViewClass.getJavaType());
+        applyFetches(dataFetchingEnvironment, setting, elementRoot);
+        return setting;
+    }
+
     /**
      * Extracts the {@link KeysetPage} from the {@link DataFetchingEnvironment} by extracting page size and offset,
      * as well as deserializing before or after cursors.
@@ -652,6 +788,75 @@ public class GraphQLEntityViewSupport {
      * @param elementRoot The field at which to find the elements for fetch extraction
      */
     public void applyFetches(DataFetchingEnvironment dataFetchingEnvironment, EntityViewSetting<?, ?> setting, String elementRoot) {
+        FetchCacheKey cacheKey = fetchCache == null ? null : createFetchCacheKey(dataFetchingEnvironment, elementRoot);
+        if (cacheKey != null) {
+            String[] cachedFetches = fetchCache.get(cacheKey);
+            if (cachedFetches != null) {
+                for (String fetch : cachedFetches) {
+                    setting.fetch(fetch);
+                }
+                return;
+            }
+        }
+        Set<String> fetches = new LinkedHashSet<>();
+        collectFetches(dataFetchingEnvironment, elementRoot, fetches);
+        for (String fetch : fetches) {
+            setting.fetch(fetch);
+        }
+        if (cacheKey != null) {
+            fetchCache.putIfAbsent(cacheKey, fetches.toArray(new String[0]));
+        }
+    }
+
+    /**
+     * Returns the statistics of the fetch cache or <code>null</code> if the cache is disabled.
+     *
+     * @return the statistics of the fetch cache
+     * @since 1.6.19
+     */
+    public CacheStatistics getFetchCacheStatistics() {
+        return fetchCache;
+    }
+
+    private FetchCacheKey createFetchCacheKey(DataFetchingEnvironment dataFetchingEnvironment, String elementRoot) {
+        OperationDefinition operationDefinition = dataFetchingEnvironment.getOperationDefinition();
+        ExecutionStepInfo executionStepInfo = dataFetchingEnvironment.getExecutionStepInfo();
+        if (operationDefinition == null || executionStepInfo == null || dataFetchingEnvironment.getDocument() == null) {
+            return null;
+        }
+        // The selection depends on the values of variables that are used in @skip or @include directives
+        String[] conditionVariableNames = conditionVariableNamesCache.get(operationDefinition);
+        if (conditionVariableNames == null) {
+            Set<String> variableNames = new LinkedHashSet<>();
+            collectConditionVariableNames(dataFetchingEnvironment.getDocument(), variableNames);
+            conditionVariableNames = variableNames.toArray(new String[0]);
+            conditionVariableNamesCache.putIfAbsent(operationDefinition, conditionVariableNames);
+        }
+        Object[] conditionVariableValues = new Object[conditionVariableNames.length];
+        if (conditionVariableNames.length != 0) {
+            Map<String, Object> variables = dataFetchingEnvironment.getVariables();
+            for (int i = 0; i < conditionVariableNames.length; i++) {
+                conditionVariableValues[i] = variables.get(conditionVariableNames[i]);
+            }
+        }
+        return new FetchCacheKey(operationDefinition, executionStepInfo.getPath().getKeysOnly(), elementRoot, conditionVariableValues);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static void collectConditionVariableNames(Node<?> node, Set<String> variableNames) {
+        if (node instanceof Directive && ("skip".equals(((Directive) node).getName()) || "include".equals(((Directive) node).getName()))) {
+            for (Argument argument : ((Directive) node).getArguments()) {
+                if (argument.getValue() instanceof VariableReference) {
+                    variableNames.add(((VariableReference) argument.getValue()).getName());
+                }
+            }
+        }
+        for (Node<?> child : (List<Node<?>>) (List<?>) node.getChildren()) {
+            collectConditionVariableNames(child, variableNames);
+        }
+    }
+
+    private void collectFetches(DataFetchingEnvironment dataFetchingEnvironment, String elementRoot, Set<String> resultFetches) {
         DataFetchingFieldSelectionSet selectionSet = dataFetchingEnvironment.getSelectionSet();
         GraphQLSchema graphQLSchema = dataFetchingEnvironment.getGraphQLSchema();
         OUTER:
@@ -659,9 +864,7 @@ public class GraphQLEntityViewSupport {
             String fqFieldName = field.getFullyQualifiedName();
             String[] resolvedFetches = selectedFieldCache.get(fqFieldName);
             if (resolvedFetches != null) {
-                for (String resolvedFetch : resolvedFetches) {
-                    setting.fetch(resolvedFetch);
-                }
+                resultFetches.addAll(Arrays.asList(resolvedFetches));
                 continue;
             }
             if (!isLeaf(field.getType())) {
@@ -769,13 +972,11 @@ public class GraphQLEntityViewSupport {
             }
             if (!fetch.isEmpty()) {
                 if (fetches == null) {
-                    setting.fetch(fetch);
+                    resultFetches.add(fetch);
                     selectedFieldCache.putIfAbsent(fqFieldName, new String[]{ fetch });
                 } else {
                     fetches.add(fetch);
-                    for (String f : fetches) {
-                        setting.fetch(f);
-                    }
+                    resultFetches.addAll(fetches);
                     selectedFieldCache.putIfAbsent(fqFieldName, fetches.toArray(new String[0]));
                 }
             }
@@ -832,24 +1033,22 @@ public class GraphQLEntityViewSupport {
     }
 
     /**
-     * Deserializes the given Base64 encoded cursor to a {@link GraphQLCursor} object.
+     * Deserializes the given encoded cursor to a {@link GraphQLCursor} object.
      *
-     * @param beforeCursor The Base64 encoded cursor
+     * @param beforeCursor The encoded cursor
      * @return a new cursor
      */
     protected GraphQLCursor deserialize(String beforeCursor) {
-        try (ObjectInputStream ois = new GraphQLCursorObjectInputStream(Base64.getDecoder().wrap(new ByteArrayInputStream(beforeCursor.getBytes())), serializableBasicTypes)) {
-            int offset = ois.read();
-            int pageSize = ois.read();
-            Serializable[] tuple = (Serializable[]) ois.readObject();
-            return new GraphQLCursor(offset, pageSize, tuple);
-        } catch (Exception e) {
-            throw new RuntimeException("Couldn't read cursor", e);
+        if (cursorCodec != javaSerializationCursorCodec && beforeCursor.startsWith(JavaSerializationGraphQLCursorCodec.PREFIX)) {
+            // Cursors handed out before switching the codec are still valid
+            return javaSerializationCursorCodec.decode(beforeCursor);
         }
+        return cursorCodec.decode(beforeCursor);
     }
 
     /**
-     * Serializes the given cursor components to a byte array.
+     * Serializes the given cursor components to a byte array with Java serialization.
+     * This is only used when no {@link GraphQLCursorCodec} is configured, in which case the result is Base64 encoded to form the cursor.
      *
      * @param offset The offset
      * @param pageSize The page size
@@ -857,15 +1056,24 @@ public class GraphQLEntityViewSupport {
      * @return the serialized form of the cursor
      */
     protected byte[] serializeCursor(int offset, int pageSize, Serializable[] tuple) {
-        ByteArrayOutputStream baos = new ByteArrayOutputStream();
-        try (ObjectOutputStream oos = new ObjectOutputStream(baos)) {
-            oos.write(offset);
-            oos.write(pageSize);
-            oos.writeObject(tuple);
-        } catch (IOException e) {
-            throw new RuntimeException(e);
+        return JavaSerializationGraphQLCursorCodec.serialize(offset, pageSize, tuple);
+    }
+
+    /**
+     * Serializes the given cursor components to the encoded cursor through the configured {@link GraphQLCursorCodec}.
+     *
+     * @param offset The offset
+     * @param pageSize The page size
+     * @param tuple The tuple
+     * @return the encoded cursor
+     * @since 1.6.19
+     */
+    protected String serialize(int offset, int pageSize, Serializable[] tuple) {
+        if (cursorCodec == javaSerializationCursorCodec) {
+            // Keep honoring overrides of serializeCursor for the default format
+            return Base64.getEncoder().encodeToString(serializeCursor(offset, pageSize, tuple));
         }
-        return baos.toByteArray();
+        return cursorCodec.encode(new GraphQLCursor(offset, pageSize, tuple));
     }
 
     /**
@@ -912,6 +1120,49 @@ public class GraphQLEntityViewSupport {
         }
     }
 
+    /**
+     * The operation definition is compared by identity, which is fine since a parsed document is reused when it is cached.
+     *
+     * @author Christian Beikov
+     * @since 1.6.19
+     */
+    private static class FetchCacheKey {
+        private final OperationDefinition operationDefinition;
+        private final List<String> path;
+        private final String root;
+        private final Object[] conditionVariableValues;
+        private final int hashCode;
+
+        public FetchCacheKey(OperationDefinition operationDefinition, List<String> path, String root, Object[] conditionVariableValues) {
+            this.operationDefinition = operationDefinition;
+            this.path = path;
+            this.root = root;
+            this.conditionVariableValues = conditionVariableValues;
+            int result = System.identityHashCode(operationDefinition);
+            result = 31 * result + path.hashCode();
+            result = 31 * result + root.hashCode();
+            result = 31 * result + Arrays.hashCode(conditionVariableValues);
+            this.hashCode = result;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (getClass() != o.getClass()) {
+                return false;
+            }
+            FetchCacheKey that = (FetchCacheKey) o;
+            return operationDefinition == that.operationDefinition
+                    && path.equals(that.path)
+                    && root.equals(that.root)
+                    && Arrays.equals(conditionVariableValues, that.conditionVariableValues);
+        }
+
+        @Override
+        public int hashCode() {
+            return hashCode;
+        }
+    }
+
     /**
      * Returns a relay connection from the given result list.
      *
@@ -943,16 +1194,16 @@ public class GraphQLEntityViewSupport {
             int listSize = list.size();
             if (listSize != 0 && keysets.size() != listSize) {
                 int end = listSize - 1;
-                edges.add(new DefaultEdge<>(list.get(0), new DefaultConnectionCursor(Base64.getEncoder().encodeToString(serializeCursor(data.getFirstResult(), data.getMaxResults(), keysetPage.getLowest().getTuple())))));
+                edges.add(new DefaultEdge<>(list.get(0), new DefaultConnectionCursor(serialize(data.getFirstResult(), data.getMaxResults(), keysetPage.getLowest().getTuple()))));
                 for (int i = 1; i < end; i++) {
                     T node = list.get(i);
                     edges.add(new DefaultEdge<>(node, new DefaultConnectionCursor(Integer.toString(i + 1))));
                 }
-                edges.add(new DefaultEdge<>(list.get(end), new DefaultConnectionCursor(Base64.getEncoder().encodeToString(serializeCursor(data.getFirstResult(), data.getMaxResults(), keysetPage.getHighest().getTuple())))));
+                edges.add(new DefaultEdge<>(list.get(end), new DefaultConnectionCursor(serialize(data.getFirstResult(), data.getMaxResults(), keysetPage.getHighest().getTuple()))));
             } else {
                 for (int i = 0; i < list.size(); i++) {
                     T node = list.get(i);
-                    edges.add(new DefaultEdge<>(node, new DefaultConnectionCursor(Base64.getEncoder().encodeToString(serializeCursor(data.getFirstResult(), data.getMaxResults(), keysets.get(i).getTuple())))));
+                    edges.add(new DefaultEdge<>(node, new DefaultConnectionCursor(serialize(data.getFirstResult(), data.getMaxResults(), keysets.get(i).getTuple()))));
                 }
             }
         }
@@ -181,6 +181,8 @@ public class GraphQLEntityViewSupportFactory {
     private Map<String, GraphQLScalarType> scalarTypeMap;
     private Set<String> registeredScalarTypeNames;
     private Set<String> additionalSerializableBasicTypes;
+    private GraphQLCursorCodec cursorCodec;
+    private int fetchCacheMaximumSize;
 
     /**
      * Creates a new entity view support factory with the given configuration.
@@ -407,6 +409,51 @@ public class GraphQLEntityViewSupportFactory {
         this.additionalSerializableBasicTypes = additionalSerializableBasicTypes;
     }
 
+    /**
+     * Returns the cursor codec to use for the {@link GraphQLEntityViewSupport} created by {@code GraphQLEntityViewSupportFactory.create}.
+     *
+     * @return the cursor codec or <code>null</code> if Java serialization should be used
+     * @since 1.6.19
+     */
+    public GraphQLCursorCodec getCursorCodec() {
+        return cursorCodec;
+    }
+
+    /**
+     * Sets the cursor codec to use for the {@link GraphQLEntityViewSupport} created by {@code GraphQLEntityViewSupportFactory.create}.
+     * A compact alternative to the default Java serialization is the {@link BinaryGraphQLCursorCodec}.
+     *
+     * @param cursorCodec the cursor codec or <code>null</code> if Java serialization should be used
+     * @since 1.6.19
+     */
+    public void setCursorCodec(GraphQLCursorCodec cursorCodec) {
+        this.cursorCodec = cursorCodec;
+    }
+
+    /**
+     * Returns the maximum number of fetch sets to cache in the {@link GraphQLEntityViewSupport} created by {@code GraphQLEntityViewSupportFactory.create}.
+     *
+     * @return the maximum number of cached fetch sets or <code>0</code> if the cache is disabled
+     * @since 1.6.19
+     */
+    public int getFetchCacheMaximumSize() {
+        return fetchCacheMaximumSize;
+    }
+
+    /**
+     * Sets the maximum number of fetch sets to cache in the {@link GraphQLEntityViewSupport} created by {@code GraphQLEntityViewSupportFactory.create}.
+     * The fetches are cached per operation and field path, so the cache is only effective if parsed documents are reused e.g. through a {@link graphql.execution.preparsed.PreparsedDocumentProvider}.
+     *
+     * @param fetchCacheMaximumSize the maximum number of cached fetch sets or <code>0</code> to disable the cache
+     * @since 1.6.19
+     */
+    public void setFetchCacheMaximumSize(int fetchCacheMaximumSize) {
+        if (fetchCacheMaximumSize < 0) {
+            throw new IllegalArgumentException("Invalid negative fetch cache maximum size: " + fetchCacheMaximumSize);
+        }
+        this.fetchCacheMaximumSize = fetchCacheMaximumSize;
+    }
+
     /**
      * Returns a new {@link GraphQLEntityViewSupport} after registering the entity view types from {@link EntityViewManager}
      * on the given {@link TypeDefinitionRegistry}.
@@ -570,7 +617,9 @@ public class GraphQLEntityViewSupportFactory {
         serializableBasicTypes.add(Serializable[].class.getName());
         serializableBasicTypes.add(GraphQLCursor.class.getName());
         addSerializableBasicTypes(serializableBasicTypes);
-        return new GraphQLEntityViewSupport(typeNameToViewType, typeNameToFieldMapping, typeNameToDefaultFetchMappings, serializableBasicTypes);
+        return new GraphQLEntityViewSupport(typeNameToViewType, typeNameToFieldMapping, typeNameToDefaultFetchMappings, serializableBasicTypes, cursorCodec, fetchCacheMaximumSize,
+                GraphQLEntityViewSupport.PAGE_SIZE_NAME, GraphQLEntityViewSupport.OFFSET_NAME, GraphQLEntityViewSupport.BEFORE_CURSOR_NAME, GraphQLEntityViewSupport.AFTER_CURSOR_NAME,
+                GraphQLEntityViewSupport.TOTAL_COUNT_NAME, GraphQLEntityViewSupport.EDGES_NAME, GraphQLEntityViewSupport.EDGE_NODE_NAME, GraphQLEntityViewSupport.EDGE_CURSOR_NAME);
     }
 
     protected void addSerializableBasicTypes(Set<String> serializableBasicTypes) {
@@ -830,7 +879,9 @@ public class GraphQLEntityViewSupportFactory {
                 schemaBuilder.additionalType(additionalType);
             }
         }
-        return new GraphQLEntityViewSupport(typeNameToViewType, typeNameToFieldMapping, typeNameToDefaultFetchMappings, serializableBasicTypes);
+        return new GraphQLEntityViewSupport(typeNameToViewType, typeNameToFieldMapping, typeNameToDefaultFetchMappings, serializableBasicTypes, cursorCodec, fetchCacheMaximumSize,
+                GraphQLEntityViewSupport.PAGE_SIZE_NAME, GraphQLEntityViewSupport.OFFSET_NAME, GraphQLEntityViewSupport.BEFORE_CURSOR_NAME, GraphQLEntityViewSupport.AFTER_CURSOR_NAME,
+                GraphQLEntityViewSupport.TOTAL_COUNT_NAME, GraphQLEntityViewSupport.EDGES_NAME, GraphQLEntityViewSupport.EDGE_NODE_NAME, GraphQLEntityViewSupport.EDGE_CURSOR_NAME);
     }
 
     private HashMap<ManagedViewType<?>, Set<MethodAttribute<?, ?>>> determineViewsForSchema(EntityViewManager entityViewManager) {
@@ -0,0 +1,70 @@
+/*
+ * SPDX-License-Identifier: Apache-2.0
+ * Copyright Blazebit
+ */
+
+package com.blazebit.persistence.integration.graphql;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.Serializable;
+import java.util.Base64;
+import java.util.Set;
+
+/**
+ * A {@link GraphQLCursorCodec} that encodes cursors with Java object serialization to a Base64 string.
+ * Deserialization is restricted to the given set of serializable basic types through {@link GraphQLCursorObjectInputStream}.
+ *
+ * @author Christian Beikov
+ * @since 1.6.19
+ */
+public class JavaSerializationGraphQLCursorCodec implements GraphQLCursorCodec {
+
+    /**
+     * The prefix of Base64 encoded Java serialization streams.
+     */
+    static final String PREFIX = "rO0";
+
+    private final Set<String> serializableBasicTypes;
+
+    /**
+     * Creates a new codec that allows only the given basic types for deserialization.
+     *
+     * @param serializableBasicTypes The allowed set of fully qualified class names for deserialization
+     */
+    public JavaSerializationGraphQLCursorCodec(Set<String> serializableBasicTypes) {
+        this.serializableBasicTypes = serializableBasicTypes;
+    }
+
+    @Override
+    public String encode(GraphQLCursor cursor) {
+        return Base64.getEncoder().encodeToString(serialize(cursor.getOffset(), cursor.getPageSize(), cursor.getTuple()));
+    }
+
+    @Override
+    public GraphQLCursor decode(String cursor) {
+        try (ObjectInputStream ois = new GraphQLCursorObjectInputStream(Base64.getDecoder().wrap(new ByteArrayInputStream(cursor.getBytes())), serializableBasicTypes)) {
+            int offset = ois.read();
+            int pageSize = ois.read();
+            Serializable[] tuple = (Serializable[]) ois.readObject();
+            return new GraphQLCursor(offset, pageSize, tuple);
+        } catch (Exception e) {
+            throw new RuntimeException("Couldn't read cursor", e);
+        }
+    }
+
+    static byte[] serialize(int offset, int pageSize, Serializable[] tuple) {
+        ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        try (ObjectOutputStream oos = new ObjectOutputStream(baos)) {
+            oos.write(offset);
+            oos.write(pageSize);
+            oos.writeObject(tuple);
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+        return baos.toByteArray();
+    }
+}
@@ -0,0 +1,151 @@
+/*
+ * SPDX-License-Identifier: Apache-2.0
+ * Copyright Blazebit
+ */
+
+package com.blazebit.persistence.integration.graphql;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.Serializable;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.sql.Timestamp;
+import java.time.DateTimeException;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.OffsetDateTime;
+import java.time.OffsetTime;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * @author Christian Beikov
+ * @since 1.6.19
+ */
+public class GraphQLCursorCodecTest {
+
+    private final BinaryGraphQLCursorCodec codec = new BinaryGraphQLCursorCodec();
+
+    @Test
+    public void testRoundTrip() {
+        Timestamp timestamp = Timestamp.valueOf("2020-01-02 03:04:05.123456789");
+        Serializable[] tuple = new Serializable[]{
+            null, true, false, (byte) -3, (short) 300, -123456, Long.MIN_VALUE, 1.5f, -2.25d, 'x', "Ünïcode 😀",
+            new BigInteger("-123456789012345678901234567890"), new BigDecimal("-1234.5678"), UUID.randomUUID(),
+            new java.util.Date(1234567890123L), java.sql.Date.valueOf("2020-01-02"), java.sql.Time.valueOf("03:04:05"), timestamp,
+            LocalDate.of(1900, 1, 1), LocalTime.of(23, 59, 59, 999999999), LocalDateTime.of(2020, 1, 2, 3, 4, 5, 6),
+            Instant.ofEpochSecond(-1234567890L, 42), OffsetTime.of(1, 2, 3, 4, ZoneOffset.ofHours(-5)),
+            OffsetDateTime.of(2020, 1, 2, 3, 4, 5, 6, ZoneOffset.ofHoursMinutes(5, 30)),
+            ZonedDateTime.of(2020, 10, 25, 2, 30, 0, 0, ZoneId.of("Europe/Vienna")).withLaterOffsetAtOverlap()
+        };
+
+        GraphQLCursor cursor = codec.decode(codec.encode(new GraphQLCursor(1000, 20, tuple)));
+        Assert.assertEquals(1000, cursor.getOffset());
+        Assert.assertEquals(20, cursor.getPageSize());
+        Assert.assertArrayEquals(tuple, cursor.getTuple());
+        for (int i = 0; i < tuple.length; i++) {
+            if (tuple[i] != null) {
+                Assert.assertEquals(tuple[i].getClass(), cursor.getTuple()[i].getClass());
+            }
+        }
+    }
+
+    @Test
+    public void testByteArrayAndNullTuple() {
+        byte[] bytes = { 1, 2, 3 };
+        GraphQLCursor cursor = codec.decode(codec.encode(new GraphQLCursor(0, 10, new Serializable[]{ bytes })));
+        Assert.assertArrayEquals(bytes, (byte[]) cursor.getTuple()[0]);
+
+        Assert.assertNull(codec.decode(codec.encode(new GraphQLCursor(0, 10, null))).getTuple());
+    }
+
+    @Test
+    public void testUrlSafeAndSmallerThanJavaSerialization() {
+        GraphQLCursor cursor = new GraphQLCursor(40, 20, new Serializable[]{ "Some name", 123456789L });
+        String binary = codec.encode(cursor);
+        String serialized = new JavaSerializationGraphQLCursorCodec(Collections.emptySet()).encode(cursor);
+
+        Assert.assertTrue(binary.matches("[A-Za-z0-9_-]+"));
+        Assert.assertTrue(binary + " is not smaller than " + serialized, binary.length() * 4 < serialized.length());
+    }
+
+    @Test
+    public void testUnsupportedType() {
+        try {
+            codec.encode(new GraphQLCursor(0, 10, new Serializable[]{ Thread.State.NEW }));
+            Assert.fail("Expected to fail encoding an enum");
+        } catch (IllegalArgumentException ex) {
+            Assert.assertEquals("Unsupported cursor value type: java.lang.Thread$State", ex.getMessage());
+        }
+    }
+
+    @Test
+    public void testInvalidCursor() {
+        try {
+            codec.decode("Ag");
+            Assert.fail("Expected to fail decoding an unknown version");
+        } catch (IllegalArgumentException ex) {
+            Assert.assertEquals("Unsupported cursor format version: 2", ex.getMessage());
+        }
+        String encoded = codec.encode(new GraphQLCursor(0, 10, new Serializable[]{ "abc" }));
+        try {
+            codec.decode(encoded.substring(0, encoded.length() - 2));
+            Assert.fail("Expected to fail decoding a truncated cursor");
+        } catch (IllegalArgumentException ex) {
+            // Expected
+        }
+    }
+
+    @Test
+    public void testInvalidTemporalValue() {
+        // A LocalTime with a nano of day value of 2^62, which is out of range
+        byte[] bytes = new byte[]{ BinaryGraphQLCursorCodec.VERSION, 0, 10, 2, 20, (byte) 0x80, (byte) 0x80, (byte) 0x80, (byte) 0x80, (byte) 0x80, (byte) 0x80, (byte) 0x80, (byte) 0x80, 0x40 };
+        try {
+            codec.decode(Base64.getUrlEncoder().withoutPadding().encodeToString(bytes));
+            Assert.fail("Expected to fail decoding an invalid temporal value");
+        } catch (IllegalArgumentException ex) {
+            Assert.assertTrue(ex.getCause() instanceof DateTimeException);
+        }
+    }
+
+    @Test
+    public void testSupportUsesSerializeCursorForDefaultCodec() {
+        final Serializable[] serializedTuple = new Serializable[]{ 2L };
+        Set<String> serializableBasicTypes = new HashSet<>(Arrays.asList(Serializable[].class.getName(), Long.class.getName(), Number.class.getName()));
+        GraphQLEntityViewSupport support = new GraphQLEntityViewSupport(Collections.emptyMap(), Collections.emptyMap(), Collections.emptyMap(), serializableBasicTypes,
+            GraphQLEntityViewSupport.PAGE_SIZE_NAME, GraphQLEntityViewSupport.OFFSET_NAME, GraphQLEntityViewSupport.BEFORE_CURSOR_NAME, GraphQLEntityViewSupport.AFTER_CURSOR_NAME,
+            GraphQLEntityViewSupport.TOTAL_COUNT_NAME, GraphQLEntityViewSupport.EDGES_NAME, GraphQLEntityViewSupport.EDGE_NODE_NAME, GraphQLEntityViewSupport.EDGE_CURSOR_NAME) {
+            @Override
+            protected byte[] serializeCursor(int offset, int pageSize, Serializable[] tuple) {
+                return super.serializeCursor(offset, pageSize, serializedTuple);
+            }
+        };
+
+        Assert.assertArrayEquals(serializedTuple, support.deserialize(support.serialize(10, 10, new Serializable[]{ 1L })).getTuple());
+    }
+
+    @Test
+    public void testSupportDecodesJavaSerializedCursors() {
+        Set<String> serializableBasicTypes = new HashSet<>(Arrays.asList(Serializable[].class.getName(), Long.class.getName(), Number.class.getName()));
+        GraphQLEntityViewSupport support = new GraphQLEntityViewSupport(Collections.emptyMap(), Collections.emptyMap(), Collections.emptyMap(), serializableBasicTypes, codec,
+            GraphQLEntityViewSupport.PAGE_SIZE_NAME, GraphQLEntityViewSupport.OFFSET_NAME, GraphQLEntityViewSupport.BEFORE_CURSOR_NAME, GraphQLEntityViewSupport.AFTER_CURSOR_NAME,
+            GraphQLEntityViewSupport.TOTAL_COUNT_NAME, GraphQLEntityViewSupport.EDGES_NAME, GraphQLEntityViewSupport.EDGE_NODE_NAME, GraphQLEntityViewSupport.EDGE_CURSOR_NAME);
+        Serializable[] tuple = new Serializable[]{ 1L };
+        String serialized = new JavaSerializationGraphQLCursorCodec(serializableBasicTypes).encode(new GraphQLCursor(10, 10, tuple));
+
+        Assert.assertArrayEquals(tuple, support.deserialize(serialized).getTuple());
+        Assert.assertArrayEquals(tuple, support.deserialize(support.serialize(10, 10, tuple)).getTuple());
+        Assert.assertEquals(codec.encode(new GraphQLCursor(10, 10, tuple)), support.serialize(10, 10, tuple));
+    }
+}
@@ -0,0 +1,182 @@
+/*
+ * SPDX-License-Identifier: Apache-2.0
+ * Copyright Blazebit
+ */
+
+package com.blazebit.persistence.integration.graphql;
+
+import com.blazebit.persistence.CriteriaBuilder;
+import com.blazebit.persistence.CriteriaBuilderFactory;
+import com.blazebit.persistence.RestrictionBuilder;
+import com.blazebit.persistence.integration.graphql.entities.Document;
+import com.blazebit.persistence.integration.graphql.views.DocumentView;
+import com.blazebit.persistence.integration.graphql.views.PersonView;
+import com.blazebit.persistence.view.EntityViewManager;
+import com.blazebit.persistence.view.EntityViewSetting;
+import com.blazebit.persistence.view.metamodel.ManagedViewType;
+import com.blazebit.persistence.view.metamodel.MappingAttribute;
+import com.blazebit.persistence.view.metamodel.MethodAttribute;
+import com.blazebit.persistence.view.metamodel.MethodSingularAttribute;
+import org.dataloader.DataLoader;
+import org.dataloader.DataLoaderFactory;
+import org.junit.Assert;
+import org.junit.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mockito;
+import org.mockito.invocation.InvocationOnMock;
+import org.mockito.stubbing.Answer;
+
+import javax.persistence.EntityManager;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.TreeSet;
+import java.util.concurrent.CompletableFuture;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+
+/**
+ * @author Christian Beikov
+ * @since 1.6.19
+ */
+public class GraphQLEntityViewBatchLoaderTest {
+
+    @Test
+    public void testBatchByViewClassAndFetches() {
+        final List<String> queries = new ArrayList<>();
+        EntityViewManager evm = Mockito.mock(EntityViewManager.class);
+        Mockito.when(evm.findAll(any(EntityManager.class), any(EntityViewSetting.class), anyCollection())).thenAnswer(new Answer<List<Object>>() {
+            @Override
+            public List<Object> answer(InvocationOnMock invocation) {
+                EntityViewSetting<?, ?> setting = invocation.getArgument(1);
+                Collection<?> entityIds = invocation.getArgument(2);
+                queries.add(setting.getEntityViewClass().getSimpleName() + new TreeSet<>(setting.getFetches()) + entityIds);
+                List<Object> views = new ArrayList<>(entityIds.size());
+                for (Object entityId : entityIds) {
+                    views.add(entityId.equals(3L) ? null : setting.getEntityViewClass().getSimpleName() + entityId);
+                }
+                return views;
+            }
+        });
+        DataLoader<GraphQLEntityViewBatchKey, Object> dataLoader = DataLoaderFactory.newMappedDataLoader(new GraphQLEntityViewBatchLoader(evm, Mockito.mock(EntityManager.class)));
+
+        CompletableFuture<Object> document1 = dataLoader.load(new GraphQLEntityViewBatchKey(DocumentView.class, Collections.singleton("name"), 1L));
+        CompletableFuture<Object> document2 = dataLoader.load(new GraphQLEntityViewBatchKey(DocumentView.class, Collections.singleton("name"), 2L));
+        CompletableFuture<Object> document3 = dataLoader.load(new GraphQLEntityViewBatchKey(DocumentView.class, Collections.singleton("name"), 3L));
+        CompletableFuture<Object> document1Again = dataLoader.load(new GraphQLEntityViewBatchKey(DocumentView.class, Collections.singleton("name"), 1L));
+        CompletableFuture<Object> person1 = dataLoader.load(new GraphQLEntityViewBatchKey(PersonView.class, Collections.singleton("name"), 1L));
+        CompletableFuture<Object> document1WithOwner = dataLoader.load(new GraphQLEntityViewBatchKey(DocumentView.class, Arrays.asList("name", "owner.name"), 1L));
+        Assert.assertTrue(queries.isEmpty());
+        dataLoader.dispatchAndJoin();
+
+        // Keys with different fetches for the same entity view class are loaded with a single query
+        Assert.assertEquals(2, queries.size());
+        Assert.assertTrue(queries.contains("DocumentView[name, owner.name][1, 2, 3]"));
+        Assert.assertTrue(queries.contains("PersonView[name][1]"));
+        Assert.assertEquals("DocumentView1", document1.join());
+        Assert.assertEquals("DocumentView2", document2.join());
+        Assert.assertNull(document3.join());
+        Assert.assertSame(document1, document1Again);
+        Assert.assertEquals("PersonView1", person1.join());
+        Assert.assertEquals("DocumentView1", document1WithOwner.join());
+    }
+
+    @Test
+    public void testMergeWithAllFetches() {
+        final List<String> queries = new ArrayList<>();
+        EntityViewManager evm = Mockito.mock(EntityViewManager.class);
+        Mockito.when(evm.findAll(any(EntityManager.class), any(EntityViewSetting.class), anyCollection())).thenAnswer(new Answer<List<Object>>() {
+            @Override
+            public List<Object> answer(InvocationOnMock invocation) {
+                EntityViewSetting<?, ?> setting = invocation.getArgument(1);
+                Collection<?> entityIds = invocation.getArgument(2);
+                queries.add(setting.getEntityViewClass().getSimpleName() + setting.getFetches() + entityIds);
+                return new ArrayList<Object>(entityIds);
+            }
+        });
+        DataLoader<GraphQLEntityViewBatchKey, Object> dataLoader = DataLoaderFactory.newMappedDataLoader(new GraphQLEntityViewBatchLoader(evm, Mockito.mock(EntityManager.class)));
+
+        dataLoader.load(new GraphQLEntityViewBatchKey(DocumentView.class, Collections.singleton("name"), 1L));
+        dataLoader.load(new GraphQLEntityViewBatchKey(DocumentView.class, Collections.<String>emptySet(), 2L));
+        dataLoader.dispatchAndJoin();
+
+        // A key without fetches requires all attributes, which includes the fetches of the other keys
+        Assert.assertEquals(Collections.singletonList("DocumentView[][1, 2]"), queries);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void testBatchByParent() throws Exception {
+        final DocumentWithOwnerIdView document1 = new DocumentWithOwnerIdViewImpl(1L, 1L);
+        final DocumentWithOwnerIdView document2 = new DocumentWithOwnerIdViewImpl(2L, 2L);
+        final DocumentWithOwnerIdView document3 = new DocumentWithOwnerIdViewImpl(3L, 1L);
+        EntityViewManager evm = Mockito.mock(EntityViewManager.class, Mockito.RETURNS_DEEP_STUBS);
+        MethodSingularAttribute<Object, Long> ownerIdAttribute = Mockito.mock(MethodSingularAttribute.class, Mockito.withSettings().extraInterfaces(MappingAttribute.class));
+        Mockito.when(((MappingAttribute<Object, Long>) ownerIdAttribute).getMapping()).thenReturn("owner.id");
+        Mockito.when(ownerIdAttribute.getJavaMethod()).thenReturn(DocumentWithOwnerIdView.class.getMethod("getOwnerId"));
+        ManagedViewType<Object> viewType = Mockito.mock(ManagedViewType.class);
+        Mockito.when(viewType.getEntityClass()).thenReturn((Class) Document.class);
+        Mockito.when(viewType.getAttribute("ownerId")).thenReturn((MethodAttribute) ownerIdAttribute);
+        Mockito.when(evm.getMetamodel().managedView(DocumentWithOwnerIdView.class)).thenReturn((ManagedViewType) viewType);
+        CriteriaBuilderFactory cbf = Mockito.mock(CriteriaBuilderFactory.class);
+        final CriteriaBuilder<Object> criteriaBuilder = Mockito.mock(CriteriaBuilder.class);
+        final RestrictionBuilder<CriteriaBuilder<Object>> restrictionBuilder = Mockito.mock(RestrictionBuilder.class);
+        Mockito.when(evm.getService(CriteriaBuilderFactory.class)).thenReturn(cbf);
+        Mockito.when(cbf.create(any(EntityManager.class), Mockito.eq((Class<Object>) (Class) Document.class))).thenReturn(criteriaBuilder);
+        Mockito.when(criteriaBuilder.where("owner.id")).thenReturn(restrictionBuilder);
+        Mockito.when(restrictionBuilder.in(anyCollection())).thenReturn(criteriaBuilder);
+        final CriteriaBuilder<Object> viewCriteriaBuilder = Mockito.mock(CriteriaBuilder.class);
+        Mockito.when(viewCriteriaBuilder.getResultList()).thenReturn(Arrays.<Object>asList(document1, document2, document3));
+        final List<String> settings = new ArrayList<>();
+        Mockito.when(evm.applySetting(any(EntityViewSetting.class), Mockito.same(criteriaBuilder))).thenAnswer(new Answer<CriteriaBuilder<Object>>() {
+            @Override
+            public CriteriaBuilder<Object> answer(InvocationOnMock invocation) {
+                EntityViewSetting<?, ?> setting = invocation.getArgument(0);
+                settings.add(setting.getEntityViewClass().getSimpleName() + new TreeSet<>(setting.getFetches()));
+                return viewCriteriaBuilder;
+            }
+        });
+        DataLoader<GraphQLEntityViewBatchKey, Object> dataLoader = DataLoaderFactory.newMappedDataLoader(new GraphQLEntityViewBatchLoader(evm, Mockito.mock(EntityManager.class)));
+
+        CompletableFuture<Object> owner1Documents = dataLoader.load(new GraphQLEntityViewBatchKey(DocumentWithOwnerIdView.class, Collections.singleton("id"), "ownerId", 1L));
+        CompletableFuture<Object> owner2Documents = dataLoader.load(new GraphQLEntityViewBatchKey(DocumentWithOwnerIdView.class, Collections.singleton("id"), "ownerId", 2L));
+        CompletableFuture<Object> owner3Documents = dataLoader.load(new GraphQLEntityViewBatchKey(DocumentWithOwnerIdView.class, Collections.singleton("name"), "ownerId", 3L));
+        dataLoader.dispatchAndJoin();
+
+        Assert.assertEquals(Collections.singletonList("DocumentWithOwnerIdView[id, name, ownerId]"), settings);
+        ArgumentCaptor<Collection<?>> parentKeys = ArgumentCaptor.forClass((Class) Collection.class);
+        Mockito.verify(restrictionBuilder).in(parentKeys.capture());
+        Assert.assertEquals(Arrays.asList(1L, 2L, 3L), new ArrayList<>(parentKeys.getValue()));
+        Assert.assertEquals(Arrays.asList(document1, document3), owner1Documents.join());
+        Assert.assertEquals(Collections.singletonList(document2), owner2Documents.join());
+        Assert.assertEquals(Collections.emptyList(), owner3Documents.join());
+    }
+
+    public interface DocumentWithOwnerIdView {
+        Long getId();
+        Long getOwnerId();
+    }
+
+    private static class DocumentWithOwnerIdViewImpl implements DocumentWithOwnerIdView {
+        private final Long id;
+        private final Long ownerId;
+
+        public DocumentWithOwnerIdViewImpl(Long id, Long ownerId) {
+            this.id = id;
+            this.ownerId = ownerId;
+        }
+
+        @Override
+        public Long getId() {
+            return id;
+        }
+
+        @Override
+        public Long getOwnerId() {
+            return ownerId;
+        }
+    }
+}
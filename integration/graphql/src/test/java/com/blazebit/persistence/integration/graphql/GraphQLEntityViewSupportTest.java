@@ -12,13 +12,18 @@ import com.blazebit.persistence.integration.graphql.views.CatView;
 import com.blazebit.persistence.integration.graphql.views.DocumentView;
 import com.blazebit.persistence.integration.graphql.views.PersonView;
 import com.blazebit.persistence.view.EntityViewSetting;
+import graphql.language.Document;
+import graphql.parser.Parser;
 import graphql.schema.DataFetchingEnvironment;
 import graphql.schema.DataFetchingFieldSelectionSet;
 import graphql.schema.GraphQLFieldDefinition;
+import graphql.schema.GraphQLList;
 import org.junit.Assert;
 import org.junit.Test;
+import org.mockito.Mockito;
 
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.HashSet;
 
 import static com.blazebit.persistence.integration.graphql.TestSchemaHelpers.animalInterfaceType;
@@ -51,6 +56,57 @@ public class GraphQLEntityViewSupportTest {
         Assert.assertEquals(new HashSet<>(Arrays.asList("id", "name", "owner.name")), setting.getFetches());
     }
 
+    @Test
+    public void testBatchKey() {
+        GraphQLFieldDefinition rootFieldDefinition = makeFieldDefinition("getDocument", documentObjectType);
+        DataFetchingFieldSelectionSet selectionSet =
+                makeMockSelectionSet("Document", "name", "owner", "owner/name");
+
+        DataFetchingEnvironment dfe = makeMockDataFetchingEnvironment(rootFieldDefinition, selectionSet);
+
+        GraphQLEntityViewBatchKey batchKey = graphQLEntityViewSupport.createBatchKey(dfe, 1L);
+
+        Assert.assertEquals(new GraphQLEntityViewBatchKey(DocumentView.class, Arrays.asList("id", "name", "owner.name"), 1L), batchKey);
+    }
+
+    @Test
+    public void testBatchKeyByParent() {
+        GraphQLFieldDefinition rootFieldDefinition = makeFieldDefinition("getDocuments", GraphQLList.list(documentObjectType));
+        DataFetchingFieldSelectionSet selectionSet =
+                makeMockSelectionSet("Document", "name");
+
+        DataFetchingEnvironment dfe = makeMockDataFetchingEnvironment(rootFieldDefinition, selectionSet);
+
+        GraphQLEntityViewBatchKey batchKey = graphQLEntityViewSupport.createBatchKeyByParent(dfe, "owner", 1L);
+
+        Assert.assertEquals(new GraphQLEntityViewBatchKey(DocumentView.class, Arrays.asList("id", "name"), "owner", 1L), batchKey);
+        Assert.assertNull(batchKey.getEntityId());
+        Assert.assertNotEquals(new GraphQLEntityViewBatchKey(DocumentView.class, Arrays.asList("id", "name"), 1L), batchKey);
+    }
+
+    @Test
+    public void testFetchCache() {
+        GraphQLEntityViewSupport graphQLEntityViewSupport = getGraphQLEntityViewSupport(16);
+        Document document = Parser.parse("query Q($withOwner: Boolean) { getDocument { name owner @include(if: $withOwner) { name } } }");
+        GraphQLFieldDefinition rootFieldDefinition = makeFieldDefinition("getDocument", documentObjectType);
+        DataFetchingFieldSelectionSet selectionSet =
+                makeMockSelectionSet("Document", "name", "owner", "owner/name");
+        DataFetchingFieldSelectionSet selectionSetWithoutOwner =
+                makeMockSelectionSet("Document", "name");
+
+        DataFetchingEnvironment dfe = makeMockDataFetchingEnvironment(rootFieldDefinition, selectionSet, document, Collections.<String, Object>singletonMap("withOwner", true));
+        DataFetchingEnvironment cachedDfe = makeMockDataFetchingEnvironment(rootFieldDefinition, selectionSet, document, Collections.<String, Object>singletonMap("withOwner", true));
+        DataFetchingEnvironment dfeWithoutOwner = makeMockDataFetchingEnvironment(rootFieldDefinition, selectionSetWithoutOwner, document, Collections.<String, Object>singletonMap("withOwner", false));
+
+        Assert.assertEquals(new HashSet<>(Arrays.asList("id", "name", "owner.name")), graphQLEntityViewSupport.createSetting(dfe).getFetches());
+        Assert.assertEquals(new HashSet<>(Arrays.asList("id", "name", "owner.name")), graphQLEntityViewSupport.createSetting(cachedDfe).getFetches());
+        Assert.assertEquals(new HashSet<>(Arrays.asList("id", "name")), graphQLEntityViewSupport.createSetting(dfeWithoutOwner).getFetches());
+
+        Mockito.verify(cachedDfe, Mockito.never()).getSelectionSet();
+        Assert.assertEquals(1L, graphQLEntityViewSupport.getFetchCacheStatistics().getHitCount());
+        Assert.assertEquals(2L, graphQLEntityViewSupport.getFetchCacheStatistics().getMissCount());
+    }
+
     @Test
     public void testFetchesInPaginatedSetting() {
         GraphQLFieldDefinition rootFieldDefinition = makeFieldDefinition("getDocument", makeRelayConnection(documentObjectType));
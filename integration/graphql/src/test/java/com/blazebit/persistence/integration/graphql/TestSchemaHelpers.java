@@ -12,6 +12,10 @@ import com.blazebit.persistence.integration.graphql.views.PersonView;
 import com.blazebit.persistence.view.metamodel.ManagedViewType;
 import com.blazebit.persistence.view.metamodel.MethodAttribute;
 import com.blazebit.persistence.view.metamodel.ViewType;
+import graphql.execution.ExecutionStepInfo;
+import graphql.execution.ResultPath;
+import graphql.language.Document;
+import graphql.language.OperationDefinition;
 import graphql.language.SelectionSet;
 import graphql.schema.Coercing;
 import graphql.schema.DataFetchingEnvironment;
@@ -187,14 +191,22 @@ public class TestSchemaHelpers {
     }
 
     public static GraphQLEntityViewSupport getGraphQLEntityViewSupport() {
+        return getGraphQLEntityViewSupport(0);
+    }
+
+    public static GraphQLEntityViewSupport getGraphQLEntityViewSupport(int fetchCacheMaximumSize) {
         TypeDef documentTypeDef = new TypeDef("Document", DocumentView.class, Arrays.asList("id", "name", "owner"));
         TypeDef personTypeDef = new TypeDef("Person", PersonView.class, Arrays.asList("id", "name", "animal"));
         TypeDef animalTypeDef = new TypeDef("Animal", AnimalView.class, Arrays.asList("id", "name"));
         TypeDef catTypeDef = new TypeDef("Cat", CatView.class, Arrays.asList("id", "name"));
-        return setupEntityViewSupport(documentTypeDef, personTypeDef, animalTypeDef, catTypeDef);
+        return setupEntityViewSupport(fetchCacheMaximumSize, documentTypeDef, personTypeDef, animalTypeDef, catTypeDef);
     }
 
     public static GraphQLEntityViewSupport setupEntityViewSupport(TypeDef... typeDefs) {
+        return setupEntityViewSupport(0, typeDefs);
+    }
+
+    public static GraphQLEntityViewSupport setupEntityViewSupport(int fetchCacheMaximumSize, TypeDef... typeDefs) {
         Map<String, ManagedViewType<?>> typeNameToViewType = new HashMap<>();
         Map<String, Map<String, String>> typeNameToFieldMapping = new HashMap<>();
         Map<String, Set<DefaultFetchMapping>> typeNameToDefaultFetchMappings = new HashMap<>();
@@ -207,7 +219,9 @@ public class TestSchemaHelpers {
             typeNameToFieldMapping.put(name, fieldMapping);
         });
 
-        return new GraphQLEntityViewSupport(typeNameToViewType, typeNameToFieldMapping, typeNameToDefaultFetchMappings, Collections.emptySet());
+        return new GraphQLEntityViewSupport(typeNameToViewType, typeNameToFieldMapping, typeNameToDefaultFetchMappings, Collections.emptySet(), null, fetchCacheMaximumSize,
+                GraphQLEntityViewSupport.PAGE_SIZE_NAME, GraphQLEntityViewSupport.OFFSET_NAME, GraphQLEntityViewSupport.BEFORE_CURSOR_NAME, GraphQLEntityViewSupport.AFTER_CURSOR_NAME,
+                GraphQLEntityViewSupport.TOTAL_COUNT_NAME, GraphQLEntityViewSupport.EDGES_NAME, GraphQLEntityViewSupport.EDGE_NODE_NAME, GraphQLEntityViewSupport.EDGE_CURSOR_NAME);
     }
 
     /**
@@ -266,6 +280,17 @@ public class TestSchemaHelpers {
         return dfe;
     }
 
+    public static DataFetchingEnvironment makeMockDataFetchingEnvironment(GraphQLFieldDefinition rootFieldDefinition, DataFetchingFieldSelectionSet selectionSet, Document document, Map<String, Object> variables) {
+        DataFetchingEnvironment dfe = makeMockDataFetchingEnvironment(rootFieldDefinition, selectionSet);
+        ExecutionStepInfo executionStepInfo = mock(ExecutionStepInfo.class);
+        when(executionStepInfo.getPath()).thenReturn(ResultPath.rootPath().segment(rootFieldDefinition.getName()));
+        when(dfe.getExecutionStepInfo()).thenReturn(executionStepInfo);
+        when(dfe.getDocument()).thenReturn(document);
+        when(dfe.getOperationDefinition()).thenReturn(document.getDefinitionsOfType(OperationDefinition.class).get(0));
+        when(dfe.getVariables()).thenReturn(variables);
+        return dfe;
+    }
+
     static class TypeDef {
         private final String name;
         private final ViewType<?> viewType;
@@ -10,18 +10,22 @@ import com.blazebit.persistence.view.metamodel.ManagedViewType;
 import com.blazebit.persistence.view.metamodel.MethodAttribute;
 import com.blazebit.persistence.view.metamodel.ViewType;
 import com.fasterxml.jackson.core.JsonParser;
-import com.fasterxml.jackson.core.ObjectCodec;
+import com.fasterxml.jackson.core.JsonStreamContext;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.core.util.JsonParserSequence;
 import com.fasterxml.jackson.databind.DeserializationContext;
 import com.fasterxml.jackson.databind.JavaType;
 import com.fasterxml.jackson.databind.JsonDeserializer;
-import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
-import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.fasterxml.jackson.databind.util.TokenBuffer;
 
 import java.io.IOException;
 import java.util.Set;
 
 /**
+ * Deserializes entity views by first determining the id to create a reference or a new object that is then populated by the bean deserializer.
+ * The id is read in a streaming fashion without materializing a tree. Only the fields that precede the id field are buffered.
+ *
  * @author Christian Beikov
  * @since 1.4.0
  */
@@ -60,12 +64,59 @@ public class EntityViewReferenceDeserializer extends JsonDeserializer {
 
     @Override
     public Object deserialize(JsonParser jsonParser, DeserializationContext deserializationContext) throws IOException {
-        Object reference = null;
-        ObjectCodec codec = jsonParser.getCodec();
-        JsonNode treeNode = codec.readTree(jsonParser);
-        // Consume (i.e. remove from the payload json tree) the id if we are going to use getReference
-        Object id = retrieveId(jsonParser, codec, treeNode, !creatable || updatable);
+        JsonToken token = jsonParser.getCurrentToken();
+        if (token == JsonToken.START_OBJECT) {
+            token = jsonParser.nextToken();
+        } else if (token != JsonToken.FIELD_NAME) {
+            // Not an object, so there is nothing to read the id from, but let the bean deserializer handle or report the value
+            return deserialize(jsonParser, deserializationContext, retrieveIdFromAccessor(jsonParser, jsonParser.getParsingContext().inRoot()), null, null);
+        }
 
+        Object id = null;
+        TokenBuffer tokenBuffer = null;
+        // Consume the id if we are going to use getReference
+        if (idAttribute != null && (!creatable || updatable)) {
+            if (deserializeIdFromJson) {
+                // Only buffer the fields that precede the id. If the id is the first field, which is the common case, nothing is buffered
+                String idAttributeName = idAttribute.getName();
+                boolean idFound = false;
+                while (token == JsonToken.FIELD_NAME) {
+                    if (idAttributeName.equals(jsonParser.getCurrentName())) {
+                        if (jsonParser.nextToken() == JsonToken.VALUE_NULL) {
+                            // A null id is not consumed
+                            if (tokenBuffer == null) {
+                                tokenBuffer = createTokenBuffer(jsonParser, deserializationContext);
+                            }
+                            tokenBuffer.writeFieldName(idAttributeName);
+                            tokenBuffer.writeNull();
+                        } else {
+                            id = deserializationContext.readValue(jsonParser, idType);
+                        }
+                        token = jsonParser.nextToken();
+                        idFound = true;
+                        break;
+                    }
+                    if (tokenBuffer == null) {
+                        tokenBuffer = createTokenBuffer(jsonParser, deserializationContext);
+                    }
+                    tokenBuffer.copyCurrentStructure(jsonParser);
+                    token = jsonParser.nextToken();
+                }
+                if (!idFound) {
+                    // The parser is positioned at the end of the object at this point
+                    id = retrieveIdFromAccessor(jsonParser, jsonParser.getParsingContext().inRoot());
+                }
+            } else {
+                JsonStreamContext parent = jsonParser.getParsingContext().getParent();
+                id = retrieveIdFromAccessor(jsonParser, parent != null && parent.inRoot());
+            }
+        }
+
+        return deserialize(jsonParser, deserializationContext, id, token, tokenBuffer);
+    }
+
+    private Object deserialize(JsonParser jsonParser, DeserializationContext deserializationContext, Object id, JsonToken token, TokenBuffer tokenBuffer) throws IOException {
+        Object reference = null;
         // We create also creatable & updatable views if no id is given
         // If an id is given in such a case, we create a reference for updates
         if (creatable && (!updatable || id == null)) {
@@ -75,38 +126,43 @@ public class EntityViewReferenceDeserializer extends JsonDeserializer {
         }
 
         if (reference == null) {
+            skipRemainingFields(jsonParser, token);
             return null;
         }
 
-        jsonParser = codec.treeAsTokens(treeNode);
-        jsonParser.nextToken();
+        if (tokenBuffer != null) {
+            // Continue with the current token of the parser after the buffered tokens
+            jsonParser = JsonParserSequence.createFlattened(true, tokenBuffer.asParser(jsonParser), jsonParser);
+            jsonParser.nextToken();
+        }
+
+        // The bean deserializer populates the view through the setters, continuing with the current token
         return deserializationContext.findNonContextualValueDeserializer(deserializationContext.constructType(reference.getClass()))
                 .deserialize(jsonParser, deserializationContext, reference);
     }
 
-    private Object retrieveId(JsonParser rootJsonParser, ObjectCodec codec, JsonNode treeNode, boolean consume) throws IOException {
-        Object id;
-        if (idAttribute == null || idType == null) {
-            id = null;
-        } else {
-            String idAttributeName = idAttribute.getName();
-            JsonNode jsonNode;
-            if (deserializeIdFromJson && (jsonNode = treeNode.get(idAttributeName)) != null) {
-                if (jsonNode.isNull()) {
-                    id = null;
-                } else {
-                    id = codec.readValue(codec.treeAsTokens(jsonNode), idType);
-                    if (consume) {
-                        ((ObjectNode) treeNode).without(idAttributeName);
-                    }
-                }
-            } else if (rootJsonParser.getParsingContext().inRoot() && entityViewIdValueAccessor != null) {
-                id = entityViewIdValueAccessor.getValue(rootJsonParser, idType.getRawClass());
-            } else {
-                id = null;
-            }
+    private Object retrieveIdFromAccessor(JsonParser rootJsonParser, boolean inRoot) {
+        if (idType != null && inRoot && entityViewIdValueAccessor != null) {
+            return entityViewIdValueAccessor.getValue(rootJsonParser, idType.getRawClass());
         }
+        return null;
+    }
+
+    private static TokenBuffer createTokenBuffer(JsonParser jsonParser, DeserializationContext deserializationContext) throws IOException {
+        TokenBuffer tokenBuffer = new TokenBuffer(jsonParser, deserializationContext);
+        tokenBuffer.writeStartObject();
+        return tokenBuffer;
+    }
 
-        return id;
+    private static void skipRemainingFields(JsonParser jsonParser, JsonToken token) throws IOException {
+        if (token == null) {
+            jsonParser.skipChildren();
+            return;
+        }
+        while (token == JsonToken.FIELD_NAME) {
+            jsonParser.nextToken();
+            jsonParser.skipChildren();
+            token = jsonParser.nextToken();
+        }
     }
 }
@@ -138,6 +138,16 @@ public class EntityViewAwareObjectMapperTest {
         assertEquals(2L, view.getParent().getId());
     }
 
+    @Test
+    public void testUpdatableViewWithTrailingId() throws Exception {
+        EntityViewAwareObjectMapper mapper = mapper(UpdateViewWithSetters.class, NameView.class);
+        ObjectReader objectReader = mapper.readerFor(mapper.getObjectMapper().constructType(UpdateViewWithSetters.class));
+        UpdateViewWithSetters view = objectReader.readValue("{\"name\": \"test\", \"parent\": {\"id\": 2}, \"id\": 1}");
+        assertEquals(1L, view.getId());
+        assertEquals("test", view.getName());
+        assertEquals(2L, view.getParent().getId());
+    }
+
     @EntityView(SomeEntity.class)
     @UpdatableEntityView
     interface UpdateViewWithSetters {
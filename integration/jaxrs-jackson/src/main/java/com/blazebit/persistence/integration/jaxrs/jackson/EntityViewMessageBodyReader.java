@@ -51,6 +51,8 @@ import java.lang.reflect.Constructor;
 import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Method;
 import java.lang.reflect.Type;
+import java.util.Collection;
+import java.util.List;
 import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
 
@@ -378,6 +380,14 @@ public class EntityViewMessageBodyReader implements MessageBodyReader<Object> {
             return entityViewManager.get().find(entityManager, entityViewSetting, entityId);
         }
 
+        public <T> List<T> findAll(EntityManager entityManager, Class<T> entityViewClass, Collection<?> entityIds) {
+            return entityViewManager.get().findAll(entityManager, entityViewClass, entityIds);
+        }
+
+        public <T> List<T> findAll(EntityManager entityManager, EntityViewSetting<T, CriteriaBuilder<T>> entityViewSetting, Collection<?> entityIds) {
+            return entityViewManager.get().findAll(entityManager, entityViewSetting, entityIds);
+        }
+
         public <T> T getReference(Class<T> entityViewClass, Object id) {
             return entityViewManager.get().getReference(entityViewClass, id);
         }
@@ -470,6 +480,14 @@ public class EntityViewMessageBodyReader implements MessageBodyReader<Object> {
             entityViewManager.get().saveFull(entityManager, view);
         }
 
+        public void saveAll(EntityManager entityManager, Iterable<?> views) {
+            entityViewManager.get().saveAll(entityManager, views);
+        }
+
+        public void saveFullAll(EntityManager entityManager, Iterable<?> views) {
+            entityViewManager.get().saveFullAll(entityManager, views);
+        }
+
         public void saveTo(EntityManager entityManager, Object view, Object entity) {
             entityViewManager.get().saveTo(entityManager, view, entity);
         }
@@ -0,0 +1,173 @@
+/*
+ * SPDX-License-Identifier: Apache-2.0
+ * Copyright Blazebit
+ */
+
+package com.blazebit.persistence.integration.micrometer;
+
+import com.blazebit.persistence.spi.QueryFingerprint;
+import com.blazebit.persistence.spi.QueryInstrumentation;
+import com.blazebit.persistence.spi.QueryPhase;
+import io.micrometer.core.instrument.Clock;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A {@link QueryInstrumentation} that records the query phases as Micrometer timers named {@value #METER_NAME},
+ * tagged with the <code>phase</code> and the <code>type</code>. Optionally, the query fingerprint can be added as <code>fingerprint</code> tag,
+ * but note that this might lead to a high cardinality when many different queries are executed.
+ *
+ * Another instrumentation, like e.g. the default JFR based one, can be passed as delegate to keep that working as well.
+ *
+ * @author Christian Beikov
+ * @since 1.6.19
+ */
+public class MicrometerQueryInstrumentation implements QueryInstrumentation {
+
+    /**
+     * The name of the timer meter.
+     */
+    public static final String METER_NAME = "blaze.persistence.query.phase";
+    private static final String UNKNOWN_TYPE = "unknown";
+
+    private final MeterRegistry registry;
+    private final Clock clock;
+    private final QueryInstrumentation delegate;
+    private final boolean fingerprintTag;
+    private final ConcurrentMap<TimerKey, io.micrometer.core.instrument.Timer> timers = new ConcurrentHashMap<>();
+
+    /**
+     * Creates a new instrumentation recording into the given registry.
+     *
+     * @param registry The registry
+     */
+    public MicrometerQueryInstrumentation(MeterRegistry registry) {
+        this(registry, null, false);
+    }
+
+    /**
+     * Creates a new instrumentation recording into the given registry, that also reports to the given delegate.
+     *
+     * @param registry The registry
+     * @param delegate The delegate instrumentation or <code>null</code>
+     * @param fingerprintTag Whether to tag the timers with the query fingerprint
+     */
+    public MicrometerQueryInstrumentation(MeterRegistry registry, QueryInstrumentation delegate, boolean fingerprintTag) {
+        if (registry == null) {
+            throw new NullPointerException("registry");
+        }
+        this.registry = registry;
+        this.clock = registry.config().clock();
+        this.delegate = delegate;
+        this.fingerprintTag = fingerprintTag;
+    }
+
+    @Override
+    public Timer start(QueryPhase phase) {
+        return new MicrometerTimer(phase, delegate == null ? null : delegate.start(phase), clock.monotonicTime());
+    }
+
+    private io.micrometer.core.instrument.Timer getTimer(QueryPhase phase, String type, String fingerprint) {
+        TimerKey key = new TimerKey(phase, type, fingerprint);
+        io.micrometer.core.instrument.Timer timer = timers.get(key);
+        if (timer == null) {
+            Tags tags = Tags.of("phase", phase.name(), "type", type);
+            if (fingerprint != null) {
+                tags = tags.and("fingerprint", fingerprint);
+            }
+            timer = io.micrometer.core.instrument.Timer.builder(METER_NAME)
+                    .description("The time spent in a phase of building or executing a Blaze-Persistence query")
+                    .tags(tags)
+                    .register(registry);
+            io.micrometer.core.instrument.Timer existingTimer = timers.putIfAbsent(key, timer);
+            if (existingTimer != null) {
+                timer = existingTimer;
+            }
+        }
+        return timer;
+    }
+
+    /**
+     * @author Christian Beikov
+     * @since 1.6.19
+     */
+    private final class MicrometerTimer implements Timer {
+
+        private final QueryPhase phase;
+        private final Timer delegateTimer;
+        private final long start;
+        private long duration = -1L;
+
+        public MicrometerTimer(QueryPhase phase, Timer delegateTimer, long start) {
+            this.phase = phase;
+            this.delegateTimer = delegateTimer;
+            this.start = start;
+        }
+
+        @Override
+        public void end() {
+            if (duration == -1L) {
+                duration = clock.monotonicTime() - start;
+            }
+            if (delegateTimer != null) {
+                delegateTimer.end();
+            }
+        }
+
+        @Override
+        public void commit(String type, String query) {
+            if (duration == -1L) {
+                duration = clock.monotonicTime() - start;
+            }
+            String fingerprint = fingerprintTag && query != null ? QueryFingerprint.of(query) : null;
+            getTimer(phase, type == null ? UNKNOWN_TYPE : type, fingerprint).record(duration, TimeUnit.NANOSECONDS);
+            if (delegateTimer != null) {
+                delegateTimer.commit(type, query);
+            }
+        }
+    }
+
+    /**
+     * The tags of a timer.
+     *
+     * @author Christian Beikov
+     * @since 1.6.19
+     */
+    private static final class TimerKey {
+
+        private final QueryPhase phase;
+        private final String type;
+        private final String fingerprint;
+
+        public TimerKey(QueryPhase phase, String type, String fingerprint) {
+            this.phase = phase;
+            this.type = type;
+            this.fingerprint = fingerprint;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof TimerKey)) {
+                return false;
+            }
+            TimerKey timerKey = (TimerKey) o;
+            return phase == timerKey.phase && type.equals(timerKey.type) && Objects.equals(fingerprint, timerKey.fingerprint);
+        }
+
+        @Override
+        public int hashCode() {
+            int result = phase.hashCode();
+            result = 31 * result + type.hashCode();
+            result = 31 * result + (fingerprint == null ? 0 : fingerprint.hashCode());
+            return result;
+        }
+    }
+}
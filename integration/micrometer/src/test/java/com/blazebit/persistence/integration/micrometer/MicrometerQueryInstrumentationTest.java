@@ -0,0 +1,77 @@
+/*
+ * SPDX-License-Identifier: Apache-2.0
+ * Copyright Blazebit
+ */
+
+package com.blazebit.persistence.integration.micrometer;
+
+import com.blazebit.persistence.spi.QueryFingerprint;
+import com.blazebit.persistence.spi.QueryInstrumentation;
+import com.blazebit.persistence.spi.QueryPhase;
+import io.micrometer.core.instrument.MockClock;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleConfig;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+
+/**
+ * @author Christian Beikov
+ * @since 1.6.19
+ */
+public class MicrometerQueryInstrumentationTest {
+
+    private final MockClock clock = new MockClock();
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry(SimpleConfig.DEFAULT, clock);
+
+    @Test
+    public void testRecordsDurationUntilEnd() {
+        QueryInstrumentation instrumentation = new MicrometerQueryInstrumentation(registry);
+        QueryInstrumentation.Timer timer = instrumentation.start(QueryPhase.RENDERING);
+        clock.add(5, TimeUnit.MILLISECONDS);
+        timer.end();
+        clock.add(10, TimeUnit.MILLISECONDS);
+        timer.commit("Document", "SELECT d FROM Document d");
+
+        Timer meter = registry.find(MicrometerQueryInstrumentation.METER_NAME).tag("phase", "RENDERING").tag("type", "Document").timer();
+        assertNotNull(meter);
+        assertEquals(1L, meter.count());
+        assertEquals(5.0d, meter.totalTime(TimeUnit.MILLISECONDS), 0.0001d);
+        assertNull(meter.getId().getTag("fingerprint"));
+    }
+
+    @Test
+    public void testFingerprintTagAndDelegate() {
+        final List<String> delegated = new ArrayList<>();
+        QueryInstrumentation delegate = new QueryInstrumentation() {
+            @Override
+            public Timer start(final QueryPhase phase) {
+                return new Timer() {
+                    @Override
+                    public void end() {
+                    }
+
+                    @Override
+                    public void commit(String type, String query) {
+                        delegated.add(phase + ":" + type);
+                    }
+                };
+            }
+        };
+        QueryInstrumentation instrumentation = new MicrometerQueryInstrumentation(registry, delegate, true);
+        instrumentation.start(QueryPhase.EXECUTION).commit(null, "select 1");
+
+        Timer meter = registry.find(MicrometerQueryInstrumentation.METER_NAME).tag("phase", "EXECUTION").tag("type", "unknown").timer();
+        assertNotNull(meter);
+        assertEquals(QueryFingerprint.of("select 1"), meter.getId().getTag("fingerprint"));
+        assertEquals(1, delegated.size());
+        assertEquals("EXECUTION:null", delegated.get(0));
+    }
+}
@@ -0,0 +1,182 @@
+/*
+ * SPDX-License-Identifier: Apache-2.0
+ * Copyright Blazebit
+ */
+
+package com.blazebit.persistence.spring.data.base.query;
+
+import com.blazebit.persistence.CacheStatistics;
+import com.blazebit.persistence.QueryTemplate;
+import org.springframework.data.domain.Sort;
+
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A thread safe cache for the query templates of a single repository query method that holds at most a fixed number of entries
+ * and evicts the least recently used entry when the limit is exceeded.
+ *
+ * @author Christian Beikov
+ * @since 1.6.19
+ */
+final class QueryTemplateCache implements CacheStatistics {
+
+    private final int maximumSize;
+    private final LinkedHashMap<Key, Entry> map;
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong evictions = new AtomicLong();
+
+    public QueryTemplateCache(final int maximumSize) {
+        if (maximumSize < 1) {
+            throw new IllegalArgumentException("Invalid maximum size for cache: " + maximumSize);
+        }
+        this.maximumSize = maximumSize;
+        this.map = new LinkedHashMap<Key, Entry>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Key, Entry> eldest) {
+                if (size() > maximumSize) {
+                    evictions.incrementAndGet();
+                    return true;
+                }
+                return false;
+            }
+        };
+    }
+
+    public Entry get(Key key) {
+        Entry value;
+        synchronized (map) {
+            value = map.get(key);
+        }
+        if (value == null) {
+            misses.incrementAndGet();
+        } else {
+            hits.incrementAndGet();
+        }
+        return value;
+    }
+
+    public void putIfAbsent(Key key, Entry value) {
+        synchronized (map) {
+            if (!map.containsKey(key)) {
+                map.put(key, value);
+            }
+        }
+    }
+
+    @Override
+    public int getSize() {
+        synchronized (map) {
+            return map.size();
+        }
+    }
+
+    @Override
+    public int getMaximumSize() {
+        return maximumSize;
+    }
+
+    @Override
+    public long getHitCount() {
+        return hits.get();
+    }
+
+    @Override
+    public long getMissCount() {
+        return misses.get();
+    }
+
+    @Override
+    public long getEvictionCount() {
+        return evictions.get();
+    }
+
+    @Override
+    public double getHitRatio() {
+        long hitCount = hits.get();
+        long lookups = hitCount + misses.get();
+        return lookups == 0L ? 0d : (double) hitCount / lookups;
+    }
+
+    @Override
+    public void clearStatistics() {
+        hits.set(0L);
+        misses.set(0L);
+        evictions.set(0L);
+    }
+
+    /**
+     * The shape of a query invocation, consisting of everything that influences the rendered query besides parameter values.
+     *
+     * @author Christian Beikov
+     * @since 1.6.19
+     */
+    static final class Key {
+
+        private final Class<?> entityViewClass;
+        private final Sort sort;
+        private final boolean[] nullParameters;
+        private final int hashCode;
+
+        public Key(Class<?> entityViewClass, Sort sort, boolean[] nullParameters) {
+            this.entityViewClass = entityViewClass;
+            this.sort = sort;
+            this.nullParameters = nullParameters;
+            int result = entityViewClass == null ? 0 : entityViewClass.hashCode();
+            result = 31 * result + (sort == null ? 0 : sort.hashCode());
+            result = 31 * result + Arrays.hashCode(nullParameters);
+            this.hashCode = result;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof Key)) {
+                return false;
+            }
+
+            Key key = (Key) o;
+            return hashCode == key.hashCode
+                    && (entityViewClass == null ? key.entityViewClass == null : entityViewClass.equals(key.entityViewClass))
+                    && (sort == null ? key.sort == null : sort.equals(key.sort))
+                    && Arrays.equals(nullParameters, key.nullParameters);
+        }
+
+        @Override
+        public int hashCode() {
+            return hashCode;
+        }
+    }
+
+    /**
+     * A compiled query template along with the parameter metadata to bind the parameter values of an invocation.
+     * The template is <code>null</code> if the query can't be compiled, so that compiling is not attempted again.
+     *
+     * @author Christian Beikov
+     * @since 1.6.19
+     */
+    static final class Entry {
+
+        private final QueryTemplate<?> template;
+        private final List<ParameterMetadataProvider.ParameterMetadata<?>> expressions;
+
+        public Entry(QueryTemplate<?> template, List<ParameterMetadataProvider.ParameterMetadata<?>> expressions) {
+            this.template = template;
+            this.expressions = expressions;
+        }
+
+        public QueryTemplate<?> getTemplate() {
+            return template;
+        }
+
+        public List<ParameterMetadataProvider.ParameterMetadata<?>> getExpressions() {
+            return expressions;
+        }
+    }
+}
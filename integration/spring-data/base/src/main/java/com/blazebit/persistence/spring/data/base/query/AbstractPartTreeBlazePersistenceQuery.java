@@ -17,10 +17,12 @@
 
 package com.blazebit.persistence.spring.data.base.query;
 
+import com.blazebit.persistence.CacheStatistics;
 import com.blazebit.persistence.CriteriaBuilderFactory;
 import com.blazebit.persistence.FullQueryBuilder;
 import com.blazebit.persistence.OrderByBuilder;
 import com.blazebit.persistence.PaginatedCriteriaBuilder;
+import com.blazebit.persistence.QueryTemplate;
 import com.blazebit.persistence.criteria.BlazeCriteria;
 import com.blazebit.persistence.criteria.BlazeCriteriaBuilder;
 import com.blazebit.persistence.criteria.BlazeCriteriaQuery;
@@ -54,6 +56,7 @@ import javax.persistence.criteria.Predicate;
 import javax.persistence.criteria.Root;
 import java.util.Collections;
 import java.util.HashMap;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.regex.Pattern;
@@ -76,12 +79,24 @@ import java.util.regex.Pattern;
  *   2./3. {@link Pageable} or {@link Sort} method parameter
  *   4. {@link EntityViewSettingProcessor} method parameter that adds attribute sorters to the entity view settings
  *
+ * About query templates
+ * Queries that are not paginated and have no {@link Specification}, {@link BlazeSpecification}, {@link EntityViewSettingProcessor}
+ * or optional parameters are compiled into a {@link QueryTemplate} per query shape, i.e. per entity view class, {@link Sort}
+ * and set of <code>null</code> parameters. Subsequent invocations with the same shape only bind the parameter values.
+ *
  * @author Moritz Becker
  * @author Christian Beikov
  * @since 1.2.0
  */
 public abstract class AbstractPartTreeBlazePersistenceQuery extends AbstractJpaQuery {
 
+    /**
+     * The default maximum number of query templates that are cached per query method.
+     *
+     * @since 1.6.19
+     */
+    public static final int DEFAULT_QUERY_TEMPLATE_CACHE_MAXIMUM_SIZE = 32;
+
     private static final String QUERY_PATTERN = "find|read|get|query|stream";
     private static final String COUNT_PATTERN = "count";
     private static final String EXISTS_PATTERN = "exists";
@@ -96,11 +111,28 @@ public abstract class AbstractPartTreeBlazePersistenceQuery extends AbstractJpaQ
     private final JpaParameters parameters;
 
     private final AbstractPartTreeBlazePersistenceQuery.QueryPreparer query;
+    private final QueryTemplateCache queryTemplateCache;
     private final CriteriaBuilderFactory cbf;
     private final Object escape;
     protected final EntityViewManager evm;
 
     public AbstractPartTreeBlazePersistenceQuery(EntityViewAwareJpaQueryMethod method, EntityManager em, PersistenceProvider persistenceProvider, Object escape, CriteriaBuilderFactory cbf, EntityViewManager evm) {
+        this(method, em, persistenceProvider, escape, cbf, evm, DEFAULT_QUERY_TEMPLATE_CACHE_MAXIMUM_SIZE);
+    }
+
+    /**
+     * Creates a query for the given method that caches at most the given number of query templates.
+     *
+     * @param method The query method
+     * @param em The entity manager
+     * @param persistenceProvider The persistence provider
+     * @param escape The escape character
+     * @param cbf The criteria builder factory
+     * @param evm The entity view manager
+     * @param queryTemplateCacheMaximumSize The maximum number of query templates to cache or <code>0</code> to disable caching
+     * @since 1.6.19
+     */
+    public AbstractPartTreeBlazePersistenceQuery(EntityViewAwareJpaQueryMethod method, EntityManager em, PersistenceProvider persistenceProvider, Object escape, CriteriaBuilderFactory cbf, EntityViewManager evm, int queryTemplateCacheMaximumSize) {
 
         super(method, em);
 
@@ -127,8 +159,29 @@ public abstract class AbstractPartTreeBlazePersistenceQuery extends AbstractJpaQ
                 || hasEntityViewSettingProcessorParameter
                 || hasSpecificationParameter
                 || hasCriteriaBuilderProcessorParameter;
-        this.query = isCountProjection(tree) ? new AbstractPartTreeBlazePersistenceQuery.CountQueryPreparer(persistenceProvider,
+        boolean countProjection = isCountProjection(tree);
+        this.query = countProjection ? new AbstractPartTreeBlazePersistenceQuery.CountQueryPreparer(persistenceProvider,
             recreateQueries) : new AbstractPartTreeBlazePersistenceQuery.QueryPreparer(persistenceProvider, recreateQueries);
+        if (queryTemplateCacheMaximumSize < 0) {
+            throw new IllegalArgumentException("Invalid negative query template cache maximum size: " + queryTemplateCacheMaximumSize);
+        }
+        // Specifications and processors are arbitrary code that might produce a different query on every invocation
+        boolean queryTemplateCacheable = queryTemplateCacheMaximumSize > 0 && !countProjection
+                && !hasEntityViewSettingProcessorParameter
+                && !hasSpecificationParameter
+                && !hasCriteriaBuilderProcessorParameter
+                && parameters.getOptionalParameters().getNumberOfParameters() == 0;
+        this.queryTemplateCache = queryTemplateCacheable ? new QueryTemplateCache(queryTemplateCacheMaximumSize) : null;
+    }
+
+    /**
+     * Returns the statistics of the query template cache of this query or <code>null</code> if query templates are not cached for this query.
+     *
+     * @return The query template cache statistics or <code>null</code>
+     * @since 1.6.19
+     */
+    public CacheStatistics getQueryTemplateCacheStatistics() {
+        return queryTemplateCache;
     }
 
     protected abstract ParameterMetadataProvider createParameterMetadataProvider(CriteriaBuilder builder, ParametersParameterAccessor accessor, PersistenceProvider provider, Object escape);
@@ -431,6 +484,10 @@ public abstract class AbstractPartTreeBlazePersistenceQuery extends AbstractJpaQ
             List<ParameterMetadataProvider.ParameterMetadata<?>> expressions = this.expressions;
             ParametersParameterAccessor accessor = new ParametersParameterAccessor(parameters, values);
 
+            if (queryTemplateCache != null) {
+                return createQueryFromTemplate(accessor, values);
+            }
+
             if (cachedCriteriaQuery == null || accessor.hasBindableNullValue()) {
                 FixedJpaQueryCreator creator = createCreator(accessor, persistenceProvider);
                 criteriaQuery = invokeQueryCreator(creator, appliesSortThroughAttributeSorters() ? null : getDynamicSort(values));
@@ -442,6 +499,100 @@ public abstract class AbstractPartTreeBlazePersistenceQuery extends AbstractJpaQ
             return restrictMaxResultsIfNecessary(invokeBinding(getBinder(values, expressions), jpaQuery));
         }
 
+        /******************************************
+         * Christian Beikov:
+         * The following methods compile queries into templates per query shape.
+         ******************************************/
+        private Query createQueryFromTemplate(ParametersParameterAccessor accessor, Object[] values) {
+            Class<?> entityViewClass = getEntityViewClass(values);
+            QueryTemplateCache.Key key = new QueryTemplateCache.Key(entityViewClass, getSort(values), getNullParameters(accessor, values));
+            QueryTemplateCache.Entry entry = queryTemplateCache.get(key);
+            List<ParameterMetadataProvider.ParameterMetadata<?>> expressions;
+            TypedQuery<?> jpaQuery;
+            if (entry == null) {
+                FixedJpaQueryCreator creator = createCreator(accessor, persistenceProvider);
+                CriteriaQuery<?> criteriaQuery = invokeQueryCreator(creator, appliesSortThroughAttributeSorters() ? null : getDynamicSort(values));
+                com.blazebit.persistence.CriteriaBuilder<?> cb = ((BlazeCriteriaQuery<?>) criteriaQuery).createCriteriaBuilder(getEntityManager());
+                FullQueryBuilder<?, ?> fqb;
+                if (entityViewClass == null) {
+                    fqb = cb;
+                } else {
+                    EntityViewSetting<?, ?> setting = EntityViewSetting.create(entityViewClass);
+                    fqb = evm.applySetting(setting, cb);
+                    processSort(fqb, values, entityViewClass, Collections.<String, Sorter>emptyMap());
+                }
+                QueryTemplate<?> template = null;
+                if (fqb instanceof com.blazebit.persistence.CriteriaBuilder<?>) {
+                    try {
+                        template = ((com.blazebit.persistence.CriteriaBuilder<?>) fqb).compile();
+                    } catch (IllegalStateException ex) {
+                        // The query can't be compiled, so we remember that and build the query for every invocation
+                    }
+                }
+                expressions = creator.getParameterExpressions();
+                queryTemplateCache.putIfAbsent(key, new QueryTemplateCache.Entry(template, expressions));
+                jpaQuery = template == null ? fqb.getQuery() : template.bind(getEntityManager());
+            } else if (entry.getTemplate() == null) {
+                FixedJpaQueryCreator creator = createCreator(accessor, persistenceProvider);
+                CriteriaQuery<?> criteriaQuery = invokeQueryCreator(creator, appliesSortThroughAttributeSorters() ? null : getDynamicSort(values));
+                expressions = creator.getParameterExpressions();
+                jpaQuery = createQuery0(criteriaQuery, values);
+            } else {
+                expressions = entry.getExpressions();
+                jpaQuery = entry.getTemplate().bind(getEntityManager());
+            }
+            if (entityViewClass != null && parameters.hasDynamicProjection()) {
+                // The dynamic projection is an entity view, so we null it for the result processor
+                values[parameters.getDynamicProjectionIndex()] = null;
+            }
+
+            return restrictMaxResultsIfNecessary(invokeBinding(getBinder(values, expressions), jpaQuery));
+        }
+
+        private Class<?> getEntityViewClass(Object[] values) {
+            if (parameters.hasDynamicProjection()) {
+                Class<?> entityViewClass = (Class<?>) values[parameters.getDynamicProjectionIndex()];
+                if (evm.getMetamodel().managedView(entityViewClass) == null) {
+                    return null;
+                }
+                return entityViewClass;
+            }
+            return AbstractPartTreeBlazePersistenceQuery.this.entityViewClass;
+        }
+
+        private Sort getSort(Object[] values) {
+            Sort sort = null;
+            int sortIndex;
+            int pageableIndex;
+            if ((sortIndex = parameters.getSortIndex()) >= 0) {
+                sort = (Sort) values[sortIndex];
+            }
+            if (sort == null && (pageableIndex = parameters.getPageableIndex()) >= 0) {
+                Pageable pageable = (Pageable) values[pageableIndex];
+                if (pageable != null) {
+                    sort = pageable.getSort();
+                }
+            }
+            return sort;
+        }
+
+        private boolean[] getNullParameters(ParametersParameterAccessor accessor, Object[] values) {
+            // Null parameter values are rendered as IS NULL predicates, so they are part of the query shape
+            if (!accessor.hasBindableNullValue()) {
+                return null;
+            }
+            JpaParameters bindableParameters = parameters.getBindableParameters();
+            boolean[] nullParameters = new boolean[bindableParameters.getNumberOfParameters()];
+            Iterator<JpaParameter> iterator = bindableParameters.iterator();
+            for (int i = 0; i < nullParameters.length; i++) {
+                nullParameters[i] = values[iterator.next().getIndex()] == null;
+            }
+            return nullParameters;
+        }
+        /******************************************
+         * end of changes
+         ******************************************/
+
         private boolean appliesSortThroughAttributeSorters() {
             return entityViewClass != null || parameters.hasDynamicProjection();
         }
@@ -0,0 +1,285 @@
+/*
+ * SPDX-License-Identifier: Apache-2.0
+ * Copyright Blazebit
+ */
+
+package com.blazebit.persistence.spring.data.testsuite.webmvc;
+
+import com.blazebit.persistence.CacheStatistics;
+import com.blazebit.persistence.integration.view.spring.EnableEntityViews;
+import com.blazebit.persistence.spring.data.base.query.AbstractPartTreeBlazePersistenceQuery;
+import com.blazebit.persistence.spring.data.repository.config.EnableBlazeRepositories;
+import com.blazebit.persistence.spring.data.testsuite.webmvc.entity.Document;
+import com.blazebit.persistence.spring.data.testsuite.webmvc.entity.Person;
+import com.blazebit.persistence.spring.data.testsuite.webmvc.repository.QueryTemplateDocumentRepository;
+import com.blazebit.persistence.spring.data.testsuite.webmvc.repository.QueryTemplatePersonRepository;
+import com.blazebit.persistence.spring.data.testsuite.webmvc.tx.TransactionalWorkService;
+import com.blazebit.persistence.spring.data.testsuite.webmvc.tx.TxWork;
+import com.blazebit.persistence.spring.data.testsuite.webmvc.view.DocumentNameView;
+import com.blazebit.persistence.spring.data.testsuite.webmvc.view.PersonWithDocumentsView;
+import com.blazebit.persistence.view.EntityViewManager;
+import org.junit.Test;
+import org.springframework.aop.Advisor;
+import org.springframework.aop.framework.Advised;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.ComponentScan;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.FilterType;
+import org.springframework.context.annotation.ImportResource;
+import org.springframework.data.domain.Pageable;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.ContextConfiguration;
+import org.springframework.util.ReflectionUtils;
+
+import javax.persistence.EntityManager;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * Tests that the query templates of derived query methods are cached per query shape.
+ *
+ * @author Christian Beikov
+ * @since 1.6.19
+ */
+@ContextConfiguration(classes = QueryTemplateCacheTest.TestConfig.class)
+@DirtiesContext(classMode = DirtiesContext.ClassMode.AFTER_EACH_TEST_METHOD)
+public class QueryTemplateCacheTest extends AbstractSpringTest {
+
+    private static final int DEFAULT_MAXIMUM_SIZE = AbstractPartTreeBlazePersistenceQuery.DEFAULT_QUERY_TEMPLATE_CACHE_MAXIMUM_SIZE;
+
+    @Autowired
+    private QueryTemplateDocumentRepository documentRepository;
+    @Autowired
+    private QueryTemplatePersonRepository personRepository;
+    @Autowired
+    private TransactionalWorkService transactionalWorkService;
+
+    @Test
+    public void testHitWithDifferentArgumentValue() throws Exception {
+        // Given
+        Document d1 = createDocument("A", null, 0L, null);
+        Document d2 = createDocument("B", null, 0L, null);
+        CacheStatistics statistics = getStatistics(documentRepository, QueryTemplateDocumentRepository.class.getMethod("findByName", String.class));
+
+        // When
+        List<DocumentNameView> first = documentRepository.findByName("A");
+        List<DocumentNameView> second = documentRepository.findByName("B");
+
+        // Then
+        assertEquals(Collections.singletonList(d1.getId()), ids(first));
+        assertEquals(Collections.singletonList(d2.getId()), ids(second));
+        assertEquals(1, statistics.getSize());
+        assertEquals(1L, statistics.getMissCount());
+        assertEquals(1L, statistics.getHitCount());
+    }
+
+    @Test
+    public void testSortIsPartOfShape() throws Exception {
+        // Given
+        Document d1 = createDocument("A", null, 1L, null);
+        Document d2 = createDocument("B", null, 2L, null);
+        CacheStatistics statistics = getStatistics(documentRepository, QueryTemplateDocumentRepository.class.getMethod("findByAgeGreaterThanEqual", long.class, org.springframework.data.domain.Sort.class));
+
+        // When
+        List<DocumentNameView> ascending = documentRepository.findByAgeGreaterThanEqual(0L, Sort.asc("name"));
+        List<DocumentNameView> descending = documentRepository.findByAgeGreaterThanEqual(0L, Sort.desc("name"));
+        List<DocumentNameView> ascendingAgain = documentRepository.findByAgeGreaterThanEqual(2L, Sort.asc("name"));
+
+        // Then
+        assertEquals(Arrays.asList(d1.getId(), d2.getId()), ids(ascending));
+        assertEquals(Arrays.asList(d2.getId(), d1.getId()), ids(descending));
+        assertEquals(Collections.singletonList(d2.getId()), ids(ascendingAgain));
+        assertEquals(2, statistics.getSize());
+        assertEquals(2L, statistics.getMissCount());
+        assertEquals(1L, statistics.getHitCount());
+    }
+
+    @Test
+    public void testPageableSortIsPartOfShape() throws Exception {
+        // Given
+        Document d1 = createDocument("A", null, 1L, null);
+        Document d2 = createDocument("B", null, 2L, null);
+        CacheStatistics statistics = getStatistics(documentRepository, QueryTemplateDocumentRepository.class.getMethod("findByAgeLessThanEqual", long.class, Pageable.class));
+
+        // When
+        List<DocumentNameView> firstPage = documentRepository.findByAgeLessThanEqual(2L, new PageRequest(0, 1, "name"));
+        List<DocumentNameView> secondPage = documentRepository.findByAgeLessThanEqual(2L, new PageRequest(1, 1, "name"));
+        List<DocumentNameView> firstPageDescending = documentRepository.findByAgeLessThanEqual(2L, new PageRequest(0, 1, org.springframework.data.domain.Sort.Direction.DESC, "name"));
+
+        // Then
+        // The offset and limit of the pageable are applied per invocation, so only the sort influences the shape
+        assertEquals(Collections.singletonList(d1.getId()), ids(firstPage));
+        assertEquals(Collections.singletonList(d2.getId()), ids(secondPage));
+        assertEquals(Collections.singletonList(d2.getId()), ids(firstPageDescending));
+        assertEquals(2, statistics.getSize());
+        assertEquals(2L, statistics.getMissCount());
+        assertEquals(1L, statistics.getHitCount());
+    }
+
+    @Test
+    public void testNullArgumentIsPartOfShape() throws Exception {
+        // Given
+        Document d1 = createDocument("A", "X", 0L, null);
+        Document d2 = createDocument("B", null, 0L, null);
+        Document d3 = createDocument("C", "Y", 0L, null);
+        CacheStatistics statistics = getStatistics(documentRepository, QueryTemplateDocumentRepository.class.getMethod("findByDescription", String.class));
+
+        // When
+        List<DocumentNameView> withDescription = documentRepository.findByDescription("X");
+        List<DocumentNameView> withoutDescription = documentRepository.findByDescription(null);
+        List<DocumentNameView> withOtherDescription = documentRepository.findByDescription("Y");
+        List<DocumentNameView> withoutDescriptionAgain = documentRepository.findByDescription(null);
+
+        // Then
+        // A null argument renders as IS NULL predicate, so it must not share the template of non-null arguments
+        assertEquals(Collections.singletonList(d1.getId()), ids(withDescription));
+        assertEquals(Collections.singletonList(d2.getId()), ids(withoutDescription));
+        assertEquals(Collections.singletonList(d3.getId()), ids(withOtherDescription));
+        assertEquals(Collections.singletonList(d2.getId()), ids(withoutDescriptionAgain));
+        assertEquals(2, statistics.getSize());
+        assertEquals(2L, statistics.getMissCount());
+        assertEquals(2L, statistics.getHitCount());
+    }
+
+    @Test
+    public void testNonCompilableQueryFallsBack() throws Exception {
+        // Given
+        Person p1 = createPerson("P1");
+        Person p2 = createPerson("P2");
+        Document d1 = createDocument("A", null, 0L, p1);
+        Document d2 = createDocument("B", null, 0L, p1);
+        Document d3 = createDocument("C", null, 0L, p2);
+        CacheStatistics statistics = getStatistics(personRepository, QueryTemplatePersonRepository.class.getMethod("findByName", String.class));
+
+        // When
+        // The collection of subviews requires an object builder that can't be used for a template
+        List<PersonWithDocumentsView> first = personRepository.findByName("P1");
+        List<PersonWithDocumentsView> second = personRepository.findByName("P2");
+
+        // Then
+        // The shape is remembered as not compilable and the query is built for every invocation
+        assertEquals(1, first.size());
+        assertEquals(p1.getId(), first.get(0).getId());
+        assertEquals(new HashSet<>(Arrays.asList(d1.getId(), d2.getId())), new HashSet<>(ids(first.get(0).getDocuments())));
+        assertEquals(1, second.size());
+        assertEquals(p2.getId(), second.get(0).getId());
+        assertEquals(Collections.singletonList(d3.getId()), ids(second.get(0).getDocuments()));
+        assertEquals(1, statistics.getSize());
+        assertEquals(1L, statistics.getMissCount());
+        assertEquals(1L, statistics.getHitCount());
+    }
+
+    @Test
+    public void testLeastRecentlyUsedShapeIsEvicted() throws Exception {
+        // Given
+        Document d1 = createDocument("A", null, 1L, null);
+        CacheStatistics statistics = getStatistics(documentRepository, QueryTemplateDocumentRepository.class.getMethod("findByAgeGreaterThanEqual", long.class, org.springframework.data.domain.Sort.class));
+        List<org.springframework.data.domain.Sort> sorts = createDistinctSorts(DEFAULT_MAXIMUM_SIZE + 1);
+
+        // When
+        for (org.springframework.data.domain.Sort sort : sorts) {
+            assertEquals(Collections.singletonList(d1.getId()), ids(documentRepository.findByAgeGreaterThanEqual(0L, sort)));
+        }
+
+        // Then
+        assertEquals(DEFAULT_MAXIMUM_SIZE, statistics.getSize());
+        assertEquals(DEFAULT_MAXIMUM_SIZE + 1L, statistics.getMissCount());
+        assertEquals(1L, statistics.getEvictionCount());
+
+        // The most recently used shape is still cached
+        documentRepository.findByAgeGreaterThanEqual(0L, sorts.get(DEFAULT_MAXIMUM_SIZE));
+        assertEquals(1L, statistics.getHitCount());
+        // The least recently used shape was evicted
+        documentRepository.findByAgeGreaterThanEqual(0L, sorts.get(0));
+        assertEquals(DEFAULT_MAXIMUM_SIZE + 2L, statistics.getMissCount());
+        assertEquals(2L, statistics.getEvictionCount());
+    }
+
+    private static List<org.springframework.data.domain.Sort> createDistinctSorts(int count) {
+        String[] properties = { "id", "name", "description", "age", "status" };
+        List<org.springframework.data.domain.Sort> sorts = new ArrayList<>(count);
+        for (org.springframework.data.domain.Sort.Direction direction : org.springframework.data.domain.Sort.Direction.values()) {
+            for (String property : properties) {
+                sorts.add(Sort.of(direction, property));
+            }
+        }
+        for (org.springframework.data.domain.Sort.Direction direction : org.springframework.data.domain.Sort.Direction.values()) {
+            for (String first : properties) {
+                for (String second : properties) {
+                    if (!first.equals(second)) {
+                        sorts.add(Sort.of(direction, first, second));
+                    }
+                }
+            }
+        }
+        return sorts.subList(0, count);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static CacheStatistics getStatistics(Object repository, Method queryMethod) {
+        // The repository queries are held by the query executor interceptor of the repository proxy
+        for (Advisor advisor : ((Advised) repository).getAdvisors()) {
+            Field queriesField = ReflectionUtils.findField(advisor.getAdvice().getClass(), "queries");
+            if (queriesField != null) {
+                ReflectionUtils.makeAccessible(queriesField);
+                Map<Method, Object> queries = (Map<Method, Object>) ReflectionUtils.getField(queriesField, advisor.getAdvice());
+                return ((AbstractPartTreeBlazePersistenceQuery) queries.get(queryMethod)).getQueryTemplateCacheStatistics();
+            }
+        }
+        throw new IllegalStateException("No query executor found for repository: " + repository);
+    }
+
+    private static List<Long> ids(Iterable<DocumentNameView> views) {
+        List<Long> ids = new ArrayList<>();
+        for (DocumentNameView view : views) {
+            ids.add(view.getId());
+        }
+        return ids;
+    }
+
+    private Person createPerson(final String name) {
+        return transactionalWorkService.doTxWork(new TxWork<Person>() {
+            @Override
+            public Person work(EntityManager em, EntityViewManager evm) {
+                Person p = new Person(name);
+                em.persist(p);
+                return p;
+            }
+        });
+    }
+
+    private Document createDocument(final String name, final String description, final long age, final Person owner) {
+        return transactionalWorkService.doTxWork(new TxWork<Document>() {
+            @Override
+            public Document work(EntityManager em, EntityViewManager evm) {
+                Document d = new Document(name);
+                d.setDescription(description);
+                d.setAge(age);
+                em.persist(d);
+                if (owner != null) {
+                    d.setOwner(em.getReference(Person.class, owner.getId()));
+                }
+                return d;
+            }
+        });
+    }
+
+    @Configuration
+    @ComponentScan(excludeFilters = @ComponentScan.Filter(type = FilterType.REGEX, pattern = ".*TestConfig"))
+    @ImportResource("classpath:/com/blazebit/persistence/spring/data/testsuite/webmvc/application-config.xml")
+    @EnableEntityViews(basePackages = "com.blazebit.persistence.spring.data.testsuite.webmvc.view")
+    @EnableBlazeRepositories(
+            basePackages = "com.blazebit.persistence.spring.data.testsuite.webmvc.repository",
+            entityManagerFactoryRef = "myEmf"
+    )
+    static class TestConfig {
+    }
+}
@@ -0,0 +1,32 @@
+/*
+ * SPDX-License-Identifier: Apache-2.0
+ * Copyright Blazebit
+ */
+
+package com.blazebit.persistence.spring.data.testsuite.webmvc.repository;
+
+import com.blazebit.persistence.spring.data.repository.EntityViewRepository;
+import com.blazebit.persistence.spring.data.testsuite.webmvc.view.DocumentNameView;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+
+/**
+ * @author Christian Beikov
+ * @since 1.6.19
+ */
+@Repository
+@Transactional(readOnly = true)
+public interface QueryTemplateDocumentRepository extends EntityViewRepository<DocumentNameView, Long> {
+
+    List<DocumentNameView> findByName(String name);
+
+    List<DocumentNameView> findByDescription(String description);
+
+    List<DocumentNameView> findByAgeGreaterThanEqual(long age, Sort sort);
+
+    List<DocumentNameView> findByAgeLessThanEqual(long age, Pageable pageable);
+}
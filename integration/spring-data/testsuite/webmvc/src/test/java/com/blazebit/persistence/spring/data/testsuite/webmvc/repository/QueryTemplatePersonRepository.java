@@ -0,0 +1,24 @@
+/*
+ * SPDX-License-Identifier: Apache-2.0
+ * Copyright Blazebit
+ */
+
+package com.blazebit.persistence.spring.data.testsuite.webmvc.repository;
+
+import com.blazebit.persistence.spring.data.repository.EntityViewRepository;
+import com.blazebit.persistence.spring.data.testsuite.webmvc.view.PersonWithDocumentsView;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+
+/**
+ * @author Christian Beikov
+ * @since 1.6.19
+ */
+@Repository
+@Transactional(readOnly = true)
+public interface QueryTemplatePersonRepository extends EntityViewRepository<PersonWithDocumentsView, String> {
+
+    List<PersonWithDocumentsView> findByName(String name);
+}
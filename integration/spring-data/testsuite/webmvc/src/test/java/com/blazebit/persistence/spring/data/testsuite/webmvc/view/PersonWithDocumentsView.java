@@ -0,0 +1,28 @@
+/*
+ * SPDX-License-Identifier: Apache-2.0
+ * Copyright Blazebit
+ */
+
+package com.blazebit.persistence.spring.data.testsuite.webmvc.view;
+
+import com.blazebit.persistence.spring.data.testsuite.webmvc.entity.Person;
+import com.blazebit.persistence.view.EntityView;
+import com.blazebit.persistence.view.IdMapping;
+
+import java.util.Set;
+
+/**
+ * @author Christian Beikov
+ * @since 1.6.19
+ */
+@EntityView(Person.class)
+public interface PersonWithDocumentsView {
+
+    @IdMapping
+    String getId();
+
+    String getName();
+
+    Set<DocumentNameView> getDocuments();
+
+}